@@ -27,4 +27,12 @@ import org.freeplane.n3.nanoxml.XMLElement;
  */
 public interface IElementDOMHandler extends IElementHandler {
 	void endElement(Object parent, String tag, Object element, XMLElement dom);
+
+	/**
+	 * Handlers returning false get a null dom from {@link org.freeplane.core.io.xml.StreamingTreeXmlReader}
+	 * if the element has neither unknown attributes nor content nor unknown child elements.
+	 */
+	default boolean requiresDom() {
+		return true;
+	}
 }
@@ -21,6 +21,7 @@ package org.freeplane.core.io;
 
 import java.util.Map;
 
+import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 
 /**
@@ -28,4 +29,8 @@ import org.freeplane.features.map.NodeModel;
  */
 public interface IReadCompletionListener {
 	public void readingCompleted(NodeModel topNode, Map<String, String> newIds);
+
+	/** Called instead of {@link #readingCompleted(NodeModel, Map)} if the map could not be read. */
+	default void readingAborted(MapModel map) {
+	}
 }
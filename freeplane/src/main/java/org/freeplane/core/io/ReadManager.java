@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Map;
 
+import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 
 public class ReadManager {
@@ -83,6 +84,12 @@ public class ReadManager {
 		}
 	}
 
+	public void readingAborted(final MapModel map) {
+		for (final IReadCompletionListener listener : readCompletionListeners) {
+			listener.readingAborted(map);
+		}
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see freeplane.persistence.Reader#removeAttributeLoader(java.lang.String,
@@ -0,0 +1,110 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.io.xml;
+
+/**
+ * Symbol table for element and attribute names.
+ *
+ * Equal names always resolve to the same string instance,
+ * so that handlers can be looked up by identity
+ * and no string is allocated for names seen before.
+ */
+class NameTable {
+	private static final int INITIAL_CAPACITY = 256;
+	private String[] table;
+	private int size;
+
+	NameTable() {
+		table = new String[INITIAL_CAPACITY];
+		size = 0;
+	}
+
+	String intern(final char[] chars, final int offset, final int length) {
+		int hash = 0;
+		for (int i = offset; i < offset + length; i++) {
+			hash = 31 * hash + chars[i];
+		}
+		final int mask = table.length - 1;
+		int index = spread(hash) & mask;
+		for (;;) {
+			final String name = table[index];
+			if (name == null) {
+				return add(new String(chars, offset, length), index);
+			}
+			if (name.hashCode() == hash && matches(name, chars, offset, length)) {
+				return name;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	String intern(final String name) {
+		final int mask = table.length - 1;
+		int index = spread(name.hashCode()) & mask;
+		for (;;) {
+			final String existing = table[index];
+			if (existing == null) {
+				return add(name, index);
+			}
+			if (existing.equals(name)) {
+				return existing;
+			}
+			index = (index + 1) & mask;
+		}
+	}
+
+	private String add(final String name, final int index) {
+		table[index] = name;
+		size++;
+		if (2 * size > table.length) {
+			rehash();
+		}
+		return name;
+	}
+
+	private void rehash() {
+		final String[] oldTable = table;
+		table = new String[2 * oldTable.length];
+		final int mask = table.length - 1;
+		for (final String name : oldTable) {
+			if (name == null) {
+				continue;
+			}
+			int index = spread(name.hashCode()) & mask;
+			while (table[index] != null) {
+				index = (index + 1) & mask;
+			}
+			table[index] = name;
+		}
+	}
+
+	private static int spread(final int hash) {
+		return hash ^ (hash >>> 16);
+	}
+
+	private static boolean matches(final String name, final char[] chars, final int offset, final int length) {
+		if (name.length() != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (name.charAt(i) != chars[offset + i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
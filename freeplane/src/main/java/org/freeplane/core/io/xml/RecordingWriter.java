@@ -0,0 +1,106 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+
+/**
+ * Writer which passes everything to the target writer
+ * and additionally copies the output into nested recordings.
+ *
+ * Only the innermost recording receives the output, and only while it is not paused.
+ */
+class RecordingWriter extends Writer {
+	private static class Recording {
+		final StringBuilder content = new StringBuilder();
+		boolean paused = false;
+	}
+
+	private final Writer target;
+	private final ArrayList<Recording> recordings;
+	private Recording current;
+
+	RecordingWriter(final Writer target) {
+		super();
+		this.target = target;
+		recordings = new ArrayList<Recording>();
+		current = null;
+	}
+
+	void startRecording() {
+		current = new Recording();
+		recordings.add(current);
+	}
+
+	String pauseRecording() {
+		final String content = current.content.toString();
+		current.content.setLength(0);
+		current.paused = true;
+		return content;
+	}
+
+	void resumeRecording() {
+		current.paused = false;
+	}
+
+	String stopRecording() {
+		final String content = current.content.toString();
+		recordings.remove(recordings.size() - 1);
+		current = recordings.isEmpty() ? null : recordings.get(recordings.size() - 1);
+		return content;
+	}
+
+	private boolean isRecording() {
+		return current != null && !current.paused;
+	}
+
+	@Override
+	public void write(final int c) throws IOException {
+		if (isRecording()) {
+			current.content.append((char) c);
+		}
+		target.write(c);
+	}
+
+	@Override
+	public void write(final char[] cbuf, final int off, final int len) throws IOException {
+		if (isRecording()) {
+			current.content.append(cbuf, off, len);
+		}
+		target.write(cbuf, off, len);
+	}
+
+	@Override
+	public void write(final String str, final int off, final int len) throws IOException {
+		if (isRecording()) {
+			current.content.append(str, off, off + len);
+		}
+		target.write(str, off, len);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		target.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		target.close();
+	}
+}
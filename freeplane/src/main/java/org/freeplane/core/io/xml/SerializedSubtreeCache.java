@@ -0,0 +1,196 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import org.freeplane.core.extension.IExtension;
+
+/**
+ * Keeps the serialized form of tree elements between two writes.
+ *
+ * For each element the text written before its child elements (head)
+ * and after them (tail) is recorded separately.
+ * An element which has not been invalidated since it was recorded is written by splicing its head and tail
+ * around its child elements, which are looked up in the cache in the same way.
+ * So changing an element requires serializing only the element itself, not its ancestors or descendants.
+ *
+ * Element writers call {@link #writeElement} instead of {@link TreeXmlWriter#addElement(Object, String)}
+ * and enclose writing of child elements with {@link #childElementsStarting} and {@link #childElementsFinished}.
+ */
+public class SerializedSubtreeCache implements IExtension {
+	public interface ChildElementWriter {
+		void writeChildElements() throws IOException;
+	}
+
+	private static class Entry {
+		final String head;
+		final String tail;
+		final boolean hasChildElements;
+		final Object stamp;
+
+		Entry(final String head, final String tail, final boolean hasChildElements, final Object stamp) {
+			this.head = head;
+			this.tail = tail;
+			this.hasChildElements = hasChildElements;
+			this.stamp = stamp;
+		}
+	}
+
+	private static class Frame {
+		final Object element;
+		String head;
+
+		Frame(final Object element) {
+			this.element = element;
+		}
+	}
+
+	private final Map<Object, Entry> entries;
+	private final ArrayList<Frame> frames;
+	private Object context;
+	private long invalidations;
+	private int hits;
+	private int misses;
+
+	public SerializedSubtreeCache() {
+		super();
+		entries = new WeakHashMap<Object, Entry>();
+		frames = new ArrayList<Frame>();
+	}
+
+	/**
+	 * Drops all entries if the given context, e.g. writer settings, differs from the context of the last write.
+	 */
+	public synchronized void setContext(final Object context) {
+		if (this.context == null ? context != null : !this.context.equals(context)) {
+			clear();
+			this.context = context;
+		}
+	}
+
+	public synchronized void invalidate(final Object element) {
+		invalidations++;
+		entries.remove(element);
+	}
+
+	public synchronized void clear() {
+		invalidations++;
+		entries.clear();
+	}
+
+	private synchronized long getInvalidations() {
+		return invalidations;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private synchronized Entry get(final Object element) {
+		return entries.get(element);
+	}
+
+	private synchronized void put(final Object element, final Entry entry, final long invalidationsBeforeWriting) {
+		if (invalidations == invalidationsBeforeWriting) {
+			entries.put(element, entry);
+		}
+	}
+
+	/**
+	 * Writes the element with the given user object.
+	 *
+	 * @param stamp describes element state which is not reported by invalidation,
+	 * cached content is only used if its stamp equals the given one.
+	 * @param childElementWriter writes the child elements between cached head and tail.
+	 */
+	public void writeElement(final TreeXmlWriter writer, final Object element, final String name, final Object stamp,
+	                         final ChildElementWriter childElementWriter) throws IOException {
+		final Entry entry = get(element);
+		if (entry != null && entry.stamp.equals(stamp)) {
+			hits++;
+			writer.addSerializedContent(entry.head);
+			if (entry.hasChildElements) {
+				childElementWriter.writeChildElements();
+			}
+			writer.addSerializedContent(entry.tail);
+			return;
+		}
+		misses++;
+		final long invalidationsBeforeWriting = getInvalidations();
+		final Frame frame = new Frame(element);
+		frames.add(frame);
+		writer.startRecording();
+		boolean completed = false;
+		try {
+			writer.addElement(element, name);
+			completed = true;
+		}
+		finally {
+			frames.remove(frames.size() - 1);
+			final String content = writer.stopRecording();
+			if (completed) {
+				if (frame.head != null) {
+					put(element, new Entry(frame.head, content, true, stamp), invalidationsBeforeWriting);
+				}
+				else {
+					put(element, new Entry(content, "", false, stamp), invalidationsBeforeWriting);
+				}
+			}
+		}
+	}
+
+	public void childElementsStarting(final TreeXmlWriter writer, final Object element) throws IOException {
+		final Frame frame = currentFrame(element);
+		if (frame != null && frame.head == null) {
+			frame.head = writer.pauseRecording();
+		}
+	}
+
+	public void childElementsFinished(final TreeXmlWriter writer, final Object element) {
+		final Frame frame = currentFrame(element);
+		if (frame != null && frame.head != null) {
+			writer.resumeRecording();
+		}
+	}
+
+	private Frame currentFrame(final Object element) {
+		if (frames.isEmpty()) {
+			return null;
+		}
+		final Frame frame = frames.get(frames.size() - 1);
+		return frame.element == element ? frame : null;
+	}
+
+	/** Number of elements written from the cache since the last {@link #resetStatistics()} */
+	public int getHits() {
+		return hits;
+	}
+
+	/** Number of elements serialized since the last {@link #resetStatistics()} */
+	public int getMisses() {
+		return misses;
+	}
+
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+	}
+}
@@ -0,0 +1,334 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Hashtable;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.freeplane.core.io.IAttributeHandler;
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ITreeReader;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.freeplane.n3.nanoxml.XMLException;
+
+/**
+ * Streaming alternative to {@link TreeXmlReader}.
+ *
+ * It calls the handlers registered by the {@link ReadManager} in the same order and with the same arguments,
+ * but it resolves handlers once per tag and creates {@link XMLElement}s only for elements
+ * which are passed to handlers or keep unknown attributes, content or child elements.
+ */
+public class StreamingTreeXmlReader implements ITreeReader {
+	private static final IElementHandler[] NO_HANDLERS = new IElementHandler[0];
+
+	private static class TagHandlers {
+		final IElementHandler[] elementHandlers;
+		final Map<String, IAttributeHandler> attributeHandlers;
+
+		TagHandlers(final IElementHandler[] elementHandlers, final Map<String, IAttributeHandler> attributeHandlers) {
+			this.elementHandlers = elementHandlers;
+			this.attributeHandlers = attributeHandlers;
+		}
+	}
+
+	private static class ElementFrame {
+		String tag;
+		String fullName;
+		int lineNr;
+		Object element;
+		IElementHandler handler;
+		XMLElement dom;
+		boolean domLinked;
+		boolean savesXml;
+		boolean readsRawContent;
+		String rawContent;
+
+		boolean keepsContent() {
+			return savesXml || handler instanceof IElementDOMHandler || handler instanceof IElementContentHandler;
+		}
+
+		void clear() {
+			tag = null;
+			fullName = null;
+			element = null;
+			handler = null;
+			dom = null;
+			domLinked = false;
+			savesXml = false;
+			readsRawContent = false;
+			rawContent = null;
+		}
+	}
+
+	final private ReadManager readManager;
+	final private NameTable names;
+	final private Map<String, TagHandlers> resolvedTags;
+	private ElementFrame[] frames;
+	private int depth;
+	private Object rootElement;
+	private XMLTokenizer tokenizer;
+
+	public StreamingTreeXmlReader(final ReadManager readManager) {
+		super();
+		this.readManager = readManager;
+		names = new NameTable();
+		resolvedTags = new IdentityHashMap<String, TagHandlers>();
+		frames = new ElementFrame[32];
+	}
+
+	@Override
+	public void load(final Object currentElement, final Reader reader) throws XMLException {
+		rootElement = currentElement;
+		depth = 0;
+		tokenizer = new XMLTokenizer(reader, names);
+		try {
+			for (;;) {
+				switch (tokenizer.next()) {
+					case XMLTokenizer.START_ELEMENT:
+						startElement();
+						break;
+					case XMLTokenizer.TEXT:
+						addText(tokenizer.getText());
+						break;
+					case XMLTokenizer.END_ELEMENT:
+						endElement();
+						break;
+					default:
+						return;
+				}
+			}
+		}
+		catch (final IOException e) {
+			throw new XMLException(e);
+		}
+		finally {
+			while (depth > 0) {
+				frames[--depth].clear();
+			}
+			tokenizer = null;
+			rootElement = null;
+		}
+	}
+
+	private void startElement() throws IOException, XMLException {
+		final ElementFrame parent = depth > 0 ? frames[depth - 1] : null;
+		final ElementFrame frame = pushFrame();
+		frame.tag = tokenizer.getLocalName();
+		frame.fullName = tokenizer.getFullName();
+		frame.lineNr = tokenizer.getLineNr();
+		if (parent != null && parent.savesXml) {
+			frame.savesXml = true;
+			addAllAttributes(ensureDom(depth - 1));
+			return;
+		}
+		final Object parentElement = parent != null ? parent.element : rootElement;
+		final TagHandlers handlers = resolve(frame.tag);
+		if (handlers.elementHandlers.length == 1) {
+			final IElementHandler handler = handlers.elementHandlers[0];
+			final Object element = createElement(handler, parentElement, frame.tag, null);
+			if (element != null) {
+				frame.element = element;
+				frame.handler = handler;
+				final int attributeCount = tokenizer.getAttributeCount();
+				for (int i = 0; i < attributeCount; i++) {
+					final String value = tokenizer.getAttributeValue(i);
+					if (!setAttribute(handlers, element, tokenizer.getAttributeLocalName(i), value)) {
+						ensureDom(depth - 1).setAttribute(tokenizer.getAttributeFullName(i), value);
+					}
+				}
+				if (handler instanceof IElementContentHandler) {
+					frame.readsRawContent = true;
+					frame.rawContent = tokenizer.readRawContent();
+				}
+				return;
+			}
+		}
+		final XMLElement dom = ensureDom(depth - 1);
+		addAllAttributes(dom);
+		for (final IElementHandler handler : handlers.elementHandlers) {
+			final Object element = createElement(handler, parentElement, frame.tag, dom);
+			if (element != null) {
+				frame.element = element;
+				frame.handler = handler;
+				break;
+			}
+		}
+		if (frame.element == null) {
+			frame.savesXml = true;
+			return;
+		}
+		if (frame.handler instanceof IElementContentHandler
+		        && ((IElementContentHandler) frame.handler).containsXml(dom)) {
+			frame.readsRawContent = true;
+			frame.rawContent = tokenizer.readRawContent();
+		}
+		if (handlers.attributeHandlers == null) {
+			return;
+		}
+		final int attributeCount = tokenizer.getAttributeCount();
+		for (int i = 0; i < attributeCount; i++) {
+			final String attributeName = tokenizer.getAttributeFullName(i);
+			if (setAttribute(handlers, frame.element, attributeName, tokenizer.getAttributeValue(i))) {
+				dom.removeAttribute(attributeName);
+			}
+		}
+	}
+
+	private void addText(final String text) {
+		final ElementFrame frame = frames[depth - 1];
+		if (!frame.keepsContent()) {
+			return;
+		}
+		final XMLElement dom = ensureDom(depth - 1);
+		final XMLElement pcData = new XMLElement(null, null, frame.lineNr);
+		pcData.setContent(text);
+		dom.addChild(pcData);
+	}
+
+	private void endElement() {
+		final int index = depth - 1;
+		final ElementFrame frame = frames[index];
+		final XMLElement dom = frame.dom;
+		if (dom != null && dom.getChildrenCount() == 1) {
+			final XMLElement child = dom.getChildAtIndex(0);
+			if (child.getName() == null) {
+				dom.setContent(child.getContent());
+				dom.removeChildAtIndex(0);
+			}
+		}
+		if (!frame.savesXml) {
+			final Object parentElement = index > 0 ? frames[index - 1].element : rootElement;
+			final IElementHandler handler = frame.handler;
+			try {
+				if (handler instanceof IElementContentHandler) {
+					final IElementContentHandler contentHandler = (IElementContentHandler) handler;
+					final XMLElement element = ensureDom(index);
+					contentHandler.endElement(parentElement, frame.tag, frame.element, element,
+					    contentHandler.containsXml(element) ? frame.rawContent : element.getContent());
+				}
+				else if (handler instanceof IElementDOMHandler) {
+					final IElementDOMHandler domHandler = (IElementDOMHandler) handler;
+					final XMLElement element = dom != null || domHandler.requiresDom() ? ensureDom(index) : null;
+					domHandler.endElement(parentElement, frame.tag, frame.element, element);
+				}
+			}
+			catch (final Exception e) {
+				LogUtils.severe("Can not process element" + frame.tag, e);
+			}
+			if (frame.domLinked) {
+				final XMLElement parentDom = frames[index - 1].dom;
+				parentDom.removeChildAtIndex(parentDom.getChildrenCount() - 1);
+			}
+		}
+		frame.clear();
+		depth = index;
+	}
+
+	private ElementFrame pushFrame() {
+		if (depth == frames.length) {
+			final ElementFrame[] newFrames = new ElementFrame[2 * depth];
+			System.arraycopy(frames, 0, newFrames, 0, depth);
+			frames = newFrames;
+		}
+		ElementFrame frame = frames[depth];
+		if (frame == null) {
+			frame = new ElementFrame();
+			frames[depth] = frame;
+		}
+		depth++;
+		return frame;
+	}
+
+	private XMLElement ensureDom(final int index) {
+		final ElementFrame frame = frames[index];
+		if (frame.dom == null) {
+			frame.dom = new XMLElement(frame.fullName, null, null, frame.lineNr);
+			if (index > 0) {
+				ensureDom(index - 1).addChild(frame.dom);
+				frame.domLinked = true;
+			}
+		}
+		return frame.dom;
+	}
+
+	private void addAllAttributes(final XMLElement dom) {
+		final int attributeCount = tokenizer.getAttributeCount();
+		for (int i = 0; i < attributeCount; i++) {
+			dom.setAttribute(tokenizer.getAttributeFullName(i), tokenizer.getAttributeValue(i));
+		}
+	}
+
+	private Object createElement(final IElementHandler handler, final Object parent, final String tag,
+	                             final XMLElement attributes) {
+		try {
+			return handler.createElement(parent, tag, attributes);
+		}
+		catch (final Exception e) {
+			LogUtils.severe("Can not process element" + tag, e);
+			return null;
+		}
+	}
+
+	private boolean setAttribute(final TagHandlers handlers, final Object element, final String name,
+	                             final String value) {
+		if (handlers.attributeHandlers == null) {
+			return false;
+		}
+		final IAttributeHandler attributeHandler = handlers.attributeHandlers.get(name);
+		if (attributeHandler == null) {
+			return false;
+		}
+		try {
+			attributeHandler.setAttribute(element, value);
+			return true;
+		}
+		catch (final Exception e) {
+			LogUtils.severe("Can not process attribute" + name + " = '" + value + "'", e);
+			return false;
+		}
+	}
+
+	private TagHandlers resolve(final String tag) {
+		TagHandlers handlers = resolvedTags.get(tag);
+		if (handlers == null) {
+			final List<IElementHandler> elementHandlerList = readManager.getElementHandlers().list(tag);
+			final IElementHandler[] elementHandlers = elementHandlerList == null ? NO_HANDLERS
+			        : elementHandlerList.toArray(new IElementHandler[elementHandlerList.size()]);
+			final Hashtable<String, IAttributeHandler> attributeHandlerTable = readManager.getAttributeHandlers()
+			    .get(tag);
+			Map<String, IAttributeHandler> attributeHandlers = null;
+			if (attributeHandlerTable != null && !attributeHandlerTable.isEmpty()) {
+				attributeHandlers = new IdentityHashMap<String, IAttributeHandler>(attributeHandlerTable.size());
+				for (final Entry<String, IAttributeHandler> entry : attributeHandlerTable.entrySet()) {
+					attributeHandlers.put(names.intern(entry.getKey()), entry.getValue());
+				}
+			}
+			handlers = new TagHandlers(elementHandlers, attributeHandlers);
+			resolvedTags.put(tag, handlers);
+		}
+		return handlers;
+	}
+}
@@ -75,6 +75,7 @@ public class TreeXmlWriter implements ITreeWriter {
 	final private HashMap<Object, Object> hints;
 	final private WriteManager writeManager;
 	private XMLElement xmlElement;
+	final private RecordingWriter output;
 	final private XMLWriter xmlwriter;
 
 	public void flush() {
@@ -84,7 +85,8 @@ public class TreeXmlWriter implements ITreeWriter {
 	public TreeXmlWriter(final WriteManager writeManager, final Writer writer, boolean restrictedCharset) {
 		super();
 		this.writeManager = writeManager;
-		xmlwriter = new XMLWriter(writer, restrictedCharset);
+		output = new RecordingWriter(writer);
+		xmlwriter = new XMLWriter(output, restrictedCharset);
 		hints = new HashMap<Object, Object>();
 	}
 
@@ -163,11 +165,44 @@ public class TreeXmlWriter implements ITreeWriter {
 		if (content.equals("")) {
 			return;
 		}
+		startPendingElement();
+		xmlwriter.write(content);
+	}
+
+	/**
+	 * Writes a part of the tree which has been serialized before, e.g. by a {@link SerializedSubtreeCache}.
+	 */
+	public void addSerializedContent(final String xml) throws IOException {
+		if (xml.equals("")) {
+			return;
+		}
+		startPendingElement();
+		xmlwriter.writeSerialized(xml);
+	}
+
+	private void startPendingElement() throws IOException {
 		if (elementStarted == false && xmlElement != null) {
 			xmlwriter.write(xmlElement, true, 0, true, false);
 			elementStarted = true;
 		}
-		xmlwriter.write(content);
+	}
+
+	void startRecording() throws IOException {
+		startPendingElement();
+		output.startRecording();
+	}
+
+	String pauseRecording() throws IOException {
+		startPendingElement();
+		return output.pauseRecording();
+	}
+
+	void resumeRecording() {
+		output.resumeRecording();
+	}
+
+	String stopRecording() {
+		return output.stopRecording();
 	}
 
 	public void addExtensionAttributes(final Object map, final Collection<IExtension> extensions) {
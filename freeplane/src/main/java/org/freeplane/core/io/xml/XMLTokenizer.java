@@ -0,0 +1,639 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.io.xml;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.freeplane.n3.nanoxml.XMLParseException;
+
+/**
+ * Pull tokenizer for mind map files.
+ *
+ * It reads the same XML dialect as {@link XMLParser} and reports
+ * the same text and attribute values: line ends are normalized to '\n',
+ * whitespace only text between tags is dropped, leading whitespace of other text
+ * and whitespace inside of attribute values are replaced by blanks,
+ * only predefined entities and character references are resolved.
+ * Element and attribute names are interned by a {@link NameTable}.
+ * Namespace declarations are not interpreted.
+ */
+class XMLTokenizer {
+	static final int START_ELEMENT = 1;
+	static final int END_ELEMENT = 2;
+	static final int TEXT = 3;
+	static final int END_DOCUMENT = 4;
+
+	private static final int BUFFER_SIZE = 8192;
+	private static final int NO_CHAR = -2;
+
+	private final Reader reader;
+	private final NameTable names;
+	private final Map<String, String> localNames;
+	private final char[] buffer;
+	private int position;
+	private int limit;
+	private boolean skipLineFeed;
+	private int unreadChar;
+	private int lineNr;
+	private char[] nameBuffer;
+	private final StringBuilder textBuilder;
+	private String[] openElements;
+	private int depth;
+	private boolean pendingEnd;
+	private String fullName;
+	private String localName;
+	private String text;
+	private int attributeCount;
+	private String[] attributeNames;
+	private String[] attributeValues;
+	private int elementLineNr;
+
+	XMLTokenizer(final Reader reader, final NameTable names) {
+		this.reader = reader;
+		this.names = names;
+		localNames = new HashMap<String, String>();
+		buffer = new char[BUFFER_SIZE];
+		position = 0;
+		limit = 0;
+		unreadChar = NO_CHAR;
+		lineNr = 1;
+		nameBuffer = new char[64];
+		textBuilder = new StringBuilder(256);
+		openElements = new String[64];
+		depth = 0;
+		attributeNames = new String[16];
+		attributeValues = new String[16];
+	}
+
+	int next() throws IOException, XMLParseException {
+		if (pendingEnd) {
+			pendingEnd = false;
+			return endElement();
+		}
+		text = null;
+		for (;;) {
+			final int ch = read();
+			if (ch < 0) {
+				if (depth > 0) {
+					throw new XMLParseException(null, lineNr, "Unexpected end of data, missing </"
+					        + openElements[depth - 1] + ">");
+				}
+				return END_DOCUMENT;
+			}
+			if (ch == '<') {
+				final char next = readChar();
+				if (next == '/') {
+					readClosingTag();
+					return endElement();
+				}
+				else if (next == '!') {
+					if (readSpecialTag()) {
+						return TEXT;
+					}
+				}
+				else if (next == '?') {
+					skipProcessingInstruction();
+				}
+				else {
+					unread(next);
+					readStartTag();
+					return START_ELEMENT;
+				}
+			}
+			else if (depth == 0) {
+				if (!isWhitespace(ch)) {
+					throw new XMLParseException(null, lineNr, "Invalid input: `" + (char) ch + "'");
+				}
+			}
+			else {
+				unread(ch);
+				if (readText()) {
+					return TEXT;
+				}
+			}
+		}
+	}
+
+	String getFullName() {
+		return fullName;
+	}
+
+	String getLocalName() {
+		return localName;
+	}
+
+	int getAttributeCount() {
+		return attributeCount;
+	}
+
+	String getAttributeFullName(final int index) {
+		return attributeNames[index];
+	}
+
+	String getAttributeLocalName(final int index) {
+		return localName(attributeNames[index]);
+	}
+
+	String getAttributeValue(final int index) {
+		return attributeValues[index];
+	}
+
+	String getText() {
+		return text;
+	}
+
+	int getLineNr() {
+		return elementLineNr;
+	}
+
+	/**
+	 * Returns the unparsed content of the element started last
+	 * exactly like {@link XMLParser} does for elements containing xml.
+	 * The closing tag is consumed and reported by the following call of {@link #next()}.
+	 */
+	String readRawContent() throws IOException, XMLParseException {
+		if (pendingEnd) {
+			return null;
+		}
+		boolean inComment = false;
+		final StringBuilder waitingBuf = textBuilder;
+		waitingBuf.setLength(0);
+		int level = 1;
+		for (;;) {
+			char ch = readChar();
+			if (inComment) {
+				waitingBuf.append(ch);
+				if (ch != '-') {
+					continue;
+				}
+				ch = readChar();
+				waitingBuf.append(ch);
+				if (ch != '-') {
+					continue;
+				}
+				ch = readChar();
+				waitingBuf.append(ch);
+				if (ch != '>') {
+					continue;
+				}
+				inComment = false;
+				continue;
+			}
+			if (ch == '<') {
+				ch = readChar();
+				if (ch == '/') {
+					level--;
+					if (level == 0) {
+						break;
+					}
+				}
+				else if (ch == '!') {
+					final char read1 = readChar();
+					final char read2 = readChar();
+					if (read1 != '-' || read2 != '-') {
+						throw new XMLParseException(null, lineNr, "Invalid input: <!" + read1 + read2);
+					}
+					inComment = true;
+					waitingBuf.append("<!--");
+					continue;
+				}
+				else {
+					level++;
+				}
+				waitingBuf.append('<');
+			}
+			else if (ch == '/') {
+				ch = readChar();
+				if (ch == '>') {
+					level--;
+					if (level == 0) {
+						throw new XMLParseException(null, lineNr, "Invalid input: />");
+					}
+				}
+				else if (ch == '<') {
+					waitingBuf.append('/');
+					unread(ch);
+					continue;
+				}
+				waitingBuf.append('/');
+			}
+			waitingBuf.append(ch);
+		}
+		final String content = waitingBuf.toString();
+		readClosingTag();
+		pendingEnd = true;
+		return content;
+	}
+
+	private int endElement() {
+		depth--;
+		fullName = openElements[depth];
+		openElements[depth] = null;
+		localName = localName(fullName);
+		attributeCount = 0;
+		return END_ELEMENT;
+	}
+
+	private void readStartTag() throws IOException, XMLParseException {
+		elementLineNr = lineNr;
+		fullName = readName();
+		localName = localName(fullName);
+		clearAttributes();
+		skipWhitespace();
+		char ch;
+		for (;;) {
+			ch = readChar();
+			if (ch == '/' || ch == '>') {
+				break;
+			}
+			unread(ch);
+			final String attributeName = readName();
+			skipWhitespace();
+			if (readChar() != '=') {
+				throw new XMLParseException(null, lineNr, "Expected: `='");
+			}
+			skipWhitespace();
+			final String value = readAttributeValue();
+			if (!isNamespaceDeclaration(attributeName)) {
+				addAttribute(attributeName, value);
+			}
+			skipWhitespace();
+		}
+		if (depth == openElements.length) {
+			final String[] newOpenElements = new String[2 * depth];
+			System.arraycopy(openElements, 0, newOpenElements, 0, depth);
+			openElements = newOpenElements;
+		}
+		openElements[depth++] = fullName;
+		if (ch == '/') {
+			if (readChar() != '>') {
+				throw new XMLParseException(null, lineNr, "Expected: `>'");
+			}
+			pendingEnd = true;
+		}
+	}
+
+	private static boolean isNamespaceDeclaration(final String attributeName) {
+		return attributeName.equals("xmlns") || attributeName.startsWith("xmlns:");
+	}
+
+	private void clearAttributes() {
+		for (int i = 0; i < attributeCount; i++) {
+			attributeValues[i] = null;
+		}
+		attributeCount = 0;
+	}
+
+	private void addAttribute(final String name, final String value) {
+		if (attributeCount == attributeNames.length) {
+			final String[] newNames = new String[2 * attributeCount];
+			final String[] newValues = new String[2 * attributeCount];
+			System.arraycopy(attributeNames, 0, newNames, 0, attributeCount);
+			System.arraycopy(attributeValues, 0, newValues, 0, attributeCount);
+			attributeNames = newNames;
+			attributeValues = newValues;
+		}
+		attributeNames[attributeCount] = name;
+		attributeValues[attributeCount] = value;
+		attributeCount++;
+	}
+
+	private void readClosingTag() throws IOException, XMLParseException {
+		skipWhitespace();
+		final String name = readName();
+		if (depth == 0 || name != openElements[depth - 1]) {
+			throw new XMLParseException(null, lineNr, "Closing tag does not match opening tag: `"
+			        + (depth == 0 ? "" : openElements[depth - 1]) + "' != `" + name + "'");
+		}
+		skipWhitespace();
+		if (readChar() != '>') {
+			throw new XMLParseException(null, lineNr, "Expected: `>'");
+		}
+	}
+
+	private String readName() throws IOException {
+		int length = 0;
+		for (;;) {
+			final int ch = read();
+			if (ch == '_' || ch == ':' || ch == '-' || ch == '.' || (ch >= 'a' && ch <= 'z')
+			        || (ch >= 'A' && ch <= 'Z') || (ch >= '0' && ch <= '9') || ch > '~') {
+				if (length == nameBuffer.length) {
+					final char[] newBuffer = new char[2 * length];
+					System.arraycopy(nameBuffer, 0, newBuffer, 0, length);
+					nameBuffer = newBuffer;
+				}
+				nameBuffer[length++] = (char) ch;
+			}
+			else {
+				unread(ch);
+				break;
+			}
+		}
+		return names.intern(nameBuffer, 0, length);
+	}
+
+	private String localName(final String name) {
+		final int colonIndex = name.indexOf(':');
+		if (colonIndex <= 0) {
+			return name;
+		}
+		String localName = localNames.get(name);
+		if (localName == null) {
+			localName = names.intern(name.substring(colonIndex + 1));
+			localNames.put(name, localName);
+		}
+		return localName;
+	}
+
+	private String readAttributeValue() throws IOException, XMLParseException {
+		final char delimiter = readChar();
+		if (delimiter != '\'' && delimiter != '"') {
+			throw new XMLParseException(null, lineNr, "Expected: delimited string");
+		}
+		final StringBuilder value = textBuilder;
+		value.setLength(0);
+		for (;;) {
+			final char ch = readChar();
+			if (ch == delimiter) {
+				break;
+			}
+			else if (ch == '&') {
+				value.append(readReference());
+			}
+			else if (ch == '\t' || ch == '\n') {
+				value.append(' ');
+			}
+			else {
+				value.append(ch);
+			}
+		}
+		return value.toString();
+	}
+
+	private boolean readText() throws IOException, XMLParseException {
+		final StringBuilder content = textBuilder;
+		content.setLength(0);
+		int ch;
+		for (;;) {
+			ch = read();
+			if (ch == '\n') {
+				content.append('\n');
+			}
+			else if (ch == ' ' || ch == '\t') {
+				content.append(' ');
+			}
+			else {
+				break;
+			}
+		}
+		if (ch < 0 || ch == '<') {
+			unread(ch);
+			return false;
+		}
+		for (;;) {
+			if (ch == '&') {
+				content.append(readReference());
+			}
+			else {
+				content.append((char) ch);
+			}
+			ch = read();
+			if (ch < 0 || ch == '<') {
+				unread(ch);
+				break;
+			}
+		}
+		text = content.toString();
+		return true;
+	}
+
+	private char readReference() throws IOException, XMLParseException {
+		final StringBuilder reference = new StringBuilder(8);
+		for (;;) {
+			final char ch = readChar();
+			if (ch == ';') {
+				break;
+			}
+			reference.append(ch);
+		}
+		if (reference.length() > 1 && reference.charAt(0) == '#') {
+			try {
+				if (reference.charAt(1) == 'x') {
+					return (char) Integer.parseInt(reference.substring(2), 16);
+				}
+				return (char) Integer.parseInt(reference.substring(1), 10);
+			}
+			catch (final NumberFormatException e) {
+				throw new XMLParseException(null, lineNr, "Invalid character reference: &" + reference + ';');
+			}
+		}
+		final String entity = reference.toString();
+		switch (entity) {
+			case "amp":
+				return '&';
+			case "lt":
+				return '<';
+			case "gt":
+				return '>';
+			case "quot":
+				return '"';
+			case "apos":
+				return '\'';
+			default:
+				throw new XMLParseException(null, lineNr, "Invalid entity: `&" + entity + ";'");
+		}
+	}
+
+	private boolean readSpecialTag() throws IOException, XMLParseException {
+		final char ch = readChar();
+		if (ch == '-') {
+			if (readChar() != '-') {
+				throw new XMLParseException(null, lineNr, "Expected: <!--");
+			}
+			skipComment();
+			return false;
+		}
+		if (ch == '[') {
+			expect("CDATA[");
+			if (depth == 0) {
+				throw new XMLParseException(null, lineNr, "Unexpected CDATA");
+			}
+			readCData();
+			return true;
+		}
+		if (ch == 'D') {
+			expect("OCTYPE");
+			skipDocType();
+			return false;
+		}
+		throw new XMLParseException(null, lineNr, "Invalid input: <!" + ch);
+	}
+
+	private void readCData() throws IOException, XMLParseException {
+		final StringBuilder content = textBuilder;
+		content.setLength(0);
+		int closingBrackets = 0;
+		for (;;) {
+			final char ch = readChar();
+			if (ch == ']') {
+				closingBrackets++;
+				continue;
+			}
+			if (ch == '>' && closingBrackets >= 2) {
+				for (int i = 2; i < closingBrackets; i++) {
+					content.append(']');
+				}
+				break;
+			}
+			for (int i = 0; i < closingBrackets; i++) {
+				content.append(']');
+			}
+			closingBrackets = 0;
+			content.append(ch);
+		}
+		text = content.toString();
+	}
+
+	private void skipComment() throws IOException, XMLParseException {
+		int dashes = 0;
+		for (;;) {
+			final char ch = readChar();
+			if (ch == '-') {
+				dashes++;
+			}
+			else if (ch == '>' && dashes >= 2) {
+				return;
+			}
+			else {
+				dashes = 0;
+			}
+		}
+	}
+
+	private void skipDocType() throws IOException, XMLParseException {
+		int level = 0;
+		char quote = 0;
+		for (;;) {
+			final char ch = readChar();
+			if (quote != 0) {
+				if (ch == quote) {
+					quote = 0;
+				}
+			}
+			else if (ch == '"' || ch == '\'') {
+				quote = ch;
+			}
+			else if (ch == '[') {
+				level++;
+			}
+			else if (ch == ']') {
+				level--;
+			}
+			else if (ch == '>' && level == 0) {
+				return;
+			}
+		}
+	}
+
+	private void skipProcessingInstruction() throws IOException, XMLParseException {
+		boolean questionMark = false;
+		for (;;) {
+			final char ch = readChar();
+			if (ch == '>' && questionMark) {
+				return;
+			}
+			questionMark = ch == '?';
+		}
+	}
+
+	private void expect(final String literal) throws IOException, XMLParseException {
+		for (int i = 0; i < literal.length(); i++) {
+			if (readChar() != literal.charAt(i)) {
+				throw new XMLParseException(null, lineNr, "Expected: " + literal);
+			}
+		}
+	}
+
+	private void skipWhitespace() throws IOException {
+		int ch;
+		do {
+			ch = read();
+		} while (isWhitespace(ch));
+		unread(ch);
+	}
+
+	private static boolean isWhitespace(final int ch) {
+		return ch == ' ' || ch == '\t' || ch == '\n';
+	}
+
+	private char readChar() throws IOException, XMLParseException {
+		final int ch = read();
+		if (ch < 0) {
+			throw new XMLParseException(null, lineNr, "Unexpected end of data");
+		}
+		return (char) ch;
+	}
+
+	private void unread(final int ch) {
+		unreadChar = ch;
+		if (ch == '\n') {
+			lineNr--;
+		}
+	}
+
+	private int read() throws IOException {
+		if (unreadChar != NO_CHAR) {
+			final int ch = unreadChar;
+			unreadChar = NO_CHAR;
+			if (ch == '\n') {
+				lineNr++;
+			}
+			return ch;
+		}
+		for (;;) {
+			if (position >= limit) {
+				limit = reader.read(buffer, 0, buffer.length);
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					return -1;
+				}
+			}
+			char ch = buffer[position++];
+			if (skipLineFeed) {
+				skipLineFeed = false;
+				if (ch == '\n') {
+					continue;
+				}
+			}
+			if (ch == '\r') {
+				skipLineFeed = true;
+				ch = '\n';
+			}
+			if (ch == '\n') {
+				lineNr++;
+			}
+			else if (ch == '\uFEFF' && lineNr == 1 && depth == 0 && fullName == null) {
+				continue;
+			}
+			return ch;
+		}
+	}
+}
@@ -61,6 +61,13 @@ class XMLWriter {
 		}
 	}
 
+	/**
+	 * Writes already serialized XML without encoding it.
+	 */
+	public void writeSerialized(final String xml) {
+		writer.print(xml);
+	}
+
 	public void endElement(final String fullName, final boolean prettyPrint) {
 		writer.print("</" + fullName + '>');
 		if (prettyPrint) {
@@ -0,0 +1,178 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.LongConsumer;
+
+/**
+ * Reader which reads and decodes its input stream on a separate thread.
+ *
+ * Decoded characters are handed over in chunks through a bounded queue,
+ * so that reading the file and processing its content overlap.
+ * The optional progress listener is called on the decoding thread with the number of bytes read so far.
+ */
+public class BackgroundDecodingReader extends Reader {
+	private static final int CHUNK_SIZE = 8192;
+	private static final int QUEUED_CHUNKS = 16;
+
+	private static class Chunk {
+		final char[] chars;
+		final int length;
+		final IOException exception;
+
+		Chunk(final char[] chars, final int length, final IOException exception) {
+			this.chars = chars;
+			this.length = length;
+			this.exception = exception;
+		}
+	}
+
+	private static final Chunk END = new Chunk(new char[0], -1, null);
+
+	private static class CountingInputStream extends FilterInputStream {
+		private final LongConsumer progressListener;
+		private long count;
+
+		CountingInputStream(final InputStream in, final LongConsumer progressListener) {
+			super(in);
+			this.progressListener = progressListener;
+		}
+
+		@Override
+		public int read() throws IOException {
+			final int b = super.read();
+			if (b >= 0) {
+				count(1);
+			}
+			return b;
+		}
+
+		@Override
+		public int read(final byte[] b, final int off, final int len) throws IOException {
+			final int readCount = super.read(b, off, len);
+			if (readCount > 0) {
+				count(readCount);
+			}
+			return readCount;
+		}
+
+		private void count(final int readCount) {
+			count += readCount;
+			progressListener.accept(count);
+		}
+	}
+
+	private final BlockingQueue<Chunk> chunks;
+	private final Thread decodingThread;
+	private Chunk currentChunk;
+	private int position;
+	private volatile boolean closed;
+
+	public BackgroundDecodingReader(final InputStream in, final Charset charset, final LongConsumer progressListener) {
+		super();
+		chunks = new ArrayBlockingQueue<Chunk>(QUEUED_CHUNKS);
+		final InputStream countingStream = progressListener != null ? new CountingInputStream(in, progressListener)
+		        : in;
+		final Reader decoder = new InputStreamReader(countingStream, charset);
+		decodingThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				decode(decoder);
+			}
+		}, "Map decoding");
+		decodingThread.setDaemon(true);
+		decodingThread.start();
+	}
+
+	private void decode(final Reader decoder) {
+		try (Reader readerToClose = decoder) {
+			for (;;) {
+				final char[] chars = new char[CHUNK_SIZE];
+				final int length = decoder.read(chars, 0, CHUNK_SIZE);
+				if (length < 0 || closed) {
+					break;
+				}
+				if (length > 0) {
+					chunks.put(new Chunk(chars, length, null));
+				}
+			}
+			chunks.put(END);
+		}
+		catch (final IOException e) {
+			offer(new Chunk(null, -1, e));
+		}
+		catch (final InterruptedException e) {
+			offer(new Chunk(null, -1, new InterruptedIOException()));
+		}
+	}
+
+	private void offer(final Chunk chunk) {
+		if (!closed) {
+			chunks.clear();
+			chunks.offer(chunk);
+		}
+	}
+
+	@Override
+	public int read(final char[] cbuf, final int off, final int len) throws IOException {
+		if (closed) {
+			throw new IOException("Stream closed");
+		}
+		if (len == 0) {
+			return 0;
+		}
+		if (currentChunk == null || position == currentChunk.length) {
+			try {
+				currentChunk = chunks.take();
+			}
+			catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new InterruptedIOException();
+			}
+			position = 0;
+		}
+		if (currentChunk.exception != null) {
+			throw currentChunk.exception;
+		}
+		if (currentChunk == END) {
+			return -1;
+		}
+		final int readCount = Math.min(len, currentChunk.length - position);
+		System.arraycopy(currentChunk.chars, position, cbuf, off, readCount);
+		position += readCount;
+		return readCount;
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		decodingThread.interrupt();
+		chunks.clear();
+	}
+}
@@ -42,6 +42,8 @@ import javax.swing.text.Element;
 import javax.swing.text.html.HTML;
 import javax.swing.text.html.HTMLDocument;
 
+import org.freeplane.core.util.collection.StringTransformationCache;
+
 /**
  * Utilities for conversion from/to HTML and XML used in Freeplane: In scripts available
  * as "global variable" <code>htmlUtils</code>.
@@ -98,27 +100,24 @@ public class HtmlUtils {
 		return HtmlUtils.sInstance;
 	}
 	
-	static class CachedStringTransformationResult{
-		public final String input;
-		public final String output;
-		CachedStringTransformationResult(String input, String output) {
-			super();
-			this.input = input;
-			this.output = output;
-		}
-	}
-	
-	static private ThreadLocal<CachedStringTransformationResult> cachedHtmlToPlain = ThreadLocal.withInitial(() -> new CachedStringTransformationResult("", ""));
+	private static final long PLAIN_TEXT_CACHE_CHARACTER_COUNT = 4 * 1024 * 1024;
+	static private final StringTransformationCache plainTextCache = new StringTransformationCache(
+	    text -> HtmlUtils.htmlToPlain(text, /* strictHTMLOnly= */true, /* removeNewLines= */true), 0,
+	    PLAIN_TEXT_CACHE_CHARACTER_COUNT);
 
-	/** equivalent to htmlToPlain(text, strictHTMLOnly=true, removeNewLines=true)
+	/** equivalent to htmlToPlain(text, strictHTMLOnly=true, removeNewLines=true).
+	 * Results are cached by input text.
 	 * @see #htmlToPlain(String, boolean, boolean) */
 	public static String htmlToPlain(final String text) {
-		CachedStringTransformationResult threadLocalCachedHtmlToPlain = cachedHtmlToPlain.get();
-		if(threadLocalCachedHtmlToPlain.input.equals(text))
-			return threadLocalCachedHtmlToPlain.output;
-		String output = HtmlUtils.htmlToPlain(text, /* strictHTMLOnly= */true, /* removeNewLines= */true);
-		cachedHtmlToPlain.set(new CachedStringTransformationResult(text, output));
-		return output;
+		if (!HtmlUtils.isHtml(text)) {
+			return text;
+		}
+		return plainTextCache.transform(text);
+	}
+
+	/** cache used by {@link #htmlToPlain(String)}, its hit and miss counters help to size it */
+	public static StringTransformationCache getPlainTextCache() {
+		return plainTextCache;
 	}
 
 	/** equivalent to htmlToPlain(text, strictHTMLOnly, removeNewLines=true)
@@ -0,0 +1,143 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.util.collection;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Quad tree of values with rectangular bounds, for finding values whose bounds intersect a given area.
+ *
+ * Each value is kept in the smallest quadrant containing its bounds.
+ * Values with bounds outside of the indexed area are kept in the root quadrant,
+ * values added without bounds are found by every query.
+ * Query results are sorted in the order the values were added.
+ */
+public class RectangleIndex<T> {
+	private static final int MAXIMAL_QUADRANT_SIZE = 8;
+	private static final int MAXIMAL_DEPTH = 12;
+
+	private static class Item<T> {
+		final Rectangle bounds;
+		final T value;
+		final int ordinal;
+
+		Item(Rectangle bounds, T value, int ordinal) {
+			this.bounds = bounds;
+			this.value = value;
+			this.ordinal = ordinal;
+		}
+	}
+
+	private static final Comparator<Item<?>> INSERTION_ORDER = Comparator.comparingInt(item -> item.ordinal);
+
+	private class Quadrant {
+		private final Rectangle area;
+		private final int depth;
+		private final List<Item<T>> items = new ArrayList<>();
+		private List<Quadrant> children;
+
+		Quadrant(Rectangle area, int depth) {
+			this.area = area;
+			this.depth = depth;
+		}
+
+		void add(Item<T> item) {
+			if (children != null) {
+				final Quadrant child = childContaining(item.bounds);
+				if (child != null) {
+					child.add(item);
+					return;
+				}
+			}
+			items.add(item);
+			if (children == null && items.size() > MAXIMAL_QUADRANT_SIZE && depth < MAXIMAL_DEPTH
+					&& area.width > 1 && area.height > 1)
+				split();
+		}
+
+		private Quadrant childContaining(Rectangle bounds) {
+			for (Quadrant child : children)
+				if (child.area.contains(bounds))
+					return child;
+			return null;
+		}
+
+		private void split() {
+			final int halfWidth = area.width / 2;
+			final int halfHeight = area.height / 2;
+			children = new ArrayList<>(4);
+			children.add(new Quadrant(new Rectangle(area.x, area.y, halfWidth, halfHeight), depth + 1));
+			children.add(new Quadrant(new Rectangle(area.x + halfWidth, area.y, area.width - halfWidth, halfHeight), depth + 1));
+			children.add(new Quadrant(new Rectangle(area.x, area.y + halfHeight, halfWidth, area.height - halfHeight), depth + 1));
+			children.add(new Quadrant(new Rectangle(area.x + halfWidth, area.y + halfHeight, area.width - halfWidth,
+				area.height - halfHeight), depth + 1));
+			final List<Item<T>> splitItems = new ArrayList<>(items);
+			items.clear();
+			for (Item<T> item : splitItems)
+				add(item);
+		}
+
+		void collect(Rectangle searchedArea, List<Item<T>> found) {
+			for (Item<T> item : items)
+				if (item.bounds.intersects(searchedArea))
+					found.add(item);
+			if (children != null)
+				for (Quadrant child : children)
+					if (child.area.intersects(searchedArea))
+						child.collect(searchedArea, found);
+		}
+	}
+
+	private final Quadrant root;
+	private final List<Item<T>> unboundedItems = new ArrayList<>();
+	private int size = 0;
+
+	/** @param indexedArea area where the values are expected */
+	public RectangleIndex(Rectangle indexedArea) {
+		root = new Quadrant(new Rectangle(indexedArea), 0);
+	}
+
+	/** @param bounds bounds of the value or null if the value should be found by all queries */
+	public void add(Rectangle bounds, T value) {
+		if (bounds == null)
+			unboundedItems.add(new Item<>(null, value, size++));
+		else
+			root.add(new Item<>(new Rectangle(bounds), value, size++));
+	}
+
+	public List<T> findIntersecting(Rectangle area) {
+		final List<Item<T>> found = new ArrayList<>(unboundedItems);
+		root.collect(area, found);
+		found.sort(INSERTION_ORDER);
+		final List<T> values = new ArrayList<>(found.size());
+		for (Item<T> item : found)
+			values.add(item.value);
+		return values;
+	}
+
+	public List<T> findContaining(Point point) {
+		return findIntersecting(new Rectangle(point.x, point.y, 1, 1));
+	}
+
+	public int size() {
+		return size;
+	}
+}
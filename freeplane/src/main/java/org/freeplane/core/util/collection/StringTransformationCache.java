@@ -0,0 +1,115 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.core.util.collection;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Thread safe least recently used cache of string transformation results,
+ * bounded by the total length of cached input and output strings.
+ *
+ * Results are looked up by input text, so unchanged node content is found again
+ * and changed content simply misses; no invalidation is needed.
+ */
+public class StringTransformationCache {
+	private final Function<String, String> transformation;
+	private final long maximumCharacterCount;
+	private final int minimalInputLength;
+	private final LinkedHashMap<String, String> results = new LinkedHashMap<>(64, 0.75f, true);
+	private long characterCount = 0;
+	private long hits = 0;
+	private long misses = 0;
+
+	/**
+	 * @param minimalInputLength shorter inputs are transformed without caching
+	 * @param maximumCharacterCount upper bound of the total length of cached inputs and outputs
+	 */
+	public StringTransformationCache(final Function<String, String> transformation, final int minimalInputLength,
+	                                 final long maximumCharacterCount) {
+		this.transformation = transformation;
+		this.minimalInputLength = minimalInputLength;
+		this.maximumCharacterCount = maximumCharacterCount;
+	}
+
+	public String transform(final String input) {
+		if (input.length() < minimalInputLength || input.length() > maximumCharacterCount / 2) {
+			return transformation.apply(input);
+		}
+		synchronized (this) {
+			final String cachedOutput = results.get(input);
+			if (cachedOutput != null) {
+				hits++;
+				return cachedOutput;
+			}
+			misses++;
+		}
+		final String output = transformation.apply(input);
+		synchronized (this) {
+			final String replacedOutput = results.put(input, output);
+			if (replacedOutput != null) {
+				characterCount -= input.length() + replacedOutput.length();
+			}
+			characterCount += input.length() + output.length();
+			removeLeastRecentlyUsedResults();
+		}
+		return output;
+	}
+
+	private void removeLeastRecentlyUsedResults() {
+		final Iterator<Map.Entry<String, String>> iterator = results.entrySet().iterator();
+		while (characterCount > maximumCharacterCount && iterator.hasNext()) {
+			final Map.Entry<String, String> entry = iterator.next();
+			characterCount -= entry.getKey().length() + entry.getValue().length();
+			iterator.remove();
+		}
+	}
+
+	public synchronized void clear() {
+		results.clear();
+		characterCount = 0;
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized int size() {
+		return results.size();
+	}
+
+	public synchronized long getCharacterCount() {
+		return characterCount;
+	}
+
+	public synchronized void resetStatistics() {
+		hits = 0;
+		misses = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "StringTransformationCache[size=" + results.size() + ", characters=" + characterCount + ", hits=" + hits
+		        + ", misses=" + misses + "]";
+	}
+}
@@ -7,6 +7,7 @@ import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeRelativePath;
 import org.freeplane.features.map.NodeStream;
 
 enum ExploringStep {
@@ -114,7 +115,11 @@ enum ExploringStep {
 		@Override
 		List<NodeModel> getNodes(NodeModel start, final NodeMatcher nodeMatcher, AccessedNodes accessedNodes) {
 			accessedNodes.accessBranch(start);
-			return NodeStream.of(start).skip(1).filter(nodeMatcher::matches).collect(Collectors.toList());
+			final List<NodeModel> indexedNodes = nodeMatcher.indexedMatchingNodes(start.getMap());
+			if(indexedNodes == null)
+				return NodeStream.of(start).skip(1).filter(nodeMatcher::matches).collect(Collectors.toList());
+			return indexedNodes.stream().filter(node -> node.isDescendantOf(start))
+					.sorted(NodeRelativePath.comparator()).collect(Collectors.toList());
 		}
 	};
 
@@ -27,6 +27,9 @@ public class MapExplorerController  implements IExtension{
 		final ReadManager readManager = mapController.getReadManager();
 		final WriteManager writeManager = mapController.getWriteManager();
 		final MapReader mapReader = mapController.getMapReader();
+		final NodeIndexUpdater nodeIndexUpdater = new NodeIndexUpdater();
+		mapController.addNodeChangeListener(nodeIndexUpdater);
+		mapController.addMapChangeListener(nodeIndexUpdater);
 		readManager.addAttributeHandler(NodeBuilder.XML_NODE, ALIAS, new IAttributeHandler() {
 			@Override
 			public void setAttribute(final Object node, final String value) {
@@ -2,27 +2,35 @@ package org.freeplane.features.explorer;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.WeakHashMap;
 
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
 
 class NodeAliases implements IExtension {
 	private final Map<NodeAlias, String> idsByAlias = new WeakHashMap<>();
+	private final Map<String, Set<String>> idsByAliasValue = new HashMap<>();
 	private final MapModel map;
 
 	private NodeAliases(MapModel map) {
 		this.map = map;
 	}
 
-	void add(NodeAlias alias, String id) {
+	synchronized void add(NodeAlias alias, String id) {
 		idsByAlias.put(alias, id);
+		idsByAliasValue.computeIfAbsent(alias.value, x -> new LinkedHashSet<>()).add(id);
 	}
 
 
-	Collection<NodeAlias> aliases() {
+	synchronized Collection<NodeAlias> aliases() {
 		ArrayList<NodeAlias> list = new ArrayList<>( idsByAlias.size());
 		for (Entry<NodeAlias, String> entry:idsByAlias.entrySet()) {
 			if(map.getNodeForID(entry.getValue()) != null)
@@ -31,8 +39,31 @@ class NodeAliases implements IExtension {
 		return list;
 	}
 
+	/** @return nodes of the map and their clones having the given alias.
+	 * Ids of nodes with another alias are removed, ids of deleted nodes are kept for undo. */
+	synchronized List<NodeModel> nodesWithAlias(String value) {
+		final Set<String> ids = idsByAliasValue.get(value);
+		if(ids == null)
+			return new ArrayList<>(0);
+		final List<NodeModel> nodes = new ArrayList<>(ids.size());
+		for(Iterator<String> iterator = ids.iterator(); iterator.hasNext();) {
+			final NodeModel node = map.getNodeForID(iterator.next());
+			if(node == null)
+				continue;
+			if(value.equals(NodeAlias.getAlias(node))) {
+				for(NodeModel clone : node.allClones())
+					if(! nodes.contains(clone))
+						nodes.add(clone);
+			}
+			else
+				iterator.remove();
+		}
+		if(ids.isEmpty())
+			idsByAliasValue.remove(value);
+		return nodes;
+	}
 
-	static NodeAliases of(final MapModel map) {
+	static synchronized NodeAliases of(final MapModel map) {
 		NodeAliases aliases = map.getExtension(NodeAliases.class);
 		if(aliases == null)
 		{
@@ -0,0 +1,50 @@
+package org.freeplane.features.explorer;
+
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeStream;
+
+/** keeps {@link NodeTextIndex} and {@link NodeAliases} of maps which have them up to date. */
+class NodeIndexUpdater implements INodeChangeListener, IMapChangeListener {
+
+	@Override
+	public void nodeChanged(NodeChangeEvent event) {
+		final Object property = event.getProperty();
+		if (NodeModel.NODE_TEXT.equals(property) || NodeModel.UNKNOWN_PROPERTY.equals(property)) {
+			final NodeModel node = event.getNode();
+			final NodeTextIndex index = existingIndexOf(node);
+			if(index != null)
+				index.add(node);
+		}
+	}
+
+	@Override
+	public void onNodeInserted(NodeModel parent, NodeModel child, int newIndex) {
+		final NodeTextIndex index = existingIndexOf(child);
+		if(index != null)
+			index.addBranch(child);
+		final NodeAliases aliases = child.getMap().getExtension(NodeAliases.class);
+		if(aliases != null)
+			NodeStream.of(child).forEach(node -> addAlias(aliases, node));
+	}
+
+	private void addAlias(final NodeAliases aliases, NodeModel node) {
+		final NodeAlias alias = node.getExtension(NodeAlias.class);
+		if(alias != null)
+			aliases.add(alias, node.createID());
+	}
+
+	@Override
+	public void onNodeDeleted(NodeDeletionEvent nodeDeletionEvent) {
+		final NodeTextIndex index = existingIndexOf(nodeDeletionEvent.node);
+		if(index != null)
+			index.removeBranch(nodeDeletionEvent.node);
+	}
+
+	private NodeTextIndex existingIndexOf(NodeModel node) {
+		return node.getMap().getExtension(NodeTextIndex.class);
+	}
+}
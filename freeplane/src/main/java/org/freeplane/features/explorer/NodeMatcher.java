@@ -5,7 +5,7 @@ import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
-import org.freeplane.core.util.HtmlUtils;
+import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 
 class NodeMatcher {
@@ -87,7 +87,7 @@ class NodeMatcher {
 		if(matchedElement == MatchedElement.ALIAS)
 			return matches(node.getExtension(NodeAlias.class));
 		else
-			return matches(HtmlUtils.htmlToPlain(node.getText()));
+			return matches(NodeTextIndex.plainTextOf(node));
 	}
 
 	private boolean matches(NodeAlias alias) {
@@ -101,6 +101,23 @@ class NodeMatcher {
 			return text.equals(matchedString);
 	}
 
+	/** @return all nodes of the map matching this matcher found by an index, or null if there is no index for it */
+	List<NodeModel> indexedMatchingNodes(MapModel map) {
+		if(map == null)
+			return null;
+		switch(matchedElement) {
+		case ALIAS:
+			return NodeAliases.of(map).nodesWithAlias(matchedString);
+		case TEXT:
+			return NodeTextIndex.of(map).nodesWithText(matchedString);
+		case START:
+			// every node starts with an empty string, visiting them is faster than sorting them
+			return matchedString.isEmpty() ? null : NodeTextIndex.of(map).nodesWithTextStartingWith(matchedString);
+		default:
+			return null;
+		}
+	}
+
 	public List<NodeModel> filterMatchingNodes(Iterable<NodeModel> iterable, AccessedNodes accessedNodes) {
 		if(matchedElement == MatchedElement.COUNTER) {
 			return getNodeByCounter(iterable, accessedNodes);
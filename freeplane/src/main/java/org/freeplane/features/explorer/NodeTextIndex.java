@@ -0,0 +1,113 @@
+package org.freeplane.features.explorer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.util.HtmlUtils;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeStream;
+
+/**
+ * Nodes of a map sorted by their plain text, for finding nodes by text or text start without visiting all nodes.
+ *
+ * The index is built on first use and extended by {@link NodeIndexUpdater} on text changes and insertions.
+ * Nodes indexed under their previous text are removed when a lookup finds that their text does not match anymore.
+ * The index is synchronized because formulas can be evaluated outside of the event dispatch thread.
+ */
+class NodeTextIndex implements IExtension {
+	private final TreeMap<String, Set<NodeModel>> nodesByText = new TreeMap<>();
+
+	private NodeTextIndex(MapModel map) {
+		final NodeModel rootNode = map.getRootNode();
+		if(rootNode != null)
+			addBranch(rootNode);
+	}
+
+	static synchronized NodeTextIndex of(final MapModel map) {
+		NodeTextIndex index = map.getExtension(NodeTextIndex.class);
+		if(index == null) {
+			index = new NodeTextIndex(map);
+			map.addExtension(index);
+		}
+		return index;
+	}
+
+	static String plainTextOf(NodeModel node) {
+		return HtmlUtils.htmlToPlain(node.getText());
+	}
+
+	synchronized void add(NodeModel node) {
+		nodesByText.computeIfAbsent(plainTextOf(node),
+			x -> Collections.newSetFromMap(new IdentityHashMap<>())).add(node);
+	}
+
+	synchronized void addBranch(NodeModel node) {
+		NodeStream.of(node).forEach(this::add);
+	}
+
+	synchronized void removeBranch(NodeModel node) {
+		NodeStream.of(node).forEach(this::remove);
+	}
+
+	private void remove(NodeModel node) {
+		final String text = plainTextOf(node);
+		final Set<NodeModel> nodes = nodesByText.get(text);
+		if(nodes != null) {
+			nodes.remove(node);
+			if(nodes.isEmpty())
+				nodesByText.remove(text);
+		}
+	}
+
+	synchronized List<NodeModel> nodesWithText(String text) {
+		final Set<NodeModel> nodes = nodesByText.get(text);
+		final List<NodeModel> matchingNodes = new ArrayList<>();
+		if(nodes != null) {
+			collectMatchingNodes(text, nodes, matchingNodes);
+			if(nodes.isEmpty())
+				nodesByText.remove(text);
+		}
+		return matchingNodes;
+	}
+
+	synchronized List<NodeModel> nodesWithTextStartingWith(String prefix) {
+		final List<NodeModel> matchingNodes = new ArrayList<>();
+		for(Iterator<Entry<String, Set<NodeModel>>> iterator = nodesByText.tailMap(prefix).entrySet().iterator();
+				iterator.hasNext();) {
+			final Entry<String, Set<NodeModel>> entry = iterator.next();
+			final String text = entry.getKey();
+			if(! text.startsWith(prefix))
+				break;
+			final Set<NodeModel> nodes = entry.getValue();
+			collectMatchingNodes(text, nodes, matchingNodes);
+			if(nodes.isEmpty())
+				iterator.remove();
+		}
+		return matchingNodes;
+	}
+
+	private void collectMatchingNodes(String text, final Set<NodeModel> nodes, final List<NodeModel> matchingNodes) {
+		for(Iterator<NodeModel> iterator = nodes.iterator(); iterator.hasNext();) {
+			final NodeModel node = iterator.next();
+			if(plainTextOf(node).equals(text))
+				matchingNodes.add(node);
+			else
+				iterator.remove();
+		}
+	}
+
+	synchronized int size() {
+		int size = 0;
+		for(Entry<String, Set<NodeModel>> entry : nodesByText.entrySet())
+			size += entry.getValue().size();
+		return size;
+	}
+}
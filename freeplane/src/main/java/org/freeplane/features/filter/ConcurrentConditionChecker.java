@@ -0,0 +1,135 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BooleanSupplier;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Checks a condition for all nodes of a subtree on the fork join pool before the filter walks the subtree.
+ *
+ * Node data is read on the calling thread by {@link ICondition#prepareConcurrentCheck(NodeModel)},
+ * only the prepared checks run on the pool.
+ * The results are taken by {@link #checkNode(NodeModel)} in the same depth first order the nodes were collected.
+ */
+class ConcurrentConditionChecker {
+	static final int MINIMAL_NODE_COUNT = 2000;
+	private static final int CHUNK_SIZE = 4096;
+	private static final int TASK_SIZE = 64;
+
+	private class CheckTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private final BooleanSupplier[] checks;
+		private final int offset;
+		private final int from;
+		private final int to;
+
+		CheckTask(final BooleanSupplier[] checks, final int offset, final int from, final int to) {
+			this.checks = checks;
+			this.offset = offset;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= TASK_SIZE) {
+				for (int i = from; i < to; i++) {
+					results[offset + i] = checks[i].getAsBoolean();
+				}
+			}
+			else {
+				final int middle = (from + to) >>> 1;
+				invokeAll(new CheckTask(checks, offset, from, middle), new CheckTask(checks, offset, middle, to));
+			}
+		}
+	}
+
+	/**
+	 * @return checker with results for the root's subtree,
+	 * or null if the condition does not support concurrent checks or the subtree is too small.
+	 */
+	static ConcurrentConditionChecker checkSubtree(final ICondition condition, final NodeModel root,
+	                                               final boolean includesRoot) {
+		final ForkJoinPool pool = ForkJoinPool.commonPool();
+		if (condition == null || pool.getParallelism() < 2 || !condition.supportsConcurrentChecks()) {
+			return null;
+		}
+		final List<NodeModel> nodes = new ArrayList<NodeModel>();
+		if (includesRoot) {
+			nodes.add(root);
+		}
+		addDescendants(root, nodes);
+		if (nodes.size() < MINIMAL_NODE_COUNT) {
+			return null;
+		}
+		final ConcurrentConditionChecker checker = new ConcurrentConditionChecker(condition, nodes);
+		checker.checkAll(pool);
+		return checker;
+	}
+
+	private static void addDescendants(final NodeModel node, final List<NodeModel> nodes) {
+		for (final NodeModel child : node.getChildren()) {
+			nodes.add(child);
+			addDescendants(child, nodes);
+		}
+	}
+
+	private final ICondition condition;
+	private final List<NodeModel> nodes;
+	private final boolean[] results;
+	private int nextNodeIndex;
+
+	private ConcurrentConditionChecker(final ICondition condition, final List<NodeModel> nodes) {
+		this.condition = condition;
+		this.nodes = nodes;
+		this.results = new boolean[nodes.size()];
+		this.nextNodeIndex = 0;
+	}
+
+	private void checkAll(final ForkJoinPool pool) {
+		ForkJoinTask<?> runningTask = null;
+		for (int start = 0; start < nodes.size(); start += CHUNK_SIZE) {
+			final int end = Math.min(nodes.size(), start + CHUNK_SIZE);
+			final BooleanSupplier[] checks = new BooleanSupplier[end - start];
+			for (int i = 0; i < checks.length; i++) {
+				checks[i] = condition.prepareConcurrentCheck(nodes.get(start + i));
+			}
+			if (runningTask != null) {
+				runningTask.join();
+			}
+			runningTask = pool.submit(new CheckTask(checks, start, 0, checks.length));
+		}
+		if (runningTask != null) {
+			runningTask.join();
+		}
+	}
+
+	boolean checkNode(final NodeModel node) {
+		if (nextNodeIndex < nodes.size() && nodes.get(nextNodeIndex) == node) {
+			return results[nextNodeIndex++];
+		}
+		return condition.checkNode(node);
+	}
+}
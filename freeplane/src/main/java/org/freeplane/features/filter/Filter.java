@@ -19,7 +19,12 @@
  */
 package org.freeplane.features.filter;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.WeakHashMap;
 
 import javax.swing.Icon;
@@ -43,13 +48,93 @@ public class Filter implements IExtension {
 		return new Filter(null, false, resourceController.getBooleanProperty("filter.showAncestors"), resourceController.getBooleanProperty("filter.showDescendants"), false, null);
 	}
 
+	/**
+	 * Keeps filter results of the nodes of one map in an array indexed by {@link NodeModel#getIndexInMap()}.
+	 * Results for nodes of other maps are kept in a weak hash map.
+	 */
 	static class FilterInfoAccessor {
-	    private final WeakHashMap<NodeModel, FilterInfo> filterInfos = new WeakHashMap<>();
+	    private static final byte[] NO_FILTER_INFOS = {};
+	    private MapModel map;
+	    private byte[] filterInfos = NO_FILTER_INFOS;
+	    private WeakHashMap<NodeModel, FilterInfo> foreignFilterInfos;
+	    private long journalVersion = -1;
+	    private boolean rootSatisfiesFilter;
+
+	    private class StoredFilterInfo extends FilterInfo {
+	    	private final int index;
+
+	    	StoredFilterInfo(final int index) {
+	    		this.index = index;
+	    	}
+
+	    	@Override
+	    	int getInfo() {
+	    		return FilterInfoAccessor.this.getInfo(index);
+	    	}
+
+	    	@Override
+	    	void setInfo(final int info) {
+	    		FilterInfoAccessor.this.setInfo(index, info);
+	    	}
+	    }
 
 	    FilterInfo getFilterInfo(NodeModel node) {
-	        return filterInfos.computeIfAbsent(node, x -> new FilterInfo());
+	    	final int index = indexOf(node);
+	    	if (index >= 0) {
+	    		return new StoredFilterInfo(index);
+	    	}
+	    	return getForeignFilterInfo(node);
+	    }
+
+	    int getInfo(final NodeModel node) {
+	    	final int index = indexOf(node);
+	    	if (index >= 0) {
+	    		return getInfo(index);
+	    	}
+	    	return getForeignFilterInfo(node).getInfo();
+	    }
+
+	    void setInfo(final NodeModel node, final int info) {
+	    	final int index = indexOf(node);
+	    	if (index >= 0) {
+	    		setInfo(index, info);
+	    	}
+	    	else {
+	    		getForeignFilterInfo(node).setInfo(info);
+	    	}
+	    }
+
+	    private int getInfo(final int index) {
+	    	return index < filterInfos.length ? filterInfos[index] : FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE;
+	    }
+
+	    private void setInfo(final int index, final int info) {
+	    	if (index >= filterInfos.length) {
+	    		if (info == FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE) {
+	    			return;
+	    		}
+	    		final int oldLength = filterInfos.length;
+	    		final int newLength = Math.max(Math.max(index + 1, map.getNodeIndexCount()), oldLength + (oldLength >> 1));
+	    		filterInfos = Arrays.copyOf(filterInfos, newLength);
+	    		Arrays.fill(filterInfos, oldLength, newLength, (byte) FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE);
+	    	}
+	    	filterInfos[index] = (byte) info;
 	    }
 
+	    private int indexOf(final NodeModel node) {
+	    	final MapModel nodeMap = node.getMap();
+	    	if (map == null) {
+	    		map = nodeMap;
+	    	}
+	    	return nodeMap != null && nodeMap == map ? node.getIndexInMap() : -1;
+	    }
+
+	    private FilterInfo getForeignFilterInfo(final NodeModel node) {
+	    	if (foreignFilterInfos == null) {
+	    		foreignFilterInfos = new WeakHashMap<>();
+	    	}
+	    	return foreignFilterInfos.computeIfAbsent(node, x -> new FilterInfo());
+	    }
 	}
 
 	static public Filter createFilter(final ICondition condition, final boolean areAncestorsShown,
@@ -61,6 +146,7 @@ public class Filter implements IExtension {
 	final int options;
 
 	private FilterInfoAccessor accessor;
+	private ConcurrentConditionChecker concurrentConditionChecker;
     private final boolean hidesMatchingNodes;
     private final boolean appliesToVisibleNodesOnly;
     private final Filter baseFilter;
@@ -85,7 +171,7 @@ public class Filter implements IExtension {
 	}
 
 	void addFilterResult(final NodeModel node, final int flag) {
-		getFilterInfo(node).add(flag);
+		accessor.setInfo(node, FilterInfo.add(accessor.getInfo(node), flag));
 	}
 
 	protected boolean appliesToVisibleNodesOnly() {
@@ -108,24 +194,241 @@ public class Filter implements IExtension {
 
 	public void calculateFilterResults(final MapModel map) {
 	    this.accessor = new FilterInfoAccessor();
+	    final FilterUpdateJournal journal = map.getExtension(FilterUpdateJournal.class);
+	    if (journal != null) {
+	    	accessor.journalVersion = journal.getVersion();
+	    }
 		final NodeModel root = map.getRootNode();
 		resetFilter(root);
 		boolean rootSatisfiesFilter = checkNode(root);
-		if (filterChildren(root, rootSatisfiesFilter, false)) {
-			addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		accessor.rootSatisfiesFilter = rootSatisfiesFilter;
+		concurrentConditionChecker = ConcurrentConditionChecker.checkSubtree(condition, root, false);
+		try {
+			if (filterChildren(root, rootSatisfiesFilter, false, null)) {
+				addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+			}
+		}
+		finally {
+			concurrentConditionChecker = null;
+		}
+	}
+
+	/**
+	 * Rechecks only nodes changed since the results were calculated,
+	 * if the changes are recorded in the map's {@link FilterUpdateJournal},
+	 * and recalculates all results otherwise.
+	 * Results of conditions reading unrelated nodes may stay stale until the next full recalculation.
+	 */
+	public void updateFilterResults(final MapModel map) {
+		updateChangedFilterResults(map);
+	}
+
+	/**
+	 * @return nodes whose filter results may have changed, or null if all results were recalculated
+	 */
+	private Set<NodeModel> updateChangedFilterResults(final MapModel map) {
+		final FilterUpdateJournal journal = map.getExtension(FilterUpdateJournal.class);
+		final List<FilterUpdateJournal.Change> changes = journal != null ? journal.getChangesSince(accessor.journalVersion) : null;
+		if (changes == null || appliesToVisibleNodesOnly() && baseFilter.accessor == accessor) {
+			calculateFilterResults(map);
+			return null;
+		}
+		final Set<NodeModel> nodesUpdatedByBaseFilter;
+		if (appliesToVisibleNodesOnly()) {
+			nodesUpdatedByBaseFilter = baseFilter.updateChangedFilterResults(map);
+			if (nodesUpdatedByBaseFilter == null) {
+				calculateFilterResults(map);
+				return null;
+			}
+		}
+		else {
+			nodesUpdatedByBaseFilter = Collections.emptySet();
+		}
+		final Set<NodeModel> updatedNodes = Collections.newSetFromMap(new IdentityHashMap<NodeModel, Boolean>());
+		final NodeModel root = map.getRootNode();
+		for (final FilterUpdateJournal.Change change : changes) {
+			final NodeModel node = change.node;
+			if (!isInMap(node, root)) {
+				continue;
+			}
+			switch (change.type) {
+				case NODE_CHANGED:
+					recheckNode(node, updatedNodes);
+					recheckNodesCheckingAncestors(node, updatedNodes);
+					recheckNodesCheckingDescendants(node.getParentNode(), updatedNodes);
+					break;
+				case SUBTREE_INSERTED:
+					recheckSubtree(node, updatedNodes);
+					recheckNodesCheckingDescendants(node.getParentNode(), updatedNodes);
+					break;
+				case CHILD_REMOVED:
+					updateAncestorFlags(node, updatedNodes);
+					recheckNodesCheckingDescendants(node, updatedNodes);
+					break;
+			}
+		}
+		for (final NodeModel node : nodesUpdatedByBaseFilter) {
+			if (isInMap(node, root)) {
+				recheckNode(node, updatedNodes);
+			}
+		}
+		accessor.journalVersion = journal.getVersion();
+		return updatedNodes;
+	}
+
+	/** Rechecks the given node and its ancestors if the condition depends on their descendants */
+	private void recheckNodesCheckingDescendants(final NodeModel node, final Set<NodeModel> updatedNodes) {
+		if (condition == null || node == null) {
+			return;
+		}
+		if (condition.checksDescendants()) {
+			for (NodeModel ancestor = node; ancestor != null; ancestor = ancestor.getParentNode()) {
+				recheckNode(ancestor, updatedNodes);
+			}
+		}
+		else if (condition.checksChildren()) {
+			recheckNode(node, updatedNodes);
+		}
+	}
+
+	/** Rechecks children or all descendants of the given node if the condition depends on their ancestors */
+	private void recheckNodesCheckingAncestors(final NodeModel node, final Set<NodeModel> updatedNodes) {
+		if (condition == null) {
+			return;
+		}
+		final boolean checksAncestors = condition.checksAncestors();
+		if (checksAncestors || condition.checksParent()) {
+			for (final NodeModel child : node.getChildren()) {
+				recheckNode(child, updatedNodes);
+				if (checksAncestors) {
+					recheckNodesCheckingAncestors(child, updatedNodes);
+				}
+			}
+		}
+	}
+
+	private static boolean isInMap(final NodeModel node, final NodeModel root) {
+		return node == root || node.isDescendantOf(root);
+	}
+
+	private boolean matchesCombinedFilter(final NodeModel node) {
+		if (node.isRoot()) {
+			return checkNode(node);
+		}
+		final boolean conditionSatisfied = condition == null || condition.checkNode(node);
+		return conditionSatisfied && (!appliesToVisibleNodesOnly() || baseFilter.isVisible(node));
+	}
+
+	private boolean hasMatchingAncestor(final NodeModel node) {
+		final NodeModel parent = node.getParentNode();
+		if (parent.isRoot()) {
+			return accessor.rootSatisfiesFilter;
+		}
+		final FilterInfo parentInfo = getFilterInfo(parent);
+		return parentInfo.matches(FilterInfo.FILTER_SHOW_AS_DESCENDANT | FilterInfo.FILTER_SHOW_AS_MATCHED);
+	}
+
+	private boolean hasMatchingDescendant(final NodeModel node) {
+		for (final NodeModel child : node.getChildren()) {
+			if (getFilterInfo(child).matches(FilterInfo.FILTER_SHOW_AS_MATCHED | FilterInfo.FILTER_SHOW_AS_ANCESTOR)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void recheckNode(final NodeModel node, final Set<NodeModel> updatedNodes) {
+		final boolean matches = matchesCombinedFilter(node);
+		if (node.isRoot()) {
+			if (matches != accessor.rootSatisfiesFilter) {
+				accessor.rootSatisfiesFilter = matches;
+				updateDescendantFlags(node, matches, updatedNodes);
+			}
+			return;
+		}
+		final FilterInfo filterInfo = getFilterInfo(node);
+		if (!filterInfo.isNotChecked() && filterInfo.isMatched() == matches) {
+			return;
+		}
+		final boolean isAncestor = filterInfo.matches(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		final boolean hasMatchingAncestor = hasMatchingAncestor(node);
+		filterInfo.reset();
+		if (hasMatchingAncestor) {
+			filterInfo.add(FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+		}
+		filterInfo.add(matches ? FilterInfo.FILTER_SHOW_AS_MATCHED : FilterInfo.FILTER_SHOW_AS_HIDDEN);
+		if (isAncestor) {
+			filterInfo.add(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		}
+		updatedNodes.add(node);
+		if (!hasMatchingAncestor) {
+			updateDescendantFlags(node, matches, updatedNodes);
+		}
+		updateAncestorFlags(node.getParentNode(), updatedNodes);
+	}
+
+	private void recheckSubtree(final NodeModel node, final Set<NodeModel> updatedNodes) {
+		if (node.isRoot()) {
+			calculateFilterResults(node.getMap());
+			return;
+		}
+		applyFilter(node, hasMatchingAncestor(node), false, false, updatedNodes);
+		updateAncestorFlags(node.getParentNode(), updatedNodes);
+	}
+
+	private void updateDescendantFlags(final NodeModel node, final boolean hasMatchingAncestor,
+	                                   final Set<NodeModel> updatedNodes) {
+		for (final NodeModel child : node.getChildren()) {
+			final FilterInfo filterInfo = getFilterInfo(child);
+			if (filterInfo.matches(FilterInfo.FILTER_SHOW_AS_DESCENDANT) == hasMatchingAncestor) {
+				continue;
+			}
+			if (hasMatchingAncestor) {
+				filterInfo.add(FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+			}
+			else {
+				filterInfo.remove(FilterInfo.FILTER_SHOW_AS_DESCENDANT);
+			}
+			updatedNodes.add(child);
+			if (!filterInfo.isMatched()) {
+				updateDescendantFlags(child, hasMatchingAncestor, updatedNodes);
+			}
+		}
+	}
+
+	private void updateAncestorFlags(final NodeModel node, final Set<NodeModel> updatedNodes) {
+		for (NodeModel ancestor = node; ancestor != null; ancestor = ancestor.getParentNode()) {
+			final FilterInfo filterInfo = getFilterInfo(ancestor);
+			final boolean hasMatchingDescendant = hasMatchingDescendant(ancestor);
+			if (filterInfo.matches(FilterInfo.FILTER_SHOW_AS_ANCESTOR) == hasMatchingDescendant) {
+				return;
+			}
+			if (hasMatchingDescendant) {
+				filterInfo.add(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+			}
+			else {
+				filterInfo.remove(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+			}
+			updatedNodes.add(ancestor);
 		}
 	}
 
 	public void calculateFilterResults(final NodeModel root) {
 	    this.accessor = new FilterInfoAccessor();
-	    if(applyFilter(root, false, false, false))
-	    	addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+	    concurrentConditionChecker = ConcurrentConditionChecker.checkSubtree(condition, root, true);
+	    try {
+	    	if(applyFilter(root, false, false, false, null))
+	    		addFilterResult(root, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+	    }
+	    finally {
+	    	concurrentConditionChecker = null;
+	    }
 	}
 
 	private boolean applyFilter(final NodeModel node,
 	                            final boolean hasMatchingAncestor, final boolean hasHiddenAncestor,
-	                            boolean hasMatchingDescendant) {
-		final boolean conditionSatisfied =  (condition == null || condition.checkNode(node));
+	                            boolean hasMatchingDescendant, final Set<NodeModel> updatedNodes) {
+		final boolean conditionSatisfied =  (condition == null || checkCondition(node));
 		final boolean matchesCombinedFilter;
 		if(appliesToVisibleNodesOnly()) {
 		    matchesCombinedFilter = conditionSatisfied  && baseFilter.isVisible(node);
@@ -134,6 +437,9 @@ public class Filter implements IExtension {
 		    matchesCombinedFilter = conditionSatisfied;
 		}
 		resetFilter(node);
+		if (updatedNodes != null) {
+			updatedNodes.add(node);
+		}
 		if (hasMatchingAncestor) {
 			addFilterResult(node, FilterInfo.FILTER_SHOW_AS_DESCENDANT);
 		}
@@ -147,7 +453,7 @@ public class Filter implements IExtension {
 		boolean childrenHaveMatchingAncestor = hasMatchingAncestor || matchesCombinedFilter && ! node.isRoot();
         if (filterChildren(node, childrenHaveMatchingAncestor, 
 		        !matchesCombinedFilter
-		        || hasHiddenAncestor)) {
+		        || hasHiddenAncestor, updatedNodes)) {
 		    addFilterResult(node, FilterInfo.FILTER_SHOW_AS_ANCESTOR);
 			hasMatchingDescendant = true;
 		}
@@ -175,6 +481,13 @@ public class Filter implements IExtension {
 		return 0 != (options & FilterInfo.FILTER_SHOW_AS_DESCENDANT);
 	}
 
+	private boolean checkCondition(final NodeModel node) {
+		if (concurrentConditionChecker != null) {
+			return concurrentConditionChecker.checkNode(node);
+		}
+		return condition.checkNode(node);
+	}
+
 	private boolean checkNode(final NodeModel node) {
 		return condition == null || ! shouldRemainInvisible(node) && condition.checkNode(node);
 	}
@@ -184,11 +497,12 @@ public class Filter implements IExtension {
 	}
 
 	private boolean filterChildren(final NodeModel node,
-	                               final boolean hasMatchingAncestor, final boolean hasHiddenAncestor) {
+	                               final boolean hasMatchingAncestor, final boolean hasHiddenAncestor,
+	                               final Set<NodeModel> updatedNodes) {
 		boolean hasMatchingDescendant = false;
 		for (final NodeModel child : node.getChildren()) {
 			hasMatchingDescendant = applyFilter(child, hasMatchingAncestor, hasHiddenAncestor,
-			    hasMatchingDescendant);
+			    hasMatchingDescendant, updatedNodes);
 		}
 		return hasMatchingDescendant;
 	}
@@ -219,12 +533,13 @@ public class Filter implements IExtension {
 		if (condition == null || node.isRoot()) {
 			return true;
 		}
-		FilterInfo filterInfo = getFilterInfo(node);
-        return filterInfo.isNotChecked() || filterInfo.matches(this.options) != hidesMatchingNodes;
+		final int filterInfo = accessor.getInfo(node);
+        return FilterInfo.matches(filterInfo, FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE)
+                || FilterInfo.matches(filterInfo, this.options) != hidesMatchingNodes;
 	}
 
 	void resetFilter(final NodeModel node) {
-		getFilterInfo(node).reset();
+		accessor.setInfo(node, FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE);
 	}
 
 	public FilterInfo getFilterInfo(final NodeModel node) {
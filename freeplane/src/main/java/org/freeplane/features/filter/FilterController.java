@@ -185,6 +185,7 @@ public class FilterController implements IExtension, IMapViewChangeListener {
 	}
 
 	public static final String FREEPLANE_FILTER_EXTENSION_WITHOUT_DOT = "mmfilter";
+	private static final String REAPPLY_INCREMENTALLY_PROPERTY = "filter.reapplyIncrementally";
 	private static final ASelectableCondition NO_FILTERING = NoFilteringCondition.createCondition();
 
 	public static FilterController getController(Controller controller) {
@@ -430,7 +431,8 @@ public class FilterController implements IExtension, IMapViewChangeListener {
         else {
             Filter oldFilter = map.putExtension(Filter.class, filter);
             if (oldFilter == null || force || !filter.canUseFilterResultsFrom(oldFilter)) {
-                filter.calculateFilterResults(map);
+                if (! reapplyIncrementally(filter, oldFilter, map))
+                    calculateFilterResults(filter, map);
         		NodeModel selectionRoot = selection.getSelectionRoot();
 				if(! selectionRoot.isRoot())
         			filter.resetFilter(selectionRoot);
@@ -448,7 +450,8 @@ public class FilterController implements IExtension, IMapViewChangeListener {
             	selection.setFilter(filter);
             	MapModel map = selection.getSelected().getMap();
                 if (force || !filter.canUseFilterResultsFrom(oldFilter)) {
-            		filter.calculateFilterResults(map);
+                	if (! reapplyIncrementally(filter, oldFilter, map))
+                		calculateFilterResults(filter, map);
             		NodeModel selectionRoot = selection.getSelectionRoot();
 					if(! selectionRoot.isRoot())
             			filter.resetFilter(selectionRoot);
@@ -464,6 +467,23 @@ public class FilterController implements IExtension, IMapViewChangeListener {
             }
         }
     }
+    private boolean reapplyIncrementally(final Filter filter, final Filter oldFilter, final MapModel map) {
+        if (oldFilter == null || ! filter.canUseFilterResultsFrom(oldFilter)
+                || ! ResourceController.getResourceController().getBooleanProperty(REAPPLY_INCREMENTALLY_PROPERTY))
+            return false;
+        filter.useFilterResultsFrom(oldFilter);
+        filter.updateFilterResults(map);
+        return true;
+    }
+
+    private void calculateFilterResults(final Filter filter, final MapModel map) {
+        if (ResourceController.getResourceController().getBooleanProperty(REAPPLY_INCREMENTALLY_PROPERTY))
+            FilterUpdateJournal.start(map);
+        else
+            map.removeExtension(FilterUpdateJournal.class);
+        filter.calculateFilterResults(map);
+    }
+
     private void refreshMap(Object source, MapModel map) {
         Controller.getCurrentModeController().getMapController().fireMapChanged(new MapChangeEvent(source, map, Filter.class, null, this, false));
     }
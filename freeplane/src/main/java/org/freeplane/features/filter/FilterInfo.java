@@ -41,30 +41,50 @@ public class FilterInfo {
         this.info = info;
     }
 
+	int getInfo() {
+		return info;
+	}
+
+	void setInfo(final int info) {
+		this.info = info;
+	}
+
 	void add(final int flag) {
+		setInfo(add(getInfo(), flag));
+	}
+
+	static int add(final int info, final int flag) {
 		if ((flag & (FILTER_SHOW_AS_MATCHED | FILTER_SHOW_AS_HIDDEN)) != 0) {
-			info &= ~FILTER_SHOW_AS_INITIAL_VALUE;
+			return (info & ~FILTER_SHOW_AS_INITIAL_VALUE) | flag;
 		}
-		info |= flag;
+		return info | flag;
+	}
+
+	void remove(final int flag) {
+		setInfo(getInfo() & ~flag);
 	}
 
 	/**
 	 */
 	public boolean canBeAncestor() {
-		return (info & (FILTER_SHOW_AS_ANCESTOR|FILTER_SHOW_AS_INITIAL_VALUE)) != 0;
+		return (getInfo() & (FILTER_SHOW_AS_ANCESTOR|FILTER_SHOW_AS_INITIAL_VALUE)) != 0;
 	}
 
 	/**
 	 */
 	public boolean isMatched() {
-		return (info & FILTER_SHOW_AS_MATCHED) != 0;
+		return (getInfo() & FILTER_SHOW_AS_MATCHED) != 0;
 	}
 
 	public void reset() {
-		info = FILTER_SHOW_AS_INITIAL_VALUE;
+		setInfo(FILTER_SHOW_AS_INITIAL_VALUE);
 	}
 
 	boolean matches(final int filterOptions) {
+		return matches(getInfo(), filterOptions);
+	}
+
+	static boolean matches(final int info, final int filterOptions) {
 		return (filterOptions & info) != 0;
 	}
 
@@ -0,0 +1,115 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.filter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Records node changes of a map so that filters can recheck only the changed nodes.
+ *
+ * Filters remember the journal version their results were calculated for
+ * and ask for the changes made since then.
+ * The journal keeps a limited number of changes, filters which are too far behind recalculate all results.
+ *
+ * Only nodes which changed themselves and their relatives known from
+ * {@link org.freeplane.features.filter.condition.ICondition#checksAncestors()} and similar methods are rechecked.
+ * Conditions depending on other nodes, e.g. script conditions reading arbitrary nodes,
+ * are not rechecked when those nodes change, their results are updated by the next full recalculation.
+ */
+public class FilterUpdateJournal implements IExtension {
+	static final int CAPACITY = 10000;
+
+	enum ChangeType {
+		/** node content changed, its children are not affected */
+		NODE_CHANGED,
+		/** node and its descendants were inserted or moved */
+		SUBTREE_INSERTED,
+		/** a child of the node was removed or moved away */
+		CHILD_REMOVED
+	}
+
+	static class Change {
+		final ChangeType type;
+		final NodeModel node;
+
+		Change(final ChangeType type, final NodeModel node) {
+			this.type = type;
+			this.node = node;
+		}
+	}
+
+	static FilterUpdateJournal start(final MapModel map) {
+		FilterUpdateJournal journal = map.getExtension(FilterUpdateJournal.class);
+		if (journal == null) {
+			journal = new FilterUpdateJournal();
+			map.addExtension(journal);
+		}
+		return journal;
+	}
+
+	private final ArrayList<Change> changes;
+	private long firstVersion;
+
+	FilterUpdateJournal() {
+		changes = new ArrayList<Change>();
+		firstVersion = 0;
+	}
+
+	long getVersion() {
+		return firstVersion + changes.size();
+	}
+
+	/**
+	 * @return changes made since the given version or null if they are not known any more.
+	 */
+	List<Change> getChangesSince(final long version) {
+		if (version < firstVersion || version > getVersion()) {
+			return null;
+		}
+		return new ArrayList<Change>(changes.subList((int) (version - firstVersion), changes.size()));
+	}
+
+	/** Forces all filters to recalculate their results */
+	void clear() {
+		firstVersion = getVersion() + 1;
+		changes.clear();
+	}
+
+	void nodeChanged(final NodeModel node) {
+		add(new Change(ChangeType.NODE_CHANGED, node));
+	}
+
+	void subtreeInserted(final NodeModel node) {
+		add(new Change(ChangeType.SUBTREE_INSERTED, node));
+	}
+
+	void childRemoved(final NodeModel parent) {
+		add(new Change(ChangeType.CHILD_REMOVED, parent));
+	}
+
+	private void add(final Change change) {
+		if (changes.size() >= CAPACITY) {
+			clear();
+		}
+		changes.add(change);
+	}
+}
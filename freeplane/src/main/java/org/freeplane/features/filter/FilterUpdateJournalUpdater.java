@@ -0,0 +1,83 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.filter;
+
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+
+/**
+ * Writes node changes into the {@link FilterUpdateJournal} of maps which have one.
+ */
+public class FilterUpdateJournalUpdater implements INodeChangeListener, IMapChangeListener {
+	private static FilterUpdateJournal getJournal(final MapModel map) {
+		return map != null ? map.getExtension(FilterUpdateJournal.class) : null;
+	}
+
+	private static FilterUpdateJournal getJournal(final NodeModel node) {
+		return node != null ? getJournal(node.getMap()) : null;
+	}
+
+	@Override
+	public void nodeChanged(final NodeChangeEvent event) {
+		final NodeModel node = event.getNode();
+		final FilterUpdateJournal journal = getJournal(node);
+		if (journal != null) {
+			journal.nodeChanged(node);
+		}
+	}
+
+	@Override
+	public void mapChanged(final MapChangeEvent event) {
+		if (event.setsDirtyFlag()) {
+			final FilterUpdateJournal journal = getJournal(event.getMap());
+			if (journal != null) {
+				journal.clear();
+			}
+		}
+	}
+
+	@Override
+	public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+		final FilterUpdateJournal journal = getJournal(parent);
+		if (journal != null) {
+			journal.subtreeInserted(child);
+		}
+	}
+
+	@Override
+	public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+		final FilterUpdateJournal journal = getJournal(nodeDeletionEvent.parent);
+		if (journal != null) {
+			journal.childRemoved(nodeDeletionEvent.parent);
+		}
+	}
+
+	@Override
+	public void onNodeMoved(final NodeMoveEvent nodeMoveEvent) {
+		final FilterUpdateJournal journal = getJournal(nodeMoveEvent.newParent);
+		if (journal != null) {
+			journal.childRemoved(nodeMoveEvent.oldParent);
+			journal.subtreeInserted(nodeMoveEvent.child);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.filter;
+
+import java.util.function.Supplier;
+
+/**
+ * Shares a stateful matching strategy like {@link PseudoDamerauLevenshtein}
+ * by giving every thread its own instance.
+ */
+class ThreadConfinedStringMatchingStrategy implements StringMatchingStrategy {
+	private final ThreadLocal<StringMatchingStrategy> strategies;
+
+	ThreadConfinedStringMatchingStrategy(final Supplier<StringMatchingStrategy> strategyFactory) {
+		strategies = ThreadLocal.withInitial(strategyFactory);
+	}
+
+	@Override
+	public boolean matches(final String searchTerm, final String searchText, final boolean subStringMatch) {
+		return strategies.get().matches(searchTerm, searchText, subStringMatch);
+	}
+}
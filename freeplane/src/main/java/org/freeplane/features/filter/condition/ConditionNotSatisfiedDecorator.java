@@ -19,6 +19,8 @@
  */
 package org.freeplane.features.filter.condition;
 
+import java.util.function.BooleanSupplier;
+
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.n3.nanoxml.XMLElement;
 
@@ -41,6 +43,17 @@ public class ConditionNotSatisfiedDecorator extends DecoratedCondition implement
 	public boolean checkNode(final NodeModel node) {
 		return !originalCondition.checkNode(node);
 	}
+
+	@Override
+	public boolean supportsConcurrentChecks() {
+		return originalCondition.supportsConcurrentChecks();
+	}
+
+	@Override
+	public BooleanSupplier prepareConcurrentCheck(final NodeModel node) {
+		final BooleanSupplier check = originalCondition.prepareConcurrentCheck(node);
+		return () -> !check.getAsBoolean();
+	}
 	
 	
 
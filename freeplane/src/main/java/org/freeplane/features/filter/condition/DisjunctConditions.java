@@ -22,6 +22,7 @@ package org.freeplane.features.filter.condition;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Vector;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Stream;
 
 import javax.swing.JComponent;
@@ -83,6 +84,27 @@ public class DisjunctConditions extends CombinedConditions implements ICombinedC
 		return false;
 	}
 
+	@Override
+	public boolean supportsConcurrentChecks() {
+		return Stream.of(conditions).allMatch(ASelectableCondition::supportsConcurrentChecks);
+	}
+
+	@Override
+	public BooleanSupplier prepareConcurrentCheck(final NodeModel node) {
+		final BooleanSupplier[] checks = new BooleanSupplier[conditions.length];
+		for (int i = 0; i < conditions.length; i++) {
+			checks[i] = conditions[i].prepareConcurrentCheck(node);
+		}
+		return () -> {
+			for (final BooleanSupplier check : checks) {
+				if (check.getAsBoolean()) {
+					return true;
+				}
+			}
+			return false;
+		};
+	}
+
 	/*
 	 * (non-Javadoc)
 	 * @see
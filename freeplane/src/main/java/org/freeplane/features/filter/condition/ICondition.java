@@ -19,11 +19,30 @@
  */
 package org.freeplane.features.filter.condition;
 
+import java.util.function.BooleanSupplier;
+
 import org.freeplane.features.map.NodeModel;
 
 public interface ICondition {
 	boolean checkNode(NodeModel node);
 
+    /**
+     * Marks conditions which can check different nodes concurrently
+     * using {@link #prepareConcurrentCheck(NodeModel)}.
+     */
+    default boolean supportsConcurrentChecks() {
+        return false;
+    }
+
+    /**
+     * Reads everything the check needs from the node on the calling thread
+     * and returns the rest of the check, which may run on any thread.
+     */
+    default BooleanSupplier prepareConcurrentCheck(NodeModel node) {
+        final boolean result = checkNode(node);
+        return () -> result;
+    }
+
     default boolean checksParent() {
         return false;
     }
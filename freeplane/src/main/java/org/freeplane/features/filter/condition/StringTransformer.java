@@ -3,10 +3,17 @@ package org.freeplane.features.filter.condition;
 import java.text.Normalizer;
 import java.util.regex.Pattern;
 
+import org.freeplane.core.util.collection.StringTransformationCache;
+
 public class StringTransformer {
     private String value;
 
     private static final Pattern ACCENTS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final long CACHE_CHARACTER_COUNT = 1024 * 1024;
+    private static final StringTransformationCache withoutAccentsCache = new StringTransformationCache(
+        value -> new StringTransformer(value).removeAccents().value(), 0, CACHE_CHARACTER_COUNT);
+    private static final StringTransformationCache lowerCaseWithoutAccentsCache = new StringTransformationCache(
+        value -> new StringTransformer(value).toLowerCase().removeAccents().value(), 0, CACHE_CHARACTER_COUNT);
 
     public StringTransformer(String value) {
         super();
@@ -16,12 +23,14 @@ public class StringTransformer {
     public static String transform (String value, boolean toLowerCase, boolean removeAccents) {
         if(! toLowerCase && ! removeAccents)
             return value;
-        StringTransformer t = new StringTransformer(value);
-        if(toLowerCase)
-            t.toLowerCase();
         if(removeAccents)
-            t.removeAccents();
-        return t.value();
+            return (toLowerCase ? lowerCaseWithoutAccentsCache : withoutAccentsCache).transform(value);
+        return new StringTransformer(value).toLowerCase().value();
+    }
+
+    /** caches of transformations removing accents, which are much more expensive than case conversion */
+    public static StringTransformationCache[] getCaches() {
+        return new StringTransformationCache[] {withoutAccentsCache, lowerCaseWithoutAccentsCache};
     }
 
     public StringTransformer toLowerCase() {
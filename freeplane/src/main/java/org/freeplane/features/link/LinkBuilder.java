@@ -22,6 +22,8 @@ package org.freeplane.features.link;
 import java.awt.Point;
 import java.io.IOException;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Locale;
@@ -38,6 +40,7 @@ import org.freeplane.core.io.xml.TreeXmlWriter;
 import org.freeplane.core.resources.TranslatedObject;
 import org.freeplane.core.util.ColorUtils;
 import org.freeplane.core.util.Hyperlink;
+import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeBuilder;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.styles.IStyle;
@@ -51,12 +54,32 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 	private static final int FREEPLANE_VERSION_WITH_CURVED_LOOPED_CONNECTORS = 3;
 	private static final String FORMAT_AS_HYPERLINK = "FORMAT_AS_HYPERLINK";
 	private static final String LINK = "LINK";
-	final private HashSet<NodeLinkModel> processedLinks;
+	final private Map<MapModel, Collection<NodeLinkModel>> processedLinks;
+	final private HashSet<NodeLinkModel> writtenLinks;
 	private final LinkController linkController;
 
 	public LinkBuilder(final LinkController linkController) {
 		this.linkController = linkController;
-		processedLinks = new HashSet<NodeLinkModel>();
+		processedLinks = new HashMap<MapModel, Collection<NodeLinkModel>>();
+		writtenLinks = new HashSet<NodeLinkModel>();
+	}
+
+	private void addProcessedLinks(final MapModel map, final Collection<NodeLinkModel> links) {
+		synchronized (processedLinks) {
+			Collection<NodeLinkModel> mapLinks = processedLinks.get(map);
+			if (mapLinks == null) {
+				mapLinks = new HashSet<NodeLinkModel>();
+				processedLinks.put(map, mapLinks);
+			}
+			mapLinks.addAll(links);
+		}
+	}
+
+	private Collection<NodeLinkModel> removeProcessedLinks(final MapModel map) {
+		synchronized (processedLinks) {
+			final Collection<NodeLinkModel> mapLinks = processedLinks.remove(map);
+			return mapLinks != null ? mapLinks : Collections.<NodeLinkModel> emptySet();
+		}
 	}
 
 	private NodeLinkModel createArrowLink(final NodeModel source, final String targetID) {
@@ -78,7 +101,7 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 	 */
 	@Override
 	public void readingCompleted(final NodeModel topNode, final Map<String, String> newIds) {
-		final Iterator<NodeLinkModel> iterator = processedLinks.iterator();
+		final Iterator<NodeLinkModel> iterator = removeProcessedLinks(topNode.getMap()).iterator();
 		while (iterator.hasNext()) {
 			final NodeLinkModel arrowLink = iterator.next();
 			final String id = arrowLink.getTargetID();
@@ -92,7 +115,11 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 			final NodeModel source = arrowLink.getSource();
 			NodeLinks.createLinkExtension(source).addArrowlink(arrowLink);
 		}
-		processedLinks.clear();
+	}
+
+	@Override
+	public void readingAborted(final MapModel map) {
+		removeProcessedLinks(map);
 	}
 
 	private void registerAttributeHandlers(final ReadManager reader) {
@@ -102,7 +129,7 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 				final NodeModel node = (NodeModel) userObject;
 				linkController.loadLink(node, value);
 				final Collection<NodeLinkModel> links = NodeLinks.getLinks(node);
-				processedLinks.addAll(links);
+				addProcessedLinks(node.getMap(), links);
 			}
 		});
 
@@ -148,7 +175,7 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 			public void setAttribute(final Object userObject, final String value) {
 				final ConnectorModel arrowLink = (ConnectorModel) userObject;
 				arrowLink.setTargetID(value);
-				processedLinks.add(arrowLink);
+				addProcessedLinks(arrowLink.getSource().getMap(), Collections.<NodeLinkModel> singleton(arrowLink));
 			}
 		});
 		reader.addAttributeHandler("arrowlink", "SOURCE_LABEL", new IAttributeHandler() {
@@ -377,12 +404,12 @@ public class LinkBuilder implements IElementDOMHandler, IReadCompletionListener{
 			while (iterator.hasNext()) {
 				final NodeLinkModel linkModel = iterator.next();
 				if (linkModel instanceof ConnectorModel) {
-					final boolean linkNotWrittenBefore = ! processedLinks.contains(linkModel);
+					final boolean linkNotWrittenBefore = ! writtenLinks.contains(linkModel);
 					if(linkNotWrittenBefore) {
 						final ConnectorModel arrowLinkModel = (ConnectorModel) linkModel.cloneForSource(node);
 						if(arrowLinkModel != null) {
 							save(writer, arrowLinkModel);
-							processedLinks.add(linkModel);
+							writtenLinks.add(linkModel);
 						}
 					}
 				}
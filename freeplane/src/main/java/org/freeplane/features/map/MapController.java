@@ -55,6 +55,7 @@ import org.freeplane.core.util.DelayedRunner;
 import org.freeplane.features.clipboard.ClipboardControllers;
 import org.freeplane.features.explorer.MapExplorerController;
 import org.freeplane.features.filter.Filter;
+import org.freeplane.features.filter.FilterUpdateJournalUpdater;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.filter.condition.ConditionFactory;
 import org.freeplane.features.map.MapWriter.Mode;
@@ -65,6 +66,7 @@ import org.freeplane.features.mode.AController.IActionOnChange;
 import org.freeplane.features.mode.Controller;
 import org.freeplane.features.mode.ModeController;
 import org.freeplane.features.mode.SelectionController;
+import org.freeplane.features.text.FullTextIndexUpdater;
 import org.freeplane.features.ui.IMapViewManager;
 import org.freeplane.features.url.UrlManager;
 import org.freeplane.main.addons.AddOnsController;
@@ -347,6 +349,15 @@ implements IExtension, NodeChangeAnnouncer{
 		writeManager.addExtensionElementWriter(UnknownElements.class, unknownElementWriter);
 		mapChangeListeners = new LinkedList<IMapChangeListener>();
 		nodeChangeListeners = new LinkedList<INodeChangeListener>();
+		final SerializedSubtreeCacheUpdater serializedSubtreeCacheUpdater = new SerializedSubtreeCacheUpdater();
+		addMapChangeListener(serializedSubtreeCacheUpdater);
+		addNodeChangeListener(serializedSubtreeCacheUpdater);
+		final FilterUpdateJournalUpdater filterUpdateJournalUpdater = new FilterUpdateJournalUpdater();
+		addMapChangeListener(filterUpdateJournalUpdater);
+		addNodeChangeListener(filterUpdateJournalUpdater);
+		final FullTextIndexUpdater fullTextIndexUpdater = new FullTextIndexUpdater();
+		addMapChangeListener(fullTextIndexUpdater);
+		addNodeChangeListener(fullTextIndexUpdater);
 		actionEnablerOnChange = new ActionEnablerOnChange(modeController);
 		actionSelectorOnChange = new ActionSelectorOnChange(modeController);
 		addNodeSelectionListener(actionEnablerOnChange);
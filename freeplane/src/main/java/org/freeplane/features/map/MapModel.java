@@ -27,6 +27,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.freeplane.core.extension.ExtensionContainer;
 import org.freeplane.core.extension.IExtension;
@@ -53,6 +54,7 @@ public class MapModel {
 	private URL url;
 	private NodeChangeAnnouncer nodeChangeAnnouncer;
     private final INodeDuplicator nodeDuplicator;
+	private final AtomicInteger nodeIndexCount = new AtomicInteger();
 
 	public MapModel(INodeDuplicator nodeDuplicator, IconRegistry iconRegistry, NodeChangeAnnouncer nodeChangeAnnouncer) {
 		this.nodeDuplicator = nodeDuplicator;
@@ -210,6 +212,17 @@ public class MapModel {
 		return id;
 	}
 
+	int allocateNodeIndex() {
+		return nodeIndexCount.getAndIncrement();
+	}
+
+	/**
+	 * @return upper bound of {@link NodeModel#getIndexInMap()} for all nodes of this map
+	 */
+	public int getNodeIndexCount() {
+		return nodeIndexCount.get();
+	}
+
 	public void registryNodeRecursive(final NodeModel nodeModel) {
 		registryNodeRecursive(nodeModel, 0);
 	}
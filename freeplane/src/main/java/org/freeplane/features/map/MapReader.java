@@ -25,8 +25,10 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.ITreeReader;
 import org.freeplane.core.io.ReadManager;
 import org.freeplane.core.io.UnknownElements;
+import org.freeplane.core.io.xml.StreamingTreeXmlReader;
 import org.freeplane.core.io.xml.TreeXmlReader;
 import org.freeplane.features.map.MapWriter.Hint;
 import org.freeplane.features.map.MapWriter.Mode;
@@ -38,6 +40,14 @@ import org.freeplane.n3.nanoxml.XMLException;
  * 20.12.2008
  */
 public class MapReader implements IElementDOMHandler {
+	public enum ReaderHint {
+		PARSER
+	}
+
+	public enum Parser {
+		NANOXML, STREAMING
+	}
+
 	public class NodeTreeCreator {
 		private MapModel createdMap;
 		private final Map<Object, Object> hints;
@@ -55,17 +65,18 @@ public class MapReader implements IElementDOMHandler {
         }
 
 		public NodeModel create(final Reader pReader) throws XMLException {
-			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
-			final TreeXmlReader reader = new TreeXmlReader(readManager);
+			final NodeTreeCreator oldNodeTreeCreator = getCurrentNodeTreeCreator();
+			final ITreeReader reader = Parser.STREAMING.equals(getHint(ReaderHint.PARSER))
+			        ? new StreamingTreeXmlReader(readManager) : new TreeXmlReader(readManager);
 			try {
-				nodeTreeCreator = this;
+				setCurrentNodeTreeCreator(this);
 				reader.load(createdMap, pReader);
 				final NodeModel node = nodeBuilder.getMapChild();
 				return node;
 			}
 			finally {
 				nodeBuilder.reset();
-				nodeTreeCreator = oldNodeTreeCreator;
+				setCurrentNodeTreeCreator(oldNodeTreeCreator);
 			}
 		}
 
@@ -73,24 +84,45 @@ public class MapReader implements IElementDOMHandler {
 		XMLException {
 			synchronized(this) {
 				start(map);
-				final NodeModel node = create(pReader);
-				if (node == null)
-					throw new RuntimeException("corrupted map, no root node found");
-				finish(node);
-				return node;
+				try {
+					final NodeModel node = create(pReader);
+					if (node == null)
+						throw new RuntimeException("corrupted map, no root node found");
+					finish(node);
+					return node;
+				}
+				finally {
+					abort();
+				}
 			}
 		}
 
 		public void finish(final NodeModel node) {
-			final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
+			final NodeTreeCreator oldNodeTreeCreator = getCurrentNodeTreeCreator();
 			try {
-				nodeTreeCreator = this;
+				setCurrentNodeTreeCreator(this);
 				readManager.readingCompleted(node, newIds);
 				newIds.clear();
 				createdMap = null;
 			}
 			finally {
-				nodeTreeCreator = oldNodeTreeCreator;
+				setCurrentNodeTreeCreator(oldNodeTreeCreator);
+			}
+		}
+
+		/** Lets the read completion listeners drop what they have collected for the map, unless it is finished. */
+		public void abort() {
+			if (createdMap == null)
+				return;
+			final NodeTreeCreator oldNodeTreeCreator = getCurrentNodeTreeCreator();
+			try {
+				setCurrentNodeTreeCreator(this);
+				readManager.readingAborted(createdMap);
+				newIds.clear();
+				createdMap = null;
+			}
+			finally {
+				setCurrentNodeTreeCreator(oldNodeTreeCreator);
 			}
 		}
 
@@ -139,10 +171,20 @@ public class MapReader implements IElementDOMHandler {
 
 	private final NodeBuilder nodeBuilder;
 	final private ReadManager readManager;
-	private NodeTreeCreator nodeTreeCreator;
+	final private ThreadLocal<NodeTreeCreator> currentNodeTreeCreator = new ThreadLocal<NodeTreeCreator>();
 
+	/** Returns the creator of the map loaded by the current thread, so that several maps can be loaded concurrently. */
 	public NodeTreeCreator getCurrentNodeTreeCreator() {
-		return nodeTreeCreator;
+		return currentNodeTreeCreator.get();
+	}
+
+	private void setCurrentNodeTreeCreator(final NodeTreeCreator nodeTreeCreator) {
+		if (nodeTreeCreator != null) {
+			currentNodeTreeCreator.set(nodeTreeCreator);
+		}
+		else {
+			currentNodeTreeCreator.remove();
+		}
 	}
 
 	public MapReader(final ReadManager readManager) {
@@ -153,7 +195,7 @@ public class MapReader implements IElementDOMHandler {
 
 	@Override
 	public Object createElement(final Object parent, final String tag, final XMLElement attributes) {
-		return nodeTreeCreator.getCreatedMap();
+		return getCurrentNodeTreeCreator().getCreatedMap();
 	}
 
 	public NodeModel createNodeTreeFromXml(final MapModel map, final Reader pReader, final Mode mode)
@@ -164,31 +206,41 @@ public class MapReader implements IElementDOMHandler {
 	}
 	public NodeModel createNodeTreeFromXml(final MapModel map, final Reader pReader, final Map<Object, Object> hints)
 	        throws IOException, XMLException {
-		final NodeTreeCreator oldNodeTreeCreator = nodeTreeCreator;
+		final NodeTreeCreator oldNodeTreeCreator = getCurrentNodeTreeCreator();
 		try {
-			nodeTreeCreator = new NodeTreeCreator(hints);
+			final NodeTreeCreator nodeTreeCreator = new NodeTreeCreator(hints);
+			setCurrentNodeTreeCreator(nodeTreeCreator);
 			final NodeModel topNode = nodeTreeCreator.createNodeTreeFromXml(map, pReader);
 			return topNode;
 		}
 		finally {
-			nodeTreeCreator = oldNodeTreeCreator;
+			setCurrentNodeTreeCreator(oldNodeTreeCreator);
 		}
 	}
 
 	@Override
 	public void endElement(final Object parent, final String tag, final Object element, final XMLElement dom) {
 		final MapModel map = (MapModel) element;
-		if (dom.getAttributeCount() != 0 || dom.hasChildren()) {
+		if (dom != null && (dom.getAttributeCount() != 0 || dom.hasChildren())) {
 			map.addExtension(new UnknownElements(dom));
 		}
 	}
 
+	@Override
+	public boolean requiresDom() {
+		return false;
+	}
+
 	public boolean isMapLoadingInProcess() {
-		return nodeTreeCreator != null;
+		return getCurrentNodeTreeCreator() != null;
 	}
 
 	public NodeTreeCreator nodeTreeCreator(final MapModel map) {
-		final NodeTreeCreator nodeTreeCreator = new NodeTreeCreator();
+		return nodeTreeCreator(map, new HashMap<Object, Object>());
+	}
+
+	public NodeTreeCreator nodeTreeCreator(final MapModel map, final Map<Object, Object> hints) {
+		final NodeTreeCreator nodeTreeCreator = new NodeTreeCreator(hints);
 		nodeTreeCreator.start(map);
 		return nodeTreeCreator;
 	}
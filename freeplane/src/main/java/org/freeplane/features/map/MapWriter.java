@@ -28,6 +28,7 @@ import org.freeplane.core.io.IAttributeWriter;
 import org.freeplane.core.io.IElementWriter;
 import org.freeplane.core.io.ITreeWriter;
 import org.freeplane.core.io.WriteManager;
+import org.freeplane.core.io.xml.SerializedSubtreeCache;
 import org.freeplane.core.io.xml.TreeXmlWriter;
 import org.freeplane.core.resources.ResourceController;
 import org.freeplane.core.util.FreeplaneVersion;
@@ -56,7 +57,10 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 		CLIPBOARD, FILE, EXPORT, STYLE
 	};
 
+	private static final String INCREMENTAL_SAVE_PROPERTY = "save_incrementally";
 	private NodeWriter currentNodeWriter;
+	private TreeXmlWriter cachingTreeWriter;
+	private SerializedSubtreeCache subtreeCache;
 	final private MapController mapController;
 	private boolean saveInvisible;
 	final WriteManager writeManager;
@@ -90,6 +94,23 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 
 	public void writeMapAsXml(final MapModel map, final Writer fileout, final Mode mode, final boolean saveInvisible,
 	                          final boolean forceFormat) throws IOException {
+		writeMapAsXml(map, fileout, mode, saveInvisible, forceFormat,
+		    Mode.FILE.equals(mode) && saveInvisible && !forceFormat ? getSubtreeCache(map, false) : null);
+	}
+
+	/**
+	 * Writes the whole map like a saved file, serializing only subtrees changed since the last snapshot
+	 * even if incremental saving is switched off.
+	 * Used by automatic saves, which write a snapshot of the map taken on the event dispatch thread.
+	 * @since 1.10.4
+	 */
+	public void writeMapSnapshotAsXml(final MapModel map, final Writer fileout) throws IOException {
+		writeMapAsXml(map, fileout, Mode.FILE, true, false, getSubtreeCache(map, true));
+	}
+
+	private void writeMapAsXml(final MapModel map, final Writer fileout, final Mode mode, final boolean saveInvisible,
+	                           final boolean forceFormat, final SerializedSubtreeCache mapSubtreeCache)
+	        throws IOException {
 		final TreeXmlWriter xmlWriter = createTreeWriter(fileout);
 		xmlWriter.setHint(Hint.MODE, mode);
 		if (forceFormat) {
@@ -97,11 +118,38 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 		}
 		final XMLElement xmlMap = new XMLElement("map");
 		setSaveInvisible(saveInvisible);
-		xmlWriter.addElement(map, xmlMap);
+		final TreeXmlWriter oldCachingTreeWriter = cachingTreeWriter;
+		final SerializedSubtreeCache oldSubtreeCache = subtreeCache;
+		subtreeCache = mapSubtreeCache;
+		cachingTreeWriter = subtreeCache != null ? xmlWriter : null;
+		try {
+			xmlWriter.addElement(map, xmlMap);
+		}
+		finally {
+			cachingTreeWriter = oldCachingTreeWriter;
+			subtreeCache = oldSubtreeCache;
+		}
 		xmlWriter.flush();
 		fileout.close();
 	}
 
+	/** @param snapshot true for automatic saves, which keep the cache even if incremental saving is switched off */
+	private SerializedSubtreeCache getSubtreeCache(final MapModel map, final boolean snapshot) {
+		final ResourceController resourceController = ResourceController.getResourceController();
+		if (!snapshot && !resourceController.getBooleanProperty(INCREMENTAL_SAVE_PROPERTY)) {
+			return null;
+		}
+		SerializedSubtreeCache cache = map.getExtension(SerializedSubtreeCache.class);
+		if (cache == null) {
+			cache = new SerializedSubtreeCache();
+			map.addExtension(cache);
+		}
+		cache.setContext(Arrays.asList(resourceController.getProperty(NodeBuilder.RESOURCES_SAVE_FOLDING),
+		    resourceController.getProperty(NodeBuilder.RESOURCES_SAVE_MODIFICATION_TIMES),
+		    resourceController.getProperty("useAsciiCharset")));
+		return cache;
+	}
+
 	private void writeNode(final ITreeWriter xmlWriter, final NodeModel node, final boolean writeInvisible,
 	                       final boolean writeChildren) throws IOException {
 		final NodeWriter oldNodeWriter = currentNodeWriter;
@@ -116,7 +164,8 @@ public class MapWriter implements IElementWriter, IAttributeWriter {
 		if (oldNodeWriter != null)
 			oldNodeWriter.unregisterFrom(writeManager);
 		LinkBuilder currentLinkBuilder = new LinkBuilder(mapController.getModeController().getExtension(LinkController.class));
-		currentNodeWriter = new NodeWriter(mapController, currentLinkBuilder, nodeTag, writeChildren, writeInvisible);
+		currentNodeWriter = new NodeWriter(mapController, currentLinkBuilder, nodeTag, writeChildren, writeInvisible,
+		    xmlWriter == cachingTreeWriter ? subtreeCache : null);
 		try {
 			currentNodeWriter.registerBy(writeManager);
 			xmlWriter.addElement(node, nodeTag);
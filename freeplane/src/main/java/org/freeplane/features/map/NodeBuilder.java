@@ -101,7 +101,7 @@ public class NodeBuilder implements IElementDOMHandler {
 	@Override
 	public void endElement(final Object parentObject, final String tag, final Object userObject, final XMLElement dom) {
 		final NodeModel node = (NodeModel) userObject;
-		if (dom.getAttributeCount() != 0 || dom.hasChildren()) {
+		if (dom != null && (dom.getAttributeCount() != 0 || dom.hasChildren())) {
 			node.addExtension(new UnknownElements(dom));
 		}
 		if (parentObject instanceof MapModel) {
@@ -117,6 +117,11 @@ public class NodeBuilder implements IElementDOMHandler {
 		}
 	}
 
+	@Override
+	public boolean requiresDom() {
+		return false;
+	}
+
 	private MapModel getMap() {
 		return mapReader.getCurrentNodeTreeCreator().getCreatedMap();
 	}
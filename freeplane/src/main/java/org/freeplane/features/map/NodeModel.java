@@ -30,6 +30,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
 
 import org.freeplane.core.extension.ExtensionContainer;
 import org.freeplane.core.extension.IExtension;
@@ -74,6 +75,9 @@ public class NodeModel{
 	private NodeModel parent;
 	private String id;
 	private MapModel map = null;
+	private volatile int indexInMap = -1;
+	private static final AtomicIntegerFieldUpdater<NodeModel> INDEX_IN_MAP_UPDATER =
+			AtomicIntegerFieldUpdater.newUpdater(NodeModel.class, "indexInMap");
 	private Side side;
 	private NodeModel preferredChild;
 	private Collection<INodeView> views = null;
@@ -281,6 +285,25 @@ public class NodeModel{
 		return map;
 	}
 
+	/**
+	 * @return stable index of this node within its map, allocated on first access
+	 * and suitable for keeping per node data in arrays, or -1 if the node belongs to no map.
+	 * It can be called from any thread.
+	 */
+	public int getIndexInMap() {
+		for (;;) {
+			final int index = indexInMap;
+			if (index >= 0)
+				return index;
+			final MapModel map = this.map;
+			if (map == null)
+				return -1;
+			final int allocatedIndex = map.allocateNodeIndex();
+			if (INDEX_IN_MAP_UPDATER.compareAndSet(this, -1, allocatedIndex))
+				return allocatedIndex;
+		}
+	}
+
     public int getNodeLevel() {
         return getNodeLevel(true, null);
     }
@@ -532,6 +555,9 @@ public class NodeModel{
 	/**
 	 */
 	public void setMap(final MapModel map) {
+		if (this.map != map) {
+			indexInMap = -1;
+		}
 		this.map = map;
 		for (final NodeModel child : children) {
 			child.setMap(map);
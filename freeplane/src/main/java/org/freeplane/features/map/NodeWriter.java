@@ -20,20 +20,27 @@
 package org.freeplane.features.map;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.freeplane.api.LengthUnit;
 import org.freeplane.api.Quantity;
+import org.freeplane.core.extension.IExtension;
 import org.freeplane.core.io.IAttributeWriter;
 import org.freeplane.core.io.IElementWriter;
 import org.freeplane.core.io.ITreeWriter;
 import org.freeplane.core.io.WriteManager;
+import org.freeplane.core.io.xml.SerializedSubtreeCache;
 import org.freeplane.core.io.xml.TreeXmlWriter;
 import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.Hyperlink;
 import org.freeplane.features.filter.FilterController;
 import org.freeplane.features.icon.IconController;
 import org.freeplane.features.link.LinkBuilder;
+import org.freeplane.features.link.NodeLinks;
 import org.freeplane.features.map.MapWriter.Hint;
 import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.features.map.MapWriter.WriterHint;
@@ -59,10 +66,17 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 
 	private final Map<SharedNodeData, NodeModel> alreadyWrittenSharedContent;
 	private final LinkBuilder linkBuilder;
+	private final SerializedSubtreeCache subtreeCache;
 
 	public NodeWriter(final MapController mapController, LinkBuilder linkBuilder, final String nodeTag, final boolean writeChildren,
 	                  final boolean writeInvisible) {
+		this(mapController, linkBuilder, nodeTag, writeChildren, writeInvisible, null);
+	}
+
+	NodeWriter(final MapController mapController, LinkBuilder linkBuilder, final String nodeTag, final boolean writeChildren,
+	                  final boolean writeInvisible, final SerializedSubtreeCache subtreeCache) {
 		this.linkBuilder = linkBuilder;
+		this.subtreeCache = subtreeCache;
 		alreadyWrittenSharedContent = new HashMap<SharedNodeData, NodeModel>();
 		this.mapController = mapController;
 		this.shouldWriteChildren = writeChildren;
@@ -76,15 +90,67 @@ public class NodeWriter implements IElementWriter, IAttributeWriter {
 	}
 
 	private void saveChildren(final ITreeWriter writer, final NodeModel node) throws IOException {
+		if (subtreeCache != null) {
+			subtreeCache.childElementsStarting((TreeXmlWriter) writer, node);
+		}
 		for (final NodeModel child: node.getChildren()) {
 		if (writeInvisible || child.hasVisibleContent(FilterController.getFilter(node.getMap()))) {
 				writer.setHint(WriterHint.ALREADY_WRITTEN, isAlreadyWritten(child));
-				writer.addElement(child, nodeTag);
+				writeChild(writer, child);
 			}
 			else {
 				saveChildren(writer, child);
 			}
 		}
+		if (subtreeCache != null) {
+			subtreeCache.childElementsFinished((TreeXmlWriter) writer, node);
+		}
+	}
+
+	private void writeChild(final ITreeWriter writer, final NodeModel child) throws IOException {
+		if (subtreeCache == null || !isCacheable(child)) {
+			writer.addElement(child, nodeTag);
+			return;
+		}
+		subtreeCache.writeElement((TreeXmlWriter) writer, child, nodeTag, stamp(child),
+		    new SerializedSubtreeCache.ChildElementWriter() {
+			    @Override
+			    public void writeChildElements() throws IOException {
+				    saveChildren(writer, child);
+			    }
+		    });
+	}
+
+	/**
+	 * Folding, side, icon size and extensions can change without a node change event,
+	 * so that they are compared to the ones of the cached serialization.
+	 * Extensions are compared using their equals methods.
+	 */
+	private List<Object> stamp(final NodeModel node) {
+		return Arrays.asList(mapController.isFolded(node), node.hasChildren(), node.getSide(),
+		    node.getSharedData().getIcons().getIconSize(),
+		    new ArrayList<IExtension>(node.getSharedExtensions().values()),
+		    new ArrayList<IExtension>(node.getIndividualExtensionValues()));
+	}
+
+	/**
+	 * Serialized clones depend on which clone is written first,
+	 * serialized links and encrypted nodes depend on other nodes,
+	 * so that such nodes are always serialized again.
+	 */
+	private boolean isCacheable(final NodeModel node) {
+		if (node.isCloneNode() || EncryptionModel.getModel(node) != null) {
+			return false;
+		}
+		final NodeLinks links = NodeLinks.getLinkExtension(node);
+		if (links == null) {
+			return true;
+		}
+		if (!links.getLinks().isEmpty()) {
+			return false;
+		}
+		final Hyperlink hyperlink = links.getHyperLink(node);
+		return hyperlink == null || !hyperlink.toString().startsWith("#");
 	}
 
 	/*
@@ -0,0 +1,81 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.map;
+
+import org.freeplane.core.io.xml.SerializedSubtreeCache;
+
+/**
+ * Invalidates serialized nodes kept for incremental saving when nodes or maps change.
+ */
+class SerializedSubtreeCacheUpdater implements INodeChangeListener, IMapChangeListener {
+	private static SerializedSubtreeCache getCache(final MapModel map) {
+		return map != null ? map.getExtension(SerializedSubtreeCache.class) : null;
+	}
+
+	private static void invalidate(final NodeModel node) {
+		if (node == null) {
+			return;
+		}
+		final SerializedSubtreeCache cache = getCache(node.getMap());
+		if (cache != null) {
+			cache.invalidate(node);
+		}
+	}
+
+	private static void invalidateSubtree(final SerializedSubtreeCache cache, final NodeModel node) {
+		cache.invalidate(node);
+		for (final NodeModel child : node.getChildren()) {
+			invalidateSubtree(cache, child);
+		}
+	}
+
+	@Override
+	public void nodeChanged(final NodeChangeEvent event) {
+		invalidate(event.getNode());
+	}
+
+	@Override
+	public void mapChanged(final MapChangeEvent event) {
+		if (event.setsDirtyFlag()) {
+			final SerializedSubtreeCache cache = getCache(event.getMap());
+			if (cache != null) {
+				cache.clear();
+			}
+		}
+	}
+
+	@Override
+	public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+		invalidate(parent);
+	}
+
+	@Override
+	public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+		invalidate(nodeDeletionEvent.parent);
+		final SerializedSubtreeCache cache = getCache(nodeDeletionEvent.parent.getMap());
+		if (cache != null) {
+			invalidateSubtree(cache, nodeDeletionEvent.node);
+		}
+	}
+
+	@Override
+	public void onNodeMoved(final NodeMoveEvent nodeMoveEvent) {
+		invalidate(nodeMoveEvent.oldParent);
+		invalidate(nodeMoveEvent.newParent);
+		invalidate(nodeMoveEvent.child);
+	}
+}
@@ -166,6 +166,15 @@ public class MMapModel extends MapModel {
 		this.timerForAutomaticSaving = timer;
 	}
 
+	/** Replaces the current automatic save timer, unless the map has been closed in the meantime. */
+	public void restartTimerForAutomaticSaving() {
+		if (! autosaveEnabled)
+			return;
+		if (timerForAutomaticSaving != null)
+			timerForAutomaticSaving.stop();
+		scheduleTimerForAutomaticSaving();
+	}
+
 	@Override
 	public boolean close() {
 		final Controller controller = Controller.getCurrentController();
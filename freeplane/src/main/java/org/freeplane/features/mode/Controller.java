@@ -270,6 +270,21 @@ public class Controller extends AController implements FreeplaneActions, IMapLif
 		currentController = controller;
 	}
 
+	/** Runs the task with this controller as the current controller of the calling thread, e.g. on a worker thread. */
+	public void runAsCurrentController(final Runnable task) {
+		final Controller oldController = threadController.get();
+		threadController.set(this);
+		try {
+			task.run();
+		}
+		finally {
+			if (oldController != null)
+				threadController.set(oldController);
+			else
+				threadController.remove();
+		}
+	}
+
 	public static ModeController getCurrentModeController() {
 	    return getCurrentController().getModeController();
     }
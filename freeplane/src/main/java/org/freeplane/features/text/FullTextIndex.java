@@ -0,0 +1,243 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.text;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.filter.condition.StringTransformer;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Inverted index from words of node text, details and note to the nodes containing them.
+ * It is used to skip nodes which can not contain a searched text.
+ * The index is updated lazily from node change events on the next search.
+ *
+ * Words are maximal sequences of letters and digits, folded to lower case character by character,
+ * and are indexed both with and without diacritics.
+ * Nodes whose text is a formula are always reported as candidates
+ * because their value can change without a change event.
+ */
+public class FullTextIndex implements IExtension {
+	public static final String FULL_TEXT_INDEX_PROPERTY = "filter.useFullTextIndex";
+
+	public static FullTextIndex getIndex(final MapModel map) {
+		final FullTextIndex index = map.getExtension(FullTextIndex.class);
+		if (index != null || !ResourceController.getResourceController().getBooleanProperty(FULL_TEXT_INDEX_PROPERTY)) {
+			return index;
+		}
+		final TextController textController = TextController.getController();
+		final FullTextIndex newIndex = new FullTextIndex(map,
+		    node -> NodeTextConditionController.getItemsForComparison(TextController.FILTER_ANYTEXT, node),
+		    node -> textController.isFormula(node.getUserObject()));
+		map.addExtension(newIndex);
+		return newIndex;
+	}
+
+	private final MapModel map;
+	private final Function<NodeModel, Object[]> contentReader;
+	private final Predicate<NodeModel> isVolatile;
+	private final Map<String, BitSet> nodesByWord = new HashMap<>();
+	private final List<String[]> wordsByNode = new ArrayList<>();
+	private final BitSet volatileNodes = new BitSet();
+	private final Set<NodeModel> changedNodes = Collections.newSetFromMap(new IdentityHashMap<NodeModel, Boolean>());
+	private boolean indexesWholeMap = false;
+	private String lastSearchedText;
+	private BitSet lastCandidates;
+
+	FullTextIndex(final MapModel map, final Function<NodeModel, Object[]> contentReader,
+	              final Predicate<NodeModel> isVolatile) {
+		this.map = map;
+		this.contentReader = contentReader;
+		this.isVolatile = isVolatile;
+	}
+
+	/**
+	 * @param normalizedText searched text in the form compared by the condition,
+	 *  optionally converted to lower case and without diacritics
+	 * @return false only if the node can not contain the given text
+	 */
+	public boolean mayContain(final NodeModel node, final String normalizedText) {
+		if (node.getMap() != map) {
+			return true;
+		}
+		final BitSet candidates = findCandidates(normalizedText);
+		return candidates == null || candidates.get(node.getIndexInMap());
+	}
+
+	/**
+	 * @return indices of nodes which may contain the given text, or null if any node may contain it
+	 */
+	BitSet findCandidates(final String normalizedText) {
+		update();
+		if (lastCandidates != null && normalizedText.equals(lastSearchedText)) {
+			return lastCandidates;
+		}
+		final Set<String> searchedWords = new LinkedHashSet<>();
+		addWords(normalizedText, searchedWords);
+		if (searchedWords.isEmpty()) {
+			return null;
+		}
+		BitSet candidates = null;
+		for (final String searchedWord : searchedWords) {
+			final BitSet nodesContainingWord = new BitSet();
+			for (final Map.Entry<String, BitSet> entry : nodesByWord.entrySet()) {
+				if (entry.getKey().contains(searchedWord)) {
+					nodesContainingWord.or(entry.getValue());
+				}
+			}
+			if (candidates == null) {
+				candidates = nodesContainingWord;
+			}
+			else {
+				candidates.and(nodesContainingWord);
+			}
+		}
+		candidates.or(volatileNodes);
+		lastSearchedText = normalizedText;
+		lastCandidates = candidates;
+		return candidates;
+	}
+
+	void nodeChanged(final NodeModel node) {
+		if (indexesWholeMap) {
+			changedNodes.add(node);
+		}
+	}
+
+	void subtreeChanged(final NodeModel node) {
+		if (indexesWholeMap) {
+			addSubtree(node, changedNodes);
+		}
+	}
+
+	void clear() {
+		indexesWholeMap = false;
+		changedNodes.clear();
+	}
+
+	private void addSubtree(final NodeModel node, final Set<NodeModel> nodes) {
+		nodes.add(node);
+		for (final NodeModel child : node.getChildren()) {
+			addSubtree(child, nodes);
+		}
+	}
+
+	private void update() {
+		if (!indexesWholeMap) {
+			nodesByWord.clear();
+			wordsByNode.clear();
+			volatileNodes.clear();
+			lastCandidates = null;
+			indexSubtree(map.getRootNode());
+			indexesWholeMap = true;
+		}
+		else if (!changedNodes.isEmpty()) {
+			final NodeModel root = map.getRootNode();
+			for (final NodeModel node : changedNodes) {
+				removeNode(node);
+				if (node.getMap() == map && (node == root || node.isDescendantOf(root))) {
+					indexNode(node);
+				}
+			}
+			changedNodes.clear();
+			lastCandidates = null;
+		}
+	}
+
+	private void indexSubtree(final NodeModel node) {
+		indexNode(node);
+		for (final NodeModel child : node.getChildren()) {
+			indexSubtree(child);
+		}
+	}
+
+	private void indexNode(final NodeModel node) {
+		final int nodeIndex = node.getIndexInMap();
+		if (isVolatile.test(node)) {
+			volatileNodes.set(nodeIndex);
+			return;
+		}
+		final Set<String> words = new LinkedHashSet<>();
+		for (final Object item : contentReader.apply(node)) {
+			if (item != null) {
+				final String text = item.toString();
+				addWords(StringTransformer.transform(text, true, false), words);
+				addWords(StringTransformer.transform(text, true, true), words);
+			}
+		}
+		for (final String word : words) {
+			nodesByWord.computeIfAbsent(word, x -> new BitSet()).set(nodeIndex);
+		}
+		while (wordsByNode.size() <= nodeIndex) {
+			wordsByNode.add(null);
+		}
+		wordsByNode.set(nodeIndex, words.toArray(new String[words.size()]));
+	}
+
+	private void removeNode(final NodeModel node) {
+		if (node.getMap() != map) {
+			return;
+		}
+		final int nodeIndex = node.getIndexInMap();
+		volatileNodes.clear(nodeIndex);
+		if (nodeIndex >= wordsByNode.size()) {
+			return;
+		}
+		final String[] words = wordsByNode.set(nodeIndex, null);
+		if (words == null) {
+			return;
+		}
+		for (final String word : words) {
+			final BitSet nodes = nodesByWord.get(word);
+			nodes.clear(nodeIndex);
+			if (nodes.isEmpty()) {
+				nodesByWord.remove(word);
+			}
+		}
+	}
+
+	static void addWords(final String text, final Set<String> words) {
+		final StringBuilder word = new StringBuilder();
+		for (int i = 0; i < text.length();) {
+			final int codePoint = text.codePointAt(i);
+			i += Character.charCount(codePoint);
+			if (Character.isLetterOrDigit(codePoint)) {
+				word.appendCodePoint(Character.toLowerCase(Character.toUpperCase(codePoint)));
+			}
+			else if (word.length() > 0) {
+				words.add(word.toString());
+				word.setLength(0);
+			}
+		}
+		if (word.length() > 0) {
+			words.add(word.toString());
+		}
+	}
+}
@@ -0,0 +1,73 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.text;
+
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Marks changed nodes in the {@link FullTextIndex} of maps which have one.
+ */
+public class FullTextIndexUpdater implements INodeChangeListener, IMapChangeListener {
+	private static FullTextIndex getIndex(final MapModel map) {
+		return map != null ? map.getExtension(FullTextIndex.class) : null;
+	}
+
+	private static FullTextIndex getIndex(final NodeModel node) {
+		return node != null ? getIndex(node.getMap()) : null;
+	}
+
+	@Override
+	public void nodeChanged(final NodeChangeEvent event) {
+		final NodeModel node = event.getNode();
+		final FullTextIndex index = getIndex(node);
+		if (index != null) {
+			index.nodeChanged(node);
+		}
+	}
+
+	@Override
+	public void mapChanged(final MapChangeEvent event) {
+		if (event.setsDirtyFlag()) {
+			final FullTextIndex index = getIndex(event.getMap());
+			if (index != null) {
+				index.clear();
+			}
+		}
+	}
+
+	@Override
+	public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+		final FullTextIndex index = getIndex(parent);
+		if (index != null) {
+			index.subtreeChanged(child);
+		}
+	}
+
+	@Override
+	public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+		final FullTextIndex index = getIndex(nodeDeletionEvent.parent);
+		if (index != null) {
+			index.subtreeChanged(nodeDeletionEvent.node);
+		}
+	}
+}
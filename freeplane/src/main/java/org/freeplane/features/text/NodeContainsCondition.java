@@ -19,11 +19,14 @@
  */
 package org.freeplane.features.text;
 
+import java.util.function.BooleanSupplier;
+
 import org.freeplane.core.util.TextUtils;
 import org.freeplane.features.filter.StringMatchingStrategy;
 import org.freeplane.features.filter.condition.ASelectableCondition;
 import org.freeplane.features.filter.condition.ConditionFactory;
 import org.freeplane.features.filter.condition.StringConditionAdapter;
+import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.n3.nanoxml.XMLElement;
 
@@ -61,20 +64,52 @@ public class NodeContainsCondition extends StringConditionAdapter implements Nod
 	}
 
 	public boolean checkNode(final NodeModel node) {
+		if (!mayContainValue(node))
+			return false;
 		final Object content[] = NodeTextConditionController.getItemsForComparison(nodeItem, node);
-		return checkText(content);
+		return containsValue(normalizedValue(), normalize(content));
 	}
 
-	private boolean checkText(Object content[]) {
-		for(Object o : content){
-			if(checkText(o))
-				return true;
+	@Override
+	public boolean supportsConcurrentChecks() {
+		return true;
+	}
+
+	@Override
+	public BooleanSupplier prepareConcurrentCheck(final NodeModel node) {
+		if (!mayContainValue(node))
+			return () -> false;
+		final Object content[] = NodeTextConditionController.getItemsForComparison(nodeItem, node);
+		final String normalizedValue = normalizedValue();
+		final String normalizedTexts[] = normalize(content);
+		return () -> containsValue(normalizedValue, normalizedTexts);
+	}
+
+	private boolean mayContainValue(final NodeModel node) {
+		if (matchApproximately || nodeItem.equals(TextController.FILTER_PARENT_TEXT))
+			return true;
+		final MapModel map = node.getMap();
+		if (map == null)
+			return true;
+		final FullTextIndex index = FullTextIndex.getIndex(map);
+		return index == null || index.mayContain(node, normalizedValue());
+	}
+
+	private String[] normalize(final Object content[]) {
+		final String normalizedTexts[] = new String[content.length];
+		for (int i = 0; i < content.length; i++) {
+			normalizedTexts[i] = content[i] != null ? normalize(content[i]) : null;
 		}
-		return false;
+		return normalizedTexts;
 	}
 
-	private boolean checkText(final Object o) {
-		return o != null && stringMatchingStrategy.matches(normalizedValue(), normalize(o), true);
+	/** Only uses the given strings, so that it can run on checking threads. */
+	private boolean containsValue(final String normalizedValue, final String normalizedTexts[]) {
+		for (final String text : normalizedTexts) {
+			if (text != null && stringMatchingStrategy.matches(normalizedValue, text, true))
+				return true;
+		}
+		return false;
 	}
 
 	@Override
@@ -19,6 +19,7 @@
  */
 package org.freeplane.features.text;
 
+import java.util.function.BooleanSupplier;
 import java.util.regex.Pattern;
 
 import org.freeplane.core.io.xml.TreeXmlWriter;
@@ -63,6 +64,27 @@ public class NodeMatchesRegexpCondition extends ASelectableCondition implements
 		return content != null && checkText(content);
 	}
 
+	@Override
+	public boolean supportsConcurrentChecks() {
+		return true;
+	}
+
+	@Override
+	public BooleanSupplier prepareConcurrentCheck(final NodeModel node) {
+		final Object content[] = NodeTextConditionController.getItemsForComparison(nodeItem, node);
+		final String texts[] = new String[content.length];
+		for (int i = 0; i < content.length; i++) {
+			texts[i] = content[i] != null ? content[i].toString() : null;
+		}
+		return () -> {
+			for (final String text : texts) {
+				if (text != null && checkText(text))
+					return true;
+			}
+			return false;
+		};
+	}
+
 	private boolean checkText(Object content[]) {
 		for(Object o : content){
 			if(o != null && checkText(o.toString()))
@@ -21,6 +21,7 @@ package org.freeplane.features.text;
 
 import java.awt.Color;
 import java.awt.Component;
+import java.awt.EventQueue;
 import java.awt.Font;
 import java.util.Collection;
 import java.util.Collections;
@@ -78,6 +79,8 @@ public class TextController implements IExtension {
 	private final List<IContentTransformer> textTransformers;
 	protected final ModeController modeController;
 	private boolean nodeNumberingEnabled = true;
+	private boolean acceptsPlaceholders = false;
+	private final TransformedContentCache transformedContentCache = new TransformedContentCache();
 
 	public static boolean isMarkTransformedTextSet() {
 		return Controller.getCurrentController().getResourceController().getBooleanProperty(MARK_TRANSFORMED_TEXT);
@@ -118,20 +121,34 @@ public class TextController implements IExtension {
 		// this IContentTransformer is unconditional because its outcome
 		// is explicitly defined by the user (assigning a format)!
 		addTextTransformer(new FormatContentTransformer(this, 50));
+		mapController.addNodeChangeListener(transformedContentCache);
+		mapController.addMapChangeListener(transformedContentCache);
+		ResourceController.getResourceController().addPropertyChangeListener(transformedContentCache);
 		registerDetailsTooltip();
 		registerNodeTextTooltip();
 	}
 
     public void addTextTransformer(IContentTransformer textTransformer) {
+		transformedContentCache.clear();
 		textTransformers.add(textTransformer);
 		Collections.sort(textTransformers);
 	}
 
+	/**
+	 * Declares a node change event property whose changes affect transformed content of the changed node only.
+	 * Cached transformed content of other nodes is kept on such changes.
+	 * @since 1.10.4
+	 */
+	public void addNodeContentProperty(Object property) {
+		transformedContentCache.addNodeContentProperty(property);
+	}
+
 	public List<IContentTransformer> getTextTransformers() {
 		return textTransformers;
 	}
 
 	public void removeTextTransformer(IContentTransformer textTransformer) {
+		transformedContentCache.clear();
 		textTransformers.remove(textTransformer);
 	}
 
@@ -144,7 +161,52 @@ public class TextController implements IExtension {
         return getTransformedObject(node, nodeProperty, content, Mode.VIEW);
     }
     
+	/**
+	 * Transforms content displayed in map views.
+	 * Content transformers may return a placeholder for content taking long to calculate
+	 * and refresh the node when the content is available, see {@link #acceptsPlaceholders()}.
+	 */
+	public Object getTransformedObjectForDisplay(final NodeModel node, Object nodeProperty, Object content)
+	        throws TransformationException {
+		if (acceptsPlaceholders || !EventQueue.isDispatchThread()) {
+			return getTransformedObject(node, nodeProperty, content);
+		}
+		acceptsPlaceholders = true;
+		try {
+			return getTransformedObject(node, nodeProperty, content);
+		}
+		finally {
+			acceptsPlaceholders = false;
+		}
+	}
+
+	public Object getTransformedObjectForDisplay(NodeModel node) throws TransformationException {
+		return getTransformedObjectForDisplay(node, node, node.getUserObject());
+	}
+
+	/** true while content is transformed on the event dispatch thread for display in map views */
+	public boolean acceptsPlaceholders() {
+		return acceptsPlaceholders && EventQueue.isDispatchThread();
+	}
+
 	private Object getTransformedObject(final NodeModel node, Object nodeProperty, Object content, Mode mode)
+	        throws TransformationException {
+		if (node == null || content == null) {
+			return transformObject(node, nodeProperty, content, mode);
+		}
+		final boolean acceptsPlaceholders = acceptsPlaceholders();
+		final Object cachedContent = transformedContentCache.get(node, nodeProperty, content, mode, nodeNumberingEnabled,
+		    acceptsPlaceholders);
+		if (cachedContent != null) {
+			return cachedContent;
+		}
+		final Object transformedContent = transformObject(node, nodeProperty, content, mode);
+		transformedContentCache.put(node, nodeProperty, content, mode, nodeNumberingEnabled, acceptsPlaceholders,
+		    transformedContent);
+		return transformedContent;
+	}
+
+	private Object transformObject(final NodeModel node, Object nodeProperty, Object content, Mode mode)
 	        throws TransformationException {
 		if (content instanceof String) {
 			String string = (String) content;
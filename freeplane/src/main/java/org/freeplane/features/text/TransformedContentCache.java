@@ -0,0 +1,179 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.text;
+
+import java.awt.EventQueue;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.freeplane.core.resources.IFreeplanePropertyListener;
+import org.freeplane.features.attribute.NodeAttributeTableModel;
+import org.freeplane.features.map.IMapChangeListener;
+import org.freeplane.features.map.INodeChangeListener;
+import org.freeplane.features.map.MapChangeEvent;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeDeletionEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.NodeMoveEvent;
+import org.freeplane.features.text.IContentTransformer.Mode;
+
+/**
+ * Keeps results of the content transformer chain for repeated painting of unchanged maps.
+ *
+ * Transformed content of a node can depend on other nodes (formulas, conditional styles, node numbers)
+ * and on preferences. Changes of node content properties drop only the results of the changed node,
+ * because nodes depending on it are refreshed by formula and conditional style listeners.
+ * Other node changes and any change of map structure, maps or preferences drop all results.
+ * Results are only kept for the event dispatch thread.
+ */
+class TransformedContentCache implements INodeChangeListener, IMapChangeListener, IFreeplanePropertyListener {
+	private static final int MAXIMAL_ENTRY_COUNT_PER_NODE = 4;
+
+	private static class Entry {
+		final Object nodeProperty;
+		final Object content;
+		final Mode mode;
+		final boolean nodeNumberingEnabled;
+		final boolean acceptsPlaceholders;
+		final Object transformedContent;
+		final Entry next;
+
+		Entry(final Object nodeProperty, final Object content, final Mode mode, final boolean nodeNumberingEnabled,
+		      final boolean acceptsPlaceholders, final Object transformedContent, final Entry next) {
+			this.nodeProperty = nodeProperty;
+			this.content = content;
+			this.mode = mode;
+			this.nodeNumberingEnabled = nodeNumberingEnabled;
+			this.acceptsPlaceholders = acceptsPlaceholders;
+			this.transformedContent = transformedContent;
+			this.next = next;
+		}
+
+		boolean matches(final Object nodeProperty, final Object content, final Mode mode,
+		                final boolean nodeNumberingEnabled, final boolean acceptsPlaceholders) {
+			return this.nodeProperty == nodeProperty && this.content == content && this.mode == mode
+			        && this.nodeNumberingEnabled == nodeNumberingEnabled
+			        && this.acceptsPlaceholders == acceptsPlaceholders;
+		}
+	}
+
+	private final Set<Object> nodeContentProperties = new CopyOnWriteArraySet<>(Arrays.asList(NodeModel.NODE_TEXT,
+	    NodeModel.NOTE_TEXT, DetailModel.class, NodeAttributeTableModel.class));
+	private final WeakHashMap<NodeModel, Entry> entries = new WeakHashMap<>();
+	private final AtomicLong version = new AtomicLong();
+	private long entriesVersion = 0;
+	private long hits = 0;
+	private long misses = 0;
+
+	Object get(final NodeModel node, final Object nodeProperty, final Object content, final Mode mode,
+	           final boolean nodeNumberingEnabled, final boolean acceptsPlaceholders) {
+		if (!EventQueue.isDispatchThread()) {
+			return null;
+		}
+		dropOutdatedEntries();
+		for (Entry entry = entries.get(node); entry != null; entry = entry.next) {
+			if (entry.matches(nodeProperty, content, mode, nodeNumberingEnabled, acceptsPlaceholders)) {
+				hits++;
+				return entry.transformedContent;
+			}
+		}
+		misses++;
+		return null;
+	}
+
+	void put(final NodeModel node, final Object nodeProperty, final Object content, final Mode mode,
+	         final boolean nodeNumberingEnabled, final boolean acceptsPlaceholders, final Object transformedContent) {
+		if (!EventQueue.isDispatchThread()) {
+			return;
+		}
+		dropOutdatedEntries();
+		Entry first = entries.get(node);
+		int entryCount = 0;
+		for (Entry entry = first; entry != null; entry = entry.next) {
+			entryCount++;
+		}
+		if (entryCount >= MAXIMAL_ENTRY_COUNT_PER_NODE) {
+			first = null;
+		}
+		entries.put(node, new Entry(nodeProperty, content, mode, nodeNumberingEnabled, acceptsPlaceholders,
+		    transformedContent, first));
+	}
+
+	void addNodeContentProperty(final Object property) {
+		nodeContentProperties.add(property);
+	}
+
+	/** can be called from any thread */
+	void clear() {
+		version.incrementAndGet();
+	}
+
+	long getHits() {
+		return hits;
+	}
+
+	long getMisses() {
+		return misses;
+	}
+
+	private void dropOutdatedEntries() {
+		final long currentVersion = version.get();
+		if (entriesVersion != currentVersion) {
+			entries.clear();
+			entriesVersion = currentVersion;
+		}
+	}
+
+	@Override
+	public void nodeChanged(final NodeChangeEvent event) {
+		if (EventQueue.isDispatchThread() && nodeContentProperties.contains(event.getProperty())) {
+			dropOutdatedEntries();
+			entries.remove(event.getNode());
+		}
+		else {
+			clear();
+		}
+	}
+
+	@Override
+	public void mapChanged(final MapChangeEvent event) {
+		clear();
+	}
+
+	@Override
+	public void onNodeInserted(final NodeModel parent, final NodeModel child, final int newIndex) {
+		clear();
+	}
+
+	@Override
+	public void onNodeDeleted(final NodeDeletionEvent nodeDeletionEvent) {
+		clear();
+	}
+
+	@Override
+	public void onNodeMoved(final NodeMoveEvent nodeMoveEvent) {
+		clear();
+	}
+
+	@Override
+	public void propertyChanged(final String propertyName, final String newValue, final String oldValue) {
+		clear();
+	}
+}
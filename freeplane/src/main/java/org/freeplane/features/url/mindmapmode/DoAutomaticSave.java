@@ -19,10 +19,19 @@
  */
 package org.freeplane.features.url.mindmapmode;
 
+import java.awt.EventQueue;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 import javax.swing.Timer;
 
@@ -37,6 +46,19 @@ import org.freeplane.features.url.UrlManager;
 
 public class DoAutomaticSave implements ActionListener {
     static final String AUTOSAVE_EXTENSION = "autosave";
+    /**
+     * The map is serialized to UTF-8 encoded bytes on the event dispatch thread,
+     * only subtrees changed since the previous snapshot are serialized again.
+     * Rotating the autosave files and writing happen on this single thread.
+     */
+    private static final ExecutorService savingExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+            final Thread thread = new Thread(r, "Automatic save");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
     /**
      * This value is compared with the result of
      * getNumberOfChangesSinceLastSave(). If the values coincide, no further
@@ -68,14 +90,47 @@ public class DoAutomaticSave implements ActionListener {
         }
         Timer timer =  (Timer) e.getSource();
         timer.stop();
+        boolean savingStarted = false;
         try {
             final ModeController currentModeController = Controller.getCurrentModeController();
             if(!(currentModeController instanceof MModeController))
                 return;
-            MModeController modeController = ((MModeController) currentModeController);
             final URL url = model.getURL();
             final File file = new File(url != null ? url.getFile() //
                     : model.getTitle() + UrlManager.FREEPLANE_FILE_EXTENSION);
+            final long snapshotStart = System.nanoTime();
+            final ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+            currentModeController.getMapController().getMapWriter()
+                .writeMapSnapshotAsXml(model, new OutputStreamWriter(snapshot, StandardCharsets.UTF_8));
+            final long snapshotTime = System.nanoTime() - snapshotStart;
+            final MFileManager fileManager = (MFileManager) UrlManager.getController();
+            final Controller controller = currentModeController.getController();
+            savingExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    save(fileManager, controller, url, file, snapshot, snapshotTime);
+                }
+            });
+            savingStarted = true;
+        }
+        catch (final Exception ex) {
+            LogUtils.severe("Error in automatic MapModel.save(): ", ex);
+        }
+        finally {
+            // otherwise the timer is restarted after saving
+            if (! savingStarted)
+                timer.start();
+        }
+    }
+
+    /**
+     * Rotates the autosave files and writes the map snapshot. Runs on the saving thread,
+     * so it must not access the map.
+     */
+    private void save(final MFileManager fileManager, final Controller controller, final URL url, final File file,
+                      final ByteArrayOutputStream mapXml, final long snapshotTime) {
+        String statusMessage = null;
+        try {
             final File pathToStore = MFileManager.backupDir(url != null ? file : null);
             pathToStore.mkdirs();
             final File tempFile = MFileManager.renameBackupFiles(pathToStore, file, numberOfFiles,
@@ -87,15 +142,35 @@ public class DoAutomaticSave implements ActionListener {
                 tempFile.deleteOnExit();
             }
             if(file.canWrite()) {
-                ((MFileManager) UrlManager.getController())
-                .saveInternal((MMapModel) model, tempFile, true /*=internal call*/);
-                modeController.getController().getViewController()
-                .out(TextUtils.format("automatically_save_message", tempFile));
+                final long writeStart = System.nanoTime();
+                String message;
+                try {
+                    fileManager.writeToFile(mapXml, tempFile);
+                    message = TextUtils.format("automatically_save_message", tempFile);
+                    LogUtils.info("automatic save of " + tempFile + ": snapshot "
+                            + TimeUnit.NANOSECONDS.toMillis(snapshotTime) + " ms, write "
+                            + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - writeStart) + " ms");
+                }
+                catch (final IOException ex) {
+                    message = TextUtils.format("save_failed", tempFile.getName());
+                }
+                statusMessage = message;
             }
         }
         catch (final Exception ex) {
             LogUtils.severe("Error in automatic MapModel.save(): ", ex);
         }
+        finally {
+            final String message = statusMessage;
+            EventQueue.invokeLater(new Runnable() {
+                @Override
+                public void run() {
+                    if (message != null)
+                        controller.getViewController().out(message);
+                    ((MMapModel) model).restartTimerForAutomaticSaving();
+                }
+            });
+        }
     }
 
 }
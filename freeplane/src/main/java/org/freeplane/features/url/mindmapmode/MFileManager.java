@@ -26,6 +26,7 @@ import java.beans.PropertyChangeListener;
 import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
@@ -33,9 +34,11 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Reader;
 import java.io.SequenceInputStream;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -47,7 +50,9 @@ import java.nio.file.Files;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
@@ -80,6 +85,10 @@ import org.freeplane.features.link.LinkController;
 import org.freeplane.features.map.DocuMapAttribute;
 import org.freeplane.features.map.MapChangeEvent;
 import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapReader;
+import org.freeplane.features.map.MapReader.Parser;
+import org.freeplane.features.map.MapReader.ReaderHint;
+import org.freeplane.features.map.MapWriter.Hint;
 import org.freeplane.features.map.MapWriter.Mode;
 import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.map.mindmapmode.MMapController;
@@ -102,6 +111,8 @@ import org.freeplane.view.swing.features.filepreview.MindMapPreviewWithOptions;
 public class MFileManager extends UrlManager implements IMapViewChangeListener {
 	public static final String STANDARD_TEMPLATE = "standard_template";
 	private static final String DEFAULT_SAVE_DIR_PROPERTY = "default_save_dir";
+	private static final String STREAMING_MAP_PARSER_PROPERTY = "streaming_map_parser";
+	private static final String PIPELINED_MAP_LOADING_PROPERTY = "pipelined_map_loading";
 	private static final String BACKUP_EXTENSION = "bak";
     static final String BACKUP_DIR = ".backup";
 	private static final int DEBUG_OFFSET = 0;
@@ -556,10 +567,20 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
                 String message = versionInterpreter.getDialectInfo(f.getAbsolutePath());
                 UITools.showMessage(message, JOptionPane.WARNING_MESSAGE);
             }
-            try (final InputStream sequencedInput = new SequenceInputStream(readBytes, file);
-                    Reader reader = openInputStream(f, sequencedInput, versionInterpreter)) {
-                return Controller.getCurrentModeController().getMapController().getMapReader()
-                    .createNodeTreeFromXml(map, reader, Mode.FILE);
+            final ResourceController resourceController = ResourceController.getResourceController();
+            final boolean pipelined = resourceController.getBooleanProperty(PIPELINED_MAP_LOADING_PROPERTY);
+            final Map<Object, Object> hints = new HashMap<Object, Object>(2);
+            hints.put(Hint.MODE, Mode.FILE);
+            hints.put(ReaderHint.PARSER, pipelined || resourceController.getBooleanProperty(STREAMING_MAP_PARSER_PROPERTY)
+                    ? Parser.STREAMING : Parser.NANOXML);
+            final MapReader mapReader = Controller.getCurrentModeController().getMapController().getMapReader();
+            try (final InputStream sequencedInput = new SequenceInputStream(readBytes, file)) {
+                if (pipelined && ! versionInterpreter.needsConversion) {
+                    return new PipelinedMapParser(mapReader).parse(map, sequencedInput, f.getName(), f.length(), hints);
+                }
+                try (Reader reader = openInputStream(f, sequencedInput, versionInterpreter)) {
+                    return mapReader.createNodeTreeFromXml(map, reader, hints);
+                }
             }
         }
 	}
@@ -850,6 +871,50 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 	/**@deprecated -- use MMapIO*/
 	@Deprecated
 	public void writeToFile(final MapModel map, final File file) throws FileNotFoundException, IOException {
+		writeLocked(file, new XmlContentWriter() {
+			@Override
+			public void write(final Writer fileout) throws IOException {
+				Controller.getCurrentModeController().getMapController().getMapWriter()
+				    .writeMapAsXml(map, fileout, Mode.FILE, true, false);
+			}
+		});
+	}
+
+	/**
+	 * Writes UTF-8 encoded map xml serialized before, e.g. by automatic save, without accessing the map.
+	 * Can be called from any thread.
+	 */
+	void writeToFile(final ByteArrayOutputStream mapXml, final File file) throws FileNotFoundException, IOException {
+		writeLocked(file, new ContentWriter() {
+			@Override
+			public void write(final OutputStream out) throws IOException {
+				mapXml.writeTo(out);
+			}
+		});
+	}
+
+	private interface XmlContentWriter {
+		void write(Writer fileout) throws IOException;
+	}
+
+	private interface ContentWriter {
+		void write(OutputStream out) throws IOException;
+	}
+
+	private static void writeLocked(final File file, final XmlContentWriter contentWriter)
+	        throws FileNotFoundException, IOException {
+		writeLocked(file, new ContentWriter() {
+			@Override
+			public void write(final OutputStream out) throws IOException {
+				final BufferedWriter fileout = new BufferedWriter(new OutputStreamWriter(out,//
+					StandardCharsets.UTF_8));
+				contentWriter.write(fileout);
+			}
+		});
+	}
+
+	private static void writeLocked(final File file, final ContentWriter contentWriter)
+	        throws FileNotFoundException, IOException {
 		FileLock lock = null;
 		try (final FileOutputStream out = new FileOutputStream(file)){
 			boolean lockedByOtherApplication = false;
@@ -863,10 +928,7 @@ public class MFileManager extends UrlManager implements IMapViewChangeListener {
 			if (lockedByOtherApplication) {
 				throw new IOException("can not obtain file lock for " + file);
 			}
-			final BufferedWriter fileout = new BufferedWriter(new OutputStreamWriter(out,//
-				StandardCharsets.UTF_8));
-			Controller.getCurrentModeController().getMapController().getMapWriter()
-			    .writeMapAsXml(map, fileout, Mode.FILE, true, false);
+			contentWriter.write(out);
 		}
 		finally {
 			if (lock != null && lock.isValid())
@@ -0,0 +1,197 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.features.url.mindmapmode;
+
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.SecondaryLoop;
+import java.awt.Toolkit;
+import java.awt.Window;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.function.LongConsumer;
+
+import org.freeplane.core.util.BackgroundDecodingReader;
+import org.freeplane.core.util.TextUtils;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapReader;
+import org.freeplane.features.map.MapReader.NodeTreeCreator;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.ui.ViewController;
+import org.freeplane.n3.nanoxml.XMLException;
+
+/**
+ * Loads a map using two worker threads:
+ * one reads and decodes the file, the other one builds the node tree.
+ *
+ * The calling thread only waits for the tree and then notifies the read completion listeners.
+ * If it is the event dispatch thread, it keeps dispatching events meanwhile
+ * so that the user interface is repainted and shows the loading progress in the status bar.
+ * User input to the main window is blocked meanwhile, so that no action can access the map being loaded.
+ */
+class PipelinedMapParser {
+	private static final String STATUS_KEY = "map_loading_progress";
+	private final MapReader mapReader;
+
+	PipelinedMapParser(final MapReader mapReader) {
+		super();
+		this.mapReader = mapReader;
+	}
+
+	NodeModel parse(final MapModel map, final InputStream input, final String name, final long length,
+	                final Map<Object, Object> hints) throws IOException, XMLException {
+		final Controller controller = Controller.getCurrentController();
+		final ProgressReporter progressReporter = new ProgressReporter(controller, name, length);
+		final NodeTreeCreator nodeTreeCreator = mapReader.nodeTreeCreator(map, hints);
+		try (final Reader reader = new BackgroundDecodingReader(input, StandardCharsets.UTF_8, progressReporter)) {
+			final FutureTask<NodeModel> treeBuilder = new FutureTask<NodeModel>(new Callable<NodeModel>() {
+				@Override
+				public NodeModel call() throws Exception {
+					return nodeTreeCreator.create(reader);
+				}
+			});
+			final NodeModel node = await(controller, treeBuilder);
+			if (node == null)
+				throw new RuntimeException("corrupted map, no root node found");
+			nodeTreeCreator.finish(node);
+			return node;
+		}
+		finally {
+			nodeTreeCreator.abort();
+			progressReporter.done();
+		}
+	}
+
+	private NodeModel await(final Controller controller, final FutureTask<NodeModel> treeBuilder)
+	        throws IOException, XMLException {
+		final SecondaryLoop loop = EventQueue.isDispatchThread()
+		        ? Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop() : null;
+		final Thread builderThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					controller.runAsCurrentController(treeBuilder);
+				}
+				finally {
+					if (loop != null) {
+						EventQueue.invokeLater(new Runnable() {
+							@Override
+							public void run() {
+								loop.exit();
+							}
+						});
+					}
+				}
+			}
+		}, "Map tree building");
+		builderThread.setDaemon(true);
+		builderThread.start();
+		if (loop != null) {
+			final Component mainWindow = getMainWindow(controller);
+			final boolean blocksInput = mainWindow != null && mainWindow.isEnabled();
+			if (blocksInput)
+				mainWindow.setEnabled(false);
+			try {
+				loop.enter();
+			}
+			finally {
+				if (blocksInput)
+					mainWindow.setEnabled(true);
+			}
+		}
+		try {
+			return treeBuilder.get();
+		}
+		catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new XMLException(e);
+		}
+		catch (final ExecutionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof IOException)
+				throw (IOException) cause;
+			if (cause instanceof XMLException)
+				throw (XMLException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new XMLException(new Exception(cause));
+		}
+	}
+
+	private static Component getMainWindow(final Controller controller) {
+		final ViewController viewController = controller.getViewController();
+		if (viewController == null)
+			return null;
+		final Component menuComponent = viewController.getMenuComponent();
+		return menuComponent instanceof Window ? menuComponent : null;
+	}
+
+	private static class ProgressReporter implements LongConsumer {
+		private final Controller controller;
+		private final String name;
+		private final long length;
+		private volatile int reportedPercentage;
+
+		ProgressReporter(final Controller controller, final String name, final long length) {
+			this.controller = controller;
+			this.name = name;
+			this.length = length;
+			reportedPercentage = -1;
+		}
+
+		@Override
+		public void accept(final long bytesRead) {
+			if (length <= 0)
+				return;
+			final int percentage = (int) Math.min(100, bytesRead * 100 / length);
+			if (percentage == reportedPercentage)
+				return;
+			reportedPercentage = percentage;
+			final String message = TextUtils.format(STATUS_KEY, name, percentage);
+			EventQueue.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					final ViewController viewController = controller.getViewController();
+					if (viewController != null)
+						viewController.addStatusInfo(STATUS_KEY, message);
+				}
+			});
+		}
+
+		void done() {
+			if (reportedPercentage < 0)
+				return;
+			EventQueue.invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					final ViewController viewController = controller.getViewController();
+					if (viewController != null)
+						viewController.removeStatus(STATUS_KEY);
+				}
+			});
+		}
+	}
+}
@@ -35,10 +35,10 @@ import javax.swing.border.EmptyBorder;
 
 	public static void repaintBorder(JComponent component) {
 		final int borderWidth = ((ViewerBorder)component.getBorder()).borderWidth;
-		component.paintImmediately(0, 0, component.getWidth(), borderWidth);
-		component.paintImmediately(0, component.getHeight() - borderWidth, component.getWidth(), borderWidth);
-		component.paintImmediately(0, 0, borderWidth, component.getHeight());
-		component.paintImmediately(component.getWidth() - borderWidth, 0, borderWidth, component.getHeight());
+		component.repaint(0, 0, component.getWidth(), borderWidth);
+		component.repaint(0, component.getHeight() - borderWidth, component.getWidth(), borderWidth);
+		component.repaint(0, 0, borderWidth, component.getHeight());
+		component.repaint(component.getWidth() - borderWidth, 0, borderWidth, component.getHeight());
 	}
 	
 }
\ No newline at end of file
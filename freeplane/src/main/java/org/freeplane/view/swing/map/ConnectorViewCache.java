@@ -0,0 +1,193 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.view.swing.map;
+
+import java.awt.Color;
+import java.awt.Component;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import org.freeplane.core.ui.components.UITools;
+import org.freeplane.features.link.ConnectorModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.MapViewLayout;
+import org.freeplane.view.swing.map.link.ILinkView;
+
+/**
+ * Connector views reused between repaints, so that their geometry is not calculated again for every frame.
+ *
+ * A cached view is used as long as everything its geometry depends on stays the same:
+ * the positions and sizes of the connected nodes, their sides, the connector inclinations and the zoom.
+ * Changes of connector or node properties do not affect these values and are handled by {@link #clear(NodeModel)},
+ * which drops the views of connectors attached to the changed node or to its descendants,
+ * whose edge colors can be inherited from it. Map changes are handled by {@link #clear()}.
+ * Views of connectors which have not been painted in the last repaint are dropped.
+ */
+class ConnectorViewCache {
+	private static class NodeViewState {
+		final NodeView view;
+		final Rectangle contentBounds;
+		final Rectangle mainViewBounds;
+		final boolean isLeft;
+		final boolean isContentVisible;
+
+		NodeViewState(NodeView view, MapView map) {
+			this.view = view;
+			if (view == null) {
+				contentBounds = mainViewBounds = null;
+				isLeft = isContentVisible = false;
+			}
+			else {
+				contentBounds = boundsInMap(view.getContent(), map);
+				mainViewBounds = boundsInMap(view.getMainView(), map);
+				isLeft = view.isLeft();
+				isContentVisible = view.isContentVisible();
+			}
+		}
+
+		private static Rectangle boundsInMap(Component component, MapView map) {
+			if (component == null)
+				return null;
+			final Point location = new Point();
+			UITools.convertPointToAncestor(component, location, map);
+			return new Rectangle(location.x, location.y, component.getWidth(), component.getHeight());
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof NodeViewState))
+				return false;
+			final NodeViewState other = (NodeViewState) obj;
+			return view == other.view && isLeft == other.isLeft && isContentVisible == other.isContentVisible
+					&& Objects.equals(contentBounds, other.contentBounds)
+					&& Objects.equals(mainViewBounds, other.mainViewBounds);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(System.identityHashCode(view), contentBounds, mainViewBounds, isLeft, isContentVisible);
+		}
+	}
+
+	private static class Key {
+		final NodeViewState source;
+		final NodeViewState target;
+		final Point startInclination;
+		final Point endInclination;
+		final float zoom;
+		final boolean showsConnectorLines;
+		final MapViewLayout layoutType;
+		final Color background;
+
+		Key(ConnectorModel connector, NodeView source, NodeView target, MapView map) {
+			this.source = new NodeViewState(source, map);
+			this.target = new NodeViewState(target, map);
+			startInclination = connector.getStartInclination();
+			endInclination = connector.getEndInclination();
+			zoom = map.getZoom();
+			showsConnectorLines = map.showsConnectorLines();
+			layoutType = map.getLayoutType();
+			background = map.getBackground();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Key))
+				return false;
+			final Key other = (Key) obj;
+			return zoom == other.zoom && showsConnectorLines == other.showsConnectorLines
+					&& layoutType == other.layoutType && source.equals(other.source) && target.equals(other.target)
+					&& Objects.equals(startInclination, other.startInclination)
+					&& Objects.equals(endInclination, other.endInclination)
+					&& Objects.equals(background, other.background);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(source, target, startInclination, endInclination, zoom);
+		}
+	}
+
+	private static class CachedView {
+		final Key key;
+		final ILinkView view;
+		int paintCount;
+
+		CachedView(Key key, ILinkView view, int paintCount) {
+			this.key = key;
+			this.view = view;
+			this.paintCount = paintCount;
+		}
+	}
+
+	private final MapView map;
+	private final Map<ConnectorModel, CachedView> cachedViews = new IdentityHashMap<>();
+	private int paintCount = 0;
+
+	ConnectorViewCache(MapView map) {
+		this.map = map;
+	}
+
+	void startPainting() {
+		paintCount++;
+	}
+
+	/** @return cached view if its geometry is still valid, otherwise a new view created by the given factory */
+	ILinkView getView(ConnectorModel connector, NodeView source, NodeView target, Supplier<ILinkView> viewFactory) {
+		final Key key = new Key(connector, source, target, map);
+		final CachedView cachedView = cachedViews.get(connector);
+		if (cachedView != null && cachedView.key.equals(key)) {
+			cachedView.paintCount = paintCount;
+			return cachedView.view;
+		}
+		final ILinkView view = viewFactory.get();
+		cachedViews.put(connector, new CachedView(key, view, paintCount));
+		return view;
+	}
+
+	void finishPainting() {
+		for (Iterator<CachedView> iterator = cachedViews.values().iterator(); iterator.hasNext();) {
+			if (iterator.next().paintCount != paintCount)
+				iterator.remove();
+		}
+	}
+
+	void clear(NodeModel node) {
+		for (Iterator<ConnectorModel> iterator = cachedViews.keySet().iterator(); iterator.hasNext();) {
+			final ConnectorModel connector = iterator.next();
+			if (isNodeOrDescendant(connector.getSource(), node) || isNodeOrDescendant(connector.getTarget(), node))
+				iterator.remove();
+		}
+	}
+
+	private static boolean isNodeOrDescendant(NodeModel connectedNode, NodeModel node) {
+		return connectedNode != null && (connectedNode == node || connectedNode.isDescendantOf(node));
+	}
+
+	void clear() {
+		cachedViews.clear();
+	}
+}
@@ -455,7 +455,7 @@ public class MainView extends ZoomableLabel {
 		final Object userObject = nodeModel.getUserObject();
 		String text;
 		try {
-			final Object transformedContent = textController.getTransformedObject(nodeModel);
+			final Object transformedContent = textController.getTransformedObjectForDisplay(nodeModel);
 			if(nodeView.isSelected()){
 				nodeView.getMap().getModeController().getController().getViewController().addObjectTypeInfo(transformedContent);
 			}
@@ -662,7 +662,7 @@ public class MainView extends ZoomableLabel {
 			final Rectangle foldingRectangle = new Rectangle(x-4, y-4, width+8, height+8);
 			final MapView map = nodeView.getMap();
 			UITools.convertRectangleToAncestor(this, foldingRectangle, map);
-			map.paintImmediately(foldingRectangle);
+			map.paintChangedAreaImmediately(foldingRectangle);
 	}
 
 	private void paintDraggingRectangleImmediately() {
@@ -673,7 +673,7 @@ public class MainView extends ZoomableLabel {
 	private void paintDecorationImmediately(final Rectangle rectangle) {
 		final MapView map = getMap();
 		UITools.convertRectangleToAncestor(this, rectangle, map);
-		map.paintImmediately(rectangle);
+		map.paintChangedAreaImmediately(rectangle);
 	}
 
 	@Override
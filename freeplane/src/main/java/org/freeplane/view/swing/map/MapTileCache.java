@@ -0,0 +1,266 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.view.swing.map;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Point2D;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import javax.swing.JComponent;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+import org.freeplane.core.ui.components.UITools;
+
+/**
+ * Images of fixed size map view tiles, painted once and drawn again as long as their area is not changed.
+ *
+ * Tiles are dropped when a component of the map view is repainted over their area,
+ * which is reported by {@link TileInvalidatingRepaintManager}, or when anything affecting the whole map changes.
+ * Only tiles near the visible area are kept, and never more than {@link #MAXIMUM_TILE_BYTES},
+ * the tiles farthest from the visible area are dropped first.
+ */
+class MapTileCache {
+	static final int TILE_SIZE = 256;
+	static final long MAXIMUM_TILE_BYTES = 64L << 20;
+
+	/**
+	 * Repaint manager reporting dirty regions of map view components to the tile caches of their map views.
+	 *
+	 * Tile caches are only used on the event dispatch thread, repaints requested by other threads
+	 * like image observers are reported by an event posted before the repaint itself is scheduled,
+	 * so that the repaint never draws the tiles painted before the change.
+	 */
+	private static class TileInvalidatingRepaintManager extends RepaintManager {
+		@Override
+		public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+			final MapView map = c instanceof MapView ? (MapView) c
+					: (MapView) SwingUtilities.getAncestorOfClass(MapView.class, c);
+			if (map != null) {
+				final Rectangle area = new Rectangle(x, y, w, h);
+				if (SwingUtilities.isEventDispatchThread())
+					map.invalidateTiles(c, area);
+				else
+					SwingUtilities.invokeLater(() -> map.invalidateTiles(c, area));
+			}
+			super.addDirtyRegion(c, x, y, w, h);
+		}
+	}
+
+	/** Replaces the default repaint manager, called when painting from tile caches is turned on. */
+	static void installRepaintManager() {
+		if (RepaintManager.currentManager(null).getClass() == RepaintManager.class)
+			RepaintManager.setCurrentManager(new TileInvalidatingRepaintManager());
+	}
+
+	/** @return true if repaints are reported to the tile caches */
+	static boolean isRepaintManagerInstalled() {
+		return RepaintManager.currentManager(null) instanceof TileInvalidatingRepaintManager;
+	}
+
+	/** Everything the whole map painting depends on apart from the map view components */
+	static class Version {
+		private final float zoom;
+		private final int width;
+		private final int height;
+		private final int scale;
+		private final boolean opaque;
+		private final Object[] paintingSettings;
+
+		Version(MapView map, int scale, Object... paintingSettings) {
+			this.zoom = map.getZoom();
+			this.width = map.getWidth();
+			this.height = map.getHeight();
+			this.scale = scale;
+			this.opaque = map.isOpaque();
+			this.paintingSettings = paintingSettings;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj)
+				return true;
+			if (!(obj instanceof Version))
+				return false;
+			final Version other = (Version) obj;
+			return zoom == other.zoom && width == other.width && height == other.height && scale == other.scale
+					&& opaque == other.opaque && Objects.deepEquals(paintingSettings, other.paintingSettings);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(zoom, width, height, scale);
+		}
+	}
+
+	private final MapView map;
+	private final Map<Long, BufferedImage> tiles = new HashMap<>();
+	private long tileBytes;
+	private Version version;
+	private Rectangle paintedTileBounds;
+	private boolean paintedTileInvalidated;
+
+	MapTileCache(MapView map) {
+		this.map = map;
+	}
+
+	/**
+	 * @return device scale of the given graphics if tiles painted at this scale match its pixels exactly, 0 otherwise
+	 */
+	static int getTileScale(Graphics2D g) {
+		final AffineTransform transform = g.getTransform();
+		final int type = transform.getType();
+		if ((type & ~(AffineTransform.TYPE_TRANSLATION | AffineTransform.TYPE_UNIFORM_SCALE)) != 0)
+			return 0;
+		final double scale = transform.getScaleX();
+		final double translateX = transform.getTranslateX();
+		final double translateY = transform.getTranslateY();
+		if (scale < 1 || scale != Math.rint(scale) || translateX != Math.rint(translateX)
+				|| translateY != Math.rint(translateY))
+			return 0;
+		return (int) scale;
+	}
+
+	/**
+	 * Draws the tiles intersecting the clip area of the given graphics, painting missing tiles by the given painter.
+	 * The painter gets graphics in map view coordinates, clipped to the painted tile.
+	 * @return true if any tile has been painted by the painter
+	 */
+	boolean paint(Graphics2D g, Version currentVersion, Consumer<Graphics2D> painter) {
+		if (!currentVersion.equals(version)) {
+			removeTiles(bounds -> true);
+			version = currentVersion;
+		}
+		final Rectangle clip = g.getClipBounds();
+		final Rectangle area = clip == null ? new Rectangle(map.getWidth(), map.getHeight())
+				: clip.intersection(new Rectangle(map.getWidth(), map.getHeight()));
+		if (area.isEmpty())
+			return false;
+		boolean paintedTiles = false;
+		final int firstColumn = area.x / TILE_SIZE;
+		final int lastColumn = (area.x + area.width - 1) / TILE_SIZE;
+		final int firstRow = area.y / TILE_SIZE;
+		final int lastRow = (area.y + area.height - 1) / TILE_SIZE;
+		for (int row = firstRow; row <= lastRow; row++) {
+			for (int column = firstColumn; column <= lastColumn; column++) {
+				final Long key = key(column, row);
+				BufferedImage tile = tiles.get(key);
+				if (tile == null) {
+					tile = paintTile(column, row, currentVersion, painter);
+					paintedTiles = true;
+					if (!paintedTileInvalidated) {
+						tiles.put(key, tile);
+						tileBytes += byteCount(tile);
+					}
+				}
+				g.drawImage(tile, column * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE, null);
+			}
+		}
+		removeDistantTiles();
+		return paintedTiles;
+	}
+
+	private BufferedImage paintTile(int column, int row, Version version, Consumer<Graphics2D> painter) {
+		final int scale = version.scale;
+		final BufferedImage tile = new BufferedImage(TILE_SIZE * scale, TILE_SIZE * scale,
+			version.opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB_PRE);
+		final Graphics2D g = tile.createGraphics();
+		paintedTileBounds = new Rectangle(column * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+		paintedTileInvalidated = false;
+		try {
+			g.scale(scale, scale);
+			g.translate(-column * TILE_SIZE, -row * TILE_SIZE);
+			g.clipRect(column * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+			painter.accept(g);
+		}
+		finally {
+			paintedTileBounds = null;
+			g.dispose();
+		}
+		return tile;
+	}
+
+	private void removeDistantTiles() {
+		final Rectangle visibleArea = map.getVisibleRect();
+		final Rectangle keptArea = new Rectangle(visibleArea);
+		keptArea.grow(keptArea.width / 2, keptArea.height / 2);
+		removeTiles(bounds -> !keptArea.intersects(bounds));
+		if (tileBytes <= MAXIMUM_TILE_BYTES)
+			return;
+		final double centerX = visibleArea.getCenterX();
+		final double centerY = visibleArea.getCenterY();
+		final List<Long> keys = new ArrayList<>(tiles.keySet());
+		keys.sort(Comparator.comparingDouble((Long key) -> {
+			final Rectangle bounds = tileBounds(key);
+			return Point2D.distanceSq(centerX, centerY, bounds.getCenterX(), bounds.getCenterY());
+		}).reversed());
+		for (Iterator<Long> iterator = keys.iterator(); tileBytes > MAXIMUM_TILE_BYTES && iterator.hasNext();)
+			tileBytes -= byteCount(tiles.remove(iterator.next()));
+	}
+
+	private void removeTiles(Predicate<Rectangle> condition) {
+		for (Iterator<Map.Entry<Long, BufferedImage>> iterator = tiles.entrySet().iterator(); iterator.hasNext();) {
+			final Map.Entry<Long, BufferedImage> tile = iterator.next();
+			if (condition.test(tileBounds(tile.getKey()))) {
+				tileBytes -= byteCount(tile.getValue());
+				iterator.remove();
+			}
+		}
+	}
+
+	/** both tile image types store a pixel in one int */
+	private static long byteCount(BufferedImage tile) {
+		return 4L * tile.getWidth() * tile.getHeight();
+	}
+
+	/** @param area area in coordinates of the given component */
+	void invalidate(JComponent component, Rectangle area) {
+		if (tiles.isEmpty() && paintedTileBounds == null || area.isEmpty())
+			return;
+		if (component != map)
+			UITools.convertRectangleToAncestor(component, area, map);
+		if (paintedTileBounds != null && area.intersects(paintedTileBounds))
+			paintedTileInvalidated = true;
+		removeTiles(area::intersects);
+	}
+
+	void clear() {
+		removeTiles(bounds -> true);
+		version = null;
+	}
+
+	private static Long key(int column, int row) {
+		return ((long) column << 32) | (row & 0xFFFFFFFFL);
+	}
+
+	private static Rectangle tileBounds(long key) {
+		final int column = (int) (key >> 32);
+		final int row = (int) key;
+		return new Rectangle(column * TILE_SIZE, row * TILE_SIZE, TILE_SIZE, TILE_SIZE);
+	}
+}
@@ -77,6 +77,7 @@ import org.freeplane.core.ui.components.UITools;
 import org.freeplane.core.ui.svgicons.GraphicsHints;
 import org.freeplane.core.util.ColorUtils;
 import org.freeplane.core.util.LogUtils;
+import org.freeplane.core.util.collection.RectangleIndex;
 import org.freeplane.features.attribute.AttributeController;
 import org.freeplane.features.attribute.ModelessAttributeController;
 import org.freeplane.features.edge.EdgeColorsConfigurationFactory;
@@ -118,6 +119,7 @@ import org.freeplane.view.swing.features.filepreview.ViewerController;
 import org.freeplane.view.swing.map.MapViewScrollPane.MapViewPort;
 import org.freeplane.view.swing.map.link.ConnectorView;
 import org.freeplane.view.swing.map.link.EdgeLinkView;
+import org.freeplane.view.swing.map.link.CollisionDetector;
 import org.freeplane.view.swing.map.link.ILinkView;
 
 /**
@@ -570,6 +572,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	private static final String SHOW_ICONS_PROPERTY = "show_icons";
 	private static final String OUTLINE_VIEW_FITS_WINDOW_WIDTH = "outline_view_fits_window_width";
 	private static final String OUTLINE_HGAP_PROPERTY = "outline_hgap";
+	private static final String PAINT_MAP_FROM_TILE_CACHE_PROPERTY = "paint_map_from_tile_cache";
 
 	static private final PropertyChangeListener repaintOnClientPropertyChangeListener = new PropertyChangeListener() {
 		@Override
@@ -584,6 +587,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	static private Color selectionRectangleColor;
 	/** Used to identify a right click onto a link curve. */
 	private Vector<ILinkView> arrowLinkViews;
+	private RectangleIndex<ILinkView> arrowLinkViewIndex;
 	private Color background = null;
 	private JComponent backgroundComponent;
 	private Rectangle boundingRectangle = null;
@@ -621,8 +625,12 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	private static Color spotlightBackgroundColor;
 	private static int outlineHGap;
 	private static boolean outlineViewFitsWindowWidth;
+	private static boolean paintsMapFromTileCache;
+	private MapTileCache tileCache;
 
 	final private ComponentAdapter viewportSizeChangeListener;
+	private final NodeDragAndDropSupport nodeDragAndDropSupport = new NodeDragAndDropSupport(this);
+	private final ConnectorViewCache connectorViewCache = new ConnectorViewCache(this);
 	private final INodeChangeListener connectorChangeListener;
 	private boolean allowsCompactLayout;
 	private static final String INLINE_EDITOR_ACTIVE = "inline_editor_active";
@@ -646,6 +654,9 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	    showIcons = resourceController.getBooleanProperty(SHOW_ICONS_PROPERTY);
 	    outlineHGap = resourceController.getLengthProperty(OUTLINE_HGAP_PROPERTY);
 	    outlineViewFitsWindowWidth = resourceController.getBooleanProperty(OUTLINE_VIEW_FITS_WINDOW_WIDTH);
+	    paintsMapFromTileCache = resourceController.getBooleanProperty(PAINT_MAP_FROM_TILE_CACHE_PROPERTY);
+	    if (paintsMapFromTileCache)
+	    	MapTileCache.installRepaintManager();
 
 	    createPropertyChangeListener();
 	}
@@ -700,8 +711,10 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		connectorChangeListener = new INodeChangeListener() {
 			@Override
 			public void nodeChanged(final NodeChangeEvent event) {
-				if(NodeLinks.CONNECTOR.equals(event.getProperty()) &&
-						event.getNode().getMap().equals(getModel()))
+				if(! event.getNode().getMap().equals(getModel()))
+					return;
+				connectorViewCache.clear(event.getNode());
+				if(NodeLinks.CONNECTOR.equals(event.getProperty()))
 					repaint();
 			}
 		};
@@ -747,12 +760,17 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	    super.addNotify();
 	    modeController.getMapController().addUINodeChangeListener(connectorChangeListener);
 	    getParent().addComponentListener(viewportSizeChangeListener);
+	    if(getParent() instanceof JViewport)
+	    	((JViewport) getParent()).addChangeListener(nodeDragAndDropSupport);
     }
 
 	@Override
     public void removeNotify() {
 		modeController.getMapController().removeNodeChangeListener(connectorChangeListener);
 		getParent().removeComponentListener(viewportSizeChangeListener);
+	    if(getParent() instanceof JViewport)
+	    	((JViewport) getParent()).removeChangeListener(nodeDragAndDropSupport);
+	    nodeDragAndDropSupport.detachAll();
 	    super.removeNotify();
     }
 
@@ -831,6 +849,13 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 					}
 					return;
 				}
+				if (propertyName.equals(PAINT_MAP_FROM_TILE_CACHE_PROPERTY)) {
+					MapView.paintsMapFromTileCache = ResourceController.getResourceController().getBooleanProperty(PAINT_MAP_FROM_TILE_CACHE_PROPERTY);
+					if (MapView.paintsMapFromTileCache)
+						MapTileCache.installRepaintManager();
+					mapView.repaint();
+					return;
+				}
 			}
 		};
 		ResourceController.getResourceController().addPropertyChangeListener(MapView.propertyChangeListener);
@@ -853,17 +878,16 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	}
 
     public Object detectView(final Point p) {
-        if (arrowLinkViews == null) {
+        if (arrowLinkViewIndex == null) {
             return null;
         }
-        for (int i = 0; i < arrowLinkViews.size(); ++i) {
-            final ILinkView arrowView = arrowLinkViews.get(i);
+        final List<ILinkView> arrowViews = arrowLinkViewIndex.findIntersecting(CollisionDetector.getCollisionArea(p));
+        for (final ILinkView arrowView : arrowViews) {
             if (arrowView.detectCollision(p, true)) {
                 return arrowView;
             }
         }
-        for (int i = 0; i < arrowLinkViews.size(); ++i) {
-            final ILinkView arrowView = arrowLinkViews.get(i);
+        for (final ILinkView arrowView : arrowViews) {
             if (arrowView.detectCollision(p, false)) {
                 return arrowView;
             }
@@ -1299,6 +1323,9 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	@Override
 	public void mapChanged(final MapChangeEvent event) {
+		connectorViewCache.clear();
+		if (tileCache != null)
+			tileCache.clear();
 		final Object property = event.getProperty();
 		if (property.equals(MapStyle.RESOURCES_BACKGROUND_COLOR)) {
 			setBackground(requiredBackground());
@@ -1613,7 +1640,12 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 				paintConnectorsBehind = ResourceController.getResourceController().getBooleanProperty(
 						"paint_connectors_behind");
 			}
-			super.paint(g2);
+			if (isPrinting || !paintsMapFromTileCache) {
+				tileCache = null;
+				super.paint(g2);
+			}
+			else
+				paintFromTileCache(g2);
 		}
 		finally {
 			paintingMode = null;
@@ -1621,6 +1653,42 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		}
 	}
 
+	private void paintFromTileCache(final Graphics2D g2) {
+		final int tileScale = MapTileCache.getTileScale(g2);
+		if (tileScale == 0 || !MapTileCache.isRepaintManagerInstalled()) {
+			super.paint(g2);
+			return;
+		}
+		if (tileCache == null)
+			tileCache = new MapTileCache(this);
+		final PaintingMode[] paintModes = getPaintModes();
+		final RenderingHints renderingHints = g2.getRenderingHints();
+		final MapTileCache.Version version = new MapTileCache.Version(this, tileScale, getBackground(),
+			renderingHints, paintConnectorsBehind, showConnectors, hideSingleEndConnectors);
+		final boolean paintedTiles = tileCache.paint(g2, version, tileGraphics -> {
+			tileGraphics.setRenderingHints(renderingHints);
+			tileGraphics.setColor(getForeground());
+			tileGraphics.setFont(getFont());
+			paintComponent(tileGraphics);
+			paintChildren(tileGraphics, PaintingSequence.of(this, tileGraphics.getClipBounds()), paintModes);
+		});
+		// connectors found by detectView must match the current layout even if all tiles were cached
+		if (!paintedTiles && HIDE_CONNECTORS != showConnectors)
+			updateConnectors(null);
+		paintOverlays(g2, null, paintModes);
+	}
+
+	void invalidateTiles(JComponent component, Rectangle area) {
+		if (tileCache != null)
+			tileCache.invalidate(component, area);
+	}
+
+	/** Paints an area whose content has changed without a repaint request. */
+	public void paintChangedAreaImmediately(Rectangle area) {
+		invalidateTiles(this, new Rectangle(area));
+		paintImmediately(area);
+	}
+
 	public void paintOverview(Graphics2D g) {
 		g.setRenderingHint(GraphicsHints.CACHE_ICONS, Boolean.FALSE);
 		isPrinting = true;
@@ -1674,30 +1742,40 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	@Override
 	protected void paintChildren(final Graphics g) {
-	    final PaintingMode paintModes[];
+	    final PaintingMode paintModes[] = getPaintModes();
+	    final Graphics2D g2 = (Graphics2D) g;
+	    final PaintingSequence paintingSequence = PaintingSequence.of(this, g2.getClipBounds());
+	    paintChildren(g2, paintingSequence, paintModes);
+	    paintOverlays(g2, paintingSequence, paintModes);
+    }
+
+	private PaintingMode[] getPaintModes() {
 	    if(paintConnectorsBehind)
-	    	paintModes = new PaintingMode[]{
+	    	return new PaintingMode[]{
 	    		PaintingMode.CLOUDS,
 	    		PaintingMode.LINKS, PaintingMode.NODES, PaintingMode.SELECTED_NODES
 	    		};
 	    else
-	    	paintModes = new PaintingMode[]{
+	    	return new PaintingMode[]{
 	    		PaintingMode.CLOUDS,
 	    		PaintingMode.NODES, PaintingMode.SELECTED_NODES, PaintingMode.LINKS
 	    		};
-	    final Graphics2D g2 = (Graphics2D) g;
-	    paintChildren(g2, paintModes);
+	}
+
+	/** paints spotlight, selection and editor highlighting, which are not kept in the tile cache */
+	private void paintOverlays(final Graphics2D g2, final PaintingSequence paintingSequence, final PaintingMode[] paintModes) {
 	    if(isSpotlightEnabled())
-	    	paintDimmer(g2, paintModes);
+	    	paintDimmer(g2, paintingSequence != null ? paintingSequence : PaintingSequence.of(this, g2.getClipBounds()),
+	    		paintModes);
 		paintSelecteds(g2);
 		highlightEditor(g2);
-    }
+	}
 
 	public boolean isSpotlightEnabled() {
 		return Boolean.TRUE == getClientProperty(MapView.SPOTLIGHT_ENABLED);
 	}
 
-	private void paintChildren(final Graphics2D g2, final PaintingMode[] paintModes) {
+	private void paintChildren(final Graphics2D g2, final PaintingSequence paintingSequence, final PaintingMode[] paintModes) {
 	    for(final PaintingMode paintingMode : paintModes){
 	    	this.paintingMode = paintingMode;
 			switch(paintingMode){
@@ -1706,13 +1784,13 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 	    				paintConnectors(g2);
 	    			break;
 				default:
-					super.paintChildren(g2);
+					paintingSequence.paint(g2, paintingMode);
 			}
 	    }
     }
 
 
-	private void paintDimmer(final Graphics2D g2, final PaintingMode[] paintModes) {
+	private void paintDimmer(final Graphics2D g2, final PaintingSequence paintingSequence, final PaintingMode[] paintModes) {
 		final Color color = g2.getColor();
 		try{
 			final Color dimmer = spotlightBackgroundColor;
@@ -1723,7 +1801,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			g2.setColor(color);
 		}
 		for (final NodeView selected : getSelection()) {
-			highlightSelected(g2, selected, paintModes);
+			highlightSelected(g2, selected, paintingSequence, paintModes);
 		}
     }
 
@@ -1748,7 +1826,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 
 	private void paintConnectors(final Collection<? extends NodeLinkModel> links, final Graphics2D graphics,
 	                        final HashSet<ConnectorModel> alreadyPaintedLinks) {
-		final Font font = graphics.getFont();
+		final Font font = graphics != null ? graphics.getFont() : null;
 		try {
 			final Iterator<? extends NodeLinkModel> linkIterator = links.iterator();
 			while (linkIterator.hasNext()) {
@@ -1778,37 +1856,70 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
                                 && (
                                 ConnectorShape.EDGE_LIKE.equals(linkController.getShape(ref)) && ! ref.isSelfLink()
                                 || sourceView.getMap().getLayoutType() == MapViewLayout.OUTLINE))
-							arrowLink = new EdgeLinkView(ref, getModeController(), sourceView, targetView);
+							arrowLink = connectorViewCache.getView(ref, sourceView, targetView,
+									() -> new EdgeLinkView(ref, getModeController(), sourceView, targetView));
 						else if(areBothNodesVisible || ! hideSingleEndConnectors)
-							arrowLink = new ConnectorView(ref, sourceView, targetView, getBackground());
+							arrowLink = connectorViewCache.getView(ref, sourceView, targetView,
+									() -> new ConnectorView(ref, sourceView, targetView, getBackground()));
 						else
 							break;
-						arrowLink.paint(graphics);
+						if (graphics != null)
+							arrowLink.paint(graphics);
 						arrowLinkViews.add(arrowLink);
+						arrowLinkViewIndex.add(arrowLink.getBounds(), arrowLink);
 					}
 				}
 			}
 		}
 		finally {
-			graphics.setFont(font);
+			if (graphics != null)
+				graphics.setFont(font);
 		}
 	}
 
 	private void paintConnectors(final Graphics2D graphics) {
-		arrowLinkViews = new Vector<ILinkView>();
 		final Object renderingHint = getModeController().getController().getMapViewManager().setEdgesRenderingHint(
 		    graphics);
-		if(hasNodeLinks())
-			paintConnectors(currentRootView, graphics, new HashSet<ConnectorModel>());
+		updateConnectors(graphics);
 		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, renderingHint);
 	}
 
-	private void paintConnectors(final NodeView source, final Graphics2D graphics, final HashSet<ConnectorModel> alreadyPaintedConnectors) {
+	/** Creates the views of the connectors near the visible area, painting them if graphics are given. */
+	private void updateConnectors(final Graphics2D graphics) {
+		arrowLinkViews = new Vector<ILinkView>();
+		arrowLinkViewIndex = new RectangleIndex<ILinkView>(new Rectangle(getSize()));
+		if(hasNodeLinks()) {
+			final Rectangle paintedArea;
+			if (isPrinting)
+				paintedArea = null;
+			else {
+				paintedArea = ((JViewport) getParent()).getViewRect();
+				paintedArea.x -= paintedArea.width;
+				paintedArea.y -= paintedArea.height;
+				paintedArea.width *= 3;
+				paintedArea.height *= 3;
+				final Point sourceLocation = new Point();
+				UITools.convertPointToAncestor(currentRootView.getParent(), sourceLocation, this);
+				paintedArea.translate(-sourceLocation.x, -sourceLocation.y);
+			}
+			connectorViewCache.startPainting();
+			paintConnectors(currentRootView, paintedArea, graphics, new HashSet<ConnectorModel>());
+			connectorViewCache.finishPainting();
+		}
+		else
+			connectorViewCache.clear();
+	}
+
+	/** @param paintedArea area in coordinates of the source view parent, null for painting all connectors
+	 * @param graphics null for creating the connector views without painting them */
+	private void paintConnectors(final NodeView source, final Rectangle paintedArea, final Graphics2D graphics, final HashSet<ConnectorModel> alreadyPaintedConnectors) {
 		final NodeModel node = source.getModel();
 		final Collection<? extends NodeLinkModel> outLinks = getLinksFrom(node);
 		paintConnectors(outLinks, graphics, alreadyPaintedConnectors);
 		final Collection<? extends NodeLinkModel> inLinks = getLinksTo(node);
 		paintConnectors(inLinks, graphics, alreadyPaintedConnectors);
+		if (paintedArea != null)
+			paintedArea.translate(-source.getX(), -source.getY());
 		final int nodeViewCount = source.getComponentCount();
 		for (int i = 0; i < nodeViewCount; i++) {
 			final Component component = source.getComponent(i);
@@ -1816,22 +1927,17 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 				continue;
 			}
 			final NodeView child = (NodeView) component;
-			if (!isPrinting) {
+			if (paintedArea != null) {
 				if(!child.isSubtreeVisible())
 					continue;
-				final Rectangle bounds = SwingUtilities.convertRectangle(source, child.getBounds(), this);
-				final JViewport vp = (JViewport) getParent();
-				final Rectangle viewRect = vp.getViewRect();
-				viewRect.x -= viewRect.width;
-				viewRect.y -= viewRect.height;
-				viewRect.width *= 3;
-				viewRect.height *= 3;
-				if (!viewRect.intersects(bounds)) {
+				if (!paintedArea.intersects(child.getBounds())) {
 					continue;
 				}
 			}
-			paintConnectors(child, graphics, alreadyPaintedConnectors);
+			paintConnectors(child, paintedArea, graphics, alreadyPaintedConnectors);
 		}
+		if (paintedArea != null)
+			paintedArea.translate(source.getX(), source.getY());
 	}
 
 	private boolean hasNodeLinks() {
@@ -1888,7 +1994,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 		g.draw(roundRectClip);
 	}
 
-	private void highlightSelected(final Graphics2D g, final NodeView selected, final PaintingMode[] paintedModes) {
+	private void highlightSelected(final Graphics2D g, final NodeView selected, final PaintingSequence paintingSequence, final PaintingMode[] paintedModes) {
 		final java.awt.Shape highlightClip;
 		if (MapView.drawsRectangleForSelection)
 			highlightClip = getRoundRectangleAround(selected, 4, 15);
@@ -1905,7 +2011,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			g.setColor(getBackground());
 			g.fillRect(clipBounds.x, clipBounds.y, clipBounds.width, clipBounds.height);
 			g.setColor(color);
-			paintChildren(g, paintedModes);
+			paintChildren(g, paintingSequence, paintedModes);
 		}
 		finally{
 			g.setClip(oldClip);
@@ -2273,6 +2379,7 @@ public class MapView extends JPanel implements Printable, Autoscroll, IMapChange
 			validateSelecteds();
 			getRoot().validateTree();
 			super.validateTree();
+			nodeDragAndDropSupport.update();
 		}
 	}
 
@@ -0,0 +1,222 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.view.swing.map;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Rectangle;
+import java.awt.dnd.DnDConstants;
+import java.awt.dnd.DragGestureListener;
+import java.awt.dnd.DragGestureRecognizer;
+import java.awt.dnd.DragSource;
+import java.awt.dnd.DropTarget;
+import java.awt.dnd.DropTargetDragEvent;
+import java.awt.dnd.DropTargetDropEvent;
+import java.awt.dnd.DropTargetEvent;
+import java.awt.dnd.DropTargetListener;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+
+import org.freeplane.core.ui.IUserInputListenerFactory;
+import org.freeplane.features.mode.ModeController;
+
+/**
+ * Drag gesture recognizers and drop targets of node main views.
+ *
+ * They are attached only to main views within the viewport extended by half of its size in every direction,
+ * and recycled as the view is scrolled, so that large unfolded maps do not keep them for every node.
+ * While a drag is over one of the drop targets, e.g. when the map is scrolled by autoscrolling,
+ * they are only attached to further main views, and recycled after the drag has ended.
+ */
+class NodeDragAndDropSupport implements ChangeListener {
+	private class DragTrackingDropTargetListener implements DropTargetListener {
+		private final DropTargetListener listener;
+
+		DragTrackingDropTargetListener(DropTargetListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public void dragEnter(DropTargetDragEvent dtde) {
+			dragStarted();
+			listener.dragEnter(dtde);
+		}
+
+		@Override
+		public void dragOver(DropTargetDragEvent dtde) {
+			listener.dragOver(dtde);
+		}
+
+		@Override
+		public void dropActionChanged(DropTargetDragEvent dtde) {
+			listener.dropActionChanged(dtde);
+		}
+
+		@Override
+		public void dragExit(DropTargetEvent dte) {
+			try {
+				listener.dragExit(dte);
+			}
+			finally {
+				dragFinished();
+			}
+		}
+
+		@Override
+		public void drop(DropTargetDropEvent dtde) {
+			try {
+				listener.drop(dtde);
+			}
+			finally {
+				dragFinished();
+			}
+		}
+	}
+
+	private static class Attachment {
+		private final DragGestureRecognizer dragGestureRecognizer;
+		private final DropTarget dropTarget;
+
+		Attachment(DragGestureListener dragListener, DropTargetListener dropListener) {
+			dragGestureRecognizer = dragListener == null ? null
+					: DragSource.getDefaultDragSource().createDefaultDragGestureRecognizer(null,
+						DnDConstants.ACTION_COPY | DnDConstants.ACTION_MOVE | DnDConstants.ACTION_LINK, dragListener);
+			if (dropListener == null)
+				dropTarget = null;
+			else {
+				dropTarget = new DropTarget(null, dropListener);
+				dropTarget.setActive(true);
+			}
+		}
+
+		void attachTo(Component component) {
+			if (dragGestureRecognizer != null)
+				dragGestureRecognizer.setComponent(component);
+			if (dropTarget != null)
+				dropTarget.setComponent(component);
+		}
+	}
+
+	private final MapView map;
+	private final Map<MainView, Attachment> attachments = new IdentityHashMap<>();
+	private final ArrayDeque<Attachment> unusedAttachments = new ArrayDeque<>();
+	private int activeDrags = 0;
+
+	NodeDragAndDropSupport(MapView map) {
+		this.map = map;
+	}
+
+	@Override
+	public void stateChanged(ChangeEvent e) {
+		update();
+	}
+
+	void update() {
+		final Container parent = map.getParent();
+		if (!(parent instanceof JViewport) || !map.isDisplayable()) {
+			detachAll();
+			return;
+		}
+		final Rectangle area = ((JViewport) parent).getViewRect();
+		area.grow(area.width / 2, area.height / 2);
+		final Set<MainView> mainViews = Collections.newSetFromMap(new IdentityHashMap<>());
+		collectEditableMainViews(map, area, mainViews);
+		if (activeDrags > 0)
+			mainViews.removeAll(attachments.keySet());
+		else
+			releaseAttachmentsExcept(mainViews);
+		for (MainView mainView : mainViews)
+			attach(mainView);
+	}
+
+	/** releases attachments of main views which are not contained in the given ones and removes the others from them */
+	private void releaseAttachmentsExcept(Set<MainView> mainViews) {
+		for (Iterator<Entry<MainView, Attachment>> iterator = attachments.entrySet().iterator(); iterator.hasNext();) {
+			final Entry<MainView, Attachment> entry = iterator.next();
+			if (!mainViews.remove(entry.getKey())) {
+				iterator.remove();
+				release(entry.getValue());
+			}
+		}
+	}
+
+	void detachAll() {
+		for (Attachment attachment : attachments.values())
+			release(attachment);
+		attachments.clear();
+		activeDrags = 0;
+	}
+
+	boolean isAttached(MainView mainView) {
+		return attachments.containsKey(mainView);
+	}
+
+	void dragStarted() {
+		activeDrags++;
+	}
+
+	void dragFinished() {
+		if (activeDrags > 0 && --activeDrags == 0)
+			SwingUtilities.invokeLater(this::update);
+	}
+
+	private void collectEditableMainViews(Container container, Rectangle area, Set<MainView> mainViews) {
+		final ModeController modeController = map.getModeController();
+		final int componentCount = container.getComponentCount();
+		for (int i = 0; i < componentCount; i++) {
+			final Component component = container.getComponent(i);
+			if (!(component instanceof NodeView) || !component.isVisible() || !component.getBounds().intersects(area))
+				continue;
+			final NodeView nodeView = (NodeView) component;
+			final MainView mainView = nodeView.getMainView();
+			if (mainView != null && nodeView.isContentVisible() && modeController.canEdit(nodeView.getModel()))
+				mainViews.add(mainView);
+			final int x = component.getX();
+			final int y = component.getY();
+			area.translate(-x, -y);
+			collectEditableMainViews(nodeView, area, mainViews);
+			area.translate(x, y);
+		}
+	}
+
+	private void attach(MainView mainView) {
+		Attachment attachment = unusedAttachments.poll();
+		if (attachment == null) {
+			final IUserInputListenerFactory userInputListenerFactory = map.getModeController().getUserInputListenerFactory();
+			final DropTargetListener dropListener = userInputListenerFactory.getNodeDropTargetListener();
+			attachment = new Attachment(userInputListenerFactory.getNodeDragListener(),
+				dropListener == null ? null : new DragTrackingDropTargetListener(dropListener));
+		}
+		attachment.attachTo(mainView);
+		attachments.put(mainView, attachment);
+	}
+
+	private void release(Attachment attachment) {
+		attachment.attachTo(null);
+		unusedAttachments.push(attachment);
+	}
+}
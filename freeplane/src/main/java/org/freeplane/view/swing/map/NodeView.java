@@ -29,11 +29,6 @@ import java.awt.Rectangle;
 import java.awt.RenderingHints;
 import java.awt.Stroke;
 import java.awt.Window;
-import java.awt.dnd.DnDConstants;
-import java.awt.dnd.DragGestureListener;
-import java.awt.dnd.DragSource;
-import java.awt.dnd.DropTarget;
-import java.awt.dnd.DropTargetListener;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowFocusListener;
 import java.util.HashSet;
@@ -152,23 +147,6 @@ public class NodeView extends JComponent implements INodeView {
 		return isFolded;
 	}
 
-	void addDragListener(final DragGestureListener dgl) {
-		if (dgl == null) {
-			return;
-		}
-		final DragSource dragSource = DragSource.getDefaultDragSource();
-		dragSource.createDefaultDragGestureRecognizer(getMainView(), DnDConstants.ACTION_COPY
-		        | DnDConstants.ACTION_MOVE | DnDConstants.ACTION_LINK, dgl);
-	}
-
-	void addDropListener(final DropTargetListener dtl) {
-		if (dtl == null) {
-			return;
-		}
-		final DropTarget dropTarget = new DropTarget(getMainView(), dtl);
-		dropTarget.setActive(true);
-	}
-
 	private int calcShiftY(final LocationModel locationModel) {
 		try {
 			final NodeModel parent = model.getParentNode();
@@ -1188,7 +1166,7 @@ public class NodeView extends JComponent implements INodeView {
 		return map.getZoomed(x);
 	}
 
-	private void paintDecoration(final Graphics2D g) {
+	void paintDecoration(final Graphics2D g) {
 		final PaintingMode paintingMode = map.getPaintingMode();
 		if(! (getMainView() != null &&
 				( paintingMode.equals(PaintingMode.NODES) && !isSelected() || paintingMode.equals(PaintingMode.SELECTED_NODES) && isSelected())
@@ -1356,8 +1334,6 @@ public class NodeView extends JComponent implements INodeView {
 			mainView.addMouseMotionListener(userInputListenerFactory.getNodeMouseMotionListener());
 			mainView.addMouseWheelListener(userInputListenerFactory.getNodeMouseWheelListener());
 			mainView.addKeyListener(userInputListenerFactory.getNodeKeyListener());
-			addDragListener(userInputListenerFactory.getNodeDragListener());
-			addDropListener(userInputListenerFactory.getNodeDropTargetListener());
 		}
 	}
 
@@ -69,11 +69,11 @@ class NodeViewFactory {
 	}
 
 	MainView newMainView(final NodeView node) {
-		final MainView view = new MainView();
 		NodeGeometryModel shapeConfiguration = shapeConfiguration(node, node.getStyleOption());
 		final MainView oldView = node.getMainView();
 		if(oldView != null && oldView.getShapeConfiguration().equals(shapeConfiguration))
 			return oldView;
+		final MainView view = new MainView();
 		final MainViewPainter shape = createViewPainter(view, shapeConfiguration);
 		view.setPainter(shape);
 
@@ -215,7 +215,7 @@ class NodeViewFactory {
     			if(text != null) {
     			try {
     				TextController textController = map.getModeController().getExtension(TextController.class);
-    				final Object transformedContent = textController.getTransformedObject(model, note, text);
+    				final Object transformedContent = textController.getTransformedObjectForDisplay(model, note, text);
     				newIcon = textController.getIcon(transformedContent);
     				newText = newIcon == null ? transformedContent.toString() : "";
     			}
@@ -284,7 +284,7 @@ class NodeViewFactory {
 			String text;
 			try {
 				TextController textController = map.getModeController().getExtension(TextController.class);
-				final Object transformedContent = textController.getTransformedObject(node, detailText, detailTextText);
+				final Object transformedContent = textController.getTransformedObjectForDisplay(node, detailText, detailTextText);
 				Icon icon = textController.getIcon(transformedContent);
 				detailContent.setTextRenderingIcon(icon);
 				text = icon == null ? transformedContent.toString() : "";
@@ -0,0 +1,147 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.view.swing.map;
+
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Components of a map view intersecting the painted area, in the order Swing would paint them.
+ *
+ * The sequence is collected once per repaint and used for every {@link PaintingMode},
+ * instead of letting Swing walk the whole component hierarchy for each of them.
+ * Because node view bounds enclose the bounds of their child node views,
+ * subtrees outside of the painted area are skipped without visiting their nodes.
+ */
+class PaintingSequence {
+	private enum Step {NODE, COMPONENT, DECORATION}
+
+	private static class Entry {
+		final Step step;
+		final Component component;
+		final int x;
+		final int y;
+		int lastSubtreeEntry;
+
+		Entry(Step step, Component component, int x, int y) {
+			this.step = step;
+			this.component = component;
+			this.x = x;
+			this.y = y;
+		}
+
+		boolean intersects(Rectangle clip) {
+			return clip == null || clip.intersects(x, y, component.getWidth(), component.getHeight());
+		}
+
+		Graphics create(Graphics2D g) {
+			return g.create(x, y, component.getWidth(), component.getHeight());
+		}
+	}
+
+	private final List<Entry> entries = new ArrayList<>();
+
+	static PaintingSequence of(MapView map, Rectangle paintedArea) {
+		final PaintingSequence sequence = new PaintingSequence();
+		sequence.addChildren(map, 0, 0, paintedArea);
+		return sequence;
+	}
+
+	private void addChildren(Container container, int x, int y, Rectangle paintedArea) {
+		for (int i = container.getComponentCount() - 1; i >= 0; i--) {
+			final Component component = container.getComponent(i);
+			if (!component.isVisible())
+				continue;
+			final int componentX = x + component.getX();
+			final int componentY = y + component.getY();
+			if (paintedArea != null
+					&& !paintedArea.intersects(componentX, componentY, component.getWidth(), component.getHeight()))
+				continue;
+			if (component instanceof NodeView) {
+				final Entry nodeEntry = new Entry(Step.NODE, component, componentX, componentY);
+				entries.add(nodeEntry);
+				addChildren((NodeView) component, componentX, componentY, paintedArea);
+				entries.add(new Entry(Step.DECORATION, component, componentX, componentY));
+				nodeEntry.lastSubtreeEntry = entries.size() - 1;
+			}
+			else
+				entries.add(new Entry(Step.COMPONENT, component, componentX, componentY));
+		}
+	}
+
+	void paint(Graphics2D g, PaintingMode paintingMode) {
+		final Rectangle clip = g.getClipBounds();
+		final int size = entries.size();
+		for (int i = 0; i < size; i++) {
+			final Entry entry = entries.get(i);
+			if (!entry.intersects(clip)) {
+				if (entry.step == Step.NODE)
+					i = entry.lastSubtreeEntry;
+				continue;
+			}
+			switch (entry.step) {
+			case NODE:
+				final NodeView nodeView = (NodeView) entry.component;
+				if (!nodeView.isSubtreeVisible()) {
+					i = entry.lastSubtreeEntry;
+					continue;
+				}
+				final Graphics nodeGraphics = entry.create(g);
+				try {
+					nodeGraphics.setColor(nodeView.getForeground());
+					nodeGraphics.setFont(nodeView.getFont());
+					nodeView.paintComponent(nodeGraphics);
+				}
+				finally {
+					nodeGraphics.dispose();
+				}
+				break;
+			case COMPONENT:
+				if (paintingMode == PaintingMode.CLOUDS && isNodeContent(entry.component))
+					continue;
+				final Graphics componentGraphics = entry.create(g);
+				try {
+					entry.component.paint(componentGraphics);
+				}
+				finally {
+					componentGraphics.dispose();
+				}
+				break;
+			case DECORATION:
+				if (paintingMode != PaintingMode.NODES && paintingMode != PaintingMode.SELECTED_NODES)
+					continue;
+				final Graphics decorationGraphics = entry.create(g);
+				try {
+					((NodeView) entry.component).paintDecoration((Graphics2D) decorationGraphics);
+				}
+				finally {
+					decorationGraphics.dispose();
+				}
+				break;
+			}
+		}
+	}
+
+	private boolean isNodeContent(Component component) {
+		return component instanceof ZoomableLabel || component instanceof ContentPane;
+	}
+}
@@ -26,6 +26,7 @@ import java.awt.Font;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.KeyboardFocusManager;
+import java.awt.Rectangle;
 import java.awt.Window;
 import java.awt.event.ActionEvent;
 import java.awt.event.HierarchyEvent;
@@ -344,7 +345,10 @@ class AttributeTable extends JTable implements IColumnWidthChangeListener {
 			if(super.editCellAt(row, column, e)){
 				final TableCellEditor cellEditor = getCellEditor();
 				if(isEditing() && cellEditor instanceof DialogTableCellEditor){
-					((JComponent)editorComp).paintImmediately(0, 0, editorComp.getWidth(), editorComp.getHeight());
+					final MapView map = attributeView.getMapView();
+					final Rectangle editorBounds = new Rectangle(0, 0, editorComp.getWidth(), editorComp.getHeight());
+					UITools.convertRectangleToAncestor(editorComp, editorBounds, map);
+					map.paintChangedAreaImmediately(editorBounds);
 					((DialogTableCellEditor)cellEditor).startEditing();
 				}
 				else {
@@ -20,6 +20,7 @@
 package org.freeplane.view.swing.map.link;
 
 import java.awt.Point;
+import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.PathIterator;
@@ -33,16 +34,23 @@ import java.awt.geom.Rectangle2D;
 public class CollisionDetector {
 	/** MAXIMAL_RECTANGLE_SIZE_FOR_COLLISION_DETECTION describes itself. */
 	static final private int MAXIMAL_RECTANGLE_SIZE_FOR_COLLISION_DETECTION = 16;
+	/** maximal distance between a detected point and the bounds of the shape */
+	public static final int COLLISION_DISTANCE = MAXIMAL_RECTANGLE_SIZE_FOR_COLLISION_DETECTION / 2 + 1;
 
 	public boolean detectCollision(final Point p, final Shape shape) {
 		final Rectangle2D rec = getControlRectangle(p);
+		final Rectangle2D shapeBounds = shape.getBounds2D();
+		if (!rec.intersects(shapeBounds.getX() - 1, shapeBounds.getY() - 1, shapeBounds.getWidth() + 2,
+		    shapeBounds.getHeight() + 2)) {
+			return false;
+		}
 		final PathIterator pathIterator = shape.getPathIterator(new AffineTransform(),
 		    MAXIMAL_RECTANGLE_SIZE_FOR_COLLISION_DETECTION / 4);
 		double lastCoords[] = new double[6];
+		double nextCoords[] = new double[6];
 		pathIterator.currentSegment(lastCoords);
 		for (;;) {
 			pathIterator.next();
-			final double nextCoords[] = new double[6];
 			if (pathIterator.isDone() || PathIterator.SEG_CLOSE == pathIterator.currentSegment(nextCoords)) {
 				break;
 			}
@@ -53,11 +61,19 @@ public class CollisionDetector {
 			if (rec.intersects(x, y, w, h)) {
 				return true;
 			}
+			final double[] swappedCoords = lastCoords;
 			lastCoords = nextCoords;
+			nextCoords = swappedCoords;
 		}
 		return false;
 	}
 
+	/** @return area where shapes can be detected by {@link #detectCollision(Point, Shape)} */
+	public static Rectangle getCollisionArea(final Point p) {
+		return new Rectangle(p.x - COLLISION_DISTANCE, p.y - COLLISION_DISTANCE, 2 * COLLISION_DISTANCE,
+		    2 * COLLISION_DISTANCE);
+	}
+
 	private Rectangle2D getControlRectangle(final Point2D p) {
 		final int side = MAXIMAL_RECTANGLE_SIZE_FOR_COLLISION_DETECTION;
 		return new Rectangle2D.Double(p.getX() - side / 2, p.getY() - side / 2, side, side);
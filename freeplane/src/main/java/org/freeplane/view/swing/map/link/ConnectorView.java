@@ -59,6 +59,12 @@ public class ConnectorView extends AConnectorView{
 	static final Stroke DEF_STROKE = new BasicStroke(1);
 	private static final int LABEL_GAP = 4;
 	private static final double PRECISION = 2;
+	private boolean isLaidOut = false;
+	private Point startPoint;
+	private Point startPoint2;
+	private Point endPoint2;
+	private Point endPoint;
+	private Point centerPoint;
 	private Shape arrowLinkCurve;
 	private Rectangle sourceTextRectangle;
 	private Rectangle middleTextRectangle;
@@ -99,6 +105,7 @@ public class ConnectorView extends AConnectorView{
 		if (selectedOnly && (source == null || !source.isSelected()) && (target == null || !target.isSelected())) {
 			return false;
 		}
+		layoutIfNeeded();
 		if (arrowLinkCurve == null) {
 			return false;
 		}
@@ -152,6 +159,13 @@ public class ConnectorView extends AConnectorView{
 	}
 
 	private Point getCenterPoint() {
+		if (centerPoint == null) {
+			centerPoint = calculateCenterPoint();
+		}
+		return centerPoint;
+	}
+
+	private Point calculateCenterPoint() {
 		if (arrowLinkCurve == null) {
 			return null;
 		}
@@ -280,13 +294,31 @@ public class ConnectorView extends AConnectorView{
 		if (!isSourceVisible() && !isTargetVisible()) {
 			return;
 		}
-		boolean targetIsLeft = false;
-		boolean sourceIsLeft = false;
+		layoutIfNeeded();
 		final Graphics2D g = (Graphics2D) graphics.create();
 		final Color oldColor = g.getColor();
 		g.setColor(color);
 		/* set stroke. */
 		g.setStroke(stroke);
+		final boolean showsConnectors = getMap().showsConnectorLines();
+		paintCurve(g, startPoint, startPoint2, endPoint2, endPoint, showsConnectors);
+		if(showsConnectors) {
+			drawLabels(g, startPoint, startPoint2, endPoint2, endPoint);
+		}
+		g.setColor(oldColor);
+	}
+
+	/** views created for hit testing only are laid out on first use, without being painted */
+	private void layoutIfNeeded() {
+		if (!isLaidOut && (isSourceVisible() || isTargetVisible()))
+			layout();
+	}
+
+	/** calculates the connector geometry, which is kept as long as the view is reused */
+	private void layout() {
+		isLaidOut = true;
+		boolean targetIsLeft = false;
+		boolean sourceIsLeft = false;
         Point startInclination = connectorModel.getStartInclination();
         Point endInclination = connectorModel.getEndInclination();
 		if (startInclination == null || endInclination == null) {
@@ -298,7 +330,6 @@ public class ConnectorView extends AConnectorView{
 			    endInclination = recommender.calcEndInclination();
 			}
 		}
-		Point startPoint = null, endPoint = null;
         if (isSourceVisible()) {
             startPoint = source.getLinkPoint(startInclination);
             sourceIsLeft = source.isLeft();
@@ -308,7 +339,6 @@ public class ConnectorView extends AConnectorView{
             targetIsLeft = target.isLeft();
         }
 		final MapView map = getMap();
-		Point startPoint2 = null;
 		if (startPoint != null) {
 			startPoint2 = new Point(startPoint);
 			if(endPoint == null){
@@ -318,7 +348,6 @@ public class ConnectorView extends AConnectorView{
 				map.getZoomed(startInclination.y));
 
 		}
-		Point endPoint2 = null;
 		if (endPoint != null) {
 			endPoint2 = new Point(endPoint);
 			if(startPoint == null){
@@ -327,12 +356,30 @@ public class ConnectorView extends AConnectorView{
 			endPoint2.translate(((targetIsLeft) ? -1 : 1) * map.getZoomed(endInclination.x), map
 				.getZoomed(endInclination.y));
 		}
-		final boolean showsConnectors = map.showsConnectorLines();
-		paintCurve(g, startPoint, startPoint2, endPoint2, endPoint, showsConnectors);
-		if(showsConnectors) {
-			drawLabels(g, startPoint, startPoint2, endPoint2, endPoint);
+		arrowLinkCurve = null;
+		if (map.showsConnectorLines()) {
+			if (startPoint != null && endPoint != null) {
+				final boolean isLine = ConnectorShape.LINE.equals(linkController.getShape(connectorModel));
+				if(isLine) {
+					if (getSource() == getTarget()) {
+						arrowLinkCurve = createLine(startPoint, startPoint2);
+					}
+					else {
+						arrowLinkCurve = createLine(startPoint, endPoint);
+					}
+				}
+				else if (ConnectorShape.LINEAR_PATH.equals(linkController.getShape(connectorModel)))
+					arrowLinkCurve = createLinearPath(startPoint, startPoint2, endPoint2, endPoint);
+				else
+					arrowLinkCurve = createCubicCurve2D(startPoint, startPoint2, endPoint2, endPoint);
+			}
+			else if (startPoint != null) {
+				arrowLinkCurve = createLine(startPoint, startPoint2);
+			}
+			else if (endPoint != null) {
+				arrowLinkCurve = createLine(endPoint, endPoint2);
+			}
 		}
-		g.setColor(oldColor);
 	}
 
 	private void normalizeLength(int normalLength, Point startInclination) {
@@ -357,25 +404,8 @@ public class ConnectorView extends AConnectorView{
 	private void paintCurve(final Graphics2D g, Point startPoint, Point startPoint2, Point endPoint2, Point endPoint, boolean showsConnectors) {
 		final boolean selfLink = getSource() == getTarget();
 		final boolean isLine = ConnectorShape.LINE.equals(linkController.getShape(connectorModel));
-		arrowLinkCurve = null;
-		if (showsConnectors) {
-		    if (startPoint != null && endPoint != null) {
-		        if(isLine) {
-		            if (selfLink) {
-		                arrowLinkCurve = createLine(startPoint, startPoint2);
-		            }
-		            else {
-		                arrowLinkCurve = createLine(startPoint, endPoint);
-		            }
-		        }
-		        else if (ConnectorShape.LINEAR_PATH.equals(linkController.getShape(connectorModel)))
-		            arrowLinkCurve = createLinearPath(startPoint, startPoint2, endPoint2, endPoint);
-		        else
-		            arrowLinkCurve = createCubicCurve2D(startPoint, startPoint2, endPoint2, endPoint);
-		    } 
-		    if (arrowLinkCurve != null) {
-		        g.draw(arrowLinkCurve);
-		    }
+		if (showsConnectors && startPoint != null && endPoint != null && arrowLinkCurve != null) {
+		    g.draw(arrowLinkCurve);
 		} 
 		if (isSourceVisible() && !(showsConnectors && linkController.getArrows(connectorModel).start.equals(ArrowType.NONE))) {
 			if(!selfLink && isLine && endPoint != null)
@@ -403,16 +433,10 @@ public class ConnectorView extends AConnectorView{
 				if (startPoint != null) {
 					g.drawLine(startPoint.x, startPoint.y, startPoint2.x, startPoint2.y);
 					drawCircle(g, startPoint2, source.getZoomedFoldingSymbolHalfWidth());
-					if (arrowLinkCurve == null) {
-						arrowLinkCurve = createLine(startPoint, startPoint2);
-					}
 				}
 				if (endPoint != null && !(selfLink && isLine)) {
 					g.drawLine(endPoint.x, endPoint.y, endPoint2.x, endPoint2.y);
 					drawCircle(g, endPoint2, target.getZoomedFoldingSymbolHalfWidth());
-					if (arrowLinkCurve == null) {
-						arrowLinkCurve = createLine(endPoint, endPoint2);
-					}
 				}
 			}
 		}
@@ -518,6 +542,12 @@ public class ConnectorView extends AConnectorView{
 		increaseBounds(innerBounds, targetTextRectangle);
 	}
 
+	@Override
+	public Rectangle getBounds() {
+		layoutIfNeeded();
+		return arrowLinkCurve == null ? null : arrowLinkCurve.getBounds();
+	}
+
 	private void increaseBounds(Rectangle innerBounds, Rectangle rect) {
 	    if (rect != null)
                 innerBounds.add(rect);
@@ -93,6 +93,12 @@ public class EdgeLinkView extends AConnectorView {
 		//edge link does not increase inner bounds 
 	}
 
+	@Override
+	public Rectangle getBounds() {
+		// edge shapes are not exposed by edge views
+		return null;
+	}
+
 	public void paint(final Graphics graphics) {
 		edgeView.paint((Graphics2D) graphics);
 		if(ConnectorShape.EDGE_LIKE.equals(linkController.getShape(connectorModel))){
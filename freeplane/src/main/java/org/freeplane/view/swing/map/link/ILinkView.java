@@ -50,4 +50,11 @@ public interface ILinkView {
 	public abstract void paint(final Graphics graphics);
 
 	public abstract void increaseBounds(final Rectangle innerBounds);
+
+	/**
+	 * @return bounds of the painted connector line, or null if they are not known.
+	 * Points detected by {@link #detectCollision(Point, boolean)} are not farther from them
+	 * than {@link CollisionDetector#COLLISION_DISTANCE}.
+	 */
+	public abstract Rectangle getBounds();
 }
@@ -0,0 +1,192 @@
+package org.freeplane.core.io.xml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.core.io.IAttributeWriter;
+import org.freeplane.core.io.IElementWriter;
+import org.freeplane.core.io.ITreeWriter;
+import org.freeplane.core.io.WriteManager;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.junit.Test;
+
+public class SerializedSubtreeCacheTest {
+	private static class TestNode {
+		final List<TestNode> children = new ArrayList<TestNode>();
+		TestNode parent;
+		String text;
+		String note;
+		boolean folded;
+
+		TestNode(final String text) {
+			this.text = text;
+		}
+
+		TestNode add(final TestNode child, final int index) {
+			child.parent = this;
+			children.add(index, child);
+			return child;
+		}
+	}
+
+	private static class TestNodeWriter implements IElementWriter, IAttributeWriter {
+		private final SerializedSubtreeCache cache;
+
+		TestNodeWriter(final SerializedSubtreeCache cache) {
+			this.cache = cache;
+		}
+
+		@Override
+		public void writeAttributes(final ITreeWriter writer, final Object userObject, final String tag) {
+			final TestNode node = (TestNode) userObject;
+			writer.addAttribute("TEXT", node.text);
+			if (node.folded) {
+				writer.addAttribute("FOLDED", "true");
+			}
+		}
+
+		@Override
+		public void writeContent(final ITreeWriter writer, final Object element, final String tag) throws IOException {
+			final TestNode node = (TestNode) element;
+			if (node.note != null) {
+				final XMLElement note = new XMLElement("richcontent");
+				note.setAttribute("TYPE", "NOTE");
+				note.setContent(node.note);
+				writer.addElement(null, note);
+			}
+			writeChildren((TreeXmlWriter) writer, node);
+		}
+
+		private void writeChildren(final TreeXmlWriter writer, final TestNode node) throws IOException {
+			if (node.children.isEmpty()) {
+				return;
+			}
+			if (cache != null) {
+				cache.childElementsStarting(writer, node);
+			}
+			for (final TestNode child : node.children) {
+				if (cache == null) {
+					writer.addElement(child, "node");
+				}
+				else {
+					cache.writeElement(writer, child, "node", child.children.isEmpty(),
+					    new SerializedSubtreeCache.ChildElementWriter() {
+						    @Override
+						    public void writeChildElements() throws IOException {
+							    writeChildren(writer, child);
+						    }
+					    });
+				}
+			}
+			if (cache != null) {
+				cache.childElementsFinished(writer, node);
+			}
+		}
+	}
+
+	private static String write(final TestNode root, final SerializedSubtreeCache cache) throws IOException {
+		final WriteManager writeManager = new WriteManager();
+		final TestNodeWriter nodeWriter = new TestNodeWriter(cache);
+		writeManager.addElementWriter("node", nodeWriter);
+		writeManager.addAttributeWriter("node", nodeWriter);
+		final StringWriter output = new StringWriter();
+		final TreeXmlWriter treeWriter = new TreeXmlWriter(writeManager, output, false);
+		treeWriter.addElement(root, "node");
+		treeWriter.flush();
+		return output.toString();
+	}
+
+	private static List<TestNode> allNodes(final TestNode node, final List<TestNode> nodes) {
+		nodes.add(node);
+		for (final TestNode child : node.children) {
+			allNodes(child, nodes);
+		}
+		return nodes;
+	}
+
+	private static TestNode createTree(final Random random, final int nodeCount) {
+		final TestNode root = new TestNode("root");
+		final List<TestNode> nodes = new ArrayList<TestNode>();
+		nodes.add(root);
+		for (int i = 1; i < nodeCount; i++) {
+			final TestNode parent = nodes.get(random.nextInt(nodes.size()));
+			final TestNode child = parent.add(new TestNode("node " + i + " <&>"), random.nextInt(parent.children.size() + 1));
+			if (random.nextInt(5) == 0) {
+				child.note = "note " + i;
+			}
+			nodes.add(child);
+		}
+		return root;
+	}
+
+	private static void modify(final Random random, final TestNode root, final SerializedSubtreeCache cache) {
+		final List<TestNode> nodes = allNodes(root, new ArrayList<TestNode>());
+		final TestNode node = nodes.get(random.nextInt(nodes.size()));
+		switch (random.nextInt(5)) {
+			case 0:
+				node.text = node.text + " changed";
+				cache.invalidate(node);
+				break;
+			case 1:
+				node.note = node.note == null ? "new note" : null;
+				cache.invalidate(node);
+				break;
+			case 2:
+				node.add(new TestNode("inserted"), random.nextInt(node.children.size() + 1));
+				cache.invalidate(node);
+				break;
+			case 3:
+				if (node.parent != null) {
+					node.parent.children.remove(node);
+					cache.invalidate(node.parent);
+				}
+				break;
+			default:
+				node.folded = !node.folded;
+				cache.invalidate(node);
+				break;
+		}
+	}
+
+	@Test
+	public void splicesUnchangedSubtrees() throws Exception {
+		final TestNode root = createTree(new Random(1), 200);
+		final SerializedSubtreeCache cache = new SerializedSubtreeCache();
+		final String expected = write(root, null);
+		assertEquals(expected, write(root, cache));
+		assertEquals(0, cache.getHits());
+		cache.resetStatistics();
+		assertEquals(expected, write(root, cache));
+		assertEquals(0, cache.getMisses());
+		assertEquals(199, cache.getHits());
+	}
+
+	@Test
+	public void writesSameTextAsFullWriterAfterRandomChanges() throws Exception {
+		final Random random = new Random(2);
+		final TestNode root = createTree(random, 300);
+		final SerializedSubtreeCache cache = new SerializedSubtreeCache();
+		for (int i = 0; i < 200; i++) {
+			final int changes = 1 + random.nextInt(3);
+			for (int j = 0; j < changes; j++) {
+				modify(random, root, cache);
+			}
+			assertEquals(write(root, null), write(root, cache));
+		}
+	}
+
+	@Test
+	public void recordsSelfClosingElementsOnlyForElementsWithoutChildren() throws Exception {
+		final TestNode root = new TestNode("root");
+		final TestNode child = root.add(new TestNode("child"), 0);
+		final SerializedSubtreeCache cache = new SerializedSubtreeCache();
+		write(root, cache);
+		child.add(new TestNode("grandchild"), 0);
+		assertEquals(write(root, null), write(root, cache));
+	}
+}
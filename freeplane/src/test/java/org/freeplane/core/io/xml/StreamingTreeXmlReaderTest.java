@@ -0,0 +1,377 @@
+package org.freeplane.core.io.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freeplane.core.io.IAttributeHandler;
+import org.freeplane.core.io.IElementContentHandler;
+import org.freeplane.core.io.IElementDOMHandler;
+import org.freeplane.core.io.IElementHandler;
+import org.freeplane.core.io.ITreeReader;
+import org.freeplane.core.io.ReadManager;
+import org.freeplane.core.io.UnknownElements;
+import org.freeplane.features.map.HistoryInformationModel;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapReader;
+import org.freeplane.features.map.MapReader.Parser;
+import org.freeplane.features.map.MapReader.ReaderHint;
+import org.freeplane.features.map.MapWriter.Hint;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.map.NodeBuilder;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.n3.nanoxml.XMLElement;
+import org.junit.Test;
+
+public class StreamingTreeXmlReaderTest {
+	private static final String[] MAP_DIRECTORIES = { "doc", "src/external/resources/templates",
+	        "src/viewer/resources/styles", "../freeplane_framework/test_data" };
+
+	private static class Recorder {
+		final StringBuilder log = new StringBuilder();
+		int elementCounter = 0;
+
+		Object newElement(final String tag) {
+			return tag + '#' + (++elementCounter);
+		}
+
+		void record(final Object... items) {
+			for (final Object item : items) {
+				log.append(item).append(' ');
+			}
+			log.append('\n');
+		}
+	}
+
+	private static String serialize(final XMLElement element) {
+		final StringBuilder builder = new StringBuilder();
+		serialize(element, builder);
+		return builder.toString();
+	}
+
+	private static void serialize(final XMLElement element, final StringBuilder builder) {
+		builder.append('{');
+		if (element.getName() != null) {
+			builder.append(element.getName());
+		}
+		final Enumeration<String> attributeNames = element.enumerateAttributeNames();
+		while (attributeNames.hasMoreElements()) {
+			final String name = attributeNames.nextElement();
+			builder.append(' ').append(name).append("='").append(element.getAttribute(name, null)).append('\'');
+		}
+		if (element.getContent() != null) {
+			builder.append(" [").append(element.getContent()).append(']');
+		}
+		for (final XMLElement child : element.getChildren()) {
+			serialize(child, builder);
+		}
+		builder.append('}');
+	}
+
+	private static boolean isEmpty(final XMLElement element) {
+		return element == null
+		        || element.getAttributeCount() == 0 && !element.hasChildren() && element.getContent() == null;
+	}
+
+	private static String ancestorNames(final XMLElement element) {
+		final StringBuilder builder = new StringBuilder();
+		for (XMLElement ancestor = element.getParent(); ancestor != null; ancestor = ancestor.getParent()) {
+			builder.append('/').append(ancestor.getName());
+		}
+		return builder.toString();
+	}
+
+	private static IElementDOMHandler domHandler(final Recorder recorder, final boolean requiresDom) {
+		return new IElementDOMHandler() {
+			@Override
+			public Object createElement(final Object parent, final String tag, final XMLElement attributes) {
+				final Object element = recorder.newElement(tag);
+				recorder.record("create", tag, parent, element, attributes == null ? "-" : serialize(attributes));
+				return element;
+			}
+
+			@Override
+			public void endElement(final Object parent, final String tag, final Object element, final XMLElement dom) {
+				assertTrue(dom != null || !requiresDom);
+				if (isEmpty(dom) && !requiresDom) {
+					recorder.record("end", tag, parent, element);
+				}
+				else {
+					recorder.record("end", tag, parent, element, serialize(dom), ancestorNames(dom));
+				}
+			}
+
+			@Override
+			public boolean requiresDom() {
+				return requiresDom;
+			}
+		};
+	}
+
+	private static IElementDOMHandler hookHandler(final Recorder recorder, final String name) {
+		return new IElementDOMHandler() {
+			@Override
+			public Object createElement(final Object parent, final String tag, final XMLElement attributes) {
+				if (attributes == null || !name.equals(attributes.getAttribute("NAME", null))) {
+					return null;
+				}
+				recorder.record("create", tag, name, parent, serialize(attributes));
+				return parent;
+			}
+
+			@Override
+			public void endElement(final Object parent, final String tag, final Object element, final XMLElement dom) {
+				recorder.record("end", tag, name, parent, element, serialize(dom), ancestorNames(dom));
+			}
+		};
+	}
+
+	private static IElementContentHandler contentHandler(final Recorder recorder, final String type) {
+		return new IElementContentHandler() {
+			@Override
+			public Object createElement(final Object parent, final String tag, final XMLElement attributes) {
+				if (type != null && (attributes == null || !type.equals(attributes.getAttribute("TYPE", null)))) {
+					return null;
+				}
+				final Object element = recorder.newElement(tag);
+				recorder.record("create", tag, type, parent, element);
+				return element;
+			}
+
+			@Override
+			public boolean containsXml(final XMLElement element) {
+				return element.getAttribute("CONTENT-TYPE", "xml/").startsWith("xml/");
+			}
+
+			@Override
+			public void endElement(final Object parent, final String tag, final Object node, final XMLElement element,
+			                       final String content) {
+				recorder.record("end", tag, type, parent, node, serialize(element), ancestorNames(element), "<<",
+				    content, ">>");
+			}
+		};
+	}
+
+	private static IElementHandler plainHandler(final Recorder recorder) {
+		return new IElementHandler() {
+			@Override
+			public Object createElement(final Object parent, final String tag, final XMLElement attributes) {
+				final Object element = recorder.newElement(tag);
+				recorder.record("create", tag, parent, element, attributes == null ? "-" : serialize(attributes));
+				return element;
+			}
+		};
+	}
+
+	private static void addAttributeHandlers(final ReadManager readManager, final Recorder recorder,
+	                                         final String tag, final String... attributes) {
+		for (final String attribute : attributes) {
+			readManager.addAttributeHandler(tag, attribute, new IAttributeHandler() {
+				@Override
+				public void setAttribute(final Object node, final String value) {
+					recorder.record("attribute", tag, attribute, node, value);
+				}
+			});
+		}
+	}
+
+	private static ReadManager createReadManager(final Recorder recorder) {
+		final ReadManager readManager = new ReadManager();
+		readManager.addElementHandler("map", domHandler(recorder, false));
+		addAttributeHandlers(readManager, recorder, "map", "version");
+		readManager.addElementHandler("node", domHandler(recorder, false));
+		addAttributeHandlers(readManager, recorder, "node", "TEXT", "ID", "FOLDED", "POSITION", "CREATED",
+		    "MODIFIED", "STYLE_REF", "LOCALIZED_TEXT");
+		readManager.addElementHandler("stylenode", domHandler(recorder, true));
+		addAttributeHandlers(readManager, recorder, "stylenode", "LOCALIZED_TEXT", "TEXT");
+		readManager.addElementHandler("hook", hookHandler(recorder, "MapStyle"));
+		readManager.addElementHandler("hook", hookHandler(recorder, "AutomaticEdgeColor"));
+		addAttributeHandlers(readManager, recorder, "hook", "NAME", "COUNTER");
+		readManager.addElementHandler("richcontent", contentHandler(recorder, "NODE"));
+		readManager.addElementHandler("richcontent", contentHandler(recorder, "NOTE"));
+		readManager.addElementHandler("richcontent", contentHandler(recorder, "DETAILS"));
+		addAttributeHandlers(readManager, recorder, "richcontent", "TYPE");
+		readManager.addElementHandler("text", contentHandler(recorder, null));
+		readManager.addElementHandler("icon", plainHandler(recorder));
+		addAttributeHandlers(readManager, recorder, "icon", "BUILTIN");
+		readManager.addElementHandler("attribute", plainHandler(recorder));
+		addAttributeHandlers(readManager, recorder, "attribute", "NAME", "VALUE");
+		readManager.addElementHandler("font", plainHandler(recorder));
+		addAttributeHandlers(readManager, recorder, "font", "SIZE");
+		return readManager;
+	}
+
+	private static String read(final ITreeReader reader, final Recorder recorder, final Reader input)
+	        throws Exception {
+		try {
+			reader.load("root", input);
+		}
+		finally {
+			input.close();
+		}
+		return recorder.log.toString();
+	}
+
+	private static String readWithNanoXml(final String xml) throws Exception {
+		final Recorder recorder = new Recorder();
+		return read(new TreeXmlReader(createReadManager(recorder)), recorder, new StringReader(xml));
+	}
+
+	private static String readWithStreamingReader(final String xml) throws Exception {
+		final Recorder recorder = new Recorder();
+		return read(new StreamingTreeXmlReader(createReadManager(recorder)), recorder, new StringReader(xml));
+	}
+
+	private static void assertSameCallbacks(final String xml) throws Exception {
+		assertEquals(readWithNanoXml(xml), readWithStreamingReader(xml));
+	}
+
+	@Test
+	public void readsNodesAndAttributes() throws Exception {
+		assertSameCallbacks("<map version=\"1.0\"><node TEXT=\"root\" ID=\"ID_1\" UNKNOWN=\"x\">"
+		        + "<node TEXT=\"child\"/><icon BUILTIN=\"yes\" OTHER=\"1\"/></node></map>");
+	}
+
+	@Test
+	public void keepsUnknownElementsInParentDom() throws Exception {
+		assertSameCallbacks("<map><node TEXT=\"a\"><unknown A=\"1\">text<inner B=\"2\"/>  tail </unknown>"
+		        + "<node TEXT=\"b\"/><edge COLOR=\"#000000\"/></node></map>");
+	}
+
+	@Test
+	public void passesAncestorsToHooks() throws Exception {
+		assertSameCallbacks("<map><node TEXT=\"root\"><hook NAME=\"MapStyle\"><properties a=\"b\"/></hook>"
+		        + "<hook NAME=\"AutomaticEdgeColor\" COUNTER=\"2\"/><hook NAME=\"Other\"/></node></map>");
+	}
+
+	@Test
+	public void resolvesEntitiesAndNormalizesWhitespace() throws Exception {
+		assertSameCallbacks("<map>\r\n<node TEXT=\"a&amp;b&lt;&#x41;&#66;&quot;\tc\r\nd\">\r\n"
+		        + "<unknown>\t lead &gt; trail \r\n</unknown><unknown>   </unknown>"
+		        + "<unknown><![CDATA[ <raw> ]]]></unknown><!-- comment --></node></map>");
+	}
+
+	@Test
+	public void readsRawXmlContent() throws Exception {
+		assertSameCallbacks("<map><node><richcontent TYPE=\"NOTE\" CONTENT-TYPE=\"xml/\">\n<html>\n<body>"
+		        + "<p>a&nbsp;b<br/> c/d <!-- x -- y --></p></body></html>\n</richcontent>"
+		        + "<richcontent TYPE=\"DETAILS\" CONTENT-TYPE=\"plain/\">plain &amp; text</richcontent>"
+		        + "<text>single &amp; handler</text><text/></node></map>");
+	}
+
+	@Test
+	public void readsSeveralTopLevelElements() throws Exception {
+		assertSameCallbacks("<?xml version=\"1.0\"?><node TEXT=\"1\"/>\n<node TEXT=\"2\"><node TEXT=\"3\"/></node>");
+	}
+
+	@Test
+	public void dropsOnlyNamespaceDeclarations() throws Exception {
+		final String log = readWithStreamingReader("<map><node TEXT=\"a\" xmlns=\"http://default\" "
+		        + "xmlns:f=\"http://prefixed\" xmlnsLike=\"kept\"/></map>");
+		assertTrue(log, log.contains("xmlnsLike='kept'"));
+		assertFalse(log, log.contains("http://"));
+	}
+
+	private static List<File> bundledMaps() {
+		final List<File> maps = new ArrayList<File>();
+		for (final String directory : MAP_DIRECTORIES) {
+			final File[] files = new File(directory).listFiles();
+			if (files != null) {
+				for (final File file : files) {
+					if (file.getName().endsWith(".mm")) {
+						maps.add(file);
+					}
+				}
+			}
+		}
+		Collections.sort(maps);
+		assertFalse("no bundled maps found in " + Arrays.toString(MAP_DIRECTORIES), maps.isEmpty());
+		return maps;
+	}
+
+	@Test
+	public void readsBundledMapsLikeNanoXml() throws Exception {
+		for (final File map : bundledMaps()) {
+			final Recorder nanoXmlRecorder = new Recorder();
+			final String expected = read(new TreeXmlReader(createReadManager(nanoXmlRecorder)), nanoXmlRecorder,
+			    open(map));
+			final Recorder streamingRecorder = new Recorder();
+			final String actual = read(new StreamingTreeXmlReader(createReadManager(streamingRecorder)),
+			    streamingRecorder, open(map));
+			assertNotNull(actual);
+			assertEquals(map.getPath(), expected, actual);
+		}
+	}
+
+	private static Reader open(final File file) throws IOException {
+		return new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void buildsSameNodeTreesAsNanoXml() throws Exception {
+		for (final File map : bundledMaps()) {
+			assertEquals(map.getPath(), readNodeTree(map, Parser.NANOXML), readNodeTree(map, Parser.STREAMING));
+		}
+	}
+
+	private static String readNodeTree(final File file, final Parser parser) throws Exception {
+		final ReadManager readManager = new ReadManager();
+		final MapReader mapReader = new MapReader(readManager);
+		readManager.addElementHandler("map", mapReader);
+		readManager.addAttributeHandler(NodeBuilder.XML_NODE, "TEXT", new IAttributeHandler() {
+			@Override
+			public void setAttribute(final Object node, final String value) {
+				((NodeModel) node).setText(value);
+			}
+		});
+		final MapModel map = new MapModel(null, null, null);
+		final Map<Object, Object> hints = new HashMap<Object, Object>();
+		hints.put(Hint.MODE, Mode.EXPORT);
+		hints.put(ReaderHint.PARSER, parser);
+		final NodeModel root;
+		try (Reader input = open(file)) {
+			root = mapReader.createNodeTreeFromXml(map, input, hints);
+		}
+		final StringBuilder builder = new StringBuilder();
+		appendUnknownElements(map.getExtension(UnknownElements.class), builder);
+		appendNodeTree(root, builder);
+		return builder.toString();
+	}
+
+	private static void appendNodeTree(final NodeModel node, final StringBuilder builder) {
+		builder.append('{').append(node.getID()).append(' ').append(node.getText()).append(' ')
+		    .append(node.getSide()).append(' ').append(node.isFolded());
+		final HistoryInformationModel history = node.getHistoryInformation();
+		if (history != null) {
+			builder.append(' ').append(history.getCreatedAt()).append(' ').append(history.getLastModifiedAt());
+		}
+		appendUnknownElements(node.getExtension(UnknownElements.class), builder);
+		for (final NodeModel child : node.getChildren()) {
+			appendNodeTree(child, builder);
+		}
+		builder.append('}');
+	}
+
+	private static void appendUnknownElements(final UnknownElements unknownElements, final StringBuilder builder) {
+		if (unknownElements != null) {
+			builder.append(' ');
+			serialize(unknownElements.getUnknownElements(), builder);
+		}
+	}
+}
@@ -0,0 +1,54 @@
+package org.freeplane.core.util;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class BackgroundDecodingReaderShould {
+	private static String readAll(final Reader reader) throws IOException {
+		final StringBuilder builder = new StringBuilder();
+		final char[] buffer = new char[1000];
+		for (int count; (count = reader.read(buffer, 0, buffer.length)) >= 0;) {
+			builder.append(buffer, 0, count);
+		}
+		return builder.toString();
+	}
+
+	@Test
+	public void decodeWholeInput() throws Exception {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < 20000; i++) {
+			builder.append("<node TEXT=\"\u00e4\u00f6\u00fc ").append(i).append("\"/>\n");
+		}
+		final String text = builder.toString();
+		final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		final AtomicLong progress = new AtomicLong();
+		try (Reader reader = new BackgroundDecodingReader(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8,
+		    progress::set)) {
+			assertThat(readAll(reader), equalTo(text));
+			assertThat(reader.read(), equalTo(-1));
+		}
+		assertThat(progress.get(), equalTo((long) bytes.length));
+	}
+
+	@Test(expected = IOException.class)
+	public void rethrowReadingErrors() throws Exception {
+		final InputStream failingStream = new InputStream() {
+			@Override
+			public int read() throws IOException {
+				throw new IOException("failure");
+			}
+		};
+		try (Reader reader = new BackgroundDecodingReader(failingStream, StandardCharsets.UTF_8, null)) {
+			readAll(reader);
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package org.freeplane.core.util.collection;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+public class RectangleIndexShould {
+	private final RectangleIndex<String> index = new RectangleIndex<>(new Rectangle(0, 0, 1000, 1000));
+
+	@Test
+	public void findValuesIntersectingArea() throws Exception {
+		index.add(new Rectangle(10, 10, 10, 10), "a");
+		index.add(new Rectangle(500, 500, 10, 10), "b");
+		index.add(new Rectangle(15, 0, 100, 12), "c");
+		assertThat(index.findIntersecting(new Rectangle(0, 0, 16, 11)), equalTo(Arrays.asList("a", "c")));
+		assertThat(index.findContaining(new Point(505, 505)), equalTo(Arrays.asList("b")));
+		assertThat(index.findContaining(new Point(300, 300)), equalTo(Collections.emptyList()));
+	}
+
+	@Test
+	public void findValuesOfSplitQuadrantsInInsertionOrder() throws Exception {
+		final List<String> expected = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			final String value = Integer.toString(i);
+			index.add(new Rectangle(i * 10, i * 10, 5, 5), value);
+			if (i >= 20 && i < 40)
+				expected.add(value);
+		}
+		index.add(new Rectangle(0, 0, 1000, 1000), "all");
+		expected.add("all");
+		assertThat(index.findIntersecting(new Rectangle(200, 200, 195, 195)), equalTo(expected));
+		assertThat(index.size(), equalTo(101));
+	}
+
+	@Test
+	public void findValuesOutsideOfIndexedArea() throws Exception {
+		index.add(new Rectangle(-100, -100, 10, 10), "outside");
+		assertThat(index.findContaining(new Point(-95, -95)), equalTo(Arrays.asList("outside")));
+	}
+
+	@Test
+	public void findValuesWithoutBoundsEverywhere() throws Exception {
+		index.add(new Rectangle(10, 10, 10, 10), "a");
+		index.add(null, "unbounded");
+		assertThat(index.findContaining(new Point(15, 15)), equalTo(Arrays.asList("a", "unbounded")));
+		assertThat(index.findContaining(new Point(700, 700)), equalTo(Arrays.asList("unbounded")));
+	}
+}
@@ -0,0 +1,63 @@
+package org.freeplane.core.util.collection;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class StringTransformationCacheShould {
+	private final AtomicInteger transformations = new AtomicInteger();
+
+	private String upperCase(final String text) {
+		transformations.incrementAndGet();
+		return text.toUpperCase();
+	}
+
+	@Test
+	public void transformEqualInputOnlyOnce() throws Exception {
+		final StringTransformationCache cache = new StringTransformationCache(this::upperCase, 0, 1000);
+		assertThat(cache.transform("abc"), equalTo("ABC"));
+		assertThat(cache.transform(new String("abc")), equalTo("ABC"));
+		assertThat(transformations.get(), equalTo(1));
+		assertThat(cache.getHits(), equalTo(1L));
+		assertThat(cache.getMisses(), equalTo(1L));
+	}
+
+	@Test
+	public void removeLeastRecentlyUsedResultsWhenFull() throws Exception {
+		final StringTransformationCache cache = new StringTransformationCache(this::upperCase, 0, 12);
+		cache.transform("aa");
+		cache.transform("bb");
+		cache.transform("aa");
+		cache.transform("cc");
+		cache.transform("dd");
+		assertThat(cache.size(), equalTo(3));
+		assertThat(cache.getCharacterCount(), equalTo(12L));
+		cache.resetStatistics();
+		cache.transform("aa");
+		cache.transform("bb");
+		assertThat(cache.getHits(), equalTo(1L));
+		assertThat(cache.getMisses(), equalTo(1L));
+	}
+
+	@Test
+	public void notCacheShortOrHugeInput() throws Exception {
+		final StringTransformationCache cache = new StringTransformationCache(this::upperCase, 2, 10);
+		cache.transform("a");
+		cache.transform("abcdefgh");
+		assertThat(cache.size(), equalTo(0));
+		assertThat(cache.getMisses(), equalTo(0L));
+	}
+
+	@Test
+	public void forgetResultsAfterClear() throws Exception {
+		final StringTransformationCache cache = new StringTransformationCache(this::upperCase, 0, 100);
+		cache.transform("abc");
+		cache.clear();
+		cache.transform("abc");
+		assertThat(transformations.get(), equalTo(2));
+		assertThat(cache.getCharacterCount(), equalTo(6L));
+	}
+}
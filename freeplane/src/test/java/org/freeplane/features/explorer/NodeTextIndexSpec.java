@@ -0,0 +1,88 @@
+package org.freeplane.features.explorer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeTextIndexSpec {
+	private MapModel map;
+	private NodeModel root;
+
+	@Before
+	public void setup() {
+		map = new MapModel(null, null, null);
+		root = new NodeModel("root", map);
+		map.setRoot(root);
+	}
+
+	private NodeModel addChild(NodeModel parent, String text) {
+		final NodeModel child = new NodeModel(text, map);
+		parent.insert(child);
+		return child;
+	}
+
+	@Test
+	public void findsNodesByPlainText() throws Exception {
+		final NodeModel plain = addChild(root, "text");
+		final NodeModel html = addChild(root, "<html><body><p>text</p></body></html>");
+		addChild(root, "other");
+		assertThat(NodeTextIndex.of(map).nodesWithText("text")).containsExactlyInAnyOrder(plain, html);
+	}
+
+	@Test
+	public void findsNodesByTextStart() throws Exception {
+		final NodeModel first = addChild(root, "text 1");
+		final NodeModel second = addChild(root, "text 2");
+		addChild(root, "other text");
+		assertThat(NodeTextIndex.of(map).nodesWithTextStartingWith("text")).containsExactlyInAnyOrder(first, second);
+	}
+
+	@Test
+	public void findsIndexedNodesAfterTextChange() throws Exception {
+		final NodeModel node = addChild(root, "old");
+		final NodeTextIndex index = NodeTextIndex.of(map);
+		node.setText("new");
+		index.add(node);
+		assertThat(index.nodesWithText("old")).isEmpty();
+		assertThat(index.nodesWithText("new")).containsExactly(node);
+		assertThat(index.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void findsInsertedNodes() throws Exception {
+		final NodeTextIndex index = NodeTextIndex.of(map);
+		final NodeModel node = addChild(root, "text");
+		final NodeModel child = addChild(node, "text");
+		new NodeIndexUpdater().onNodeInserted(root, node, 0);
+		assertThat(index.nodesWithText("text")).containsExactlyInAnyOrder(node, child);
+	}
+
+	@Test
+	public void descendantStepReturnsIndexedNodesInMapOrder() throws Exception {
+		final NodeModel first = addChild(root, "first");
+		final NodeModel firstText = addChild(first, "text");
+		final NodeModel second = addChild(root, "second");
+		final NodeModel secondText = addChild(second, "text");
+		final NodeModel deepText = addChild(firstText, "text");
+		NodeTextIndex.of(map);
+		assertThat(ExploringStep.DESCENDANT.getNodes(root, new NodeMatcher("'text'"), AccessedNodes.IGNORE))
+			.containsExactly(firstText, deepText, secondText);
+		assertThat(ExploringStep.DESCENDANT.getNodes(second, new NodeMatcher("'text'"), AccessedNodes.IGNORE))
+			.containsExactly(secondText);
+	}
+
+	@Test
+	public void descendantStepFindsNodesByAlias() throws Exception {
+		final NodeModel first = addChild(root, "first");
+		final NodeModel second = addChild(first, "second");
+		NodeAlias.setAlias(second, "alias");
+		assertThat(ExploringStep.DESCENDANT.getNodes(root, new NodeMatcher("~alias"), AccessedNodes.IGNORE))
+			.containsExactly(second);
+		NodeAlias.setAlias(second, "other");
+		assertThat(ExploringStep.DESCENDANT.getNodes(root, new NodeMatcher("~alias"), AccessedNodes.IGNORE))
+			.isEmpty();
+	}
+}
@@ -0,0 +1,131 @@
+package org.freeplane.features.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class ConcurrentConditionCheckerTest {
+	private static final int[] FLAGS = { FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE, FilterInfo.FILTER_SHOW_AS_MATCHED,
+	        FilterInfo.FILTER_SHOW_AS_ANCESTOR, FilterInfo.FILTER_SHOW_AS_DESCENDANT, FilterInfo.FILTER_SHOW_AS_HIDDEN };
+
+	private static class TextContainsCondition implements ICondition {
+		final String text;
+
+		TextContainsCondition(final String text) {
+			this.text = text;
+		}
+
+		@Override
+		public boolean checkNode(final NodeModel node) {
+			return node.getText().contains(text);
+		}
+	}
+
+	private static class ConcurrentTextContainsCondition extends TextContainsCondition {
+		final AtomicInteger concurrentChecks = new AtomicInteger();
+		final Thread callingThread = Thread.currentThread();
+
+		ConcurrentTextContainsCondition(final String text) {
+			super(text);
+		}
+
+		@Override
+		public boolean supportsConcurrentChecks() {
+			return true;
+		}
+
+		@Override
+		public BooleanSupplier prepareConcurrentCheck(final NodeModel node) {
+			assertSame(callingThread, Thread.currentThread());
+			final String nodeText = node.getText();
+			return () -> {
+				concurrentChecks.incrementAndGet();
+				return nodeText.contains(text);
+			};
+		}
+	}
+
+	private static MapModel createMap(final int nodeCount) {
+		final Random random = new Random(1);
+		final MapModel map = new MapModel(null, null, null);
+		map.setRoot(new NodeModel("root", map));
+		final List<NodeModel> nodes = new ArrayList<NodeModel>();
+		nodes.add(map.getRootNode());
+		for (int i = 1; i < nodeCount; i++) {
+			final NodeModel parent = nodes.get(random.nextInt(nodes.size()));
+			final NodeModel child = new NodeModel(Integer.toString(random.nextInt(100000)), map);
+			parent.insert(child, parent.getChildCount());
+			nodes.add(child);
+		}
+		return map;
+	}
+
+	private static void assertSameResults(final NodeModel node, final Filter expected, final Filter actual) {
+		final FilterInfo expectedInfo = expected.getFilterInfo(node);
+		final FilterInfo actualInfo = actual.getFilterInfo(node);
+		for (final int flag : FLAGS) {
+			assertEquals(expectedInfo.matches(flag), actualInfo.matches(flag));
+		}
+		for (final NodeModel child : node.getChildren()) {
+			assertSameResults(child, expected, actual);
+		}
+	}
+
+	@Test
+	public void calculatesSameResultsAsSequentialChecks() {
+		Assume.assumeTrue(ForkJoinPool.commonPool().getParallelism() > 1);
+		final MapModel map = createMap(20000);
+		final Filter expected = new Filter(new TextContainsCondition("12"), false, true, true, false, null);
+		expected.calculateFilterResults(map);
+		final ConcurrentTextContainsCondition condition = new ConcurrentTextContainsCondition("12");
+		final Filter filter = new Filter(condition, false, true, true, false, null);
+		filter.calculateFilterResults(map);
+		assertSameResults(map.getRootNode(), expected, filter);
+		assertEquals(19999, condition.concurrentChecks.get());
+	}
+
+	@Test
+	public void calculatesSameSubtreeResultsAsSequentialChecks() {
+		Assume.assumeTrue(ForkJoinPool.commonPool().getParallelism() > 1);
+		final MapModel map = createMap(20000);
+		final NodeModel root = map.getRootNode();
+		final Filter expected = new Filter(new TextContainsCondition("3"), false, true, true, false, null);
+		expected.calculateFilterResults(root);
+		final ConcurrentTextContainsCondition condition = new ConcurrentTextContainsCondition("3");
+		final Filter filter = new Filter(condition, false, true, true, false, null);
+		filter.calculateFilterResults(root);
+		assertSameResults(root, expected, filter);
+		assertEquals(20000, condition.concurrentChecks.get());
+	}
+
+	@Test
+	public void checksSmallMapsSequentially() {
+		final MapModel map = createMap(ConcurrentConditionChecker.MINIMAL_NODE_COUNT - 1);
+		final ConcurrentTextContainsCondition condition = new ConcurrentTextContainsCondition("1");
+		assertNull(ConcurrentConditionChecker.checkSubtree(condition, map.getRootNode(), true));
+		final Filter filter = new Filter(condition, false, true, true, false, null);
+		filter.calculateFilterResults(map);
+		assertEquals(0, condition.concurrentChecks.get());
+	}
+
+	@Test
+	public void ignoresConditionsWithoutConcurrentCheckSupport() {
+		final MapModel map = createMap(ConcurrentConditionChecker.MINIMAL_NODE_COUNT * 2);
+		assertNull(ConcurrentConditionChecker.checkSubtree(new TextContainsCondition("1"), map.getRootNode(), true));
+		assertTrue(new TextContainsCondition("root").prepareConcurrentCheck(map.getRootNode()).getAsBoolean());
+	}
+}
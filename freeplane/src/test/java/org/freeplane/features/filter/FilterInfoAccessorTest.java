@@ -0,0 +1,71 @@
+package org.freeplane.features.filter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.freeplane.features.filter.Filter.FilterInfoAccessor;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Test;
+
+public class FilterInfoAccessorTest {
+	private static MapModel createMap() {
+		final MapModel map = new MapModel(null, null, null);
+		map.setRoot(new NodeModel("root", map));
+		return map;
+	}
+
+	@Test
+	public void returnsInitialValueForUncheckedNodes() {
+		final MapModel map = createMap();
+		final FilterInfoAccessor accessor = new FilterInfoAccessor();
+		final NodeModel node = new NodeModel("node", map);
+		assertEquals(FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE, accessor.getInfo(node));
+		assertTrue(accessor.getFilterInfo(node).isNotChecked());
+	}
+
+	@Test
+	public void keepsResultsWhenNodesAreAddedLater() {
+		final MapModel map = createMap();
+		final FilterInfoAccessor accessor = new FilterInfoAccessor();
+		final NodeModel first = new NodeModel("first", map);
+		accessor.getFilterInfo(first).add(FilterInfo.FILTER_SHOW_AS_MATCHED);
+		NodeModel last = null;
+		for (int i = 0; i < 1000; i++) {
+			last = new NodeModel("node " + i, map);
+			accessor.setInfo(last, FilterInfo.FILTER_SHOW_AS_HIDDEN);
+		}
+		assertEquals(FilterInfo.FILTER_SHOW_AS_MATCHED, accessor.getInfo(first));
+		assertTrue(accessor.getFilterInfo(first).isMatched());
+		assertEquals(FilterInfo.FILTER_SHOW_AS_HIDDEN, accessor.getInfo(last));
+	}
+
+	@Test
+	public void writesThroughFilterInfo() {
+		final MapModel map = createMap();
+		final FilterInfoAccessor accessor = new FilterInfoAccessor();
+		final NodeModel node = new NodeModel("node", map);
+		final FilterInfo filterInfo = accessor.getFilterInfo(node);
+		filterInfo.add(FilterInfo.FILTER_SHOW_AS_HIDDEN);
+		filterInfo.add(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		assertEquals(FilterInfo.FILTER_SHOW_AS_HIDDEN | FilterInfo.FILTER_SHOW_AS_ANCESTOR, accessor.getInfo(node));
+		filterInfo.remove(FilterInfo.FILTER_SHOW_AS_ANCESTOR);
+		assertEquals(FilterInfo.FILTER_SHOW_AS_HIDDEN, accessor.getFilterInfo(node).getInfo());
+		filterInfo.reset();
+		assertEquals(FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE, accessor.getInfo(node));
+	}
+
+	@Test
+	public void separatesResultsOfNodesFromOtherMaps() {
+		final MapModel map = createMap();
+		final MapModel otherMap = createMap();
+		final FilterInfoAccessor accessor = new FilterInfoAccessor();
+		final NodeModel node = new NodeModel("node", map);
+		final NodeModel otherNode = new NodeModel("other node", otherMap);
+		assertEquals(node.getIndexInMap(), otherNode.getIndexInMap());
+		accessor.setInfo(node, FilterInfo.FILTER_SHOW_AS_MATCHED);
+		accessor.setInfo(otherNode, FilterInfo.FILTER_SHOW_AS_HIDDEN);
+		assertEquals(FilterInfo.FILTER_SHOW_AS_MATCHED, accessor.getInfo(node));
+		assertEquals(FilterInfo.FILTER_SHOW_AS_HIDDEN, accessor.getInfo(otherNode));
+	}
+}
@@ -0,0 +1,233 @@
+package org.freeplane.features.filter;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.features.filter.condition.ICondition;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IncrementalFilterUpdateTest {
+	private static final int[] FLAGS = { FilterInfo.FILTER_SHOW_AS_INITIAL_VALUE, FilterInfo.FILTER_SHOW_AS_MATCHED,
+	        FilterInfo.FILTER_SHOW_AS_ANCESTOR, FilterInfo.FILTER_SHOW_AS_DESCENDANT, FilterInfo.FILTER_SHOW_AS_HIDDEN };
+
+	private static class TextContainsCondition implements ICondition {
+		private final String text;
+
+		TextContainsCondition(final String text) {
+			this.text = text;
+		}
+
+		@Override
+		public boolean checkNode(final NodeModel node) {
+			return node.getText().contains(text);
+		}
+	}
+
+	private static class ParentTextContainsCondition extends TextContainsCondition {
+		ParentTextContainsCondition(final String text) {
+			super(text);
+		}
+
+		@Override
+		public boolean checkNode(final NodeModel node) {
+			final NodeModel parent = node.getParentNode();
+			return parent != null && super.checkNode(parent);
+		}
+
+		@Override
+		public boolean checksParent() {
+			return true;
+		}
+	}
+
+	private static class AnyChildTextContainsCondition extends TextContainsCondition {
+		AnyChildTextContainsCondition(final String text) {
+			super(text);
+		}
+
+		@Override
+		public boolean checkNode(final NodeModel node) {
+			for (final NodeModel child : node.getChildren()) {
+				if (super.checkNode(child)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public boolean checksChildren() {
+			return true;
+		}
+	}
+
+	private Random random;
+	private MapModel map;
+	private FilterUpdateJournal journal;
+	private int nodeCounter;
+
+	@Before
+	public void setup() {
+		random = new Random(1);
+		map = new MapModel(null, null, null);
+		map.setRoot(new NodeModel(randomText(), map));
+		journal = FilterUpdateJournal.start(map);
+		for (int i = 0; i < 200; i++) {
+			final List<NodeModel> nodes = allNodes();
+			final NodeModel parent = nodes.get(random.nextInt(nodes.size()));
+			parent.insert(createNode(), random.nextInt(parent.getChildCount() + 1));
+		}
+	}
+
+	private String randomText() {
+		final StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 3; i++) {
+			text.append((char) ('a' + random.nextInt(8)));
+		}
+		return text.toString();
+	}
+
+	private NodeModel createNode() {
+		return new NodeModel(randomText() + " " + nodeCounter++, map);
+	}
+
+	private List<NodeModel> allNodes() {
+		final List<NodeModel> nodes = new ArrayList<NodeModel>();
+		addSubtree(map.getRootNode(), nodes);
+		return nodes;
+	}
+
+	private void addSubtree(final NodeModel node, final List<NodeModel> nodes) {
+		nodes.add(node);
+		for (final NodeModel child : node.getChildren()) {
+			addSubtree(child, nodes);
+		}
+	}
+
+	private void modifyMap() {
+		final List<NodeModel> nodes = allNodes();
+		final NodeModel node = nodes.get(random.nextInt(nodes.size()));
+		final NodeModel parent = node.getParentNode();
+		switch (random.nextInt(4)) {
+			case 0:
+				node.setText(randomText());
+				journal.nodeChanged(node);
+				break;
+			case 1:
+				final NodeModel child = createNode();
+				if (random.nextBoolean()) {
+					child.insert(createNode(), 0);
+				}
+				node.insert(child, random.nextInt(node.getChildCount() + 1));
+				journal.subtreeInserted(child);
+				break;
+			case 2:
+				if (parent != null) {
+					parent.remove(parent.getIndex(node));
+					journal.childRemoved(parent);
+				}
+				break;
+			default:
+				final NodeModel newParent = nodes.get(random.nextInt(nodes.size()));
+				if (parent != null && newParent != node && !newParent.isDescendantOf(node)) {
+					parent.remove(parent.getIndex(node));
+					newParent.insert(node, random.nextInt(newParent.getChildCount() + 1));
+					journal.childRemoved(parent);
+					journal.subtreeInserted(node);
+				}
+				break;
+		}
+	}
+
+	private void assertSameResults(final Filter expected, final Filter actual) {
+		for (final NodeModel node : allNodes()) {
+			final FilterInfo expectedInfo = expected.getFilterInfo(node);
+			final FilterInfo actualInfo = actual.getFilterInfo(node);
+			for (final int flag : FLAGS) {
+				assertEquals(node.getText() + ", flag " + flag, expectedInfo.matches(flag), actualInfo.matches(flag));
+			}
+		}
+	}
+
+	private void checkUpdatesForCondition(final ICondition condition) {
+		final Filter filter = new Filter(condition, false, true, true, false, null);
+		filter.calculateFilterResults(map);
+		for (int i = 0; i < 300; i++) {
+			final int changes = 1 + random.nextInt(3);
+			for (int j = 0; j < changes; j++) {
+				modifyMap();
+			}
+			filter.updateFilterResults(map);
+			final Filter expected = new Filter(condition, false, true, true, false, null);
+			expected.calculateFilterResults(map);
+			assertSameResults(expected, filter);
+		}
+	}
+
+	@Test
+	public void updatesChangedNodesLikeFullCalculation() {
+		checkUpdatesForCondition(new TextContainsCondition("a"));
+	}
+
+	@Test
+	public void updatesChildrenOfChangedNodesIfConditionChecksParent() {
+		checkUpdatesForCondition(new ParentTextContainsCondition("b"));
+	}
+
+	@Test
+	public void updatesParentOfChangedNodesIfConditionChecksChildren() {
+		checkUpdatesForCondition(new AnyChildTextContainsCondition("c"));
+	}
+
+	@Test
+	public void updatesFilterAppliedToVisibleNodesLikeFullCalculation() {
+		final ICondition baseCondition = new TextContainsCondition("a");
+		final ICondition condition = new TextContainsCondition("b");
+		final Filter baseFilter = new Filter(baseCondition, false, true, false, false, null);
+		baseFilter.calculateFilterResults(map);
+		final Filter filter = new Filter(condition, false, true, true, true, baseFilter);
+		filter.calculateFilterResults(map);
+		for (int i = 0; i < 300; i++) {
+			modifyMap();
+			filter.updateFilterResults(map);
+			final Filter expectedBaseFilter = new Filter(baseCondition, false, true, false, false, null);
+			expectedBaseFilter.calculateFilterResults(map);
+			final Filter expected = new Filter(condition, false, true, true, true, expectedBaseFilter);
+			expected.calculateFilterResults(map);
+			assertSameResults(expectedBaseFilter, baseFilter);
+			assertSameResults(expected, filter);
+		}
+	}
+
+	@Test
+	public void recalculatesAllResultsWhenJournalWasCleared() {
+		final ICondition condition = new TextContainsCondition("a");
+		final Filter filter = new Filter(condition, false, true, true, false, null);
+		filter.calculateFilterResults(map);
+		for (final NodeModel node : allNodes()) {
+			node.setText(randomText());
+		}
+		journal.clear();
+		filter.updateFilterResults(map);
+		final Filter expected = new Filter(condition, false, true, true, false, null);
+		expected.calculateFilterResults(map);
+		assertSameResults(expected, filter);
+	}
+
+	@Test
+	public void returnsChangesWhichStayUnchangedByLaterChanges() {
+		final long version = journal.getVersion();
+		final NodeModel root = map.getRootNode();
+		journal.nodeChanged(root);
+		final List<FilterUpdateJournal.Change> changes = journal.getChangesSince(version);
+		journal.nodeChanged(root);
+		assertEquals(1, changes.size());
+		assertEquals(root, changes.get(0).node);
+	}
+}
@@ -0,0 +1,176 @@
+package org.freeplane.features.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.api.LengthUnit;
+import org.freeplane.api.Quantity;
+import org.freeplane.core.extension.IExtension;
+import org.freeplane.core.io.IAttributeWriter;
+import org.freeplane.core.io.IExtensionAttributeWriter;
+import org.freeplane.core.io.ITreeWriter;
+import org.freeplane.core.io.WriteManager;
+import org.freeplane.core.io.xml.SerializedSubtreeCache;
+import org.freeplane.core.io.xml.TreeXmlWriter;
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.features.link.LinkBuilder;
+import org.freeplane.features.map.MapWriter.Hint;
+import org.freeplane.features.map.MapWriter.Mode;
+import org.freeplane.features.map.NodeModel.Side;
+import org.freeplane.features.mode.Controller;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeWriterSubtreeCacheTest {
+	private static class Marker implements IExtension {
+		final int value;
+
+		Marker(final int value) {
+			this.value = value;
+		}
+	}
+
+	private Controller controller;
+	private MapController mapController;
+	private MapModel map;
+	private NodeModel root;
+	private List<NodeModel> nodes;
+	private SerializedSubtreeCache cache;
+	private SerializedSubtreeCacheUpdater updater;
+	private Random random;
+
+	@Before
+	public void setup() {
+		controller = mock(Controller.class);
+		doCallRealMethod().when(controller).runAsCurrentController(any(Runnable.class));
+		final ResourceController resourceController = mock(ResourceController.class);
+		when(controller.getResourceController()).thenReturn(resourceController);
+		when(resourceController.getProperty(NodeBuilder.RESOURCES_SAVE_FOLDING))
+		    .thenReturn(NodeBuilder.RESOURCES_ALWAYS_SAVE_FOLDING);
+		mapController = mock(MapController.class);
+		when(mapController.isFolded(any(NodeModel.class)))
+		    .thenAnswer(invocation -> ((NodeModel) invocation.getArgument(0)).isFolded());
+		map = new MapModel(null, null, null);
+		root = new NodeModel("root", map);
+		map.setRoot(root);
+		nodes = new ArrayList<NodeModel>();
+		nodes.add(root);
+		random = new Random(1);
+		for (int i = 0; i < 60; i++) {
+			insertNode();
+		}
+		cache = new SerializedSubtreeCache();
+		map.addExtension(cache);
+		updater = new SerializedSubtreeCacheUpdater();
+	}
+
+	private NodeModel insertNode() {
+		final NodeModel parent = nodes.get(random.nextInt(nodes.size()));
+		final NodeModel child = new NodeModel("node " + nodes.size(), map);
+		parent.insert(child, random.nextInt(parent.getChildCount() + 1));
+		nodes.add(child);
+		return child;
+	}
+
+	private NodeModel randomNode() {
+		return nodes.get(1 + random.nextInt(nodes.size() - 1));
+	}
+
+	private String write(final SerializedSubtreeCache cache) throws IOException {
+		final String[] result = new String[1];
+		final IOException[] exception = new IOException[1];
+		controller.runAsCurrentController(() -> {
+			try {
+				result[0] = writeWithCurrentController(cache);
+			}
+			catch (IOException e) {
+				exception[0] = e;
+			}
+		});
+		if (exception[0] != null) {
+			throw exception[0];
+		}
+		return result[0];
+	}
+
+	private String writeWithCurrentController(final SerializedSubtreeCache cache) throws IOException {
+		final WriteManager writeManager = new WriteManager();
+		final NodeWriter nodeWriter = new NodeWriter(mapController, new LinkBuilder(null), "node", true, true, cache);
+		nodeWriter.registerBy(writeManager);
+		writeManager.addAttributeWriter("node", new IAttributeWriter() {
+			@Override
+			public void writeAttributes(final ITreeWriter writer, final Object userObject, final String tag) {
+				writer.addAttribute("TEXT", ((NodeModel) userObject).getText());
+			}
+		});
+		writeManager.addExtensionAttributeWriter(Marker.class, new IExtensionAttributeWriter() {
+			@Override
+			public void writeAttributes(final ITreeWriter writer, final Object userObject, final IExtension extension) {
+				writer.addAttribute("MARKER", Integer.toString(((Marker) extension).value));
+			}
+		});
+		final StringWriter output = new StringWriter();
+		final TreeXmlWriter xmlWriter = new TreeXmlWriter(writeManager, output, false);
+		xmlWriter.setHint(Hint.MODE, Mode.FILE);
+		xmlWriter.addElement(root, "node");
+		xmlWriter.flush();
+		return output.toString();
+	}
+
+	private void assertSameOutputWithAndWithoutCache() throws IOException {
+		final String expected = write(null);
+		assertEquals(expected, write(cache));
+	}
+
+	@Test
+	public void reusesUnchangedNodes() throws Exception {
+		assertSameOutputWithAndWithoutCache();
+		cache.resetStatistics();
+		assertSameOutputWithAndWithoutCache();
+		assertEquals(0, cache.getMisses());
+		assertEquals(nodes.size() - 1, cache.getHits());
+	}
+
+	@Test
+	public void writesSameXmlAfterEditsWithAndWithoutCache() throws Exception {
+		assertSameOutputWithAndWithoutCache();
+		for (int round = 0; round < 40; round++) {
+			final NodeModel node = randomNode();
+			switch (random.nextInt(6)) {
+			case 0:
+				node.setText("edited " + round);
+				updater.nodeChanged(new NodeChangeEvent(node, NodeModel.NODE_TEXT, null, null, true, true));
+				break;
+			case 1:
+				node.setFolded(!node.isFolded());
+				break;
+			case 2:
+				node.setSide(node.getSide() == Side.LEFT ? Side.RIGHT : Side.LEFT);
+				break;
+			case 3:
+				node.getSharedData().getIcons().setIconSize(new Quantity<LengthUnit>(round + 10, LengthUnit.pt));
+				break;
+			case 4:
+				node.putExtension(new Marker(round));
+				break;
+			default:
+				final NodeModel child = insertNode();
+				updater.onNodeInserted(child.getParentNode(), child, child.getParentNode().getIndex(child));
+				break;
+			}
+			cache.resetStatistics();
+			assertSameOutputWithAndWithoutCache();
+			assertTrue(cache.getHits() > 0);
+		}
+	}
+}
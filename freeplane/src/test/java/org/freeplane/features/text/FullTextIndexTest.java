@@ -0,0 +1,123 @@
+package org.freeplane.features.text;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.freeplane.features.filter.condition.StringTransformer;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FullTextIndexTest {
+	private static final String[] WORDS = { "alpha", "Beta", "gamma", "\u00c4rger", "arger", "delta-epsilon", "42", "=formula" };
+	private Random random;
+	private MapModel map;
+	private FullTextIndex index;
+
+	@Before
+	public void setup() {
+		random = new Random(1);
+		map = new MapModel(null, null, null);
+		map.setRoot(new NodeModel("root", map));
+		index = new FullTextIndex(map, node -> new Object[] { node.getText() },
+		    node -> node.getText().startsWith("="));
+		for (int i = 0; i < 100; i++) {
+			final List<NodeModel> nodes = allNodes();
+			final NodeModel parent = nodes.get(random.nextInt(nodes.size()));
+			parent.insert(new NodeModel(randomText(), map), parent.getChildCount());
+		}
+	}
+
+	private String randomText() {
+		return WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)];
+	}
+
+	private List<NodeModel> allNodes() {
+		final List<NodeModel> nodes = new ArrayList<NodeModel>();
+		addSubtree(map.getRootNode(), nodes);
+		return nodes;
+	}
+
+	private void addSubtree(final NodeModel node, final List<NodeModel> nodes) {
+		nodes.add(node);
+		for (final NodeModel child : node.getChildren()) {
+			addSubtree(child, nodes);
+		}
+	}
+
+	private void assertFindsAllMatchingNodes(final String value, final boolean ignoreCase, final boolean ignoreDiacritics) {
+		final String normalizedValue = StringTransformer.transform(value, ignoreCase, ignoreDiacritics);
+		for (final NodeModel node : allNodes()) {
+			final String normalizedText = StringTransformer.transform(node.getText(), ignoreCase, ignoreDiacritics);
+			if (normalizedText.contains(normalizedValue)) {
+				assertTrue(node.getText() + " contains " + value, index.mayContain(node, normalizedValue));
+			}
+		}
+	}
+
+	@Test
+	public void findsAllNodesContainingSearchedText() {
+		for (final String value : new String[] { "alpha", "ALPHA", "lph", "eta", "\u00c4rger", "\u00e4rg", "arger", "a e", "ta-ep", "4",
+		        "formula" }) {
+			assertFindsAllMatchingNodes(value, true, false);
+			assertFindsAllMatchingNodes(value, false, false);
+			assertFindsAllMatchingNodes(value, true, true);
+			assertFindsAllMatchingNodes(value, false, true);
+		}
+	}
+
+	@Test
+	public void excludesNodesWithoutSearchedWords() {
+		final NodeModel root = map.getRootNode();
+		final NodeModel node = new NodeModel("alpha beta", map);
+		root.insert(node, 0);
+		index.subtreeChanged(node);
+		assertTrue(index.mayContain(node, "alpha"));
+		assertTrue(index.mayContain(node, "ph"));
+		assertFalse(index.mayContain(node, "gamma"));
+		assertFalse(index.mayContain(node, "alpha gamma"));
+		assertFalse(index.mayContain(root, "alpha"));
+	}
+
+	@Test
+	public void includesNodesWithFormulas() {
+		final NodeModel node = new NodeModel("=1+1", map);
+		map.getRootNode().insert(node, 0);
+		index.subtreeChanged(node);
+		assertTrue(index.mayContain(node, "2"));
+	}
+
+	@Test
+	public void updatesChangedNodes() {
+		final NodeModel node = new NodeModel("alpha", map);
+		map.getRootNode().insert(node, 0);
+		index.subtreeChanged(node);
+		assertTrue(index.mayContain(node, "alpha"));
+		node.setText("omega");
+		index.nodeChanged(node);
+		assertFalse(index.mayContain(node, "alpha"));
+		assertTrue(index.mayContain(node, "omega"));
+	}
+
+	@Test
+	public void removesDeletedNodes() {
+		final NodeModel node = new NodeModel("omega", map);
+		map.getRootNode().insert(node, 0);
+		index.subtreeChanged(node);
+		assertTrue(index.findCandidates("omega").get(node.getIndexInMap()));
+		map.getRootNode().remove(0);
+		index.subtreeChanged(node);
+		assertFalse(index.findCandidates("omega").get(node.getIndexInMap()));
+	}
+
+	@Test
+	public void searchesAllNodesForTextWithoutWords() {
+		assertNull(index.findCandidates(" - "));
+	}
+}
@@ -0,0 +1,101 @@
+package org.freeplane.features.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.awt.EventQueue;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeChangeEvent;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.text.IContentTransformer.Mode;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransformedContentCacheTest {
+	private TransformedContentCache cache;
+	private NodeModel node;
+	private Object content;
+
+	@Before
+	public void setup() {
+		cache = new TransformedContentCache();
+		final MapModel map = new MapModel(null, null, null);
+		node = new NodeModel("text", map);
+		content = node.getUserObject();
+	}
+
+	private static void onEventDispatchThread(final Runnable runnable) throws Exception {
+		EventQueue.invokeAndWait(runnable);
+	}
+
+	@Test
+	public void returnsCachedContentForSameNodePropertyAndContent() throws Exception {
+		final Object transformed = "transformed";
+		onEventDispatchThread(() -> {
+			cache.put(node, node, content, Mode.VIEW, true, false, transformed);
+			assertSame(transformed, cache.get(node, node, content, Mode.VIEW, true, false));
+			assertNull(cache.get(node, node, new String("text"), Mode.VIEW, true, false));
+			assertNull(cache.get(node, node, content, Mode.TEXT, true, false));
+			assertNull(cache.get(node, node, content, Mode.VIEW, false, false));
+			assertNull(cache.get(node, node, content, Mode.VIEW, true, true));
+			assertNull(cache.get(node, "details", content, Mode.VIEW, true, false));
+			assertEquals(1, cache.getHits());
+			assertEquals(5, cache.getMisses());
+		});
+	}
+
+	@Test
+	public void dropsAllContentOnAnyChange() throws Exception {
+		onEventDispatchThread(() -> {
+			cache.put(node, node, content, Mode.VIEW, true, false, "transformed");
+			cache.mapChanged(null);
+			assertNull(cache.get(node, node, content, Mode.VIEW, true, false));
+		});
+	}
+
+	@Test
+	public void dropsOnlyChangedNodeOnContentChange() throws Exception {
+		final NodeModel otherNode = new NodeModel("other", node.getMap());
+		final Object otherContent = otherNode.getUserObject();
+		onEventDispatchThread(() -> {
+			cache.put(node, node, content, Mode.VIEW, true, false, "transformed");
+			cache.put(otherNode, otherNode, otherContent, Mode.VIEW, true, false, "other transformed");
+			cache.nodeChanged(new NodeChangeEvent(node, NodeModel.NODE_TEXT, null, null, true, true));
+			assertNull(cache.get(node, node, content, Mode.VIEW, true, false));
+			assertEquals("other transformed", cache.get(otherNode, otherNode, otherContent, Mode.VIEW, true, false));
+		});
+	}
+
+	@Test
+	public void dropsAllContentOnOtherNodeChanges() throws Exception {
+		final NodeModel otherNode = new NodeModel("other", node.getMap());
+		final Object otherContent = otherNode.getUserObject();
+		onEventDispatchThread(() -> {
+			cache.put(otherNode, otherNode, otherContent, Mode.VIEW, true, false, "other transformed");
+			cache.nodeChanged(new NodeChangeEvent(node, "unknown", null, null, true, true));
+			assertNull(cache.get(otherNode, otherNode, otherContent, Mode.VIEW, true, false));
+		});
+	}
+
+	@Test
+	public void dropsOnlyChangedNodeForAddedContentProperty() throws Exception {
+		final NodeModel otherNode = new NodeModel("other", node.getMap());
+		final Object otherContent = otherNode.getUserObject();
+		cache.addNodeContentProperty("formula");
+		onEventDispatchThread(() -> {
+			cache.put(otherNode, otherNode, otherContent, Mode.VIEW, true, false, "other transformed");
+			cache.nodeChanged(new NodeChangeEvent(node, "formula", null, null, false, false));
+			assertEquals("other transformed", cache.get(otherNode, otherNode, otherContent, Mode.VIEW, true, false));
+		});
+	}
+
+	@Test
+	public void cachesOnlyOnEventDispatchThread() throws Exception {
+		cache.put(node, node, content, Mode.VIEW, true, false, "transformed");
+		onEventDispatchThread(() -> assertNull(cache.get(node, node, content, Mode.VIEW, true, false)));
+		onEventDispatchThread(() -> cache.put(node, node, content, Mode.VIEW, true, false, "transformed"));
+		assertNull(cache.get(node, node, content, Mode.VIEW, true, false));
+	}
+}
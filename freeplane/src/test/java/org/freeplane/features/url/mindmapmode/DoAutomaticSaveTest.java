@@ -0,0 +1,82 @@
+package org.freeplane.features.url.mindmapmode;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.awt.event.ActionEvent;
+import java.io.IOException;
+import java.io.Writer;
+
+import javax.swing.Timer;
+
+import org.freeplane.features.map.MapController;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.MapWriter;
+import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.ModeController;
+import org.freeplane.features.mode.mindmapmode.MModeController;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DoAutomaticSaveTest {
+	private Controller controller;
+	private MapModel map;
+	private Timer timer;
+	private DoAutomaticSave automaticSave;
+
+	@Before
+	public void setup() {
+		controller = mock(Controller.class);
+		doCallRealMethod().when(controller).runAsCurrentController(any(Runnable.class));
+		map = mock(MapModel.class);
+		when(map.getNumberOfChangesSinceLastSave()).thenReturn(0);
+		when(map.getTitle()).thenReturn("map");
+		timer = mock(Timer.class);
+		automaticSave = new DoAutomaticSave(map, 1, true);
+	}
+
+	private void runTimer() {
+		controller.runAsCurrentController(() -> automaticSave.actionPerformed(new ActionEvent(timer, 0, null)));
+	}
+
+	@Test
+	public void skipsUnchangedMap() {
+		runTimer();
+
+		verify(timer, never()).stop();
+	}
+
+	@Test
+	public void restartsTimerIfMapIsNotSavedByMindMapMode() {
+		when(controller.getModeController()).thenReturn(mock(ModeController.class));
+		when(map.getNumberOfChangesSinceLastSave()).thenReturn(1);
+
+		runTimer();
+
+		verify(timer).stop();
+		verify(timer).start();
+	}
+
+	@Test
+	public void restartsTimerIfSnapshotFails() throws IOException {
+		final MModeController modeController = mock(MModeController.class);
+		when(controller.getModeController()).thenReturn(modeController);
+		final MapController mapController = mock(MapController.class);
+		when(modeController.getMapController()).thenReturn(mapController);
+		final MapWriter mapWriter = mock(MapWriter.class);
+		when(mapController.getMapWriter()).thenReturn(mapWriter);
+		doThrow(new IOException("snapshot failed")).when(mapWriter).writeMapSnapshotAsXml(any(MapModel.class),
+		    any(Writer.class));
+		when(map.getNumberOfChangesSinceLastSave()).thenReturn(1);
+
+		runTimer();
+
+		verify(timer).stop();
+		verify(timer).start();
+	}
+}
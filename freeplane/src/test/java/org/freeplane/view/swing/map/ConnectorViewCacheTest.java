@@ -0,0 +1,130 @@
+package org.freeplane.view.swing.map;
+
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Point;
+
+import javax.swing.JPanel;
+
+import org.freeplane.features.link.ConnectorModel;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.styles.MapViewLayout;
+import org.freeplane.view.swing.map.link.ILinkView;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectorViewCacheTest {
+	private MapView map;
+	private NodeView sourceView;
+	private NodeView targetView;
+	private JPanel sourceContent;
+	private ConnectorModel connector;
+	private NodeModel sourceNode;
+	private NodeModel targetNode;
+	private NodeModel otherNode;
+	private ConnectorViewCache cache;
+
+	@Before
+	public void setup() {
+		map = mock(MapView.class);
+		when(map.getZoom()).thenReturn(1f);
+		when(map.showsConnectorLines()).thenReturn(true);
+		when(map.getLayoutType()).thenReturn(MapViewLayout.MAP);
+		when(map.getBackground()).thenReturn(Color.WHITE);
+		sourceContent = new JPanel();
+		sourceContent.setBounds(10, 10, 100, 20);
+		sourceView = mock(NodeView.class);
+		when(sourceView.getContent()).thenReturn(sourceContent);
+		targetView = mock(NodeView.class);
+		final MapModel mapModel = new MapModel(null, null, null);
+		final NodeModel root = new NodeModel("root", mapModel);
+		mapModel.setRoot(root);
+		sourceNode = new NodeModel("source", mapModel);
+		root.insert(sourceNode);
+		targetNode = new NodeModel("target", mapModel);
+		root.insert(targetNode);
+		otherNode = new NodeModel("other", mapModel);
+		root.insert(otherNode);
+		connector = mock(ConnectorModel.class);
+		when(connector.getSource()).thenReturn(sourceNode);
+		when(connector.getTarget()).thenReturn(targetNode);
+		when(connector.getStartInclination()).thenReturn(new Point(10, 0));
+		when(connector.getEndInclination()).thenReturn(new Point(-10, 0));
+		cache = new ConnectorViewCache(map);
+	}
+
+	private ILinkView paint() {
+		cache.startPainting();
+		final ILinkView view = cache.getView(connector, sourceView, targetView, () -> mock(ILinkView.class));
+		cache.finishPainting();
+		return view;
+	}
+
+	@Test
+	public void reusesViewIfNothingChanged() {
+		final ILinkView view = paint();
+		assertSame(view, paint());
+	}
+
+	@Test
+	public void rebuildsViewIfNodeBoundsChange() {
+		final ILinkView view = paint();
+		sourceContent.setBounds(20, 10, 100, 20);
+		assertNotSame(view, paint());
+	}
+
+	@Test
+	public void rebuildsViewIfInclinationChanges() {
+		final ILinkView view = paint();
+		when(connector.getStartInclination()).thenReturn(new Point(20, 0));
+		assertNotSame(view, paint());
+	}
+
+	@Test
+	public void rebuildsViewIfZoomChanges() {
+		final ILinkView view = paint();
+		when(map.getZoom()).thenReturn(2f);
+		assertNotSame(view, paint());
+	}
+
+	@Test
+	public void rebuildsViewIfBackgroundChanges() {
+		final ILinkView view = paint();
+		when(map.getBackground()).thenReturn(Color.BLACK);
+		assertNotSame(view, paint());
+	}
+
+	@Test
+	public void dropsViewsOfConnectorsNotPaintedLastTime() {
+		final ILinkView view = paint();
+		cache.startPainting();
+		cache.finishPainting();
+		assertNotSame(view, paint());
+	}
+
+	@Test
+	public void keepsViewIfUnconnectedNodeChanges() {
+		final ILinkView view = paint();
+		cache.clear(otherNode);
+		assertSame(view, paint());
+	}
+
+	@Test
+	public void rebuildsViewIfConnectedNodeChanges() {
+		final ILinkView view = paint();
+		cache.clear(targetNode);
+		assertNotSame(view, paint());
+	}
+
+	@Test
+	public void rebuildsViewIfAncestorOfConnectedNodeChanges() {
+		final ILinkView view = paint();
+		cache.clear(sourceNode.getParentNode());
+		assertNotSame(view, paint());
+	}
+}
@@ -0,0 +1,210 @@
+package org.freeplane.view.swing.map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import javax.swing.JComponent;
+import javax.swing.JPanel;
+import javax.swing.RepaintManager;
+import javax.swing.SwingUtilities;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MapTileCacheTest {
+	private static final int SIZE = 2 * MapTileCache.TILE_SIZE;
+	private MapView map;
+	private MapTileCache cache;
+	private List<Rectangle> paintedTiles;
+	private Color color;
+
+	@Before
+	public void setup() {
+		map = mock(MapView.class);
+		when(map.getWidth()).thenReturn(SIZE);
+		when(map.getHeight()).thenReturn(SIZE);
+		when(map.getVisibleRect()).thenReturn(new Rectangle(SIZE, SIZE));
+		when(map.getZoom()).thenReturn(1f);
+		when(map.isOpaque()).thenReturn(true);
+		cache = new MapTileCache(map);
+		paintedTiles = new ArrayList<>();
+		color = Color.WHITE;
+	}
+
+	private final Consumer<Graphics2D> painter = g -> {
+		paintedTiles.add(g.getClipBounds());
+		g.setColor(color);
+		g.fillRect(0, 0, SIZE, SIZE);
+	};
+
+	private BufferedImage paint() {
+		return paint(painter);
+	}
+
+	private BufferedImage paint(Consumer<Graphics2D> painter) {
+		final BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = image.createGraphics();
+		try {
+			cache.paint(g, new MapTileCache.Version(map, 1), painter);
+		}
+		finally {
+			g.dispose();
+		}
+		return image;
+	}
+
+	@Test
+	public void reusesPaintedTiles() {
+		final BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = image.createGraphics();
+		try {
+			assertTrue(cache.paint(g, new MapTileCache.Version(map, 1), painter));
+			assertFalse(cache.paint(g, new MapTileCache.Version(map, 1), painter));
+		}
+		finally {
+			g.dispose();
+		}
+		assertEquals(4, paintedTiles.size());
+	}
+
+	@Test
+	public void repaintsAllTilesForOtherVersion() {
+		paint();
+		when(map.getZoom()).thenReturn(2f);
+		paint();
+		assertEquals(8, paintedTiles.size());
+	}
+
+	@Test
+	public void repaintsOnlyInvalidatedTiles() {
+		paint();
+		paintedTiles.clear();
+		cache.invalidate(map, new Rectangle(10, 300, 20, 20));
+		color = Color.BLUE;
+		final BufferedImage image = paint();
+		assertEquals(1, paintedTiles.size());
+		assertEquals(new Rectangle(0, MapTileCache.TILE_SIZE, MapTileCache.TILE_SIZE, MapTileCache.TILE_SIZE),
+			paintedTiles.get(0));
+		assertEquals(Color.BLUE.getRGB(), image.getRGB(10, 300));
+		assertEquals(Color.WHITE.getRGB(), image.getRGB(300, 300));
+	}
+
+	@Test
+	public void convertsInvalidatedAreaOfChildComponent() {
+		paint();
+		paintedTiles.clear();
+		final JComponent child = new JPanel();
+		child.setBounds(300, 0, 20, 20);
+		cache.invalidate(child, new Rectangle(0, 0, 5, 5));
+		paint();
+		assertEquals(1, paintedTiles.size());
+		assertEquals(new Rectangle(MapTileCache.TILE_SIZE, 0, MapTileCache.TILE_SIZE, MapTileCache.TILE_SIZE),
+			paintedTiles.get(0));
+	}
+
+	@Test
+	public void doesNotKeepTileInvalidatedWhilePainted() {
+		paint(g -> {
+			painter.accept(g);
+			if (g.getClipBounds().x == 0 && g.getClipBounds().y == 0)
+				cache.invalidate(map, new Rectangle(0, 0, 1, 1));
+		});
+		paintedTiles.clear();
+		paint();
+		assertEquals(1, paintedTiles.size());
+		assertEquals(new Rectangle(0, 0, MapTileCache.TILE_SIZE, MapTileCache.TILE_SIZE), paintedTiles.get(0));
+	}
+
+	@Test
+	public void overlaysOverCachedTilesAreNotCached() {
+		final BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = image.createGraphics();
+		try {
+			cache.paint(g, new MapTileCache.Version(map, 1), painter);
+			g.setColor(Color.RED);
+			g.fillRect(0, 0, SIZE, SIZE);
+		}
+		finally {
+			g.dispose();
+		}
+		paintedTiles.clear();
+		final BufferedImage repainted = paint();
+		assertEquals(0, paintedTiles.size());
+		assertEquals(Color.WHITE.getRGB(), repainted.getRGB(10, 10));
+		assertEquals(Color.WHITE.getRGB(), repainted.getRGB(300, 300));
+	}
+
+	private MapView repaintedMap;
+	private AtomicReference<Boolean> invalidatedOnEventDispatchThread;
+
+	/** dirty regions of maps without size are not scheduled for repainting, only their tiles are invalidated */
+	private void addDirtyRegionOfRepaintedMap() {
+		RepaintManager.currentManager(repaintedMap).addDirtyRegion(repaintedMap, 0, 0, 10, 10);
+	}
+
+	private void withTileInvalidatingRepaintManager(final Runnable test) {
+		repaintedMap = mock(MapView.class);
+		invalidatedOnEventDispatchThread = new AtomicReference<>();
+		doAnswer(invocation -> {
+			invalidatedOnEventDispatchThread.set(SwingUtilities.isEventDispatchThread());
+			return null;
+		}).when(repaintedMap).invalidateTiles(eq(repaintedMap), any(Rectangle.class));
+		final RepaintManager previousManager = RepaintManager.currentManager(null);
+		RepaintManager.setCurrentManager(new RepaintManager());
+		try {
+			MapTileCache.installRepaintManager();
+			assertTrue(MapTileCache.isRepaintManagerInstalled());
+			test.run();
+		}
+		finally {
+			RepaintManager.setCurrentManager(previousManager);
+		}
+	}
+
+	@Test
+	public void invalidatesTilesImmediatelyForRepaintsOnEventDispatchThread() {
+		withTileInvalidatingRepaintManager(() -> {
+			final AtomicReference<Boolean> invalidatedBeforeReturn = new AtomicReference<>();
+			invokeAndWait(() -> {
+				addDirtyRegionOfRepaintedMap();
+				invalidatedBeforeReturn.set(invalidatedOnEventDispatchThread.get());
+			});
+			assertSame(Boolean.TRUE, invalidatedBeforeReturn.get());
+		});
+	}
+
+	@Test
+	public void invalidatesTilesOnEventDispatchThreadForRepaintsOnOtherThreads() {
+		withTileInvalidatingRepaintManager(() -> {
+			assertFalse(SwingUtilities.isEventDispatchThread());
+			addDirtyRegionOfRepaintedMap();
+			invokeAndWait(() -> {});
+			assertSame(Boolean.TRUE, invalidatedOnEventDispatchThread.get());
+		});
+	}
+
+	private static void invokeAndWait(final Runnable runnable) {
+		try {
+			SwingUtilities.invokeAndWait(runnable);
+		}
+		catch (Exception e) {
+			throw new AssertionError(e);
+		}
+	}
+}
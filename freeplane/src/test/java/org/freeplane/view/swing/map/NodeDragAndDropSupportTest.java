@@ -0,0 +1,119 @@
+package org.freeplane.view.swing.map;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.awt.Rectangle;
+
+import javax.swing.JViewport;
+import javax.swing.SwingUtilities;
+
+import org.freeplane.core.ui.IUserInputListenerFactory;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.ModeController;
+import org.junit.Before;
+import org.junit.Test;
+
+public class NodeDragAndDropSupportTest {
+	private MapView map;
+	private NodeView nearNode;
+	private NodeView farNode;
+	private NodeDragAndDropSupport support;
+
+	@Before
+	public void setup() {
+		final JViewport viewport = new JViewport();
+		viewport.setSize(100, 100);
+		map = mock(MapView.class);
+		when(map.getParent()).thenReturn(viewport);
+		when(map.isDisplayable()).thenReturn(true);
+		final ModeController modeController = mock(ModeController.class);
+		when(map.getModeController()).thenReturn(modeController);
+		when(modeController.canEdit(any(NodeModel.class))).thenReturn(true);
+		when(modeController.getUserInputListenerFactory()).thenReturn(mock(IUserInputListenerFactory.class));
+		nearNode = nodeView();
+		farNode = nodeView();
+		when(map.getComponentCount()).thenReturn(2);
+		when(map.getComponent(0)).thenReturn(nearNode);
+		when(map.getComponent(1)).thenReturn(farNode);
+		place(nearNode, 120);
+		place(farNode, 400);
+		support = new NodeDragAndDropSupport(map);
+	}
+
+	private NodeView nodeView() {
+		final NodeView nodeView = mock(NodeView.class);
+		when(nodeView.isVisible()).thenReturn(true);
+		when(nodeView.isContentVisible()).thenReturn(true);
+		when(nodeView.getMainView()).thenReturn(mock(MainView.class));
+		return nodeView;
+	}
+
+	private void place(final NodeView nodeView, final int x) {
+		when(nodeView.getBounds()).thenReturn(new Rectangle(x, 0, 20, 20));
+		when(nodeView.getX()).thenReturn(x);
+		when(nodeView.getY()).thenReturn(0);
+	}
+
+	private void scrollToFarNode() {
+		place(nearNode, -300);
+		place(farNode, 0);
+	}
+
+	private boolean isAttached(final NodeView nodeView) {
+		return support.isAttached(nodeView.getMainView());
+	}
+
+	@Test
+	public void attachesMainViewsNearViewportOnly() {
+		support.update();
+
+		assertTrue(isAttached(nearNode));
+		assertFalse(isAttached(farNode));
+	}
+
+	@Test
+	public void reassignsAttachmentsAfterScrolling() {
+		support.update();
+		scrollToFarNode();
+		support.stateChanged(null);
+
+		assertFalse(isAttached(nearNode));
+		assertTrue(isAttached(farNode));
+	}
+
+	@Test
+	public void keepsAttachmentsWhileDragIsActive() throws Exception {
+		support.update();
+		support.dragStarted();
+		scrollToFarNode();
+		support.stateChanged(null);
+
+		assertTrue(isAttached(nearNode));
+		assertTrue(isAttached(farNode));
+
+		support.dragFinished();
+		SwingUtilities.invokeAndWait(() -> {});
+
+		assertFalse(isAttached(nearNode));
+		assertTrue(isAttached(farNode));
+	}
+
+	@Test
+	public void detachesAllMainViewsWhenMapIsRemoved() {
+		support.update();
+		support.dragStarted();
+		when(map.isDisplayable()).thenReturn(false);
+		support.update();
+
+		assertFalse(isAttached(nearNode));
+		when(map.isDisplayable()).thenReturn(true);
+		scrollToFarNode();
+		support.update();
+		assertFalse(isAttached(nearNode));
+		assertTrue(isAttached(farNode));
+	}
+}
@@ -2,6 +2,7 @@ package org.freeplane.api;
 
 import java.awt.Color;
 import java.io.File;
+import java.util.stream.Stream;
 
 /** The map a node belongs to: <code>node.map</code> - read-only. 
  * 
@@ -35,4 +36,16 @@ public interface MindMapRO {
     /** returns HTML color spec like #ff0000 (red) or #222222 (darkgray).
      *  @since 1.2 */
     String getBackgroundColorCode();
+
+    /** Returns all nodes of the map as a lazily evaluated stream, see {@link NodeRO#streamAll()}.
+     *  @since 1.10.4 */
+    default Stream<? extends Node> streamAll() {
+        return getRoot().streamAll();
+    }
+
+    /** Returns all nodes of the map for iterating them lazily, see {@link NodeRO#iterateAll()}.
+     *  @since 1.10.4 */
+    default Iterable<? extends Node> iterateAll() {
+        return getRoot().iterateAll();
+    }
 }
\ No newline at end of file
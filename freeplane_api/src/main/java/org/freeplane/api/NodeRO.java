@@ -3,6 +3,7 @@ package org.freeplane.api;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 
@@ -458,6 +459,33 @@ public interface NodeRO {
 	 * @since 1.2 */
 	List<? extends Node> findAllDepthFirst();
 
+	/** Returns the nodes of the branch that starts with this node in the order of {@link #findAll()}
+	 * as a lazily evaluated stream. Nodes are visited only as far as the stream is consumed, so
+	 * <pre>
+	 *   node.streamAll().filter { it.text.startsWith('TODO') }.findFirst()
+	 * </pre>
+	 * stops at the first match. The stream must be consumed sequentially: script permissions and the recording
+	 * of formula dependencies apply to the calling thread only, not to the worker threads of a parallel stream.
+	 * The branch must not be changed while the stream is consumed, use {@link #findAll()} for that.
+	 * @since 1.10.4 */
+	Stream<? extends Node> streamAll();
+
+	/** Returns the nodes of the branch that starts with this node in the order of {@link #findAllDepthFirst()}
+	 * as a lazily evaluated stream, see {@link #streamAll()}.
+	 * @since 1.10.4 */
+	Stream<? extends Node> streamAllDepthFirst();
+
+	/** Returns the nodes of the branch that starts with this node in the order of {@link #findAll()}
+	 * for iterating them lazily, for example with <code>for (n in node.iterateAll()) { if (n.text == 'x') break }</code>.
+	 * The branch must not be changed during the iteration, use {@link #findAll()} for that.
+	 * @since 1.10.4 */
+	Iterable<? extends Node> iterateAll();
+
+	/** Returns the nodes of the branch that starts with this node in the order of {@link #findAllDepthFirst()}
+	 * for iterating them lazily, see {@link #iterateAll()}.
+	 * @since 1.10.4 */
+	Iterable<? extends Node> iterateAllDepthFirst();
+
 	Date getLastModifiedAt();
 
 	Date getCreatedAt();
@@ -0,0 +1,78 @@
+package org.freeplane.launcher;
+
+import java.io.File;
+import java.lang.reflect.InvocationTargetException;
+
+import javax.swing.SwingUtilities;
+
+import org.freeplane.api.Controller;
+import org.freeplane.api.MindMap;
+import org.freeplane.api.Node;
+
+/** Measures the time needed to paint the visible part of a generated map at several zoom levels. */
+public class MapPaintingBenchmark {
+	private static final int CHILD_COUNT = 50;
+	private static final int GRANDCHILD_COUNT = 20;
+	private static final int GREAT_GRANDCHILD_COUNT = 10;
+
+	private static final String BENCHMARK_SCRIPT = ""
+			+ "import java.awt.image.BufferedImage\n"
+			+ "import org.freeplane.features.mode.Controller\n"
+			+ "def mapViewManager = Controller.currentController.mapViewManager\n"
+			+ "def mapView = mapViewManager.mapViewComponent\n"
+			+ "[0.25f, 0.5f, 1f, 2f].collect { zoom ->\n"
+			+ "  mapViewManager.zoom = zoom\n"
+			+ "  mapView.validate()\n"
+			+ "  def viewRect = mapView.parent.viewRect\n"
+			+ "  def image = new BufferedImage(viewRect.width, viewRect.height, BufferedImage.TYPE_INT_RGB)\n"
+			+ "  def paint = {\n"
+			+ "    def g = image.createGraphics()\n"
+			+ "    try {\n"
+			+ "      g.translate(-viewRect.x, -viewRect.y)\n"
+			+ "      g.clipRect(viewRect.x, viewRect.y, viewRect.width, viewRect.height)\n"
+			+ "      mapView.paint(g)\n"
+			+ "    } finally {\n"
+			+ "      g.dispose()\n"
+			+ "    }\n"
+			+ "  }\n"
+			+ "  10.times { paint() }\n"
+			+ "  int frames = 50\n"
+			+ "  long start = System.nanoTime()\n"
+			+ "  frames.times { paint() }\n"
+			+ "  String.format('zoom %.2f: %.2f ms per frame', zoom, (System.nanoTime() - start) / frames / 1e6)\n"
+			+ "}.join('\\n')\n";
+
+	public static void main(String[] args) throws InvocationTargetException, InterruptedException {
+		if (args.length == 1) {
+			final File freeplaneInstallationDirectory = new File(args[0]);
+			runBenchmark(freeplaneInstallationDirectory);
+		}
+		else
+			System.out.println("Parameters: <Freeplane installation directory>");
+	}
+
+	private static void runBenchmark(File freeplaneInstallationDirectory) throws InvocationTargetException, InterruptedException {
+		final Launcher launcher = Launcher.createForInstallation(freeplaneInstallationDirectory).disableSecurityManager();
+		final Controller controller = launcher.launchWithUI(new String[] {});
+		final MindMap[] map = new MindMap[1];
+		SwingUtilities.invokeAndWait(() -> {
+			map[0] = controller.newMindMap();
+			final Node root = map[0].getRoot();
+			for (int i = 0; i < CHILD_COUNT; i++) {
+				final Node child = root.createChild("child " + i);
+				for (int j = 0; j < GRANDCHILD_COUNT; j++) {
+					final Node grandchild = child.createChild("node " + i + "." + j);
+					for (int k = 0; k < GREAT_GRANDCHILD_COUNT; k++)
+						grandchild.createChild("node " + i + "." + j + "." + k);
+				}
+			}
+		});
+		SwingUtilities.invokeAndWait(() -> {
+			final Object result = controller.script(BENCHMARK_SCRIPT, "groovy").executeOn(map[0].getRoot());
+			System.out.println(result);
+			map[0].setSaved(true);
+		});
+		launcher.shutdown();
+		System.exit(0);
+	}
+}
@@ -0,0 +1,60 @@
+package org.freeplane.launcher;
+
+import java.io.File;
+
+import org.freeplane.api.HeadlessMapCreator;
+import org.freeplane.api.MindMap;
+import org.freeplane.api.Node;
+
+/** Compares checking a script filter condition with checking a "node contains" condition on all nodes of a generated map. */
+public class ScriptConditionBenchmark {
+	private static final int CHILD_COUNT = 100;
+	private static final int GRANDCHILD_COUNT = 100;
+
+	private static final String BENCHMARK_SCRIPT = ""
+			+ "import org.freeplane.features.text.NodeContainsCondition\n"
+			+ "import org.freeplane.features.text.TextController\n"
+			+ "import org.freeplane.plugin.script.filter.ScriptCondition\n"
+			+ "def nodes = node.findAll().collect { it.delegate }\n"
+			+ "def conditions = [\n"
+			+ "  'node contains': new NodeContainsCondition(TextController.FILTER_NODE, '7', false, false, false),\n"
+			+ "  'script': new ScriptCondition('node.text.contains(\"7\")')\n"
+			+ "]\n"
+			+ "def measure = { condition ->\n"
+			+ "  long start = System.nanoTime()\n"
+			+ "  int matches = 0\n"
+			+ "  nodes.each { if (condition.checkNode(it)) matches++ }\n"
+			+ "  [System.nanoTime() - start, matches]\n"
+			+ "}\n"
+			+ "conditions.each { name, condition -> 5.times { measure(condition) } }\n"
+			+ "conditions.collect { name, condition ->\n"
+			+ "  def (time, matches) = measure(condition)\n"
+			+ "  String.format('%s: %d nodes, %d matches, %.1f µs per node', name, nodes.size(), matches, time / 1000.0 / nodes.size())\n"
+			+ "}.join('\\n')\n";
+
+	public static void main(String[] args) {
+		if (args.length == 1) {
+			final File freeplaneInstallationDirectory = new File(args[0]);
+			runBenchmark(freeplaneInstallationDirectory);
+		}
+		else
+			System.out.println("Parameters: <Freeplane installation directory>");
+	}
+
+	private static void runBenchmark(File freeplaneInstallationDirectory) {
+		final Launcher launcher = Launcher.createForInstallation(freeplaneInstallationDirectory).disableSecurityManager();
+		HeadlessMapCreator mapCreator = launcher.launchHeadless();
+		final MindMap map = mapCreator.mapLoader(ScriptConditionBenchmark.class.getResource("/templateFile.mm")).unsetMapLocation().getMindMap();
+		if(map != null) {
+			final Node root = map.getRoot();
+			for (int i = 0; i < CHILD_COUNT; i++) {
+				final Node child = root.createChild("child " + i);
+				for (int j = 0; j < GRANDCHILD_COUNT; j++)
+					child.createChild("node " + i + "." + j);
+			}
+			final Object result = mapCreator.script(BENCHMARK_SCRIPT, "groovy").executeOn(root);
+			System.out.println(result);
+		}
+		launcher.shutdown();
+	}
+}
@@ -13,6 +13,7 @@ import org.freeplane.features.text.mindmapmode.ConditionalContentTransformer;
 import org.freeplane.main.application.CommandLineOptions;
 import org.freeplane.main.osgi.IModeControllerExtensionProvider;
 import org.freeplane.plugin.formula.dependencies.ActionFactory;
+import org.freeplane.plugin.script.FormulaCache;
 import org.osgi.framework.BundleActivator;
 import org.osgi.framework.BundleContext;
 
@@ -41,6 +42,8 @@ public class Activator implements BundleActivator {
 				TextController textController = TextController.getController(modeController);
                 textController.addTextTransformer(//
 						new ConditionalContentTransformer(new FormulaTextTransformer(1), TOGGLE_PARSE_FORMULAS));
+                // formula nodes are refreshed with this property when their results change
+                textController.addNodeContentProperty(FormulaCache.class);
                 
 				// to enable Formulas in text templates:
 				// TextController.getController(modeController).addTextTransformer(new FormulaTextTransformer(100));
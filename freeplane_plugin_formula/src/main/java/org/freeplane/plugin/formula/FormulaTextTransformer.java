@@ -29,6 +29,7 @@ import org.freeplane.features.text.mindmapmode.EditNodeDialog;
 import org.freeplane.features.text.mindmapmode.IEditBaseCreator;
 import org.freeplane.features.text.mindmapmode.MTextController;
 import org.freeplane.features.text.mindmapmode.SourceTextEditorUIConfigurator;
+import org.freeplane.plugin.script.AsynchronousFormulaEvaluation;
 import org.freeplane.plugin.script.FormulaUtils;
 
 class FormulaTextTransformer extends AbstractContentTransformer implements IEditBaseCreator{
@@ -50,6 +51,10 @@ class FormulaTextTransformer extends AbstractContentTransformer implements IEdit
             return obj;
         }
         final String plainText = HtmlUtils.htmlToPlain(text);
+        if (textController.acceptsPlaceholders() && AsynchronousFormulaEvaluation.isEnabled()) {
+            return AsynchronousFormulaEvaluation.evalIfScript(node, plainText,
+                () -> textController.withNodeNumbering(true, () -> FormulaUtils.evalIfScript(node, plainText)));
+        }
         // starting a new ScriptContext in evalIfScript
         final Object result = textController.withNodeNumbering(true, () -> FormulaUtils.evalIfScript(node, plainText));
         return result;
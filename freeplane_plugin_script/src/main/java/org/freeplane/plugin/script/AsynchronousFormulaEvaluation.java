@@ -0,0 +1,114 @@
+package org.freeplane.plugin.script;
+
+import java.awt.EventQueue;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.freeplane.core.resources.ResourceController;
+import org.freeplane.core.util.TextUtils;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.mode.Controller;
+
+import groovy.lang.GString;
+
+/**
+ * Evaluates formulas of displayed content after painting.
+ *
+ * Until a formula result is calculated, its last known value or a placeholder is displayed.
+ * Formulas are evaluated on the event dispatch thread like all other model accesses,
+ * one formula per posted event, so that painting, scrolling and user input are processed between them.
+ * After the calculation the node is refreshed and painted with the cached result.
+ */
+public class AsynchronousFormulaEvaluation {
+	static final String EVALUATE_ASYNCHRONOUSLY_PROPERTY = "formula_evaluate_asynchronously";
+
+	private static final AsynchronousFormulaEvaluation instance = new AsynchronousFormulaEvaluation(
+	    EventQueue::invokeLater, node -> Controller.getCurrentModeController().getMapController()
+	        .delayedNodeRefresh(node, FormulaCache.class, null, null));
+
+	private final Consumer<Runnable> eventQueue;
+	private final Consumer<NodeModel> nodeRefresher;
+	private final Map<NodeScript, Supplier<Object>> pendingEvaluations = new LinkedHashMap<>();
+	private boolean evaluationPosted = false;
+
+	AsynchronousFormulaEvaluation(final Consumer<Runnable> eventQueue, final Consumer<NodeModel> nodeRefresher) {
+		this.eventQueue = eventQueue;
+		this.nodeRefresher = nodeRefresher;
+	}
+
+	public static boolean isEnabled() {
+		return FormulaCache.isCachingEnabled()
+		        && ResourceController.getResourceController().getBooleanProperty(EVALUATE_ASYNCHRONOUSLY_PROPERTY);
+	}
+
+	/** evaluate text as a script if it starts with '=' unless its result is already cached.
+	 * Must be called on the event dispatch thread.
+	 * @param evaluation evaluates the text later, its result is cached by the {@link FormulaCache}
+	 * @return the cached result, the last known result or a placeholder for scripts and the original text otherwise
+	 * @throws ExecuteScriptException if the cached evaluation has failed */
+	public static Object evalIfScript(final NodeModel node, final String text, final Supplier<Object> evaluation) {
+		if (!FormulaUtils.textContainsFormula(text))
+			return text;
+		final Object value = instance.getOrEvaluateLater(new NodeScript(node, FormulaUtils.scriptOf(text)), evaluation);
+		return value != null ? value : TextUtils.getText("formula.calculating");
+	}
+
+	/** @return the cached or the last known result, or null if the formula has not been evaluated yet */
+	Object getOrEvaluateLater(final NodeScript nodeScript, final Supplier<Object> evaluation) {
+		final FormulaCache formulaCache = FormulaCache.of(nodeScript.node.getMap());
+		final Object cachedValue = formulaCache.getOrThrowCachedResult(nodeScript);
+		if (cachedValue != null)
+			return toDisplayedValue(cachedValue);
+		pendingEvaluations.putIfAbsent(nodeScript, evaluation);
+		postEvaluation();
+		final Object lastValue = formulaCache.getLastValue(nodeScript);
+		if (lastValue != null && !(lastValue instanceof ExecuteScriptException))
+			return toDisplayedValue(lastValue);
+		return null;
+	}
+
+	private static Object toDisplayedValue(final Object value) {
+		return (value instanceof GString) ? value.toString() : value;
+	}
+
+	private void postEvaluation() {
+		if (!evaluationPosted && !pendingEvaluations.isEmpty()) {
+			evaluationPosted = true;
+			eventQueue.accept(this::evaluateNext);
+		}
+	}
+
+	private void evaluateNext() {
+		evaluationPosted = false;
+		final Iterator<Map.Entry<NodeScript, Supplier<Object>>> iterator = pendingEvaluations.entrySet().iterator();
+		if (!iterator.hasNext())
+			return;
+		final Map.Entry<NodeScript, Supplier<Object>> next = iterator.next();
+		iterator.remove();
+		final NodeScript nodeScript = next.getKey();
+		try {
+			// the formula may have been evaluated by other formulas or by exports since it was requested
+			if (!isCached(nodeScript))
+				next.getValue().get();
+		}
+		catch (final RuntimeException e) {
+			// failed evaluations are logged and cached, the error is shown on refresh
+		}
+		finally {
+			postEvaluation();
+			nodeRefresher.accept(nodeScript.node);
+		}
+	}
+
+	private static boolean isCached(final NodeScript nodeScript) {
+		try {
+			return FormulaCache.of(nodeScript.node.getMap()).getOrThrowCachedResult(nodeScript) != null;
+		}
+		catch (final ExecuteScriptException e) {
+			return true;
+		}
+	}
+}
@@ -8,13 +8,21 @@ import java.nio.file.FileVisitOption;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
 import org.freeplane.core.util.LogUtils;
 
 class CompiledScriptCleaner {
+    private static final long UNUSED_TEXT_SCRIPT_LIFETIME = TimeUnit.DAYS.toMillis(30);
+    static final int MAXIMUM_TEXT_SCRIPT_COUNT = 2000;
+    static final int TEXT_SCRIPT_CLEANING_INTERVAL = MAXIMUM_TEXT_SCRIPT_COUNT / 4;
+    private final String compiledTextScriptVersion = GroovyShell.compiledTextScriptVersion();
+
     private long calculateLastDependencyModificationTime() {
         long lastModificationTime = ScriptResources.getClasspath().stream()
             .map(File::new)
@@ -47,12 +55,18 @@ class CompiledScriptCleaner {
     void removeOutdatedCompiledScripts(boolean compileOnlyChangedScriptFiles) {
         File compiledScriptsDir = ScriptResources.getCompiledScriptsDir();
         if(compileOnlyChangedScriptFiles) {
+            long lastDependencyModificationTime = calculateLastDependencyModificationTime();
             File[] cacheDirectories = compiledScriptsDir.listFiles();
             if(cacheDirectories != null) {
-                long lastDependencyModificationTime = calculateLastDependencyModificationTime();
                 Stream.of(cacheDirectories)
                     .forEach(cache -> removeOutdated(cache, lastDependencyModificationTime));
             }
+            File[] textCacheDirectories = ScriptResources.getCompiledTextScriptsDir().listFiles();
+            if(textCacheDirectories != null) {
+                Stream.of(textCacheDirectories)
+                    .forEach(cache -> removeOutdated(cache, lastDependencyModificationTime));
+            }
+            removeLeastRecentlyUsedTextScripts();
         } else {
             try {
                 FileUtils.deleteDirectory(compiledScriptsDir);
@@ -62,8 +76,42 @@ class CompiledScriptCleaner {
         }
     }
 
+    /**
+     * Keeps at most {@link #MAXIMUM_TEXT_SCRIPT_COUNT} compiled script texts.
+     * Loading a compiled text touches its property file, so the least recently used ones are removed.
+     */
+    void removeLeastRecentlyUsedTextScripts() {
+        removeLeastRecentlyUsed(ScriptResources.getCompiledTextScriptsDir(), MAXIMUM_TEXT_SCRIPT_COUNT);
+    }
+
+    static void removeLeastRecentlyUsed(File textScriptsDir, int maximumCount) {
+        File[] cacheDirectories = textScriptsDir.listFiles();
+        if(cacheDirectories == null || cacheDirectories.length <= maximumCount)
+            return;
+        long[] lastUsageTimes = new long[cacheDirectories.length];
+        Integer[] order = new Integer[cacheDirectories.length];
+        for (int i = 0; i < cacheDirectories.length; i++) {
+            lastUsageTimes[i] = new File(cacheDirectories[i], GroovyShell.COMPILED_PROPERTIES).lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lastUsageTimes[i]));
+        for (int i = 0; i < cacheDirectories.length - maximumCount; i++) {
+            deleteDirectory(cacheDirectories[order[i]]);
+        }
+    }
+
+    private static void deleteDirectory(File cache) {
+        synchronized (CompiledTextScripts.lock(cache)) {
+            try {
+                FileUtils.deleteDirectory(cache);
+            } catch (IOException e) {
+                LogUtils.warn(e);
+            }
+        }
+    }
+
     private void removeOutdated(File cache, long lastDependencyModificationTime) {
-        File propertyFile = new File(cache, "compiled.properties");
+        File propertyFile = new File(cache, GroovyShell.COMPILED_PROPERTIES);
         if (propertyFile.exists()) {
             Properties properties = new Properties();
             try (InputStream in = new FileInputStream(propertyFile)) {
@@ -75,14 +123,22 @@ class CompiledScriptCleaner {
             try {
 				long compileTime = Long.parseLong(properties.getProperty("time"));
 				String source = properties.getProperty("source");
+				if(source == null) {
+				    if(! compiledTextScriptVersion.equals(properties.getProperty(GroovyShell.VERSION))
+				            || lastDependencyModificationTime >= compileTime
+				            || propertyFile.lastModified() < System.currentTimeMillis() - UNUSED_TEXT_SCRIPT_LIFETIME) {
+				        deleteDirectory(cache);
+				    }
+				    return;
+				}
 				File sourceFile = new File(source);
 				if(! sourceFile.canRead()
 				        || lastDependencyModificationTime >= compileTime
 				        || sourceFile.lastModified() >= compileTime) {
-				    FileUtils.deleteDirectory(cache);
+				    deleteDirectory(cache);
 				}
 			}
-			catch (IOException|NumberFormatException e) {
+			catch (NumberFormatException e) {
                 LogUtils.warn(e);
                 return;
 			}
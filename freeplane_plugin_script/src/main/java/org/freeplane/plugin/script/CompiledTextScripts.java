@@ -0,0 +1,130 @@
+/*
+ *  Freeplane - mind map editor
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 2 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package org.freeplane.plugin.script;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.groovy.runtime.EncodingGroovyMethods;
+import org.freeplane.core.util.LogUtils;
+
+/**
+ * Class files of compiled formulas and other script texts, kept in one directory per text and compiler version,
+ * so that they are loaded from the previously written class files after restart.
+ *
+ * Each directory is only read, written or removed while holding its {@link #lock(File)},
+ * so that concurrent compilations of the same text do not clean or load class files written by each other.
+ */
+class CompiledTextScripts {
+    interface Compiler {
+        /** compiles the script writing its class files to the given directory */
+        Class<?> compile(File classes);
+    }
+
+    interface Loader {
+        Class<?> load(File classes, String className) throws ClassNotFoundException;
+    }
+
+    private static final Object[] LOCKS = new Object[64];
+    static {
+        for (int i = 0; i < LOCKS.length; i++)
+            LOCKS[i] = new Object();
+    }
+
+    /** lock guarding the given cache directory of a compiled script text or script file */
+    static Object lock(final File cache) {
+        return LOCKS[(cache.getAbsolutePath().hashCode() & Integer.MAX_VALUE) % LOCKS.length];
+    }
+
+    private final File directory;
+    private final String version;
+
+    CompiledTextScripts(final File directory, final String version) {
+        this.directory = directory;
+        this.version = version;
+    }
+
+    String key(final String scriptText) {
+        try {
+            return EncodingGroovyMethods.md5(version + '\n' + scriptText);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    File cacheDirectory(final String scriptText) {
+        return new File(directory, key(scriptText));
+    }
+
+    Class<?> loadOrCompile(final String scriptText, final Loader loader, final Compiler compiler) {
+        final File cache = cacheDirectory(scriptText);
+        synchronized (lock(cache)) {
+            final Class<?> loadedClass = load(cache, loader);
+            if (loadedClass != null)
+                return loadedClass;
+            return compile(cache, compiler);
+        }
+    }
+
+    private Class<?> load(final File cache, final Loader loader) {
+        final File propertyFile = new File(cache, GroovyShell.COMPILED_PROPERTIES);
+        final File classes = new File(cache, "classes");
+        if (!propertyFile.exists() || !classes.exists())
+            return null;
+        try (InputStream in = new FileInputStream(propertyFile)) {
+            Properties properties = new Properties();
+            properties.load(in);
+            if (!version.equals(properties.getProperty(GroovyShell.VERSION)))
+                return null;
+            final Class<?> loadedClass = loader.load(classes, properties.getProperty("class"));
+            propertyFile.setLastModified(System.currentTimeMillis());
+            return loadedClass;
+        } catch (IOException | ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private Class<?> compile(final File cache, final Compiler compiler) {
+        if (cache.exists()) {
+            try {
+                FileUtils.cleanDirectory(cache);
+            } catch (IOException e) {
+                LogUtils.warn(e);
+            }
+        }
+        final File classes = new File(cache, "classes");
+        classes.mkdirs();
+        long time = System.currentTimeMillis();
+        final Class<?> compiledClass = compiler.compile(classes);
+        try (FileOutputStream out = new FileOutputStream(new File(cache, GroovyShell.COMPILED_PROPERTIES))){
+            Properties properties = new Properties();
+            properties.setProperty("class", compiledClass.getName());
+            properties.setProperty("time", Long.toString(time));
+            properties.setProperty(GroovyShell.VERSION, version);
+            properties.store(out, "");
+        } catch (IOException e) {
+            LogUtils.warn(e);
+        }
+        return compiledClass;
+    }
+}
@@ -1,49 +1,245 @@
 package org.freeplane.plugin.script;
 
+import java.util.Iterator;
 import java.util.LinkedHashMap;
-import java.util.Map.Entry;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
 
+import org.freeplane.core.util.LogUtils;
+
+/**
+ * Least recently used cache bounded by entry count and by total entry weight.
+ *
+ * Entries are distributed over independently locked segments,
+ * so threads evaluating different formulas do not wait for each other.
+ * Both bounds apply to the whole cache: while they are exceeded,
+ * the least recently used entry of the largest segment is evicted.
+ * Concurrent requests for a missing key compute its value only once.
+ */
 public class ConcurrentCache <K, V> {
 
-	private static final float DEFAULT_LOAD_FACTOR = 0.75f;
+	private static final int SEGMENT_COUNT = 16;
+	private static final long EVICTIONS_BETWEEN_LOG_MESSAGES = 100;
+
+	private static class Entry<V> {
+		final FutureTask<V> value;
+		final int weight;
+
+		Entry(FutureTask<V> value, int weight) {
+			this.value = value;
+			this.weight = weight;
+		}
+	}
+
+	private static class Segment<K, V> {
+		final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+		long weight = 0;
+	}
 
-    private final ReentrantReadWriteLock rwl = new ReentrantReadWriteLock();
-    private final ReentrantReadWriteLock.ReadLock readLock = rwl.readLock();
-    private final ReentrantReadWriteLock.WriteLock writeLock = rwl.writeLock();
+	private final IntSupplier maxSize;
+	private final LongSupplier maxWeight;
+	private final ToIntFunction<? super K> weigher;
+	private final Segment<K, V>[] segments;
+	private final AtomicLong totalSize = new AtomicLong();
+	private final AtomicLong totalWeight = new AtomicLong();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
 
-	private final LinkedHashMap<K, V> cache ;
-	@SuppressWarnings("serial")
 	public ConcurrentCache(IntSupplier maxSize) {
+		this(maxSize, () -> Long.MAX_VALUE, key -> 1);
+	}
+
+	/**
+	 * @param weigher approximates the memory used by the value of the given key
+	 */
+	@SuppressWarnings("unchecked")
+	public ConcurrentCache(IntSupplier maxSize, LongSupplier maxWeight, ToIntFunction<? super K> weigher) {
 		super();
-		cache = new  LinkedHashMap<K, V>(maxSize.getAsInt() + 1, DEFAULT_LOAD_FACTOR, true){
-			@Override
-			protected boolean removeEldestEntry(Entry<K, V> eldest) {
-				return size() > maxSize.getAsInt();
-			}
-		};
+		this.maxSize = maxSize;
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+		segments = new Segment[SEGMENT_COUNT];
+		for (int i = 0; i < SEGMENT_COUNT; i++)
+			segments[i] = new Segment<>();
 	}
 
 	public V computeIfAbsent(K key, Supplier<? extends V> supplier) {
-        readLock.lock();
-        try {
-            V value = cache.get(key);
-            if (null != value) {
-                return value;
-            }
-        } finally {
-            readLock.unlock();
-        }
-        V value = supplier.get();
-        writeLock.lock();
-        try {
-            V oldValue = cache.putIfAbsent(key, value);
-            return null != oldValue ? oldValue : value;
-        } finally {
-        	writeLock.unlock();
-        }
+		final int maximumSize = maxSize.getAsInt();
+		final long maximumWeight = maxWeight.getAsLong();
+		if (maximumSize <= 0 || maximumWeight <= 0) {
+			misses.increment();
+			return supplier.get();
+		}
+		final Segment<K, V> segment = segmentFor(key);
+		synchronized (segment) {
+			final Entry<V> entry = segment.entries.get(key);
+			if (entry != null) {
+				hits.increment();
+				return get(segment, key, entry.value);
+			}
+		}
+		final int weight = weigher.applyAsInt(key);
+		final FutureTask<V> newValue = new FutureTask<>(supplier::get);
+		final Entry<V> newEntry = new Entry<>(newValue, weight);
+		final FutureTask<V> value;
+		synchronized (segment) {
+			final Entry<V> entry = segment.entries.get(key);
+			if (entry != null) {
+				hits.increment();
+				value = entry.value;
+			}
+			else {
+				misses.increment();
+				segment.entries.put(key, newEntry);
+				segment.weight += weight;
+				totalSize.incrementAndGet();
+				totalWeight.addAndGet(weight);
+				value = newValue;
+			}
+		}
+		if (value == newValue) {
+			evict(maximumSize, maximumWeight, newEntry);
+			newValue.run();
+		}
+		return get(segment, key, value);
+	}
+
+	private Segment<K, V> segmentFor(K key) {
+		final int hash = key.hashCode();
+		return segments[(hash ^ (hash >>> 16)) & (SEGMENT_COUNT - 1)];
+	}
+
+	/** the given entry is kept even if it exceeds the maximum weight on its own */
+	private void evict(long maximumSize, long maximumWeight, Entry<V> keptEntry) {
+		long evictedEntryCount = 0;
+		while (totalSize.get() > maximumSize || totalWeight.get() > maximumWeight) {
+			final Segment<K, V> segment = largestSegment(totalSize.get() > maximumSize);
+			if (segment == null || !evictEldest(segment, keptEntry) && !evictEldestOfAnySegment(keptEntry))
+				break;
+			evictedEntryCount++;
+		}
+		if (evictedEntryCount > 0) {
+			final long evictionCountBefore = evictions.sum();
+			evictions.add(evictedEntryCount);
+			if ((evictionCountBefore + evictedEntryCount) / EVICTIONS_BETWEEN_LOG_MESSAGES
+					!= evictionCountBefore / EVICTIONS_BETWEEN_LOG_MESSAGES)
+				LogUtils.info(toString());
+		}
+	}
+
+	private Segment<K, V> largestSegment(boolean bySize) {
+		Segment<K, V> largestSegment = null;
+		long largestSegmentSize = 0;
+		for (Segment<K, V> segment : segments) {
+			final long segmentSize;
+			synchronized (segment) {
+				segmentSize = bySize ? segment.entries.size() : segment.weight;
+			}
+			if (segmentSize > largestSegmentSize) {
+				largestSegment = segment;
+				largestSegmentSize = segmentSize;
+			}
+		}
+		return largestSegment;
+	}
+
+	private boolean evictEldestOfAnySegment(Entry<V> keptEntry) {
+		for (Segment<K, V> segment : segments) {
+			if (evictEldest(segment, keptEntry))
+				return true;
+		}
+		return false;
 	}
 
+	private boolean evictEldest(Segment<K, V> segment, Entry<V> keptEntry) {
+		synchronized (segment) {
+			final Iterator<Map.Entry<K, Entry<V>>> iterator = segment.entries.entrySet().iterator();
+			while (iterator.hasNext()) {
+				final Entry<V> eldest = iterator.next().getValue();
+				if (eldest != keptEntry) {
+					iterator.remove();
+					removed(segment, eldest);
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	private void removed(Segment<K, V> segment, Entry<V> entry) {
+		segment.weight -= entry.weight;
+		totalSize.decrementAndGet();
+		totalWeight.addAndGet(-entry.weight);
+	}
+
+	private V get(Segment<K, V> segment, K key, FutureTask<V> value) {
+		try {
+			return value.get();
+		}
+		catch (ExecutionException e) {
+			synchronized (segment) {
+				final Entry<V> entry = segment.entries.get(key);
+				if (entry != null && entry.value == value) {
+					segment.entries.remove(key);
+					removed(segment, entry);
+				}
+			}
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new RuntimeException(cause);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		}
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	public int size() {
+		int size = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				size += segment.entries.size();
+			}
+		}
+		return size;
+	}
+
+	public long weight() {
+		long weight = 0;
+		for (Segment<K, V> segment : segments) {
+			synchronized (segment) {
+				weight += segment.weight;
+			}
+		}
+		return weight;
+	}
+
+	@Override
+	public String toString() {
+		return "ConcurrentCache[size=" + size() + ", weight=" + weight() + ", hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
 }
@@ -1,11 +1,14 @@
 package org.freeplane.plugin.script;
 
 import java.awt.event.ActionEvent;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.freeplane.core.ui.AFreeplaneAction;
 import org.freeplane.core.util.LogUtils;
-import org.freeplane.features.map.NodeModel;
+import org.freeplane.features.map.MapModel;
 import org.freeplane.features.mode.Controller;
+import org.freeplane.features.mode.mindmapmode.MModeController;
 
 public class ExecuteScriptForAllNodes extends AFreeplaneAction {
 	private static final long serialVersionUID = 1L;
@@ -15,17 +18,41 @@ public class ExecuteScriptForAllNodes extends AFreeplaneAction {
 	}
 
 	public void actionPerformed(final ActionEvent e) {
-		final NodeModel node = Controller.getCurrentController().getMap().getRootNode();
+		final MapModel map = Controller.getCurrentController().getMap();
+		final List<NodeScript> nodeScripts = new ArrayList<NodeScript>();
+		ScriptingEngine.collectNodeScriptsRecursive(map.getRootNode(), nodeScripts);
+		if (nodeScripts.isEmpty())
+			return;
+		final MModeController modeController = (MModeController) Controller.getCurrentModeController();
 		Controller.getCurrentController().getViewController().setWaitingCursor(true);
 		try {
-			ScriptingEngine.performScriptOperationRecursive(node);
+			executeInTransaction(modeController, map, new ScriptBatchExecution(nodeScripts));
+		}
+		catch (ExecuteScriptException ex) {
+			LogUtils.warn(ex);
+			ScriptingEngine.showScriptExceptionErrorMessage(ex);
 		}
-        catch (ExecuteScriptException ex) {
-			 LogUtils.warn(ex);
-             ScriptingEngine.showScriptExceptionErrorMessage(ex);
-        }
 		finally {
 			Controller.getCurrentController().getViewController().setWaitingCursor(false);
 		}
 	}
+
+	/**
+	 * All changes are undone together.
+	 * Cancelled and failed executions are undone completely, whatever exception they throw.
+	 */
+	static void executeInTransaction(final MModeController modeController, final MapModel map,
+	                                 final ScriptBatchExecution execution) {
+		modeController.startTransaction();
+		boolean completed = false;
+		try {
+			completed = execution.execute();
+		}
+		finally {
+			if (completed)
+				modeController.delayedCommit(map);
+			else
+				modeController.delayedRollback(map);
+		}
+	}
 }
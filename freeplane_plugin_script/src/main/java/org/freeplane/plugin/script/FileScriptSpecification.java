@@ -16,6 +16,10 @@ class FileScriptSpecification implements ScriptSpecification{
 		this.permissions = permissions;
 	}
 	@Override
+	public int weight() {
+		return (int) Math.min(source.length(), Integer.MAX_VALUE);
+	}
+	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
@@ -1,8 +1,8 @@
 package org.freeplane.plugin.script;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedHashMap;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
 
 import org.freeplane.core.extension.IExtension;
 import org.freeplane.features.map.MapModel;
@@ -10,15 +10,63 @@ import org.freeplane.features.map.NodeModel;
 import org.freeplane.features.mode.Controller;
 import org.freeplane.plugin.script.dependencies.RelatedElements;
 
+/**
+ * Results of formulas of one map together with the elements they accessed.
+ *
+ * Results are kept in slots indexed by {@link NodeModel#getIndexInMap()}, each slot holding a short list
+ * for the formulas of the node text and its attributes.
+ * The cache is bounded by its weight, the number of results plus the number of their accessed elements.
+ * If the weight exceeds the limit, results not read since they were added or since the previous sweep
+ * are dropped (clock algorithm) and calculated again on demand.
+ * Results removed because of changes stay available as last known values until they are replaced or dropped.
+ * Their accessed elements are released, so they weigh only 1 and are dropped by the next sweep passing them.
+ */
 public class FormulaCache implements IExtension{
-	private final HashMap<String, LinkedHashMap<String, CachedResult>> cache = new HashMap<String, LinkedHashMap<String, CachedResult>>();
+	static final String FORMULA_CACHE_SIZE_PROPERTY = "formula_cache_size";
 	// don't let caching use too much memory - but currently there are little means to cope with unavailable
 	// dependency data. It has to be tested but it should "only" lead to some missing updates.
-	static final boolean ENABLE_CACHING = !Controller.getCurrentController().getResourceController()
-	    .getBooleanProperty("formula_disable_caching");
+	private static class CachingSettings {
+		static final boolean ENABLE_CACHING = !Controller.getCurrentController().getResourceController()
+		    .getBooleanProperty("formula_disable_caching");
+	}
+
+	/** read on first use, so that the cache can be created without a controller */
+	static boolean isCachingEnabled() {
+		return CachingSettings.ENABLE_CACHING;
+	}
+
+	private static class Entry {
+		final String script;
+		CachedResult result;
+		int weight;
+		Entry next;
+		boolean recentlyUsed = false;
+		boolean outdated = false;
+
+		Entry(final String script, final CachedResult result, final Entry next) {
+			this.script = script;
+			this.result = result;
+			this.weight = 1 + (result.relatedElements != null ? result.relatedElements.getElements().size() : 0);
+			this.next = next;
+		}
+	}
+
+	private final LongSupplier maximumWeight;
+	private Entry[] slots = new Entry[0];
+	private long weight = 0;
+	private int clockHand = 0;
+
+	FormulaCache() {
+		this(() -> Controller.getCurrentController().getResourceController()
+			.getLongProperty(FORMULA_CACHE_SIZE_PROPERTY, Long.MAX_VALUE));
+	}
+
+	FormulaCache(final LongSupplier maximumWeight) {
+		this.maximumWeight = maximumWeight;
+	}
 
 	static void removeFromCache(final ArrayList<NodeModel> dependencies) {
-			if (ENABLE_CACHING) {
+			if (isCachingEnabled()) {
 				for (final NodeModel nodeModel : dependencies) {
 					FormulaCache.of(nodeModel.getMap()).remove(nodeModel);
 				}
@@ -26,10 +74,7 @@ public class FormulaCache implements IExtension{
 		}
 
 	Object getOrThrowCachedResult(final NodeScript nodeScript) {
-		final LinkedHashMap<String, CachedResult> cacheEntry = cache.get(nodeScript.node.getID());
-		if (cacheEntry == null)
-			return null;
-		final CachedResult cachedResult = cacheEntry.get(nodeScript.script);
+		final CachedResult cachedResult = get(nodeScript.node, nodeScript.script);
 		if (cachedResult == null)
 			return null;
 		return getOrThrowCachedResult(cachedResult.returnedValue);
@@ -42,27 +87,100 @@ public class FormulaCache implements IExtension{
 		return object;
 	}
 
-	void put(final NodeScript nodeScript, final CachedResult result) {
-		getOrAdd(nodeScript.node).put(nodeScript.script, result);
+	private synchronized CachedResult get(final NodeModel node, final String script) {
+		final int index = node.getIndexInMap();
+		if (index >= slots.length)
+			return null;
+		for (Entry entry = slots[index]; entry != null; entry = entry.next) {
+			if (!entry.outdated && entry.script.equals(script)) {
+				entry.recentlyUsed = true;
+				return entry.result;
+			}
+		}
+		return null;
+	}
+
+	/** @return the current or the last result of the formula before it was removed, or null */
+	synchronized Object getLastValue(final NodeScript nodeScript) {
+		final int index = nodeScript.node.getIndexInMap();
+		if (index >= slots.length)
+			return null;
+		for (Entry entry = slots[index]; entry != null; entry = entry.next) {
+			if (entry.script.equals(nodeScript.script)) {
+				return entry.result.returnedValue;
+			}
+		}
+		return null;
+	}
+
+	synchronized void put(final NodeScript nodeScript, final CachedResult result) {
+		final int index = nodeScript.node.getIndexInMap();
+		if (index >= slots.length)
+			slots = Arrays.copyOf(slots, Math.max(index + 1, slots.length + (slots.length >> 1)));
+		removeEntry(index, nodeScript.script);
+		final Entry entry = new Entry(nodeScript.script, result, slots[index]);
+		slots[index] = entry;
+		weight += entry.weight;
+		evictUnusedEntries(entry);
+	}
+
+	private void removeEntry(final int index, final String script) {
+		Entry previous = null;
+		for (Entry entry = slots[index]; entry != null; previous = entry, entry = entry.next) {
+			if (entry.script.equals(script)) {
+				if (previous == null)
+					slots[index] = entry.next;
+				else
+					previous.next = entry.next;
+				weight -= entry.weight;
+				return;
+			}
+		}
 	}
 
-	private LinkedHashMap<String, CachedResult> getOrAdd(final NodeModel node) {
-		LinkedHashMap<String, CachedResult> cacheEntry = cache.get(node.getID());
-		if (cacheEntry == null) {
-			cacheEntry = new LinkedHashMap<String, CachedResult>(8);
-			cache.put(node.getID(), cacheEntry);
+	private void evictUnusedEntries(final Entry keptEntry) {
+		final long maximumWeight = this.maximumWeight.getAsLong();
+		// after one full round all flags are cleared, so two rounds evict anything needed
+		for (int visitedSlots = 0; weight > maximumWeight && visitedSlots < 2 * slots.length; visitedSlots++) {
+			if (clockHand >= slots.length)
+				clockHand = 0;
+			Entry previous = null;
+			for (Entry entry = slots[clockHand]; entry != null; entry = entry.next) {
+				if (entry == keptEntry || entry.recentlyUsed) {
+					entry.recentlyUsed = false;
+					previous = entry;
+				}
+				else {
+					if (previous == null)
+						slots[clockHand] = entry.next;
+					else
+						previous.next = entry.next;
+					weight -= entry.weight;
+				}
+			}
+			clockHand++;
 		}
-		return cacheEntry;
 	}
 
-	void remove(final NodeModel node) {
-		final LinkedHashMap<String, CachedResult> entry = cache.get(node.getID());
-		if (entry != null) {
-//			System.out.println("clearing cache for " + node);
-			entry.clear();
+	synchronized void remove(final NodeModel node) {
+		final int index = node.getIndexInMap();
+		if (index < slots.length) {
+			for (Entry entry = slots[index]; entry != null; entry = entry.next) {
+				if (!entry.outdated) {
+					entry.outdated = true;
+					entry.recentlyUsed = false;
+					entry.result = new CachedResult(entry.result.returnedValue, null);
+					weight -= entry.weight - 1;
+					entry.weight = 1;
+				}
+			}
 		}
 	}
 
+	synchronized long getWeight() {
+		return weight;
+	}
+
 	static FormulaCache of(final MapModel map) {
 		FormulaCache formulaCache = map.getExtension(FormulaCache.class);
 		if (formulaCache == null) {
@@ -76,10 +194,8 @@ public class FormulaCache implements IExtension{
 	}
 
 	RelatedElements getAccessedValues(final NodeModel node, final String script) {
-		if(ENABLE_CACHING) {
-			final LinkedHashMap<String, CachedResult> cacheEntry = cache.get(node.getID());
-			if (cacheEntry == null) return null;
-			final CachedResult cachedResult = cacheEntry.get(script);
+		if(isCachingEnabled()) {
+			final CachedResult cachedResult = get(node, script);
 			if(cachedResult != null)
 				return cachedResult.relatedElements;
 		}
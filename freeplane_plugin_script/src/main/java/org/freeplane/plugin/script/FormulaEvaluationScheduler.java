@@ -0,0 +1,190 @@
+package org.freeplane.plugin.script;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.freeplane.core.util.LogUtils;
+import org.freeplane.features.attribute.NodeAttributeTableModel;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.plugin.script.dependencies.RelatedElements;
+
+/**
+ * Evaluates all formulas of a map so that formulas are evaluated after the formulas they read.
+ *
+ * The order is derived from the elements accessed by each formula in its last evaluation,
+ * which are kept by the {@link FormulaCache}. Formulas without known dependencies are
+ * evaluated in map order, exactly as before. Nodes taking part in dependency cycles are
+ * reported before the evaluation starts and evaluated last.
+ */
+class FormulaEvaluationScheduler {
+	static class Schedule<T> {
+		final List<T> order;
+		final List<List<T>> cycles;
+
+		Schedule(final List<T> order, final List<List<T>> cycles) {
+			this.order = order;
+			this.cycles = cycles;
+		}
+	}
+
+	private final Map<NodeModel, List<String>> formulas = new LinkedHashMap<>();
+	private final Map<NodeModel, Collection<NodeModel>> precedents = new IdentityHashMap<>();
+
+	/** collects formulas and their known precedents, must be called before the formula cache is cleared */
+	FormulaEvaluationScheduler(final MapModel map) {
+		collectFormulas(map.getRootNode());
+		final FormulaCache formulaCache = FormulaCache.isCachingEnabled() ? map.getExtension(FormulaCache.class) : null;
+		if (formulaCache != null) {
+			for (final Map.Entry<NodeModel, List<String>> entry : formulas.entrySet()) {
+				final NodeModel node = entry.getKey();
+				final List<NodeModel> nodePrecedents = new ArrayList<>();
+				for (final String formula : entry.getValue()) {
+					final RelatedElements relatedElements = formulaCache.getAccessedValues(node,
+					    FormulaUtils.scriptOf(formula));
+					if (relatedElements != null) {
+						nodePrecedents.addAll(relatedElements.getRelatedNodes());
+					}
+				}
+				precedents.put(node, nodePrecedents);
+			}
+		}
+	}
+
+	private void collectFormulas(final NodeModel node) {
+		addIfFormula(node, node.getUserObject());
+		final NodeAttributeTableModel attributeTableModel = node.getExtension(NodeAttributeTableModel.class);
+		if (attributeTableModel != null)
+			attributeTableModel.getAttributes().forEach(a -> addIfFormula(node, a.getValue()));
+		node.getChildren().forEach(this::collectFormulas);
+	}
+
+	private void addIfFormula(final NodeModel node, final Object maybeFormula) {
+		if (maybeFormula instanceof String && FormulaUtils.textContainsFormula((String) maybeFormula))
+			formulas.computeIfAbsent(node, x -> new ArrayList<>(1)).add((String) maybeFormula);
+	}
+
+	/** Does not use {@link NodeModel#createID()} because logging should not assign IDs to nodes. */
+	private static String describe(final NodeModel node) {
+		final String id = node.getID();
+		return id != null ? id : "\"" + node.getText() + "\"";
+	}
+
+	void evaluate() {
+		final Schedule<NodeModel> schedule = schedule(new ArrayList<>(formulas.keySet()),
+		    node -> precedents.getOrDefault(node, Collections.emptyList()));
+		for (final List<NodeModel> cycle : schedule.cycles) {
+			LogUtils.warn("Formulas depend on each other: " + cycle.stream().map(FormulaEvaluationScheduler::describe)
+			    .collect(Collectors.joining(" -> ")));
+		}
+		for (final NodeModel node : schedule.order) {
+			for (final String formula : formulas.get(node)) {
+				FormulaUtils.cacheIfFormula(node, formula);
+			}
+		}
+	}
+
+	/**
+	 * Orders items so that each item follows its precedents. Precedents which are not items are ignored.
+	 * Items without order constraints keep their relative order. Items on cycles are appended at the end
+	 * in their original order and each cycle is reported.
+	 */
+	static <T> Schedule<T> schedule(final List<T> items, final Function<T, Collection<T>> precedentsOf) {
+		final Map<T, Integer> positions = new IdentityHashMap<>();
+		for (int i = 0; i < items.size(); i++)
+			positions.put(items.get(i), i);
+		final int[] unscheduledPrecedentCounts = new int[items.size()];
+		final List<List<Integer>> dependents = new ArrayList<>(items.size());
+		final List<List<Integer>> precedents = new ArrayList<>(items.size());
+		for (int i = 0; i < items.size(); i++) {
+			dependents.add(new ArrayList<>(0));
+			precedents.add(new ArrayList<>(0));
+		}
+		for (int i = 0; i < items.size(); i++) {
+			for (final T precedent : precedentsOf.apply(items.get(i))) {
+				final Integer precedentPosition = positions.get(precedent);
+				if (precedentPosition != null && precedentPosition != i) {
+					dependents.get(precedentPosition).add(i);
+					precedents.get(i).add(precedentPosition);
+					unscheduledPrecedentCounts[i]++;
+				}
+			}
+		}
+		final List<T> order = new ArrayList<>(items.size());
+		final boolean[] scheduled = new boolean[items.size()];
+		final Deque<Integer> ready = new ArrayDeque<>();
+		for (int i = 0; i < items.size(); i++) {
+			if (unscheduledPrecedentCounts[i] == 0)
+				ready.add(i);
+		}
+		// depth first so that each formula is evaluated as early as possible after its precedents
+		while (!ready.isEmpty()) {
+			final int position = ready.pop();
+			scheduled[position] = true;
+			order.add(items.get(position));
+			final List<Integer> itemDependents = dependents.get(position);
+			for (int i = itemDependents.size() - 1; i >= 0; i--) {
+				final int dependent = itemDependents.get(i);
+				if (--unscheduledPrecedentCounts[dependent] == 0)
+					ready.push(dependent);
+			}
+		}
+		final List<List<T>> cycles = new ArrayList<>();
+		if (order.size() < items.size()) {
+			for (int i = 0; i < items.size(); i++) {
+				if (!scheduled[i]) {
+					order.add(items.get(i));
+				}
+			}
+			findCycles(items, precedents, scheduled, cycles);
+		}
+		return new Schedule<>(order, cycles);
+	}
+
+	/**
+	 * Each unscheduled item has an unscheduled precedent,
+	 * so following them from any unscheduled item leads into a cycle.
+	 */
+	private static <T> void findCycles(final List<T> items, final List<List<Integer>> precedents,
+	                                   final boolean[] scheduled, final List<List<T>> cycles) {
+		final boolean[] visited = scheduled.clone();
+		for (int start = 0; start < items.size(); start++) {
+			if (visited[start])
+				continue;
+			final List<Integer> path = new ArrayList<>();
+			final Map<Integer, Integer> pathPositions = new LinkedHashMap<>();
+			int current = start;
+			while (current >= 0 && !pathPositions.containsKey(current) && !visited[current]) {
+				pathPositions.put(current, path.size());
+				path.add(current);
+				current = firstUnscheduled(precedents.get(current), scheduled);
+			}
+			if (current >= 0 && pathPositions.containsKey(current)) {
+				final List<T> cycle = new ArrayList<>();
+				for (final int position : path.subList(pathPositions.get(current), path.size()))
+					cycle.add(0, items.get(position));
+				cycle.add(cycle.get(0));
+				cycles.add(cycle);
+			}
+			for (final int position : path)
+				visited[position] = true;
+		}
+	}
+
+	private static int firstUnscheduled(final List<Integer> positions, final boolean[] scheduled) {
+		for (final int position : positions) {
+			if (!scheduled[position])
+				return position;
+		}
+		return -1;
+	}
+}
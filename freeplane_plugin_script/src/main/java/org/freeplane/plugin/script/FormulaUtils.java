@@ -1,5 +1,6 @@
 package org.freeplane.plugin.script;
 
+import java.awt.EventQueue;
 import java.net.URL;
 import java.util.List;
 import java.util.regex.Matcher;
@@ -9,7 +10,6 @@ import org.freeplane.core.extension.Configurable;
 import org.freeplane.core.util.HtmlUtils;
 import org.freeplane.core.util.LogUtils;
 import org.freeplane.core.util.TextUtils;
-import org.freeplane.features.attribute.NodeAttributeTableModel;
 import org.freeplane.features.link.LinkController;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
@@ -81,7 +81,7 @@ public class FormulaUtils {
 		final NodeScript nodeScript = new NodeScript(nodeModel, script);
 		final ScriptContext scriptContext = new ScriptContext(nodeScript);
 		final ScriptingPermissions restrictedPermissions = ScriptingPermissions.getFormulaPermissions();
-		if (FormulaCache.ENABLE_CACHING) {
+		if (FormulaCache.isCachingEnabled()) {
 			final FormulaCache formulaCache = FormulaCache.of(nodeModel.getMap());
 			Object value = formulaCache.getOrThrowCachedResult(nodeScript);
 			if (value == null) {
@@ -124,11 +124,10 @@ public class FormulaUtils {
 		if (!FormulaThreadLocalStacks.INSTANCE.push(scriptContext)) {
 			if(FormulaThreadLocalStacks.INSTANCE.ignoresCycles())
 				return 0;
-			showCyclicDependency(nodeScript);
 			final String message = TextUtils.format("formula.error.circularReference",
 				nodeScript.node.getID(),
 				HtmlUtils.htmlToPlain(nodeScript.script));
-			Controller.getCurrentController().getViewController().out(TextUtils.getShortText(message, 80, "..."));
+			showCyclicDependency(nodeScript, message);
 			throw new ExecuteScriptException(new CyclicScriptReferenceException(message));
 		}
 		try {
@@ -143,20 +142,21 @@ public class FormulaUtils {
 		}
 	}
 
-	private static void showCyclicDependency(final NodeScript nodeScript) {
-		final Controller controller = Controller.getCurrentController();
-		if (controller.getMap() != nodeScript.node.getMap())
-			return;
+	private static void showCyclicDependency(final NodeScript nodeScript, final String message) {
+		// the cycle is found in the formula stack of the evaluating thread, the view is only updated on the EDT
 		final List<NodeScript> cycle = FormulaThreadLocalStacks.INSTANCE.findCycle(nodeScript);
-		final Configurable configurable = controller.getMapViewManager().getMapViewConfiguration();
-		final DependencyHighlighter dependencyHighlighter = new DependencyHighlighter(LinkController.getController(),
-			configurable);
-		if (! cycle.isEmpty())
-			dependencyHighlighter.showCyclicDependency(nodeScript);
+		EventQueue.invokeLater(() -> {
+			final Controller controller = Controller.getCurrentController();
+			controller.getViewController().out(TextUtils.getShortText(message, 80, "..."));
+			if (cycle.isEmpty() || controller.getMap() != nodeScript.node.getMap())
+				return;
+			final Configurable configurable = controller.getMapViewManager().getMapViewConfiguration();
+			new DependencyHighlighter(LinkController.getController(), configurable).showCycle(cycle);
+		});
 	}
 
 	public static RelatedElements getRelatedElements(final NodeModel node, final Object object) {
-		if (FormulaCache.ENABLE_CACHING && FormulaUtils.containsFormula(object)) {
+		if (FormulaCache.isCachingEnabled() && FormulaUtils.containsFormula(object)) {
 			final RelatedElements accessedValues = FormulaCache.of(node.getMap()).getAccessedValues(node,
 				scriptOf((String) object));
 			if (accessedValues != null)
@@ -174,20 +174,13 @@ public class FormulaUtils {
 	}
 
 	public static void evaluateAllFormulas(MapModel map) {
+		final FormulaEvaluationScheduler scheduler = new FormulaEvaluationScheduler(map);
 		clearCache(map);
-		evaluateOutdatedFormulas(map);
+		scheduler.evaluate();
 	}
 
 	public static void evaluateOutdatedFormulas(MapModel map) {
-		cacheAllRecursively(map.getRootNode());
-	}
-
-	static private void cacheAllRecursively(NodeModel node) {
-		cacheIfFormula(node, node.getUserObject());
-		NodeAttributeTableModel attributeTableModel = node.getExtension(NodeAttributeTableModel.class);
-		if(attributeTableModel != null)
-			attributeTableModel.getAttributes().stream().forEach(a -> cacheIfFormula(node, a.getValue()));
-		node.getChildren().stream().forEach(FormulaUtils::cacheAllRecursively);
+		new FormulaEvaluationScheduler(map).evaluate();
 	}
 
 	public static void cacheIfFormula(NodeModel node, Object maybeFormula) {
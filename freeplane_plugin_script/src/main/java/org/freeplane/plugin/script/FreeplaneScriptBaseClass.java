@@ -102,11 +102,12 @@ public abstract class FreeplaneScriptBaseClass extends Script {
 		}
 	}
 
-	private final Pattern nodeIdPattern = Pattern.compile("ID_\\d+");
+	private static final Pattern nodeIdPattern = Pattern.compile("ID_\\d+");
 	private final MetaClass nodeMetaClass;
 	private Object script;
 
 	private Map<Object, Object> boundVariables;
+	private Map<Object, Object> initialVariables;
 	private NodeRO node;
 	private ControllerRO controller;
 
@@ -156,6 +157,35 @@ public abstract class FreeplaneScriptBaseClass extends Script {
         }
 	}
 
+	/** creates an instance for repeated execution on different nodes, see {@link #rebind(NodeModel, ScriptContext)} */
+	FreeplaneScriptBaseClass createReusableInstance() {
+		try {
+			FreeplaneScriptBaseClass instance = getClass().newInstance();
+			instance.script = script;
+			instance.initialVariables = new LinkedHashMap<Object, Object>(getBinding().getVariables());
+			instance.setBinding(new Binding(new LinkedHashMap<Object, Object>(instance.initialVariables)));
+			return instance;
+		}
+		catch (InstantiationException | IllegalAccessException e) {
+			throw new RuntimeException(e);
+		}
+	}
+
+	/** binds an instance created by {@link #createReusableInstance()} to the given node.
+	 * The binding object is reused, variables assigned by the previous execution are reset. */
+	@SuppressWarnings("unchecked")
+	FreeplaneScriptBaseClass rebind(final NodeModel node, ScriptContext scriptContext) {
+		final Map<Object, Object> variables = getBinding().getVariables();
+		variables.clear();
+		variables.putAll(initialVariables);
+		this.controller = ProxyFactory.createController(scriptContext);
+		this.node = ProxyFactory.createNode(node, scriptContext);
+		variables.put("c", controller);
+		variables.put("node", this.node);
+		boundVariables = variables;
+		return this;
+	}
+
     protected Binding createBinding(NodeRO nodeProxy, ControllerRO controllerProxy) {
         Binding binding = new Binding(new LinkedHashMap(getBinding().getVariables()));
 		binding.setVariable("c", controllerProxy);
@@ -27,6 +27,7 @@ import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.Map.Entry;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 
 import org.codehaus.groovy.ast.ASTNode;
@@ -57,6 +58,17 @@ public class GroovyScript implements IScript {
 
 	private ScriptClassLoader scriptClassLoader;
 
+    private boolean reusesBinding = false;
+
+    // only accessed by the thread which has set reusableScriptInUse
+    private FreeplaneScriptBaseClass reusableScript;
+
+    private final AtomicBoolean reusableScriptInUse = new AtomicBoolean(false);
+
+    private ScriptingPermissions permissionsOfSecurityManager;
+
+    private ScriptingSecurityManager scriptingSecurityManager;
+
     public GroovyScript(String script) {
         this((Object) script);
     }
@@ -92,6 +104,14 @@ public class GroovyScript implements IScript {
         return compiledScript;
     }
 
+    /** Repeated executions share one script instance and its binding, only the node is exchanged.
+     * Variables assigned by the script are reset before each execution, but script fields keep their values.
+     * Nested or concurrent executions of the same script use new instances. */
+    public GroovyScript reusingBinding() {
+        reusesBinding = true;
+        return this;
+    }
+
     @Override
     public Object execute(final NodeModel node, PrintStream outStream, IFreeplaneScriptErrorHandler errorHandler, ScriptContext scriptContext) {
         try {
@@ -106,13 +126,20 @@ public class GroovyScript implements IScript {
                 FreeplaneScriptBaseClass scriptWithBinding = AccessController.doPrivileged(new PrivilegedAction<FreeplaneScriptBaseClass>() {
 					@Override
 					public FreeplaneScriptBaseClass run() {
-						return compiledScript.withBinding(node, scriptContext);
+						return bind(node, scriptContext);
 					}
 				});
-                if(oldOut != outStream)
-                	System.setOut(outStream);
-				final Object result = scriptWithBinding.run();
-				return result;
+                final boolean runsReusableScript = scriptWithBinding == reusableScript;
+                try {
+                	if(oldOut != outStream)
+                		System.setOut(outStream);
+                	final Object result = scriptWithBinding.run();
+                	return result;
+                }
+                finally {
+                	if(runsReusableScript)
+                		reusableScriptInUse.set(false);
+                }
             } finally {
                 if(oldOut != outStream)
                 	System.setOut(oldOut);
@@ -130,9 +157,36 @@ public class GroovyScript implements IScript {
         }
     }
 
+    private FreeplaneScriptBaseClass bind(final NodeModel node, ScriptContext scriptContext) {
+        if (!reusesBinding || !reusableScriptInUse.compareAndSet(false, true))
+            return compiledScript.withBinding(node, scriptContext);
+        try {
+            if (reusableScript == null || reusableScript.getClass() != compiledScript.getClass())
+                reusableScript = compiledScript.createReusableInstance();
+            return reusableScript.rebind(node, scriptContext);
+        }
+        catch (RuntimeException | Error e) {
+            reusableScriptInUse.set(false);
+            throw e;
+        }
+    }
+
     private ScriptingSecurityManager createScriptingSecurityManager(PrintStream outStream) {
-        return new ScriptSecurity(script, specificPermissions, outStream)
-                .getScriptingSecurityManager();
+        final ScriptSecurity scriptSecurity = new ScriptSecurity(script, specificPermissions, outStream);
+        final ScriptingPermissions permissions = scriptSecurity.permissions();
+        synchronized (this) {
+            if (scriptingSecurityManager != null && permissions.equals(permissionsOfSecurityManager))
+                return scriptingSecurityManager;
+        }
+        final ScriptingSecurityManager newScriptingSecurityManager = scriptSecurity.getScriptingSecurityManager(permissions);
+        // permissions requiring a confirmation are checked again on each execution
+        if (permissions.executeScriptsWithoutAsking()) {
+            synchronized (this) {
+                permissionsOfSecurityManager = permissions;
+                scriptingSecurityManager = newScriptingSecurityManager;
+            }
+        }
+        return newScriptingSecurityManager;
     }
 
     private void trustedCompileAndCache(PrintStream outStream) throws Throwable {
@@ -156,7 +210,7 @@ public class GroovyScript implements IScript {
 	}
 
     private static boolean accessPermissionCheckerChecked = false;
-    private Script compileAndCache(final ScriptingSecurityManager scriptingSecurityManager) throws Throwable {
+    private synchronized Script compileAndCache(final ScriptingSecurityManager scriptingSecurityManager) throws Throwable {
     	checkAccessPermissionCheckerExists();
     	if (compileTimeStrategy.canUseOldCompiledScript()) {
 			scriptClassLoader.setSecurityManager(scriptingSecurityManager);
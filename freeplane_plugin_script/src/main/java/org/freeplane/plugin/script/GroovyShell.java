@@ -29,15 +29,19 @@ import java.security.PermissionCollection;
 import java.security.Permissions;
 import java.security.PrivilegedAction;
 import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.io.FileUtils;
 import org.codehaus.groovy.control.CompilationFailedException;
 import org.codehaus.groovy.control.CompilationUnit;
 import org.codehaus.groovy.control.CompilerConfiguration;
 import org.codehaus.groovy.control.SourceUnit;
+import org.codehaus.groovy.control.customizers.CompilationCustomizer;
 import org.codehaus.groovy.runtime.DefaultGroovyMethods;
 import org.codehaus.groovy.runtime.EncodingGroovyMethods;
 import org.codehaus.groovy.runtime.InvokerHelper;
+import org.freeplane.core.util.Compat;
+import org.freeplane.core.util.FreeplaneVersion;
 import org.freeplane.core.util.LogUtils;
 
 import groovy.lang.Binding;
@@ -45,6 +49,7 @@ import groovy.lang.GroovyClassLoader;
 import groovy.lang.GroovyCodeSource;
 import groovy.lang.GroovyObjectSupport;
 import groovy.lang.GroovyRuntimeException;
+import groovy.lang.GroovySystem;
 import groovy.lang.Script;
 
 /**
@@ -61,6 +66,9 @@ class GroovyShell extends GroovyObjectSupport {
     }
 
     private static final String DEFAULT_CODE_BASE = "/groovy/shell";
+    static final String COMPILED_PROPERTIES = "compiled.properties";
+    static final String VERSION = "version";
+    private static final AtomicInteger compiledTextScriptCount = new AtomicInteger();
     private final Binding binding;
     private int counter;
     private final CompilerConfiguration config;
@@ -120,21 +128,23 @@ class GroovyShell extends GroovyObjectSupport {
 
 
     private Class parseClass(final GroovyCodeSource codeSource) {
-        GroovyClassLoader loader = createClassLoader();
+        GroovyClassLoader loader = createClassLoader(config);
         Class parsedClass = loader.parseClass(codeSource, false);
         return parsedClass;
     }
 
 
     private Class parseAndCache(final GroovyCodeSource codeSource) {
-        String md5;
-        try {
-            md5 = EncodingGroovyMethods.md5(codeSource.getName());
-        } catch (NoSuchAlgorithmException e) {
-            throw new RuntimeException(e);
+        if (codeSource.getFile() == null && codeSource.getScriptText() != null)
+            return parseAndCacheText(codeSource);
+        File cache = new File(ScriptResources.getCompiledScriptsDir(), md5(codeSource.getName()));
+        synchronized (CompiledTextScripts.lock(cache)) {
+            return parseAndCache(codeSource, cache);
         }
-        File cache = new File(ScriptResources.getCompiledScriptsDir(), md5);
-        File propertyFile = new File(cache, "compiled.properties");
+    }
+
+    private Class parseAndCache(final GroovyCodeSource codeSource, final File cache) {
+        File propertyFile = new File(cache, COMPILED_PROPERTIES);
         File classes = new File(cache, "classes");
         if (propertyFile.exists() && classes.exists()) {
             try (InputStream in = new FileInputStream(propertyFile)) {
@@ -145,7 +155,7 @@ class GroovyShell extends GroovyObjectSupport {
                 File sourceFile = new File(source);
                 if(sourceFile.canRead() && sourceFile.lastModified()< compileTime) {
                     String className = properties.getProperty("class");
-                    GroovyClassLoader loader = createClassLoader();
+                    GroovyClassLoader loader = createClassLoader(config);
                     loader.addURL(ScriptClassLoader.pathToUrl(classes));
                     return loader.loadClass(className);
                 }
@@ -162,9 +172,8 @@ class GroovyShell extends GroovyObjectSupport {
         File sourceFile = codeSource.getFile();
         if(sourceFile != null) {
             classes.mkdirs();
-            config.setTargetDirectory(classes);
             long time = System.currentTimeMillis();
-            GroovyClassLoader loader = createClassLoader();
+            GroovyClassLoader loader = createClassLoader(configurationWritingTo(classes));
             Class parsedClass = loader.parseClass(codeSource, false);
             try (FileOutputStream out = new FileOutputStream(propertyFile)){
                 Properties properties = new Properties();
@@ -182,11 +191,59 @@ class GroovyShell extends GroovyObjectSupport {
     }
 
 
-    private GroovyClassLoader createClassLoader() {
+    /**
+     * Compiled formulas and other script texts are cached by the hash of their text and of the compiler version,
+     * so that they are loaded from the previously written class files after restart.
+     * Script permissions are not part of the key because they are enforced by the security manager
+     * at run time and do not affect the byte code.
+     */
+    private Class parseAndCacheText(final GroovyCodeSource codeSource) {
+        final CompiledTextScripts compiledTextScripts = new CompiledTextScripts(
+            ScriptResources.getCompiledTextScriptsDir(), compiledTextScriptVersion());
+        final Class parsedClass = compiledTextScripts.loadOrCompile(codeSource.getScriptText(),
+            (classes, className) -> {
+                GroovyClassLoader loader = createClassLoader(config);
+                loader.addURL(ScriptClassLoader.pathToUrl(classes));
+                return loader.loadClass(className);
+            },
+            classes -> createClassLoader(configurationWritingTo(classes)).parseClass(codeSource, false));
+        if (compiledTextScriptCount.incrementAndGet() % CompiledScriptCleaner.TEXT_SCRIPT_CLEANING_INTERVAL == 0)
+            new CompiledScriptCleaner().removeLeastRecentlyUsedTextScripts();
+        return parsedClass;
+    }
+
+    /**
+     * The shared configuration is copied, so that other parses do not write class files to the given directory.
+     * The copy constructor does not copy compilation customizers in all Groovy versions.
+     */
+    private CompilerConfiguration configurationWritingTo(final File classes) {
+        final CompilerConfiguration configuration = new CompilerConfiguration(config);
+        if (configuration.getCompilationCustomizers().isEmpty())
+            configuration.addCompilationCustomizers(
+                config.getCompilationCustomizers().toArray(new CompilationCustomizer[0]));
+        configuration.setTargetDirectory(classes);
+        return configuration;
+    }
+
+    /** changes whenever cached script texts must be compiled again */
+    static String compiledTextScriptVersion() {
+        return FreeplaneVersion.getVersion() + "/" + GroovySystem.getVersion() + "/" + Compat.JAVA_VERSION
+                + "/" + ScriptResources.getClasspath();
+    }
+
+    private static String md5(final String text) {
+        try {
+            return EncodingGroovyMethods.md5(text);
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private GroovyClassLoader createClassLoader(final CompilerConfiguration configuration) {
         GroovyClassLoader loader = AccessController.doPrivileged(new PrivilegedAction<GroovyClassLoader>() {
             @Override
             public GroovyClassLoader run() {
-                return new MyGroovyClassLoader(parentLoader, config);
+                return new MyGroovyClassLoader(parentLoader, configuration);
             }
         });
         return loader;
@@ -0,0 +1,114 @@
+package org.freeplane.plugin.script;
+
+import java.awt.BorderLayout;
+import java.awt.Dimension;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.swing.BorderFactory;
+import javax.swing.JButton;
+import javax.swing.JDialog;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.Timer;
+import javax.swing.WindowConstants;
+
+import org.freeplane.core.ui.LabelAndMnemonicSetter;
+import org.freeplane.core.ui.components.UITools;
+import org.freeplane.core.util.TextUtils;
+
+/**
+ * Executes node scripts on the event dispatch thread in short slices.
+ *
+ * If the scripts do not finish within the first slice, a modal progress dialog is shown
+ * and the remaining slices are run by a timer, so that the user interface is repainted in between
+ * and the execution can be cancelled.
+ */
+class ScriptBatchExecution {
+	private static final long SLICE_DURATION_MILLIS = 200;
+
+	private final List<NodeScript> nodeScripts;
+	private final Consumer<NodeScript> executor;
+	private int executedScriptCount = 0;
+	private boolean cancelled = false;
+	private RuntimeException exception = null;
+
+	ScriptBatchExecution(List<NodeScript> nodeScripts) {
+		this(nodeScripts, nodeScript -> ScriptingEngine.executeScript(nodeScript.node, nodeScript.script));
+	}
+
+	ScriptBatchExecution(List<NodeScript> nodeScripts, Consumer<NodeScript> executor) {
+		this.nodeScripts = nodeScripts;
+		this.executor = executor;
+	}
+
+	/**
+	 * @return true if all scripts have been executed, false if the user has cancelled the execution
+	 * @throws ExecuteScriptException or any other runtime exception thrown by the first failing script,
+	 * remaining scripts are not executed
+	 */
+	boolean execute() {
+		executeSlice();
+		if (!isFinished())
+			showProgressUntilFinished();
+		if (exception != null)
+			throw exception;
+		return !cancelled;
+	}
+
+	private void executeSlice() {
+		final long sliceEnd = System.currentTimeMillis() + SLICE_DURATION_MILLIS;
+		try {
+			while (!isFinished() && System.currentTimeMillis() < sliceEnd) {
+				executor.accept(nodeScripts.get(executedScriptCount));
+				executedScriptCount++;
+			}
+		}
+		catch (RuntimeException e) {
+			exception = e;
+		}
+	}
+
+	private boolean isFinished() {
+		return cancelled || exception != null || executedScriptCount == nodeScripts.size();
+	}
+
+	private void showProgressUntilFinished() {
+		final JDialog dialog = new JDialog(UITools.getCurrentFrame(), TextUtils.getText("ExecuteScriptForAllNodes.text"), true);
+		dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+		dialog.addWindowListener(new WindowAdapter() {
+			@Override
+			public void windowClosing(WindowEvent e) {
+				cancelled = true;
+			}
+		});
+		final JProgressBar progressBar = new JProgressBar(0, nodeScripts.size());
+		progressBar.setStringPainted(true);
+		progressBar.setValue(executedScriptCount);
+		progressBar.setPreferredSize(new Dimension(400, progressBar.getPreferredSize().height));
+		final JButton cancelButton = new JButton();
+		LabelAndMnemonicSetter.setLabelAndMnemonic(cancelButton, TextUtils.getRawText("cancel"));
+		cancelButton.addActionListener(e -> cancelled = true);
+		final JPanel panel = new JPanel(new BorderLayout(10, 10));
+		panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+		panel.add(progressBar, BorderLayout.CENTER);
+		panel.add(cancelButton, BorderLayout.EAST);
+		dialog.getContentPane().add(panel);
+		dialog.pack();
+		dialog.setLocationRelativeTo(dialog.getOwner());
+		final Timer timer = new Timer(1, null);
+		timer.addActionListener(e -> {
+			executeSlice();
+			progressBar.setValue(executedScriptCount);
+			if (isFinished()) {
+				timer.stop();
+				dialog.dispose();
+			}
+		});
+		timer.start();
+		dialog.setVisible(true);
+		timer.stop();
+	}
+}
@@ -88,4 +88,9 @@ public class ScriptResources {
         return buildUserScriptsDir(COMPILED_SCRIPTS_DIRECTORY);
     }
 
+    /** compiled formulas and other script texts, kept apart from compiled script files to limit their number */
+    static File getCompiledTextScriptsDir() {
+        return new File(getCompiledScriptsDir(), "texts");
+    }
+
 }
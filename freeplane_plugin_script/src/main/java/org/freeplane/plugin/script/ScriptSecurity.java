@@ -42,10 +42,13 @@ public class ScriptSecurity {
     }
 
     ScriptingSecurityManager getScriptingSecurityManager() {
-        final ScriptingSecurityManager scriptingSecurityManager;
         // get preferences (and store them again after the script execution,
         // such that the scripts are not able to change them).
-        final ScriptingPermissions permissions = permissions();
+        return getScriptingSecurityManager(permissions());
+    }
+
+    ScriptingSecurityManager getScriptingSecurityManager(final ScriptingPermissions permissions) {
+        final ScriptingSecurityManager scriptingSecurityManager;
         permissions.assertScriptExecutionAllowed();
         final boolean executeSignedScripts = permissions
                 .isExecuteSignedScriptsWithoutRestriction();
@@ -62,7 +65,7 @@ public class ScriptSecurity {
                 outStream);
     }
 
-    private ScriptingPermissions permissions() {
+    ScriptingPermissions permissions() {
         if (specificPermissions != null) {
             return specificPermissions;
         } else {
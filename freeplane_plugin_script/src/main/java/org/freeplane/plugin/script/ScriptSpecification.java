@@ -1,4 +1,6 @@
 package org.freeplane.plugin.script;
 
 interface ScriptSpecification {
+	/** approximates the memory used by the compiled script by its source size */
+	int weight();
 }
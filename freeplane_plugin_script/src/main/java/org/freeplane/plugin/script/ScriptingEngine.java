@@ -20,6 +20,8 @@ package org.freeplane.plugin.script;
 
 import java.io.File;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
@@ -39,10 +41,14 @@ public class ScriptingEngine {
 	// need a File for caching! Scripts from String have to be cached elsewhere
     private static Map<File, IScript> fileScripts = new ConcurrentHashMap<File, IScript>();
     private static ConcurrentCache<ScriptSpecification, IScript> scripts
-    	= new ConcurrentCache(ScriptingEngine::getCompiledScriptCacheSize);
+    	= new ConcurrentCache<>(ScriptingEngine::getCompiledScriptCacheSize,
+    		ScriptingEngine::getCompiledScriptCacheCharacters, ScriptSpecification::weight);
     private static int getCompiledScriptCacheSize() {
 		return ResourceController.getResourceController().getIntProperty("compiled_script_cache_size");
 	}
+    private static long getCompiledScriptCacheCharacters() {
+		return ResourceController.getResourceController().getLongProperty("compiled_script_cache_characters", 0);
+	}
 	/**
 	 * @param permissions if null use default scripting permissions.
 	 * @return the result of the script, or null, if the user has cancelled.
@@ -131,14 +137,23 @@ public class ScriptingEngine {
             .execute(node);
     }
 
-	static void performScriptOperationRecursive(final NodeModel node) {
+	static void performScriptOperation(final NodeModel node) {
+		final List<NodeScript> nodeScripts = new ArrayList<NodeScript>();
+		collectNodeScripts(node, nodeScripts);
+		for (final NodeScript nodeScript : nodeScripts) {
+			executeScript(nodeScript.node, nodeScript.script);
+		}
+	}
+
+	/** collects scripts of attributes named script... from the branch, children first */
+	static void collectNodeScriptsRecursive(final NodeModel node, final List<NodeScript> nodeScripts) {
 		for (final NodeModel child : node.getChildren()) {
-			performScriptOperationRecursive(child);
+			collectNodeScriptsRecursive(child, nodeScripts);
 		}
-		performScriptOperation(node);
+		collectNodeScripts(node, nodeScripts);
 	}
 
-	static void performScriptOperation(final NodeModel node) {
+	private static void collectNodeScripts(final NodeModel node, final List<NodeScript> nodeScripts) {
 		final NodeAttributeTableModel attributes = NodeAttributeTableModel.getModel(node);
 		if (attributes == null) {
 			return;
@@ -149,11 +164,10 @@ public class ScriptingEngine {
 			if(value instanceof String){
 				final String script = (String) value;
 				if (attrKey.startsWith(ScriptingEngine.SCRIPT_PREFIX)) {
-					executeScript(node, script);
+					nodeScripts.add(new NodeScript(node, script));
 				}
 			}
 		}
-		return;
 	}
 
 	/** @deprecated use ScriptResources.getUserScriptDir() instead. */
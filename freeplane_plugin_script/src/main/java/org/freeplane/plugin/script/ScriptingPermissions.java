@@ -148,7 +148,7 @@ public class ScriptingPermissions {
 		return get(RESOURCES_SIGNED_SCRIPT_ARE_TRUSTED);
 	}
 
-	private boolean executeScriptsWithoutAsking() {
+	boolean executeScriptsWithoutAsking() {
 		return get(RESOURCES_EXECUTE_SCRIPTS_WITHOUT_ASKING);
 	}
 
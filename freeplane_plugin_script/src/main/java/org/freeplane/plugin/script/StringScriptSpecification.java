@@ -16,6 +16,10 @@ class StringScriptSpecification implements ScriptSpecification{
 		this.permissions = permissions;
 	}
 	@Override
+	public int weight() {
+		return source.length();
+	}
+	@Override
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
@@ -42,7 +42,7 @@ public class EvaluationDependencies implements IExtension{
 	private final WeakHashMap<MapModel, DependentNodeReferences> onMapDependencies = new WeakHashMap<>();
 
 	private final WeakHashMap<NodeModel, DependentNodeReferences> onNodeDependencies = new WeakHashMap<>();
-	// FIXME: organize node and branch dependencies in a tree?
+	// indexed by the branch root, a change is looked up for each ancestor of the changed node
 	private final WeakHashMap<NodeModel, DependentNodeReferences> onBranchDependencies = new WeakHashMap<>();
 	private final WeakHashMap<NodeModel, Void> onAnyNodeDependencies = new WeakHashMap<>();
 	private final WeakHashMap<NodeModel, Void> onGlobalNodeDependencies = new WeakHashMap<>();
@@ -51,12 +51,11 @@ public class EvaluationDependencies implements IExtension{
 		final Iterable<NodeModel> onNode = onNodeDependencies.get(accessedNode);
 		if (onNode != null)
 			getRecursively(accessingNodes, onNode);
-		ArrayList<Entry<NodeModel, DependentNodeReferences>> onBranchDependencyList = new ArrayList<>(onBranchDependencies.entrySet());
-		for (Entry<NodeModel, DependentNodeReferences> entry : onBranchDependencyList) {
-			final NodeModel branchNode = entry.getKey();
-			if (accessedNode.isDescendantOf(branchNode)) {
-				onBranchDependencies.get(branchNode);
-				getRecursively(accessingNodes, entry.getValue());
+		if (!onBranchDependencies.isEmpty()) {
+			for (NodeModel branchNode = accessedNode.getParentNode(); branchNode != null; branchNode = branchNode.getParentNode()) {
+				final Iterable<NodeModel> onBranch = onBranchDependencies.get(branchNode);
+				if (onBranch != null)
+					getRecursively(accessingNodes, onBranch);
 			}
 		}
 		if(! onAnyNodeDependencies.isEmpty()) {
@@ -11,6 +11,7 @@ import org.freeplane.features.attribute.Attribute;
 import org.freeplane.features.map.MapModel;
 import org.freeplane.features.map.NodeModel;
 
+/** Elements accessed by a formula, may be read by other threads than the evaluating one. */
 public class RelatedElements {
 	private final Map<Object, NodeModel> relatedElements;
 	private final NodeModel relatedNode;
@@ -21,18 +22,18 @@ public class RelatedElements {
 		relatedElements = new HashMap<Object, NodeModel>();
 	}
 
-	public void relateAttribute(final NodeModel relatedNode, final Attribute attribute) {
+	public synchronized void relateAttribute(final NodeModel relatedNode, final Attribute attribute) {
 		if (this.relatedNode.getMap() == relatedNode.getMap())
 			relatedElements.put(attribute, relatedNode);
 	}
 
-	public void relateNode(final NodeModel accessedNode) {
+	public synchronized void relateNode(final NodeModel accessedNode) {
 		if (relatedNode.getMap() == accessedNode.getMap()) {
 			relatedElements.put(accessedNode, accessedNode);
 		}
 	}
 
-	public void relateMap(final MapModel accessedMap) {
+	public synchronized void relateMap(final MapModel accessedMap) {
 		if (relatedNode.getMap() != accessedMap) {
 			add(accessedMap);
 		}
@@ -55,7 +55,7 @@ public class ScriptCondition extends ASelectableCondition {
 		super();
 		final ScriptingPermissions formulaPermissions = ScriptingPermissions.getFormulaPermissions();
 		this.source = script;
-		this.scriptRunner = new ScriptRunner(new GroovyScript(script, formulaPermissions));
+		this.scriptRunner = new ScriptRunner(new GroovyScript(script, formulaPermissions).reusingBinding());
 	}
 
 
@@ -801,6 +801,38 @@ class NodeProxy extends AbstractProxy<NodeModel> implements Proxy.Node {
 		return ProxyUtils.findAll(delegate, getScriptContext(), true);
     }
 
+	// NodeRO: R
+	@Override
+	public Stream<? extends Node> streamAll() {
+		final NodeModel delegate = getDelegate();
+		reportBranchAccess(delegate);
+		return ProxyUtils.streamAll(delegate, getScriptContext(), false);
+	}
+
+	// NodeRO: R
+	@Override
+	public Stream<? extends Node> streamAllDepthFirst() {
+		final NodeModel delegate = getDelegate();
+		reportBranchAccess(delegate);
+		return ProxyUtils.streamAll(delegate, getScriptContext(), true);
+	}
+
+	// NodeRO: R
+	@Override
+	public Iterable<? extends Node> iterateAll() {
+		final NodeModel delegate = getDelegate();
+		reportBranchAccess(delegate);
+		return ProxyUtils.iterateAll(delegate, getScriptContext(), false);
+	}
+
+	// NodeRO: R
+	@Override
+	public Iterable<? extends Node> iterateAllDepthFirst() {
+		final NodeModel delegate = getDelegate();
+		reportBranchAccess(delegate);
+		return ProxyUtils.iterateAll(delegate, getScriptContext(), true);
+	}
+
 	// NodeRO: R
 	@Override
 	public Date getLastModifiedAt() {
@@ -57,6 +57,23 @@ public class ProxyUtils {
 		return ProxyUtils.createNodeList(ProxyUtils.findImpl(null, node, depthFirst), scriptContext);
 	}
 
+	/** creates node proxies on demand, only as far as the stream is consumed.
+	 * The stream is sequential: proxies rely on the script permissions and formula stacks of the calling thread,
+	 * so that creating them on other threads throws an IllegalStateException. */
+	static Stream<Node> streamAll(final NodeModel node, final ScriptContext scriptContext, boolean depthFirst) {
+		final Stream<NodeModel> nodes = depthFirst ? NodeStream.bottomUpOf(node) : NodeStream.of(node);
+		final Thread callingThread = Thread.currentThread();
+		return nodes.map(nodeModel -> {
+			if (Thread.currentThread() != callingThread)
+				throw new IllegalStateException("node streams must be consumed sequentially by the thread creating them");
+			return new NodeProxy(nodeModel, scriptContext);
+		});
+	}
+
+	static Iterable<Node> iterateAll(final NodeModel node, final ScriptContext scriptContext, boolean depthFirst) {
+		return () -> streamAll(node, scriptContext, depthFirst).iterator();
+	}
+
 	static List<? extends Node> find(final Closure<Boolean> closure, final NodeModel node, final ScriptContext scriptContext) {
 		return ProxyUtils.find(createCondition(closure, scriptContext), node, scriptContext);
 	}
@@ -0,0 +1,166 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsynchronousFormulaEvaluationTest {
+	private MapModel map;
+	private FormulaCache cache;
+	private LinkedList<Runnable> events;
+	private List<NodeModel> refreshedNodes;
+	private AsynchronousFormulaEvaluation asynchronousEvaluation;
+	private int evaluations;
+
+	@Before
+	public void setup() {
+		map = new MapModel(null, null, null);
+		final NodeModel root = new NodeModel("root", map);
+		map.setRoot(root);
+		cache = new FormulaCache(() -> Long.MAX_VALUE);
+		map.addExtension(cache);
+		events = new LinkedList<>();
+		refreshedNodes = new ArrayList<>();
+		asynchronousEvaluation = new AsynchronousFormulaEvaluation(events::add, refreshedNodes::add);
+	}
+
+	private NodeModel node(final String text) {
+		final NodeModel node = new NodeModel(text, map);
+		map.getRootNode().insert(node);
+		return node;
+	}
+
+	/** evaluation returning the node text at evaluation time like a formula reading the node */
+	private Supplier<Object> evaluation(final NodeScript nodeScript) {
+		return () -> {
+			evaluations++;
+			final Object value = nodeScript.node.getText();
+			cache.put(nodeScript, new CachedResult(value, null));
+			return value;
+		};
+	}
+
+	private Object get(final NodeScript nodeScript) {
+		return asynchronousEvaluation.getOrEvaluateLater(nodeScript, evaluation(nodeScript));
+	}
+
+	private void processEvent() {
+		events.removeFirst().run();
+	}
+
+	@Test
+	public void evaluatesFormulaAfterReturningPlaceholder() {
+		final NodeScript nodeScript = new NodeScript(node("value"), "node.text");
+
+		assertThat(get(nodeScript)).isNull();
+		assertThat(evaluations).isEqualTo(0);
+		processEvent();
+
+		assertThat(evaluations).isEqualTo(1);
+		assertThat(refreshedNodes).containsExactly(nodeScript.node);
+		assertThat(get(nodeScript)).isEqualTo("value");
+		assertThat(events).isEmpty();
+	}
+
+	@Test
+	public void evaluatesRequestedFormulaOnce() {
+		final NodeScript nodeScript = new NodeScript(node("value"), "node.text");
+
+		get(nodeScript);
+		get(nodeScript);
+		assertThat(events.size()).isEqualTo(1);
+		processEvent();
+
+		assertThat(evaluations).isEqualTo(1);
+		assertThat(events).isEmpty();
+	}
+
+	@Test
+	public void evaluatesOneFormulaPerEvent() {
+		final NodeScript first = new NodeScript(node("first"), "node.text");
+		final NodeScript second = new NodeScript(node("second"), "node.text");
+
+		get(first);
+		get(second);
+		assertThat(events.size()).isEqualTo(1);
+		processEvent();
+
+		assertThat(refreshedNodes).containsExactly(first.node);
+		assertThat(events.size()).isEqualTo(1);
+		processEvent();
+
+		assertThat(refreshedNodes).containsExactly(first.node, second.node);
+		assertThat(evaluations).isEqualTo(2);
+	}
+
+	@Test
+	public void showsLastValueAndEvaluatesNodeEditedWhileEvaluationIsPending() {
+		final NodeScript nodeScript = new NodeScript(node("old value"), "node.text");
+		get(nodeScript);
+		processEvent();
+		cache.remove(nodeScript.node);
+
+		assertThat(get(nodeScript)).isEqualTo("old value");
+		nodeScript.node.setText("new value");
+		cache.remove(nodeScript.node);
+		assertThat(get(nodeScript)).isEqualTo("old value");
+		processEvent();
+
+		assertThat(evaluations).isEqualTo(2);
+		assertThat(get(nodeScript)).isEqualTo("new value");
+	}
+
+	@Test
+	public void skipsFormulaEvaluatedSinceItWasRequested() {
+		final NodeScript nodeScript = new NodeScript(node("value"), "node.text");
+		get(nodeScript);
+		evaluation(nodeScript).get();
+
+		processEvent();
+
+		assertThat(evaluations).isEqualTo(1);
+		assertThat(refreshedNodes).containsExactly(nodeScript.node);
+	}
+
+	@Test
+	public void continuesAfterFailedEvaluation() {
+		final NodeScript failing = new NodeScript(node("failing"), "fail()");
+		final NodeScript other = new NodeScript(node("other"), "node.text");
+		asynchronousEvaluation.getOrEvaluateLater(failing, () -> {
+			throw new ExecuteScriptException("failed");
+		});
+		get(other);
+
+		processEvent();
+		processEvent();
+
+		assertThat(refreshedNodes).containsExactly(failing.node, other.node);
+		assertThat(get(other)).isEqualTo("other");
+	}
+
+	@Test
+	public void evaluatesFormulasOnEventDispatchThread() throws Exception {
+		final AtomicReference<Boolean> evaluatedOnEventDispatchThread = new AtomicReference<>();
+		final AsynchronousFormulaEvaluation evaluationOnEventQueue = new AsynchronousFormulaEvaluation(
+		    EventQueue::invokeLater, refreshedNodes::add);
+		final NodeScript nodeScript = new NodeScript(node("value"), "node.text");
+
+		EventQueue.invokeAndWait(() -> evaluationOnEventQueue.getOrEvaluateLater(nodeScript, () -> {
+			evaluatedOnEventDispatchThread.set(EventQueue.isDispatchThread());
+			return null;
+		}));
+		EventQueue.invokeAndWait(() -> {});
+
+		assertThat(evaluatedOnEventDispatchThread.get()).isTrue();
+	}
+}
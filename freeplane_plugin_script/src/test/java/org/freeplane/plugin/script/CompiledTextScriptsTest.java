@@ -0,0 +1,129 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledTextScriptsTest {
+	private File directory;
+	private AtomicInteger compilations;
+	private AtomicInteger loads;
+
+	@Before
+	public void createDirectory() throws IOException {
+		directory = Files.createTempDirectory("compiled-texts").toFile();
+		compilations = new AtomicInteger();
+		loads = new AtomicInteger();
+	}
+
+	@After
+	public void deleteDirectory() throws IOException {
+		FileUtils.deleteDirectory(directory);
+	}
+
+	private Class<?> loadOrCompile(final CompiledTextScripts scripts, final String text) {
+		return scripts.loadOrCompile(text, (classes, className) -> {
+			assertThat(new File(classes, "Script.class").exists()).isTrue();
+			loads.incrementAndGet();
+			return Class.forName(className);
+		}, classes -> {
+			compilations.incrementAndGet();
+			try {
+				Thread.sleep(10);
+				new FileOutputStream(new File(classes, "Script.class")).close();
+			}
+			catch (InterruptedException | IOException e) {
+				throw new RuntimeException(e);
+			}
+			return String.class;
+		});
+	}
+
+	@Test
+	public void keyDependsOnTextAndVersion() {
+		final CompiledTextScripts scripts = new CompiledTextScripts(directory, "1");
+
+		assertThat(scripts.key("text")).isEqualTo(new CompiledTextScripts(directory, "1").key("text"));
+		assertThat(scripts.key("text")).isNotEqualTo(scripts.key("other text"));
+		assertThat(scripts.key("text")).isNotEqualTo(new CompiledTextScripts(directory, "2").key("text"));
+	}
+
+	@Test
+	public void loadsCompiledClassFromCache() {
+		final CompiledTextScripts scripts = new CompiledTextScripts(directory, "1");
+
+		assertThat(loadOrCompile(scripts, "text")).isSameAs(String.class);
+		assertThat(loadOrCompile(new CompiledTextScripts(directory, "1"), "text")).isSameAs(String.class);
+
+		assertThat(compilations.get()).isEqualTo(1);
+		assertThat(loads.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void compilesAgainForOtherVersion() {
+		loadOrCompile(new CompiledTextScripts(directory, "1"), "text");
+		loadOrCompile(new CompiledTextScripts(directory, "2"), "text");
+
+		assertThat(compilations.get()).isEqualTo(2);
+		assertThat(loads.get()).isEqualTo(0);
+	}
+
+	@Test
+	public void compilesSameTextOnceForConcurrentRequests() throws Exception {
+		final CompiledTextScripts scripts = new CompiledTextScripts(directory, "1");
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Thread> threads = new ArrayList<>();
+		final AtomicInteger results = new AtomicInteger();
+		for (int i = 0; i < 8; i++) {
+			final Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+				if (loadOrCompile(scripts, "text") == String.class)
+					results.incrementAndGet();
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+
+		assertThat(results.get()).isEqualTo(8);
+		assertThat(compilations.get()).isEqualTo(1);
+		assertThat(loads.get()).isEqualTo(7);
+	}
+
+	@Test
+	public void cleanerRemovesLeastRecentlyUsedTexts() {
+		final CompiledTextScripts scripts = new CompiledTextScripts(directory, "1");
+		final String[] texts = { "a", "b", "c", "d" };
+		for (int i = 0; i < texts.length; i++) {
+			loadOrCompile(scripts, texts[i]);
+			new File(scripts.cacheDirectory(texts[i]), GroovyShell.COMPILED_PROPERTIES)
+			    .setLastModified(1000000L * (i + 1));
+		}
+
+		CompiledScriptCleaner.removeLeastRecentlyUsed(directory, 2);
+
+		assertThat(scripts.cacheDirectory("a").exists()).isFalse();
+		assertThat(scripts.cacheDirectory("b").exists()).isFalse();
+		assertThat(scripts.cacheDirectory("c").exists()).isTrue();
+		assertThat(scripts.cacheDirectory("d").exists()).isTrue();
+	}
+}
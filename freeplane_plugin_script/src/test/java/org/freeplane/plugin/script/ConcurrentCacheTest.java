@@ -0,0 +1,140 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class ConcurrentCacheTest {
+	@Test
+	public void returnsCachedValue() {
+		final ConcurrentCache<String, Object> cache = new ConcurrentCache<>(() -> 10);
+		final Object value = cache.computeIfAbsent("key", Object::new);
+
+		assertThat(cache.computeIfAbsent("key", Object::new)).isSameAs(value);
+		assertThat(cache.getHitCount()).isEqualTo(1L);
+		assertThat(cache.getMissCount()).isEqualTo(1L);
+	}
+
+	@Test
+	public void evictsEntriesExceedingMaximumSize() {
+		final ConcurrentCache<Integer, Object> cache = new ConcurrentCache<>(() -> 16);
+		for (int i = 0; i < 160; i++)
+			cache.computeIfAbsent(i, Object::new);
+
+		assertThat(cache.size()).isEqualTo(16);
+		assertThat(cache.getEvictionCount()).isEqualTo(144L);
+	}
+
+	@Test
+	public void evictsEntriesExceedingMaximumWeight() {
+		final ConcurrentCache<String, Object> cache = new ConcurrentCache<>(() -> 1000, () -> 1600, String::length);
+		final StringBuilder key = new StringBuilder();
+		for (int i = 0; i < 100; i++) {
+			key.append('x');
+			cache.computeIfAbsent(key.toString(), Object::new);
+		}
+
+		assertThat(cache.weight() <= 1600 + 100).isTrue();
+		assertThat(cache.getEvictionCount() > 0).isTrue();
+	}
+
+	@Test
+	public void doesNotCacheWithZeroSize() {
+		final ConcurrentCache<String, Object> cache = new ConcurrentCache<>(() -> 0);
+		final Object value = cache.computeIfAbsent("key", Object::new);
+
+		assertThat(cache.computeIfAbsent("key", Object::new)).isNotSameAs(value);
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void keepsMaximumSizeEntriesWhateverTheirSegments() {
+		final ConcurrentCache<Integer, Object> cache = new ConcurrentCache<>(() -> 200);
+		for (int i = 0; i < 200; i++)
+			cache.computeIfAbsent(i, Object::new);
+
+		assertThat(cache.size()).isEqualTo(200);
+		assertThat(cache.getEvictionCount()).isEqualTo(0L);
+	}
+
+	@Test
+	public void keepsEntriesUpToMaximumWeightWhateverTheirSegments() {
+		final ConcurrentCache<Integer, Object> cache = new ConcurrentCache<>(() -> 1000, () -> 100, key -> 1);
+		for (int i = 0; i < 100; i++)
+			cache.computeIfAbsent(i, Object::new);
+
+		assertThat(cache.weight()).isEqualTo(100L);
+		assertThat(cache.getEvictionCount()).isEqualTo(0L);
+	}
+
+	@Test
+	public void doesNotCacheWithZeroWeight() {
+		final ConcurrentCache<String, Object> cache = new ConcurrentCache<>(() -> 10, () -> 0, String::length);
+		final Object value = cache.computeIfAbsent("key", Object::new);
+
+		assertThat(cache.computeIfAbsent("key", Object::new)).isNotSameAs(value);
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void keepsLastEntryExceedingMaximumWeight() {
+		final ConcurrentCache<String, Object> cache = new ConcurrentCache<>(() -> 10, () -> 5, String::length);
+		cache.computeIfAbsent("a", Object::new);
+		final Object value = cache.computeIfAbsent("long key", Object::new);
+
+		assertThat(cache.computeIfAbsent("long key", Object::new)).isSameAs(value);
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void forgetsFailedComputations() {
+		final ConcurrentCache<String, Object> cache = new ConcurrentCache<>(() -> 10);
+		try {
+			cache.computeIfAbsent("key", () -> {throw new IllegalStateException();});
+		}
+		catch (IllegalStateException e) {
+		}
+		final Object value = cache.computeIfAbsent("key", Object::new);
+
+		assertThat(cache.computeIfAbsent("key", Object::new)).isSameAs(value);
+	}
+
+	@Test
+	public void computesValueOnceForConcurrentRequests() throws InterruptedException {
+		final ConcurrentCache<String, Object> cache = new ConcurrentCache<>(() -> 10);
+		final AtomicInteger computationCount = new AtomicInteger();
+		final CountDownLatch start = new CountDownLatch(1);
+		final List<Object> values = new ArrayList<>();
+		final List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			final Thread thread = new Thread(() -> {
+				try {
+					start.await();
+				}
+				catch (InterruptedException e) {
+					return;
+				}
+				final Object value = cache.computeIfAbsent("key", () -> {
+					computationCount.incrementAndGet();
+					return new Object();
+				});
+				synchronized (values) {
+					values.add(value);
+				}
+			});
+			thread.start();
+			threads.add(thread);
+		}
+		start.countDown();
+		for (Thread thread : threads)
+			thread.join();
+
+		assertThat(computationCount.get()).isEqualTo(1);
+		assertThat(values.stream().distinct().count()).isEqualTo(1L);
+	}
+}
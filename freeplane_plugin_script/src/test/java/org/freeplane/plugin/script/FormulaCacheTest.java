@@ -0,0 +1,97 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.plugin.script.dependencies.RelatedElements;
+import org.junit.Test;
+
+public class FormulaCacheTest {
+	private final MapModel map = new MapModel(null, null, null);
+	private long maximumWeight = Long.MAX_VALUE;
+	private final FormulaCache cache = new FormulaCache(() -> maximumWeight);
+
+	private NodeModel node(final String text) {
+		final NodeModel node = new NodeModel(text, map);
+		node.getIndexInMap();
+		return node;
+	}
+
+	private void put(final NodeModel node, final String script, final Object value, final NodeModel... accessedNodes) {
+		final RelatedElements relatedElements = new RelatedElements(node);
+		for (final NodeModel accessedNode : accessedNodes)
+			relatedElements.relateNode(accessedNode);
+		cache.put(new NodeScript(node, script), new CachedResult(value, relatedElements));
+	}
+
+	private Object get(final NodeModel node, final String script) {
+		return cache.getOrThrowCachedResult(new NodeScript(node, script));
+	}
+
+	@Test
+	public void returnsResultsOfFormulasOfEachNode() {
+		final NodeModel first = node("first");
+		final NodeModel second = node("second");
+		put(first, "=1", 1);
+		put(first, "=2", 2);
+		put(second, "=1", 3);
+
+		assertThat(get(first, "=1")).isEqualTo(1);
+		assertThat(get(first, "=2")).isEqualTo(2);
+		assertThat(get(second, "=1")).isEqualTo(3);
+		assertThat(get(second, "=2")).isNull();
+		assertThat(cache.getWeight()).isEqualTo(3);
+	}
+
+	@Test
+	public void replacesResultOfTheSameFormula() {
+		final NodeModel node = node("node");
+		final NodeModel accessed = node("accessed");
+		put(node, "=1", 1, accessed);
+		put(node, "=1", 2);
+
+		assertThat(get(node, "=1")).isEqualTo(2);
+		assertThat(cache.getWeight()).isEqualTo(1);
+	}
+
+	@Test
+	public void evictsUnusedResultsAndKeepsRecentlyReadOnes() {
+		final NodeModel read = node("read");
+		final NodeModel unused = node("unused");
+		final NodeModel other = node("other");
+		final NodeModel added = node("added");
+		maximumWeight = 3;
+		put(read, "=1", 1);
+		put(unused, "=1", 2);
+		put(other, "=1", 3);
+		get(read, "=1");
+		put(added, "=1", 4);
+
+		assertThat(get(read, "=1")).isEqualTo(1);
+		assertThat(get(unused, "=1")).isNull();
+		assertThat(get(added, "=1")).isEqualTo(4);
+		assertThat(cache.getWeight()).isEqualTo(3);
+	}
+
+	@Test
+	public void keepsAddedResultExceedingTheLimitAlone() {
+		final NodeModel node = node("node");
+		maximumWeight = 2;
+		put(node, "=1", 1, node("a"), node("b"), node("c"));
+
+		assertThat(get(node, "=1")).isEqualTo(1);
+		assertThat(cache.getWeight()).isEqualTo(4);
+	}
+
+	@Test
+	public void keepsLastValueOfRemovedResult() {
+		final NodeModel node = node("node");
+		put(node, "=1", 1, node("a"), node("b"));
+		cache.remove(node);
+
+		assertThat(get(node, "=1")).isNull();
+		assertThat(cache.getLastValue(new NodeScript(node, "=1"))).isEqualTo(1);
+		assertThat(cache.getWeight()).isEqualTo(1);
+	}
+}
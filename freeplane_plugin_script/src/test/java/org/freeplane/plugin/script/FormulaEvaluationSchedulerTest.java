@@ -0,0 +1,77 @@
+package org.freeplane.plugin.script;
+
+import static java.util.Arrays.asList;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.freeplane.plugin.script.FormulaEvaluationScheduler.Schedule;
+import org.junit.Test;
+
+public class FormulaEvaluationSchedulerTest {
+	private final Map<String, List<String>> precedents = new HashMap<>();
+
+	private void read(final String item, final String... itemPrecedents) {
+		precedents.put(item, asList(itemPrecedents));
+	}
+
+	private Schedule<String> schedule(final String... items) {
+		return FormulaEvaluationScheduler.schedule(asList(items), this::precedentsOf);
+	}
+
+	private Collection<String> precedentsOf(final String item) {
+		return precedents.getOrDefault(item, Collections.emptyList());
+	}
+
+	@Test
+	public void keepsOrderOfIndependentItems() {
+		final Schedule<String> schedule = schedule("a", "b", "c");
+		assertThat(schedule.order).containsExactly("a", "b", "c");
+		assertThat(schedule.cycles).isEmpty();
+	}
+
+	@Test
+	public void placesItemsAfterTheirPrecedents() {
+		read("a", "c");
+		read("b", "a", "d");
+		final Schedule<String> schedule = schedule("a", "b", "c", "d");
+		assertThat(schedule.order).containsExactly("c", "a", "d", "b");
+		assertThat(schedule.cycles).isEmpty();
+	}
+
+	@Test
+	public void ignoresPrecedentsWhichAreNoItemsAndSelfReferences() {
+		read("a", "x", "a");
+		final Schedule<String> schedule = schedule("a", "b");
+		assertThat(schedule.order).containsExactly("a", "b");
+		assertThat(schedule.cycles).isEmpty();
+	}
+
+	@Test
+	public void schedulesLongChainsWithoutRecursion() {
+		final String[] items = new String[100000];
+		for (int i = 0; i < items.length; i++) {
+			items[i] = Integer.toString(i);
+			if (i > 0)
+				read(items[i - 1], items[i]);
+		}
+		final Schedule<String> schedule = schedule(items);
+		assertThat(schedule.order.get(0)).isEqualTo(items[items.length - 1]);
+		assertThat(schedule.order.get(items.length - 1)).isEqualTo(items[0]);
+	}
+
+	@Test
+	public void reportsCyclesAndAppendsTheirItems() {
+		read("a", "c");
+		read("c", "b");
+		read("b", "a");
+		read("d", "b");
+		final Schedule<String> schedule = schedule("a", "b", "c", "d", "e");
+		assertThat(schedule.order).containsExactly("e", "a", "b", "c", "d");
+		assertThat(schedule.cycles).containsExactly(asList("b", "c", "a", "b"));
+	}
+}
@@ -0,0 +1,79 @@
+package org.freeplane.plugin.script;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.mode.mindmapmode.MModeController;
+import org.junit.Test;
+
+public class ScriptBatchExecutionTest {
+	private final List<NodeScript> nodeScripts = Arrays.asList(new NodeScript(null, "first"),
+	    new NodeScript(null, "second"), new NodeScript(null, "third"));
+	private final List<String> executedScripts = new ArrayList<>();
+
+	private ScriptBatchExecution executionFailingAt(final String failingScript, final RuntimeException exception) {
+		return new ScriptBatchExecution(nodeScripts, nodeScript -> {
+			executedScripts.add(nodeScript.script);
+			if (nodeScript.script.equals(failingScript))
+				throw exception;
+		});
+	}
+
+	@Test
+	public void executesAllScriptsInOrder() {
+		assertThat(executionFailingAt(null, null).execute()).isEqualTo(true);
+
+		assertThat(executedScripts).isEqualTo(Arrays.asList("first", "second", "third"));
+	}
+
+	@Test
+	public void stopsAtFirstFailingScript() {
+		final IllegalStateException exception = new IllegalStateException();
+		RuntimeException thrownException = null;
+		try {
+			executionFailingAt("second", exception).execute();
+		}
+		catch (IllegalStateException e) {
+			thrownException = e;
+		}
+
+		assertThat(thrownException).isSameAs(exception);
+
+		assertThat(executedScripts).isEqualTo(Arrays.asList("first", "second"));
+	}
+
+	@Test
+	public void commitsCompletedExecution() {
+		final MModeController modeController = mock(MModeController.class);
+		final MapModel map = mock(MapModel.class);
+
+		ExecuteScriptForAllNodes.executeInTransaction(modeController, map, executionFailingAt(null, null));
+
+		verify(modeController).startTransaction();
+		verify(modeController).delayedCommit(map);
+		verify(modeController, never()).delayedRollback(map);
+	}
+
+	@Test
+	public void rollsBackExecutionFailingWithAnyRuntimeException() {
+		final MModeController modeController = mock(MModeController.class);
+		final MapModel map = mock(MapModel.class);
+		try {
+			ExecuteScriptForAllNodes.executeInTransaction(modeController, map,
+			    executionFailingAt("second", new IllegalStateException()));
+		}
+		catch (IllegalStateException e) {
+		}
+
+		verify(modeController).startTransaction();
+		verify(modeController).delayedRollback(map);
+		verify(modeController, never()).delayedCommit(map);
+	}
+}
@@ -0,0 +1,54 @@
+package org.freeplane.plugin.script.dependencies;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+
+/**
+ * Measures the lookup of formulas to update after a single text edit
+ * in a map with many formulas reading branches of other nodes.
+ *
+ * Usage: EvaluationDependenciesBenchmark [formula count] [repetitions]
+ */
+public class EvaluationDependenciesBenchmark {
+	private static final int DEPTH = 10;
+
+	public static void main(final String[] args) {
+		final int formulaCount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		final int repetitions = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+		final MapModel map = new MapModel(null, null, null);
+		final NodeModel root = new NodeModel("root", map);
+		map.setRoot(root);
+		final EvaluationDependencies dependencies = new EvaluationDependencies();
+		final NodeModel formulas = new NodeModel("formulas", map);
+		root.insert(formulas, 0);
+		NodeModel editedNode = null;
+		for (int i = 0; i < formulaCount; i++) {
+			NodeModel branch = root;
+			for (int level = 0; level < DEPTH; level++) {
+				final NodeModel child = new NodeModel("node " + i + "/" + level, map);
+				branch.insert(child, branch.getChildCount());
+				branch = child;
+			}
+			final NodeModel formula = new NodeModel("=node.parent.find{true}.size()", map);
+			formulas.insert(formula, formulas.getChildCount());
+			dependencies.accessBranch(formula, branch.getParentNode());
+			if (editedNode == null)
+				editedNode = branch;
+		}
+		for (int round = 0; round < 3; round++) {
+			final long start = System.nanoTime();
+			int dependentCount = 0;
+			for (int i = 0; i < repetitions; i++) {
+				final Set<NodeModel> accessingNodes = new LinkedHashSet<>();
+				dependencies.getChangedDependencies(accessingNodes, editedNode);
+				dependentCount += accessingNodes.size();
+			}
+			final long nanosPerEdit = (System.nanoTime() - start) / repetitions;
+			System.out.println(formulaCount + " branch dependent formulas: " + nanosPerEdit + " ns per edit, "
+			        + dependentCount / repetitions + " dependent formula(s)");
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package org.freeplane.plugin.script.dependencies;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EvaluationDependenciesTest {
+	private MapModel map;
+	private NodeModel root;
+	private EvaluationDependencies dependencies;
+
+	@Before
+	public void setup() {
+		map = new MapModel(null, null, null);
+		root = new NodeModel("root", map);
+		map.setRoot(root);
+		dependencies = new EvaluationDependencies();
+	}
+
+	private NodeModel child(final NodeModel parent, final String text) {
+		final NodeModel child = new NodeModel(text, map);
+		parent.insert(child, parent.getChildCount());
+		return child;
+	}
+
+	private Set<NodeModel> changedDependencies(final NodeModel changedNode) {
+		final Set<NodeModel> accessingNodes = new LinkedHashSet<>();
+		dependencies.getChangedDependencies(accessingNodes, changedNode);
+		return accessingNodes;
+	}
+
+	@Test
+	public void findsFormulasReadingBranchOfAnyAncestor() {
+		final NodeModel branch = child(root, "branch");
+		final NodeModel subBranch = child(branch, "subBranch");
+		final NodeModel leaf = child(subBranch, "leaf");
+		final NodeModel branchFormula = child(root, "=branch");
+		final NodeModel subBranchFormula = child(root, "=subBranch");
+		dependencies.accessBranch(branchFormula, branch);
+		dependencies.accessBranch(subBranchFormula, subBranch);
+
+		assertThat(changedDependencies(leaf)).containsExactlyInAnyOrder(branchFormula, subBranchFormula);
+		assertThat(changedDependencies(subBranch)).containsExactly(branchFormula);
+	}
+
+	@Test
+	public void ignoresFormulasReadingOtherBranches() {
+		final NodeModel branch = child(root, "branch");
+		final NodeModel otherBranch = child(root, "otherBranch");
+		final NodeModel leaf = child(otherBranch, "leaf");
+		final NodeModel formula = child(root, "=branch");
+		dependencies.accessBranch(formula, branch);
+
+		assertThat(changedDependencies(leaf)).isEmpty();
+		assertThat(changedDependencies(branch)).isEmpty();
+	}
+
+	@Test
+	public void findsFormulasDependingOnChangedFormulas() {
+		final NodeModel branch = child(root, "branch");
+		final NodeModel leaf = child(branch, "leaf");
+		final NodeModel branchFormula = child(root, "=branch");
+		final NodeModel nodeFormula = child(root, "=node");
+		dependencies.accessBranch(branchFormula, branch);
+		dependencies.accessNode(nodeFormula, branchFormula);
+
+		assertThat(changedDependencies(leaf)).containsExactly(branchFormula, nodeFormula);
+	}
+
+	@Test
+	public void usesCurrentPositionOfMovedNodes() {
+		final NodeModel branch = child(root, "branch");
+		final NodeModel otherBranch = child(root, "otherBranch");
+		final NodeModel leaf = child(branch, "leaf");
+		final NodeModel formula = child(root, "=branch");
+		dependencies.accessBranch(formula, branch);
+		branch.remove(0);
+		otherBranch.insert(leaf, 0);
+
+		assertThat(changedDependencies(leaf)).isEmpty();
+	}
+}
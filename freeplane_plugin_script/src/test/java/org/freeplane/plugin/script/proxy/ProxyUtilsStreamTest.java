@@ -0,0 +1,99 @@
+package org.freeplane.plugin.script.proxy;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.freeplane.api.Node;
+import org.freeplane.features.map.MapModel;
+import org.freeplane.features.map.NodeModel;
+import org.freeplane.plugin.script.ScriptContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentMatchers;
+
+public class ProxyUtilsStreamTest {
+	private NodeModel root;
+	private ScriptContext scriptContext;
+
+	@Before
+	public void setup() {
+		final MapModel map = new MapModel(null, null, null);
+		root = new NodeModel("root", map);
+		map.setRoot(root);
+		final NodeModel child1 = new NodeModel("child 1", map);
+		root.insert(child1);
+		child1.insert(new NodeModel("grandchild 1", map));
+		root.insert(new NodeModel("child 2", map));
+		scriptContext = mock(ScriptContext.class);
+	}
+
+	private static List<String> texts(final Stream<Node> nodes) {
+		return nodes.map(node -> ((NodeProxy) node).getDelegate().getText()).collect(Collectors.toList());
+	}
+
+	@Test
+	public void streamsNodesInFindAllOrder() {
+		assertThat(texts(ProxyUtils.streamAll(root, scriptContext, false)))
+		    .isEqualTo(Arrays.asList("root", "child 1", "grandchild 1", "child 2"));
+		assertThat(texts(ProxyUtils.streamAll(root, scriptContext, true)))
+		    .isEqualTo(Arrays.asList("grandchild 1", "child 1", "child 2", "root"));
+	}
+
+	@Test
+	public void createsNoProxiesBeforeConsumption() {
+		ProxyUtils.streamAll(root, scriptContext, false);
+		ProxyUtils.iterateAll(root, scriptContext, false);
+
+		verify(scriptContext, times(0)).accessNode(ArgumentMatchers.any(NodeModel.class));
+	}
+
+	@Test
+	public void stopsTraversalWhenStreamTerminatesEarly() {
+		final Node first = ProxyUtils.streamAll(root, scriptContext, false)
+		    .filter(node -> ((NodeProxy) node).getDelegate().getText().startsWith("child"))
+		    .findFirst().get();
+
+		assertThat(((NodeProxy) first).getDelegate().getText()).isEqualTo("child 1");
+		verify(scriptContext, times(2)).accessNode(ArgumentMatchers.any(NodeModel.class));
+	}
+
+	@Test
+	public void stopsTraversalWhenIterationBreaks() {
+		final Iterator<Node> iterator = ProxyUtils.iterateAll(root, scriptContext, false).iterator();
+		iterator.next();
+
+		verify(scriptContext, times(1)).accessNode(ArgumentMatchers.any(NodeModel.class));
+	}
+
+	@Test
+	public void returnsSequentialStreams() {
+		assertThat(ProxyUtils.streamAll(root, scriptContext, false).isParallel()).isEqualTo(false);
+	}
+
+	@Test
+	public void rejectsConsumptionByOtherThreads() throws InterruptedException {
+		final Stream<Node> nodes = ProxyUtils.streamAll(root, scriptContext, false);
+		final List<Throwable> exceptions = new ArrayList<>();
+		final Thread thread = new Thread(() -> {
+			try {
+				nodes.count();
+			}
+			catch (IllegalStateException e) {
+				exceptions.add(e);
+			}
+		});
+		thread.start();
+		thread.join();
+
+		assertThat(exceptions.size()).isEqualTo(1);
+	}
+}